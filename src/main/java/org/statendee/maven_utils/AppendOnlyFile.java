@@ -0,0 +1,108 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@link AppendOnlyFile} is a text file that records progress line by line, like the checkpoint
+ * of a {@link RepositoryCrawler} or the journal of an {@link ArtifactMirror}. Every appended line
+ * is flushed at once, so the file survives a process that is killed at any point; only its last
+ * line may be incomplete.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+final class AppendOnlyFile implements AutoCloseable {
+
+  /**
+   * The writer of the file.
+   *
+   * @since 0.3.0
+   */
+  private final Writer writer;
+
+  /**
+   * Opens a file for appending lines.
+   *
+   * @param path the file.
+   * @param append {@code true} to append to the existing lines, {@code false} to replace them.
+   * @throws IOException if the file cannot be opened.
+   * @since 0.3.0
+   */
+  AppendOnlyFile(Path path, boolean append) throws IOException {
+    writer =
+        Files.newBufferedWriter(
+            path,
+            StandardCharsets.UTF_8,
+            append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Reads the complete lines of a file. An incomplete last line, e.g. of a process that was killed
+   * while writing, is removed from the file.
+   *
+   * @param path the file.
+   * @return the complete lines or an empty {@link List} if the file does not exist or is empty.
+   * @throws IOException if the file cannot be read.
+   * @since 0.3.0
+   */
+  static List<String> readLines(Path path) throws IOException {
+    if (!Files.exists(path)) return Collections.emptyList();
+    byte[] bytes = Files.readAllBytes(path);
+    int length = bytes.length;
+    while (length > 0 && bytes[length - 1] != '\n') length--;
+    if (length < bytes.length)
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        channel.truncate(length);
+      }
+    if (length == 0) return Collections.emptyList();
+    return Arrays.asList(new String(bytes, 0, length, StandardCharsets.UTF_8).split("\n"));
+  }
+
+  /**
+   * Appends lines to the file and flushes them.
+   *
+   * @param lines the lines including their line breaks.
+   * @throws IOException if the lines cannot be written.
+   * @since 0.3.0
+   */
+  void append(String lines) throws IOException {
+    synchronized (writer) {
+      writer.write(lines);
+      writer.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (writer) {
+      writer.close();
+    }
+  }
+}
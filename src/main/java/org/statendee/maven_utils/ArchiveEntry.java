@@ -0,0 +1,104 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+/**
+ * An {@link ArchiveEntry} is an entry of the central directory of a {@link RemoteArchive}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ArchiveEntry {
+
+  /**
+   * The name of the entry, e.g. {@code META-INF/MANIFEST.MF}.
+   *
+   * @since 0.3.0
+   */
+  public final String name;
+
+  /**
+   * The compression method, {@code 0} (stored) or {@code 8} (deflated).
+   *
+   * @since 0.3.0
+   */
+  public final int method;
+
+  /**
+   * The CRC-32 of the uncompressed content.
+   *
+   * @since 0.3.0
+   */
+  public final long crc;
+
+  /**
+   * The compressed size in bytes.
+   *
+   * @since 0.3.0
+   */
+  public final long compressedSize;
+
+  /**
+   * The uncompressed size in bytes.
+   *
+   * @since 0.3.0
+   */
+  public final long size;
+
+  /**
+   * The position of the local file header in the archive.
+   *
+   * @since 0.3.0
+   */
+  final long localHeaderOffset;
+
+  /**
+   * Creates an instance of {@link ArchiveEntry}.
+   *
+   * @param name the name of the entry.
+   * @param method the compression method.
+   * @param crc the CRC-32 of the uncompressed content.
+   * @param compressedSize the compressed size in bytes.
+   * @param size the uncompressed size in bytes.
+   * @param localHeaderOffset the position of the local file header in the archive.
+   * @since 0.3.0
+   */
+  ArchiveEntry(
+      String name, int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+    this.name = name;
+    this.method = method;
+    this.crc = crc;
+    this.compressedSize = compressedSize;
+    this.size = size;
+    this.localHeaderOffset = localHeaderOffset;
+  }
+
+  /**
+   * Returns {@code true} if the entry is a directory.
+   *
+   * @return {@code true} if the name of the entry ends with a slash.
+   * @since 0.3.0
+   */
+  public boolean isDirectory() {
+    return name.endsWith("/");
+  }
+
+  @Override
+  public String toString() {
+    return name + " (" + size + " bytes)";
+  }
+}
@@ -0,0 +1,551 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * An {@link ArchiveExtractor} extracts a zip (or jar) or a {@code tar.gz} archive while it is
+ * read, without storing the archive itself.
+ *
+ * <p>Entries are written to a staging directory next to the target directory as they arrive. Only
+ * if the whole archive was extracted (and its SHA-1 matches, if one is expected) the staging
+ * directory replaces the target directory, so the target directory never contains a partial
+ * extraction. Entries that would be written outside of the target directory (zip slip) fail the
+ * extraction; links in {@code tar} archives are skipped.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+final class ArchiveExtractor {
+
+  /**
+   * The size of a {@code tar} block.
+   *
+   * @since 0.3.0
+   */
+  private static final int BLOCK_SIZE = 512;
+
+  /**
+   * The SHA-1 the archive is expected to have or {@code null} if it is not verified.
+   *
+   * @since 0.3.0
+   */
+  private final String sha1;
+
+  /**
+   * The staging directory the entries are extracted to.
+   *
+   * @since 0.3.0
+   */
+  private Path staging;
+
+  /**
+   * The number of extracted files.
+   *
+   * @since 0.3.0
+   */
+  private int files;
+
+  /**
+   * Creates an instance of {@link ArchiveExtractor}.
+   *
+   * @param sha1 the SHA-1 the archive is expected to have or {@code null}.
+   * @since 0.3.0
+   */
+  private ArchiveExtractor(String sha1) {
+    this.sha1 = sha1;
+  }
+
+  /**
+   * Returns {@code true} if an extension denotes an archive that can be extracted.
+   *
+   * @param extension the extension of the file, e.g. {@code zip} or {@code tar.gz}.
+   * @return {@code true} for zip files, jars and {@code tar.gz} archives.
+   * @since 0.3.0
+   */
+  static boolean isSupported(String extension) {
+    return isZip(extension) || isTarGz(extension);
+  }
+
+  /**
+   * Extracts an archive to a directory, replacing the directory on success.
+   *
+   * @param inputStream the {@link InputStream} of the archive, which is closed.
+   * @param extension the extension of the archive, see {@link #isSupported(String)}.
+   * @param directory the target directory.
+   * @param sha1 the SHA-1 the archive is expected to have or {@code null}.
+   * @return the number of extracted files.
+   * @throws IOException if an I/O error occurs, the archive is invalid, an entry lies outside of
+   *     the target directory or the SHA-1 does not match.
+   * @since 0.3.0
+   */
+  static int extract(InputStream inputStream, String extension, Path directory, String sha1)
+      throws IOException {
+    if (!isSupported(extension))
+      throw new IllegalArgumentException("Cannot extract ." + extension + " files!");
+    Path target = directory.toAbsolutePath().normalize();
+    Files.createDirectories(target.getParent());
+    ArchiveExtractor extractor = new ArchiveExtractor(sha1);
+    extractor.staging = Files.createTempDirectory(target.getParent(), "." + target.getFileName());
+    try (InputStream closed = inputStream) {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      DigestInputStream digestInputStream = new DigestInputStream(closed, digest);
+      if (isZip(extension)) extractor.extractZip(digestInputStream);
+      else extractor.extractTar(new GZIPInputStream(digestInputStream));
+      // Read what follows the last entry (e.g. the central directory) to digest the whole archive.
+      byte[] buffer = new byte[8192];
+      //noinspection StatementWithEmptyBody
+      while (digestInputStream.read(buffer) != -1) {}
+      extractor.verify(digest);
+      replace(extractor.staging, target);
+      return extractor.files;
+    } catch (NoSuchAlgorithmException e) {
+      delete(extractor.staging);
+      throw new IOException("SHA-1 is not supported!", e);
+    } catch (IOException | RuntimeException e) {
+      delete(extractor.staging);
+      throw e;
+    }
+  }
+
+  /**
+   * Extracts the entries of a zip file.
+   *
+   * @param inputStream the {@link InputStream} of the zip file.
+   * @throws IOException if an I/O error occurs or an entry is invalid.
+   * @since 0.3.0
+   */
+  private void extractZip(InputStream inputStream) throws IOException {
+    ZipInputStream zip = new ZipInputStream(inputStream);
+    for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+      Path path = resolve(entry.getName());
+      if (entry.isDirectory()) Files.createDirectories(path);
+      else write(zip, path);
+    }
+  }
+
+  /**
+   * Extracts the entries of a {@code tar} archive in {@code ustar}, GNU or PAX format.
+   *
+   * @param inputStream the {@link InputStream} of the {@code tar} archive.
+   * @throws IOException if an I/O error occurs or an entry is invalid.
+   * @since 0.3.0
+   */
+  private void extractTar(InputStream inputStream) throws IOException {
+    byte[] header = new byte[BLOCK_SIZE];
+    String longName = null;
+    while (readBlock(inputStream, header)) {
+      if (header[0] == 0) break;
+      long size = parseSize(header);
+      char type = (char) header[156];
+      String name = longName != null ? longName : getName(header);
+      longName = null;
+      switch (type) {
+        case 'L':
+          longName = trimNull(new String(readData(inputStream, size), StandardCharsets.UTF_8));
+          continue;
+        case 'x':
+          longName = getPaxPath(readData(inputStream, size));
+          continue;
+        case '0':
+        case '\0':
+        case '7':
+          LimitedInputStream data = new LimitedInputStream(inputStream, size);
+          write(data, resolve(name));
+          data.skipRemaining();
+          break;
+        case '5':
+          Files.createDirectories(resolve(name));
+          break;
+        default:
+          // Links, devices and global headers are not extracted.
+          new LimitedInputStream(inputStream, size).skipRemaining();
+      }
+      skipPadding(inputStream, size);
+    }
+  }
+
+  /**
+   * Resolves the name of an entry against the staging directory. Entries like {@code ./} resolve
+   * to the staging directory itself.
+   *
+   * @param name the name of the entry.
+   * @return the path of the entry.
+   * @throws IOException if the entry lies outside of the staging directory.
+   * @since 0.3.0
+   */
+  private Path resolve(String name) throws IOException {
+    Path path = staging.resolve(name).normalize();
+    if (!path.startsWith(staging))
+      throw new IOException("The entry " + name + " lies outside of the target directory!");
+    return path;
+  }
+
+  /**
+   * Writes the content of an entry to a file, replacing an earlier entry with the same name.
+   *
+   * @param inputStream the {@link InputStream} of the entry, which is not closed.
+   * @param path the path of the file.
+   * @throws IOException if an I/O error occurs or the path is the staging directory.
+   * @since 0.3.0
+   */
+  private void write(InputStream inputStream, Path path) throws IOException {
+    if (path.equals(staging)) throw new IOException("The target directory is not a file!");
+    Files.createDirectories(path.getParent());
+    boolean replaced = Files.exists(path);
+    // Later entries replace earlier ones, e.g. files appended to a tar archive.
+    Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+    if (!replaced) files++;
+  }
+
+  /**
+   * Checks the SHA-1 of the archive.
+   *
+   * @param digest the digest of the archive.
+   * @throws IOException if the SHA-1 does not match.
+   * @since 0.3.0
+   */
+  private void verify(MessageDigest digest) throws IOException {
+    if (sha1 == null) return;
+    StringBuilder actual = new StringBuilder();
+    for (byte b : digest.digest()) actual.append(String.format("%02x", b));
+    if (!sha1.equalsIgnoreCase(actual.toString()))
+      throw new IOException("The SHA-1 " + actual + " does not match " + sha1 + "!");
+  }
+
+  /**
+   * Replaces the target directory with the staging directory. The target directory is moved aside
+   * first, as a non-empty directory cannot be replaced by a single move.
+   *
+   * @param staging the staging directory.
+   * @param target the target directory.
+   * @throws IOException if an I/O error occurs.
+   * @since 0.3.0
+   */
+  private static void replace(Path staging, Path target) throws IOException {
+    Path previous = null;
+    if (Files.exists(target)) {
+      previous = Files.createTempDirectory(target.getParent(), "." + target.getFileName());
+      previous = move(target, previous.resolve(target.getFileName()));
+    }
+    try {
+      move(staging, target);
+    } catch (IOException e) {
+      if (previous != null) move(previous, target);
+      throw e;
+    }
+    if (previous != null) delete(previous.getParent());
+  }
+
+  /**
+   * Moves a file or directory atomically if the file system supports it.
+   *
+   * @param source the source path.
+   * @param target the target path, which must not exist.
+   * @return the target path.
+   * @throws IOException if an I/O error occurs.
+   * @since 0.3.0
+   */
+  private static Path move(Path source, Path target) throws IOException {
+    try {
+      return Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      return Files.move(source, target);
+    }
+  }
+
+  /**
+   * Deletes a directory and its content.
+   *
+   * @param directory the directory.
+   * @throws IOException if an I/O error occurs.
+   * @since 0.3.0
+   */
+  private static void delete(Path directory) throws IOException {
+    if (!Files.exists(directory)) return;
+    Files.walkFileTree(
+        directory,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+              throws IOException {
+            Files.delete(file);
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+            if (e != null) throw e;
+            Files.delete(dir);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  /**
+   * Returns {@code true} if an extension denotes a zip file.
+   *
+   * @param extension the extension.
+   * @return {@code true} for {@code zip}, {@code jar}, {@code war} and {@code ear}.
+   * @since 0.3.0
+   */
+  private static boolean isZip(String extension) {
+    switch (extension.toLowerCase(Locale.ROOT)) {
+      case "zip":
+      case "jar":
+      case "war":
+      case "ear":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns {@code true} if an extension denotes a {@code tar.gz} archive.
+   *
+   * @param extension the extension.
+   * @return {@code true} for {@code tar.gz} and {@code tgz}.
+   * @since 0.3.0
+   */
+  private static boolean isTarGz(String extension) {
+    String lowerCase = extension.toLowerCase(Locale.ROOT);
+    return lowerCase.equals("tar.gz") || lowerCase.equals("tgz");
+  }
+
+  /**
+   * Reads a {@code tar} block.
+   *
+   * @param inputStream the {@link InputStream} of the archive.
+   * @param block the array the block is read into.
+   * @return {@code false} if the archive ended before the block.
+   * @throws IOException if an I/O error occurs or the archive ends within the block.
+   * @since 0.3.0
+   */
+  private static boolean readBlock(InputStream inputStream, byte[] block) throws IOException {
+    int length = 0;
+    for (int read; length < block.length; length += read)
+      if ((read = inputStream.read(block, length, block.length - length)) == -1) break;
+    if (length == 0) return false;
+    if (length < block.length) throw new EOFException("The tar archive is truncated!");
+    return true;
+  }
+
+  /**
+   * Reads the data of an extension header, e.g. a GNU long name.
+   *
+   * @param inputStream the {@link InputStream} of the archive.
+   * @param size the size of the data.
+   * @return the data.
+   * @throws IOException if an I/O error occurs or the data is too large.
+   * @since 0.3.0
+   */
+  private static byte[] readData(InputStream inputStream, long size) throws IOException {
+    if (size > 1 << 20) throw new IOException("The tar header is too large!");
+    byte[] data = new byte[(int) size];
+    int length = 0;
+    for (int read; length < data.length; length += read)
+      if ((read = inputStream.read(data, length, data.length - length)) == -1)
+        throw new EOFException("The tar archive is truncated!");
+    skipPadding(inputStream, size);
+    return data;
+  }
+
+  /**
+   * Skips the padding after the data of an entry up to the next block.
+   *
+   * @param inputStream the {@link InputStream} of the archive.
+   * @param size the size of the data.
+   * @throws IOException if an I/O error occurs.
+   * @since 0.3.0
+   */
+  private static void skipPadding(InputStream inputStream, long size) throws IOException {
+    long padding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+    new LimitedInputStream(inputStream, padding).skipRemaining();
+  }
+
+  /**
+   * Returns the name of an entry from its header, including the {@code ustar} prefix.
+   *
+   * @param header the header.
+   * @return the name of the entry.
+   * @since 0.3.0
+   */
+  private static String getName(byte[] header) {
+    String name = getString(header, 0, 100);
+    boolean ustar = getString(header, 257, 6).startsWith("ustar");
+    String prefix = ustar ? getString(header, 345, 155) : "";
+    return prefix.isEmpty() ? name : prefix + "/" + name;
+  }
+
+  /**
+   * Returns the {@code path} record of a PAX header.
+   *
+   * @param data the data of the PAX header.
+   * @return the path or {@code null} if the header has none.
+   * @throws IOException if the header is invalid.
+   * @since 0.3.0
+   */
+  private static String getPaxPath(byte[] data) throws IOException {
+    String path = null;
+    // Records have the format "<length> <key>=<value>\n", where the length covers the record.
+    for (int offset = 0; offset < data.length; ) {
+      int space = offset;
+      while (space < data.length && data[space] != ' ') space++;
+      if (space == data.length) break;
+      String digits = new String(data, offset, space - offset, StandardCharsets.US_ASCII);
+      int length;
+      try {
+        length = Integer.parseInt(digits);
+      } catch (NumberFormatException e) {
+        throw new IOException("The PAX header has an invalid record length: " + digits, e);
+      }
+      if (length <= space - offset + 1 || offset + length > data.length) break;
+      String record =
+          new String(data, space + 1, offset + length - space - 2, StandardCharsets.UTF_8);
+      if (record.startsWith("path=")) path = record.substring(5);
+      offset += length;
+    }
+    return path;
+  }
+
+  /**
+   * Returns the size of an entry from its header, in octal or base-256 encoding.
+   *
+   * @param header the header.
+   * @return the size of the entry.
+   * @throws IOException if the size is invalid.
+   * @since 0.3.0
+   */
+  private static long parseSize(byte[] header) throws IOException {
+    if ((header[124] & 0x80) != 0) {
+      long size = 0;
+      for (int i = 125; i < 136; i++) size = size << 8 | header[i] & 0xFF;
+      return size;
+    }
+    String octal = getString(header, 124, 12).trim();
+    try {
+      return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+    } catch (NumberFormatException e) {
+      throw new IOException("The tar header has an invalid size: " + octal, e);
+    }
+  }
+
+  /**
+   * Returns a null-terminated {@link String} of a header.
+   *
+   * @param header the header.
+   * @param offset the offset of the field.
+   * @param length the length of the field.
+   * @return the {@link String}.
+   * @since 0.3.0
+   */
+  private static String getString(byte[] header, int offset, int length) {
+    return trimNull(new String(header, offset, length, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Removes everything from the first null character on.
+   *
+   * @param string the {@link String}.
+   * @return the {@link String} up to the first null character.
+   * @since 0.3.0
+   */
+  private static String trimNull(String string) {
+    int end = string.indexOf('\0');
+    return end < 0 ? string : string.substring(0, end);
+  }
+
+  /**
+   * An {@link InputStream} that reads exactly a number of bytes of another {@link InputStream}.
+   *
+   * @since 0.3.0
+   */
+  private static final class LimitedInputStream extends InputStream {
+
+    /**
+     * The underlying {@link InputStream}.
+     *
+     * @since 0.3.0
+     */
+    private final InputStream inputStream;
+
+    /**
+     * The number of bytes that may still be read.
+     *
+     * @since 0.3.0
+     */
+    private long remaining;
+
+    /**
+     * Creates an instance of {@link LimitedInputStream}.
+     *
+     * @param inputStream the underlying {@link InputStream}.
+     * @param limit the number of bytes that may be read.
+     * @since 0.3.0
+     */
+    private LimitedInputStream(InputStream inputStream, long limit) {
+      this.inputStream = inputStream;
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] buffer = new byte[1];
+      return read(buffer, 0, 1) == -1 ? -1 : buffer[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (remaining <= 0) return -1;
+      int read = inputStream.read(buffer, offset, (int) Math.min(length, remaining));
+      if (read == -1) throw new EOFException("The tar archive is truncated!");
+      remaining -= read;
+      return read;
+    }
+
+    /**
+     * Reads the remaining bytes.
+     *
+     * @throws IOException if an I/O error occurs or the archive ends before.
+     * @since 0.3.0
+     */
+    private void skipRemaining() throws IOException {
+      byte[] buffer = new byte[8192];
+      //noinspection StatementWithEmptyBody
+      while (read(buffer, 0, buffer.length) != -1) {}
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.util.Objects;
+
+/**
+ * An {@link ArtifactFile} identifies a file of an artifact version by its classifier and
+ * extension, e.g. {@code sources} and {@code jar}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ArtifactFile {
+
+  /**
+   * The classifier of the file or an empty {@link String} for the main file.
+   *
+   * @since 0.3.0
+   */
+  public final String classifier;
+
+  /**
+   * The extension of the file.
+   *
+   * @since 0.3.0
+   */
+  public final String extension;
+
+  /**
+   * Creates an instance of {@link ArtifactFile} based on the classifier and the extension.
+   *
+   * @param classifier the classifier of the file or an empty {@link String} (or {@code null}) for
+   *     the main file.
+   * @param extension the extension of the file.
+   * @since 0.3.0
+   */
+  public ArtifactFile(String classifier, String extension) {
+    this.classifier = classifier == null ? "" : classifier;
+    this.extension = extension;
+  }
+
+  /**
+   * Returns an {@link ArtifactFile} for the main file with the given extension.
+   *
+   * @param extension the extension of the file.
+   * @return an {@link ArtifactFile} for the main file with the given extension.
+   * @since 0.3.0
+   */
+  public static ArtifactFile of(String extension) {
+    return new ArtifactFile("", extension);
+  }
+
+  /**
+   * Returns an {@link ArtifactFile} for the given classifier and extension.
+   *
+   * @param classifier the classifier of the file.
+   * @param extension the extension of the file.
+   * @return an {@link ArtifactFile} for the given classifier and extension.
+   * @since 0.3.0
+   */
+  public static ArtifactFile of(String classifier, String extension) {
+    return new ArtifactFile(classifier, extension);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof ArtifactFile)) return false;
+    ArtifactFile that = (ArtifactFile) o;
+    return classifier.equals(that.classifier) && extension.equals(that.extension);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(classifier, extension);
+  }
+
+  @Override
+  public String toString() {
+    return (classifier.equals("") ? "" : classifier + ".") + extension;
+  }
+}
@@ -0,0 +1,347 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link ArtifactMirror} keeps a copy of artifacts of a repository in a local directory with
+ * the layout of a maven repository, e.g. for an air-gapped network.
+ *
+ * <p>A sync compares the {@code versions} of the {@code maven-metadata.xml} file and the {@code
+ * snapshotVersions} of every {@code SNAPSHOT}-version with the mirror and downloads only files that
+ * are missing or changed, in parallel. Whether a file changed is decided like in {@link
+ * MavenArtifact#downloadIfModified(ComparableVersion, String, String, String)}, i.e. with a
+ * conditional request or by its SHA-1. Downloaded files are verified against the {@code .sha1}
+ * file of the repository, which is stored next to them. The {@code maven-metadata.xml} files are
+ * copied last, so the mirror never lists a version whose files are not complete.
+ *
+ * <p>Every synced file is appended to a journal ({@code .mirror-journal} in the directory of the
+ * artifact). If a sync is interrupted or fails, the next sync of the artifact skips the files of
+ * the journal without any request. The journal is deleted once a sync completes without failures.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ArtifactMirror {
+
+  /**
+   * The default number of files that are synced at once.
+   *
+   * @since 0.3.0
+   */
+  public static final int DEFAULT_PARALLELISM = 4;
+
+  /**
+   * The name of the journal file in the directory of an artifact.
+   *
+   * @since 0.3.0
+   */
+  static final String JOURNAL = ".mirror-journal";
+
+  /**
+   * The client of the repository that is mirrored.
+   *
+   * @since 0.3.0
+   */
+  private final RepositoryClient client;
+
+  /**
+   * The root directory of the mirror.
+   *
+   * @since 0.3.0
+   */
+  private final Path directory;
+
+  /**
+   * The number of files that are synced at once if the {@link RepositoryClient} has no {@link
+   * Executor}.
+   *
+   * @since 0.3.0
+   */
+  private final int parallelism;
+
+  /**
+   * Creates an instance of {@link ArtifactMirror} that syncs {@link #DEFAULT_PARALLELISM} files at
+   * once.
+   *
+   * @param client the client of the repository that is mirrored.
+   * @param directory the root directory of the mirror.
+   * @since 0.3.0
+   */
+  public ArtifactMirror(RepositoryClient client, Path directory) {
+    this(client, directory, DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * Creates an instance of {@link ArtifactMirror}.
+   *
+   * @param client the client of the repository that is mirrored.
+   * @param directory the root directory of the mirror.
+   * @param parallelism the number of files that are synced at once if the client has no {@link
+   *     Executor}, otherwise the files are synced on the executor of the client.
+   * @since 0.3.0
+   */
+  public ArtifactMirror(RepositoryClient client, Path directory, int parallelism) {
+    if (parallelism < 1) throw new IllegalArgumentException("The parallelism must be positive!");
+    this.client = client;
+    this.directory = directory.toAbsolutePath();
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Syncs the files of all versions of an artifact to the mirror. Files that do not exist for a
+   * version, e.g. sources that were not deployed, are counted as missing and are not a failure.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param files the files (classifier and extension) that should be mirrored for each version.
+   * @return the {@link MirrorResult}, which contains the files that could not be synced.
+   * @throws IOException if an I/O error occurs while requesting or parsing the metadata or if the
+   *     journal cannot be read or written.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx for the
+   *     metadata.
+   * @since 0.3.0
+   */
+  public MirrorResult sync(String groupId, String artifactId, List<ArtifactFile> files)
+      throws IOException, RequestException {
+    long start = System.nanoTime();
+    MavenArtifact artifact = client.artifact(groupId, artifactId);
+    String base = groupId.replace('.', '/') + "/" + artifactId + "/";
+    ArtifactMetadata metadata;
+    try {
+      metadata = artifact.lookupMetadata();
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new IOException(
+          "Could not parse the metadata of " + groupId + ":" + artifactId + "!", e);
+    }
+
+    // Resolve the files of all versions first, so that a SNAPSHOT-version is resolved only once.
+    Map<String, String> urls = new LinkedHashMap<>();
+    List<String> metadataFiles = new ArrayList<>();
+    for (ComparableVersion version : metadata.versions) {
+      SnapshotMetadata snapshotMetadata = null;
+      if (version.isSnapshot()
+          && (snapshotMetadata = artifact.getSnapshotMetadataForDownload(version)) != null)
+        metadataFiles.add(base + version + "/maven-metadata.xml");
+      for (ArtifactFile file : files) {
+        String url =
+            artifact.getFileURL(version, file.classifier, file.extension, snapshotMetadata);
+        urls.put(url.substring(client.url.length()), url);
+      }
+    }
+    metadataFiles.add(base + "maven-metadata.xml");
+
+    AtomicInteger downloaded = new AtomicInteger(), unchanged = new AtomicInteger();
+    AtomicInteger missing = new AtomicInteger();
+    AtomicLong bytes = new AtomicLong();
+    Map<String, Exception> failures = new ConcurrentHashMap<>();
+    int resumed = 0;
+    Path journalPath = directory.resolve(base + JOURNAL);
+    try (Journal journal = new Journal(journalPath, groupId + ":" + artifactId)) {
+      ExecutorService pool =
+          client.getExecutor() != null
+              ? null
+              : Executors.newFixedThreadPool(
+                  Math.max(1, Math.min(parallelism, urls.size())),
+                  DaemonThreads.factory("artifact-mirror"));
+      Executor executor = pool != null ? pool : client.getExecutor();
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      try {
+        for (Map.Entry<String, String> entry : urls.entrySet()) {
+          String path = entry.getKey();
+          if (journal.done.contains(path)) {
+            resumed++;
+            continue;
+          }
+          futures.add(
+              CompletableFuture.runAsync(
+                  () -> {
+                    try {
+                      Path target = directory.resolve(path);
+                      if (syncFile(entry.getValue(), target)) {
+                        downloaded.incrementAndGet();
+                        bytes.addAndGet(Files.size(target));
+                      } else unchanged.incrementAndGet();
+                      journal.record(path);
+                    } catch (RequestException e) {
+                      if (e.responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                        missing.incrementAndGet();
+                        recordQuietly(journal, path, failures);
+                      } else failures.put(path, e);
+                    } catch (IOException | RuntimeException e) {
+                      failures.put(path, e);
+                    }
+                  },
+                  executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+      } finally {
+        if (pool != null) pool.shutdownNow();
+      }
+
+      if (failures.isEmpty())
+        for (String path : metadataFiles)
+          try {
+            client.transferIfModified(client.url + path, directory.resolve(path));
+          } catch (IOException | RequestException e) {
+            failures.put(path, e);
+          }
+    }
+    if (failures.isEmpty()) Files.deleteIfExists(journalPath);
+
+    Map<String, Exception> ordered = new LinkedHashMap<>();
+    for (String path : urls.keySet())
+      if (failures.containsKey(path)) ordered.put(path, failures.get(path));
+    for (String path : metadataFiles)
+      if (failures.containsKey(path)) ordered.put(path, failures.get(path));
+    return new MirrorResult(
+        downloaded.get(),
+        unchanged.get(),
+        resumed,
+        missing.get(),
+        bytes.get(),
+        ordered,
+        Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * Downloads a file to the mirror if it is missing or changed and verifies it against the {@code
+   * .sha1} file of the repository, which is stored next to it.
+   *
+   * @param url the URL of the file.
+   * @param target the path of the file in the mirror.
+   * @return {@code true} if the file was downloaded, {@code false} if it was up to date.
+   * @throws IOException if an I/O error occurs or the SHA-1 does not match.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private boolean syncFile(String url, Path target) throws IOException, RequestException {
+    if (!client.transferIfModified(url, target)) return false;
+    String expected = client.getChecksum(url + ".sha1");
+    if (expected == null) return true;
+    DownloadState state = DownloadState.read(target);
+    if (state == null || !expected.equalsIgnoreCase(state.sha1)) {
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(DownloadState.getSidecar(target));
+      throw new IOException("The SHA-1 of " + url + " does not match " + expected + "!");
+    }
+    Path checksum = target.resolveSibling(target.getFileName() + ".sha1");
+    Files.write(checksum, expected.getBytes(StandardCharsets.US_ASCII));
+    return true;
+  }
+
+  /**
+   * Records a file in the journal, reporting a failure to write it as failure of the file.
+   *
+   * @param journal the journal.
+   * @param path the path of the file relative to the mirror.
+   * @param failures the failures of the sync.
+   * @since 0.3.0
+   */
+  private static void recordQuietly(Journal journal, String path, Map<String, Exception> failures) {
+    try {
+      journal.record(path);
+    } catch (IOException e) {
+      failures.put(path, e);
+    }
+  }
+
+  /**
+   * The journal of a sync of an artifact.
+   *
+   * <p>The journal is a text file that starts with {@code J <groupId>:<artifactId>} and contains a
+   * line {@code F <path>} for every file that was synced or found missing, relative to the mirror.
+   *
+   * @since 0.3.0
+   */
+  private static final class Journal implements AutoCloseable {
+
+    /**
+     * The paths of the files that are done, restored from the journal.
+     *
+     * @since 0.3.0
+     */
+    private final Set<String> done = new HashSet<>();
+
+    /**
+     * The journal file.
+     *
+     * @since 0.3.0
+     */
+    private final AppendOnlyFile file;
+
+    /**
+     * Creates an instance of {@link Journal} and restores the files that are done.
+     *
+     * @param path the journal file.
+     * @param coordinates the coordinates of the artifact.
+     * @throws IOException if the journal cannot be read or opened.
+     * @since 0.3.0
+     */
+    private Journal(Path path, String coordinates) throws IOException {
+      Files.createDirectories(path.getParent());
+      List<String> lines = AppendOnlyFile.readLines(path);
+      boolean resumed = !lines.isEmpty() && lines.get(0).equals("J " + coordinates);
+      if (resumed)
+        for (String line : lines.subList(1, lines.size()))
+          if (line.startsWith("F ")) done.add(line.substring(2));
+      file = new AppendOnlyFile(path, resumed);
+      if (!resumed) file.append("J " + coordinates + "\n");
+    }
+
+    /**
+     * Appends a file that is done to the journal.
+     *
+     * @param path the path of the file relative to the mirror.
+     * @throws IOException if the journal cannot be written.
+     * @since 0.3.0
+     */
+    private void record(String path) throws IOException {
+      file.append("F " + path + "\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+      file.close();
+    }
+  }
+}
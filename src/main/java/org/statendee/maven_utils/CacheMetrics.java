@@ -0,0 +1,175 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The metrics of the metadata cache of a {@link RepositoryClient}, i.e. how metadata lookups were
+ * answered. All counters are cumulative since the client was created.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class CacheMetrics {
+
+  /**
+   * The number of lookups answered with fresh cached metadata without a request.
+   *
+   * @since 0.3.0
+   */
+  final AtomicLong hits = new AtomicLong();
+
+  /**
+   * The number of lookups answered with a request, including conditional requests.
+   *
+   * @since 0.3.0
+   */
+  final AtomicLong misses = new AtomicLong();
+
+  /**
+   * The number of lookups answered with stale metadata while it was revalidated in the
+   * background.
+   *
+   * @since 0.3.0
+   */
+  final AtomicLong staleWhileRevalidate = new AtomicLong();
+
+  /**
+   * The number of lookups answered with stale metadata because the request failed.
+   *
+   * @since 0.3.0
+   */
+  final AtomicLong staleIfError = new AtomicLong();
+
+  /**
+   * The number of lookups answered with a cached {@code 404}, {@code 410} or {@code 401}.
+   *
+   * @since 0.3.0
+   */
+  final AtomicLong negativeHits = new AtomicLong();
+
+  /**
+   * The number of completed background revalidations.
+   *
+   * @since 0.3.0
+   */
+  final AtomicLong revalidations = new AtomicLong();
+
+  /**
+   * The number of failed background revalidations.
+   *
+   * @since 0.3.0
+   */
+  final AtomicLong revalidationErrors = new AtomicLong();
+
+  /**
+   * Creates an instance of {@link CacheMetrics}.
+   *
+   * @since 0.3.0
+   */
+  CacheMetrics() {}
+
+  /**
+   * Returns the number of lookups answered with fresh cached metadata without a request.
+   *
+   * @return the number of fresh hits.
+   * @since 0.3.0
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of lookups answered with a request, including conditional requests.
+   *
+   * @return the number of misses.
+   * @since 0.3.0
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the number of lookups answered with stale metadata while it was revalidated in the
+   * background.
+   *
+   * @return the number of stale hits.
+   * @since 0.3.0
+   */
+  public long getStaleWhileRevalidate() {
+    return staleWhileRevalidate.get();
+  }
+
+  /**
+   * Returns the number of lookups answered with stale metadata because the request failed.
+   *
+   * @return the number of stale hits on errors.
+   * @since 0.3.0
+   */
+  public long getStaleIfError() {
+    return staleIfError.get();
+  }
+
+  /**
+   * Returns the number of lookups answered with a cached {@code 404}, {@code 410} or {@code 401}.
+   *
+   * @return the number of negative hits.
+   * @since 0.3.0
+   */
+  public long getNegativeHits() {
+    return negativeHits.get();
+  }
+
+  /**
+   * Returns the number of completed background revalidations.
+   *
+   * @return the number of background revalidations.
+   * @since 0.3.0
+   */
+  public long getRevalidations() {
+    return revalidations.get();
+  }
+
+  /**
+   * Returns the number of failed background revalidations.
+   *
+   * @return the number of failed background revalidations.
+   * @since 0.3.0
+   */
+  public long getRevalidationErrors() {
+    return revalidationErrors.get();
+  }
+
+  @Override
+  public String toString() {
+    return "hits="
+        + getHits()
+        + ", misses="
+        + getMisses()
+        + ", stale-while-revalidate="
+        + getStaleWhileRevalidate()
+        + ", stale-if-error="
+        + getStaleIfError()
+        + ", negative hits="
+        + getNegativeHits()
+        + ", revalidations="
+        + getRevalidations()
+        + ", revalidation errors="
+        + getRevalidationErrors();
+  }
+}
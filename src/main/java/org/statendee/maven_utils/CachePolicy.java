@@ -0,0 +1,117 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.time.Duration;
+
+/**
+ * A {@link CachePolicy} defines how long a {@link RepositoryClient} uses cached metadata without,
+ * or instead of, asking the repository, similar to the {@code Cache-Control} directives {@code
+ * max-age}, {@code stale-while-revalidate} and {@code stale-if-error}.
+ *
+ * <ul>
+ *   <li>Metadata younger than {@link #maxAge} is returned without a request.
+ *   <li>Older metadata, up to {@link #maxAge} + {@link #staleWhileRevalidate}, is returned at once
+ *       and revalidated in the background.
+ *   <li>If revalidating fails with an I/O error or a 5xx or 429 response, metadata up to {@link
+ *       #maxAge} + {@link #staleIfError} old is returned instead of the error.
+ *   <li>{@code 404 (Not Found)}, {@code 410 (Gone)} and {@code 401 (Unauthorized)} responses are
+ *       remembered for {@link #negativeTtl} and thrown again without a request.
+ * </ul>
+ *
+ * <p>The age of metadata restored with {@link RepositoryClient#loadMetadata(java.nio.file.Path)}
+ * is unknown; it is treated as just expired, i.e. it is revalidated before it is used, unless
+ * stale metadata may be used.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class CachePolicy {
+
+  /**
+   * The default policy, which revalidates cached metadata on every use and caches no errors.
+   *
+   * @since 0.3.0
+   */
+  public static final CachePolicy DEFAULT =
+      new CachePolicy(Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+
+  /**
+   * The time cached metadata is used without revalidating it.
+   *
+   * @since 0.3.0
+   */
+  public final Duration maxAge;
+
+  /**
+   * The time after {@link #maxAge} cached metadata is used while it is revalidated in the
+   * background.
+   *
+   * @since 0.3.0
+   */
+  public final Duration staleWhileRevalidate;
+
+  /**
+   * The time after {@link #maxAge} cached metadata is used if revalidating it fails.
+   *
+   * @since 0.3.0
+   */
+  public final Duration staleIfError;
+
+  /**
+   * The time {@code 404}, {@code 410} and {@code 401} responses are cached.
+   *
+   * @since 0.3.0
+   */
+  public final Duration negativeTtl;
+
+  /**
+   * Creates an instance of {@link CachePolicy}.
+   *
+   * @param maxAge the time cached metadata is used without revalidating it.
+   * @param staleWhileRevalidate the time after {@code maxAge} cached metadata is used while it is
+   *     revalidated in the background.
+   * @param staleIfError the time after {@code maxAge} cached metadata is used if revalidating it
+   *     fails.
+   * @param negativeTtl the time {@code 404}, {@code 410} and {@code 401} responses are cached.
+   * @since 0.3.0
+   */
+  public CachePolicy(
+      Duration maxAge, Duration staleWhileRevalidate, Duration staleIfError, Duration negativeTtl) {
+    if (maxAge.isNegative()
+        || staleWhileRevalidate.isNegative()
+        || staleIfError.isNegative()
+        || negativeTtl.isNegative())
+      throw new IllegalArgumentException("The durations must not be negative!");
+    this.maxAge = maxAge;
+    this.staleWhileRevalidate = staleWhileRevalidate;
+    this.staleIfError = staleIfError;
+    this.negativeTtl = negativeTtl;
+  }
+
+  @Override
+  public String toString() {
+    return "max-age="
+        + maxAge.getSeconds()
+        + ", stale-while-revalidate="
+        + staleWhileRevalidate.getSeconds()
+        + ", stale-if-error="
+        + staleIfError.getSeconds()
+        + ", negative-ttl="
+        + negativeTtl.getSeconds();
+  }
+}
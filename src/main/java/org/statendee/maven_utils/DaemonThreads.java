@@ -0,0 +1,54 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the daemon threads of the executors of this library, so that they never keep the JVM
+ * alive.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class DaemonThreads {
+
+  /**
+   * Prevents the instantiation of this utility class.
+   *
+   * @since 0.3.0
+   */
+  private DaemonThreads() {}
+
+  /**
+   * Returns a {@link ThreadFactory} that creates daemon threads named {@code name-1}, {@code
+   * name-2} and so on.
+   *
+   * @param name the prefix of the names of the threads.
+   * @return the {@link ThreadFactory}.
+   * @since 0.3.0
+   */
+  public static ThreadFactory factory(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,358 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.stream.ProgressListener;
+import org.statendee.maven_utils.stream.Publisher;
+import org.statendee.maven_utils.stream.Subscriber;
+import org.statendee.maven_utils.stream.Subscription;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link DownloadPublisher} streams a file of a maven repository as {@link ByteBuffer}s, so that
+ * the file can be processed or forwarded while it is downloaded, without buffering it as a whole.
+ *
+ * <p>The file is requested when the subscriber requests the first chunk. Each chunk is read only
+ * after it was requested, so a slow subscriber slows down the download instead of filling memory.
+ * Cancelling the {@link Subscription} closes the connection right away, even while a read is
+ * blocked. The chunks are read and delivered on the {@link Executor} of the {@link
+ * RepositoryClient} or on a shared pool of daemon threads.
+ *
+ * <p>A {@link DownloadPublisher} supports a single subscriber; create a new one to download a file
+ * again. Use {@link org.statendee.maven_utils.stream.FlowAdapters} to expose it as a {@code
+ * java.util.concurrent.Flow.Publisher}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class DownloadPublisher implements Publisher<ByteBuffer> {
+
+  /**
+   * The maximum size of a chunk in bytes.
+   *
+   * @since 0.3.0
+   */
+  public static final int CHUNK_SIZE = 64 * 1024;
+
+  /**
+   * The pool used if the {@link RepositoryClient} has no {@link Executor}.
+   *
+   * @since 0.3.0
+   */
+  private static final ExecutorService DEFAULT_EXECUTOR =
+      Executors.newCachedThreadPool(DaemonThreads.factory("download-publisher"));
+
+  /**
+   * The {@link RepositoryClient} used to open the file.
+   *
+   * @since 0.3.0
+   */
+  private final RepositoryClient client;
+
+  /**
+   * The url {@link String} of the file.
+   *
+   * @since 0.3.0
+   */
+  private final String urlString;
+
+  /**
+   * The {@link Executor} that reads and delivers the chunks.
+   *
+   * @since 0.3.0
+   */
+  private final Executor executor;
+
+  /**
+   * The listener notified about the progress or {@code null}.
+   *
+   * @since 0.3.0
+   */
+  private final ProgressListener listener;
+
+  /**
+   * {@code true} once a subscriber subscribed.
+   *
+   * @since 0.3.0
+   */
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  /**
+   * The size of the file in bytes or {@code -1} if it is not known (yet).
+   *
+   * @since 0.3.0
+   */
+  private volatile long contentLength = -1;
+
+  /**
+   * The number of bytes received so far.
+   *
+   * @since 0.3.0
+   */
+  private volatile long transferred;
+
+  /**
+   * Creates an instance of {@link DownloadPublisher}.
+   *
+   * @param client the {@link RepositoryClient} used to open the file.
+   * @param urlString the url {@link String} of the file.
+   * @param listener the listener notified about the progress or {@code null}.
+   * @since 0.3.0
+   */
+  DownloadPublisher(RepositoryClient client, String urlString, ProgressListener listener) {
+    this.client = client;
+    this.urlString = urlString;
+    this.executor = client.getExecutor() != null ? client.getExecutor() : DEFAULT_EXECUTOR;
+    this.listener = listener;
+  }
+
+  /**
+   * Returns the url {@link String} of the downloaded file.
+   *
+   * @return the url {@link String} of the file.
+   * @since 0.3.0
+   */
+  public String getURL() {
+    return urlString;
+  }
+
+  /**
+   * Returns the size of the file as reported when the download started.
+   *
+   * @return the size of the file in bytes or {@code -1} if it is not known (yet).
+   * @since 0.3.0
+   */
+  public long getContentLength() {
+    return contentLength;
+  }
+
+  /**
+   * Returns the number of bytes received so far.
+   *
+   * @return the number of bytes received so far.
+   * @since 0.3.0
+   */
+  public long getTransferred() {
+    return transferred;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+    if (subscriber == null) throw new NullPointerException("The subscriber must not be null!");
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(
+          new Subscription() {
+            @Override
+            public void request(long n) {}
+
+            @Override
+            public void cancel() {}
+          });
+      subscriber.onError(
+          new IllegalStateException("A DownloadPublisher supports only a single subscriber!"));
+      return;
+    }
+    subscriber.onSubscribe(new DownloadSubscription(subscriber));
+  }
+
+  /**
+   * The {@link Subscription} of the subscriber, which reads the file on demand.
+   *
+   * @since 0.3.0
+   */
+  private final class DownloadSubscription implements Subscription, Runnable {
+
+    /**
+     * The subscriber.
+     *
+     * @since 0.3.0
+     */
+    private final Subscriber<? super ByteBuffer> subscriber;
+
+    /**
+     * The number of requested but not yet delivered chunks.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicLong demand = new AtomicLong();
+
+    /**
+     * The number of signals since the last drain, {@code 0} if no drain is running.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * {@code true} once the subscription was cancelled.
+     *
+     * @since 0.3.0
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * The opened file or {@code null} before the first request.
+     *
+     * @since 0.3.0
+     */
+    private volatile RepositoryClient.Resource resource;
+
+    /**
+     * An invalid request that is reported on the next drain or {@code null}.
+     *
+     * @since 0.3.0
+     */
+    private volatile Throwable invalidRequest;
+
+    /**
+     * {@code true} once a terminal signal was sent. Only accessed by the draining thread.
+     *
+     * @since 0.3.0
+     */
+    private boolean done;
+
+    /**
+     * Creates an instance of {@link DownloadSubscription}.
+     *
+     * @param subscriber the subscriber.
+     * @since 0.3.0
+     */
+    private DownloadSubscription(Subscriber<? super ByteBuffer> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0)
+        invalidRequest = new IllegalArgumentException("Requested " + n + " chunks, must be > 0!");
+      else demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      RepositoryClient.Resource resource = this.resource;
+      if (resource != null) resource.abort();
+    }
+
+    /**
+     * Schedules a drain on the {@link Executor}, unless a drain is already running.
+     *
+     * @since 0.3.0
+     */
+    private void drain() {
+      if (pending.getAndIncrement() != 0) return;
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        cancelled = true;
+        subscriber.onError(e);
+      }
+    }
+
+    /**
+     * Delivers requested chunks until the demand is satisfied or the download ends.
+     *
+     * @since 0.3.0
+     */
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        while (!done && !cancelled) {
+          if (invalidRequest != null) {
+            fail(invalidRequest);
+            break;
+          }
+          if (demand.get() == 0) break;
+          try {
+            if (!emit()) break;
+          } catch (IOException | RequestException e) {
+            if (!cancelled) fail(e);
+            break;
+          }
+        }
+        if (cancelled) close();
+        missed = pending.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    /**
+     * Reads and delivers the next chunk, opening the file if necessary.
+     *
+     * @return {@code true} if a chunk was delivered, {@code false} if the download completed.
+     * @throws IOException if an I/O error occurs.
+     * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+     * @since 0.3.0
+     */
+    private boolean emit() throws IOException, RequestException {
+      if (resource == null) {
+        resource = client.open(urlString, Validators.NONE);
+        if (cancelled) return false;
+        contentLength = resource.length;
+        if (listener != null) listener.onProgress(0, contentLength);
+      }
+
+      byte[] buffer = new byte[CHUNK_SIZE];
+      int read = resource.inputStream.read(buffer);
+      if (read == -1) {
+        done = true;
+        resource.inputStream.close();
+        subscriber.onComplete();
+        return false;
+      }
+      transferred += read;
+      if (listener != null) listener.onProgress(transferred, contentLength);
+      demand.decrementAndGet();
+      subscriber.onNext(ByteBuffer.wrap(buffer, 0, read));
+      return true;
+    }
+
+    /**
+     * Closes the file and sends an error to the subscriber.
+     *
+     * @param throwable the cause of the failure.
+     * @since 0.3.0
+     */
+    private void fail(Throwable throwable) {
+      done = true;
+      close();
+      subscriber.onError(throwable);
+    }
+
+    /**
+     * Aborts the download and releases the connection of the file, if it was opened.
+     *
+     * @since 0.3.0
+     */
+    private void close() {
+      RepositoryClient.Resource resource = this.resource;
+      if (resource != null) resource.abort();
+    }
+  }
+}
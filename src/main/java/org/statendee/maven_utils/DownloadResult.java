@@ -0,0 +1,101 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.nio.file.Path;
+
+/**
+ * A {@link DownloadResult} is the outcome of downloading a single {@link ArtifactFile} as part of a
+ * bulk download.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class DownloadResult {
+
+  /**
+   * The file that was downloaded.
+   *
+   * @since 0.3.0
+   */
+  public final ArtifactFile file;
+
+  /**
+   * The path the file was (or would have been) downloaded to.
+   *
+   * @since 0.3.0
+   */
+  public final Path path;
+
+  /**
+   * The number of bytes written or {@code -1} if the download failed.
+   *
+   * @since 0.3.0
+   */
+  public final long size;
+
+  /**
+   * The {@link Exception} that caused the download to fail or {@code null} if it succeeded.
+   *
+   * @since 0.3.0
+   */
+  public final Exception exception;
+
+  /**
+   * Creates an instance of {@link DownloadResult}.
+   *
+   * @param file the file that was downloaded.
+   * @param path the path the file was (or would have been) downloaded to.
+   * @param size the number of bytes written or {@code -1} if the download failed.
+   * @param exception the {@link Exception} that caused the download to fail or {@code null}.
+   * @since 0.3.0
+   */
+  public DownloadResult(ArtifactFile file, Path path, long size, Exception exception) {
+    this.file = file;
+    this.path = path;
+    this.size = size;
+    this.exception = exception;
+  }
+
+  /**
+   * Returns {@code true} if the file was downloaded successfully.
+   *
+   * @return {@code true} if the file was downloaded successfully.
+   * @since 0.3.0
+   */
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+
+  /**
+   * Returns {@code true} if the file does not exist in the repository, i.e. the server returned
+   * {@code 404 (Not Found)}.
+   *
+   * @return {@code true} if the file does not exist in the repository.
+   * @since 0.3.0
+   */
+  public boolean isMissing() {
+    return exception instanceof RequestException
+        && ((RequestException) exception).responseCode == 404;
+  }
+
+  @Override
+  public String toString() {
+    return file
+        + (isSuccessful() ? " -> " + path + " (" + size + " bytes)" : " failed: " + exception);
+  }
+}
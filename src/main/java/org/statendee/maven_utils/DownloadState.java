@@ -0,0 +1,217 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.statendee.maven_utils.metadata.Validators;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.Properties;
+
+/**
+ * A {@link DownloadState} records which version of a remote file a downloaded file is: the {@link
+ * Validators} and the SHA-1 sent with it, and the size and modification time of the downloaded
+ * file to detect local changes.
+ *
+ * <p>The state is stored in the extended attribute {@value #ATTRIBUTE} of the downloaded file. If
+ * the file system does not support extended attributes, it is stored in a sidecar file next to the
+ * downloaded file, named like it with the suffix {@value #SIDECAR_SUFFIX}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+final class DownloadState {
+
+  /**
+   * The name of the extended attribute.
+   *
+   * @since 0.3.0
+   */
+  static final String ATTRIBUTE = "statendee.download";
+
+  /**
+   * The suffix of the sidecar file.
+   *
+   * @since 0.3.0
+   */
+  static final String SIDECAR_SUFFIX = ".download";
+
+  /**
+   * The {@link Validators} of the remote file.
+   *
+   * @since 0.3.0
+   */
+  final Validators validators;
+
+  /**
+   * The SHA-1 of the downloaded file as lowercase hex {@link String}.
+   *
+   * @since 0.3.0
+   */
+  final String sha1;
+
+  /**
+   * The size of the downloaded file in bytes.
+   *
+   * @since 0.3.0
+   */
+  final long size;
+
+  /**
+   * The modification time of the downloaded file in milliseconds.
+   *
+   * @since 0.3.0
+   */
+  final long modified;
+
+  /**
+   * Creates an instance of {@link DownloadState}.
+   *
+   * @param validators the {@link Validators} of the remote file.
+   * @param sha1 the SHA-1 of the downloaded file.
+   * @param size the size of the downloaded file in bytes.
+   * @param modified the modification time of the downloaded file in milliseconds.
+   * @since 0.3.0
+   */
+  DownloadState(Validators validators, String sha1, long size, long modified) {
+    this.validators = validators;
+    this.sha1 = sha1;
+    this.size = size;
+    this.modified = modified;
+  }
+
+  /**
+   * Reads the state of a downloaded file.
+   *
+   * @param path the downloaded file.
+   * @return the state or {@code null} if the file does not exist, has no state or was changed
+   *     since the state was written.
+   * @since 0.3.0
+   */
+  static DownloadState read(Path path) {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (IOException e) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try (InputStream inputStream = new ByteArrayInputStream(load(path))) {
+      properties.load(inputStream);
+    } catch (IOException e) {
+      return null;
+    }
+    try {
+      DownloadState state =
+          new DownloadState(
+              new Validators(
+                  properties.getProperty("etag"), properties.getProperty("lastModified")),
+              properties.getProperty("sha1"),
+              Long.parseLong(properties.getProperty("size")),
+              Long.parseLong(properties.getProperty("modified")));
+      if (state.size != attributes.size()
+          || state.modified != attributes.lastModifiedTime().toMillis()) return null;
+      return state;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Writes this state for a downloaded file, to an extended attribute if supported, otherwise to a
+   * sidecar file.
+   *
+   * @param path the downloaded file.
+   * @throws IOException if the state cannot be written.
+   * @since 0.3.0
+   */
+  void write(Path path) throws IOException {
+    Properties properties = new Properties();
+    if (validators.etag != null) properties.setProperty("etag", validators.etag);
+    if (validators.lastModified != null)
+      properties.setProperty("lastModified", validators.lastModified);
+    if (sha1 != null) properties.setProperty("sha1", sha1);
+    properties.setProperty("size", String.valueOf(size));
+    properties.setProperty("modified", String.valueOf(modified));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    properties.store(bytes, null);
+
+    Path sidecar = getSidecar(path);
+    UserDefinedFileAttributeView view =
+        Files.getFileAttributeView(path, UserDefinedFileAttributeView.class);
+    if (view != null)
+      try {
+        view.write(ATTRIBUTE, ByteBuffer.wrap(bytes.toByteArray()));
+        Files.deleteIfExists(sidecar);
+        return;
+      } catch (IOException | UnsupportedOperationException ignored) {
+        // Fall back to a sidecar file.
+      }
+    try (OutputStream outputStream = Files.newOutputStream(sidecar)) {
+      bytes.writeTo(outputStream);
+    }
+  }
+
+  /**
+   * Loads the stored state of a downloaded file from its extended attribute or its sidecar file.
+   *
+   * @param path the downloaded file.
+   * @return the stored state.
+   * @throws IOException if no state is stored.
+   * @since 0.3.0
+   */
+  private static byte[] load(Path path) throws IOException {
+    UserDefinedFileAttributeView view =
+        Files.getFileAttributeView(path, UserDefinedFileAttributeView.class);
+    if (view != null)
+      try {
+        ByteBuffer buffer = ByteBuffer.allocate(view.size(ATTRIBUTE));
+        view.read(ATTRIBUTE, buffer);
+        return buffer.array();
+      } catch (IOException | UnsupportedOperationException ignored) {
+        // Try the sidecar file.
+      }
+    Path sidecar = getSidecar(path);
+    if (!Files.isRegularFile(sidecar)) throw new NoSuchFileException(sidecar.toString());
+    return Files.readAllBytes(sidecar);
+  }
+
+  /**
+   * Returns the sidecar file of a downloaded file.
+   *
+   * @param path the downloaded file.
+   * @return the sidecar file.
+   * @since 0.3.0
+   */
+  static Path getSidecar(Path path) {
+    return path.resolveSibling(path.getFileName() + SIDECAR_SUFFIX);
+  }
+
+  @Override
+  public String toString() {
+    return "etag=" + validators.etag + ", sha1=" + sha1 + ", size=" + size;
+  }
+}
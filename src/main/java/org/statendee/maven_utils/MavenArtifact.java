@@ -15,34 +15,65 @@ limitations under the License.
  */
 package org.statendee.maven_utils;
 
-import org.codehaus.plexus.util.Base64;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.metadata.SnapshotVersion;
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.stream.ProgressListener;
 import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionIndex;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.net.ssl.HttpsURLConnection;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A {@link MavenArtifact} represents an artifact in a maven repository.
  *
+ * <p>A {@link MavenArtifact} is a lightweight, immutable handle that only holds its coordinates;
+ * the transport, credentials, metadata cache and download threads are owned by its {@link
+ * RepositoryClient}. Handles of one client are best obtained with {@link
+ * RepositoryClient#artifact(String, String)}. The public constructors create a private client for
+ * compatibility.
+ *
+ * <p>Repositories can be accessed via {@code https://}, {@code http://} or {@code file://} URLs,
+ * see {@link RepositoryClient}.
+ *
  * @author jojomatik
- * @version 0.2.1
+ * @version 0.3.0
  * @since 0.1.0
  */
 public class MavenArtifact {
 
+  /**
+   * The number of parallel downloads used by {@link #download(ComparableVersion, List, String)}.
+   *
+   * @since 0.3.0
+   */
+  public static final int DEFAULT_DOWNLOAD_PARALLELISM = 4;
+
+  /**
+   * The number of parallel {@code HEAD} requests used by {@link #probe(Collection, List)}.
+   *
+   * @since 0.3.0
+   */
+  public static final int DEFAULT_PROBE_PARALLELISM = 16;
+
   /**
    * The URL to the repository that contains the artifact.
    *
@@ -65,18 +96,11 @@ public class MavenArtifact {
   public final String artifactId;
 
   /**
-   * The username to authenticate to the repository.
-   *
-   * @since 0.1.0
-   */
-  private String username;
-
-  /**
-   * The token (or password) to authenticate to the repository.
+   * The {@link RepositoryClient} that is used to access the repository.
    *
-   * @since 0.1.0
+   * @since 0.3.0
    */
-  private String token;
+  private final RepositoryClient client;
 
   /**
    * Creates an instance of {@link MavenArtifact} based on the URL of the repository, the groupId
@@ -90,9 +114,7 @@ public class MavenArtifact {
    * @since 0.1.0
    */
   public MavenArtifact(String repository, String groupId, String artifactId) {
-    this.repository = repository.endsWith("/") ? repository : (repository + "/");
-    this.groupId = groupId;
-    this.artifactId = artifactId;
+    this(new RepositoryClient(repository), groupId, artifactId);
   }
 
   /**
@@ -110,9 +132,46 @@ public class MavenArtifact {
    */
   public MavenArtifact(
       String repository, String groupId, String artifactId, String username, String token) {
-    this(repository, groupId, artifactId);
-    this.username = username;
-    this.token = token;
+    this(new RepositoryClient(repository, username, token), groupId, artifactId);
+  }
+
+  /**
+   * Creates an instance of {@link MavenArtifact} that accesses the repository through a shared
+   * {@link RepositoryClient}.
+   *
+   * @param client the {@link RepositoryClient} of the repository that contains the artifact.
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @since 0.3.0
+   */
+  public MavenArtifact(RepositoryClient client, String groupId, String artifactId) {
+    this.client = client;
+    this.repository = client.url;
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+  }
+
+  /**
+   * Returns the {@link RepositoryClient} that is used to access the repository.
+   *
+   * @return the {@link RepositoryClient} of this artifact.
+   * @since 0.3.0
+   */
+  public RepositoryClient getClient() {
+    return client;
+  }
+
+  /**
+   * Returns a {@link MavenArtifact} with other coordinates in the same repository, sharing the
+   * {@link RepositoryClient} of this artifact.
+   *
+   * @param groupId the groupId of the other artifact.
+   * @param artifactId the artifactId of the other artifact.
+   * @return a {@link MavenArtifact} with the given coordinates in the same repository.
+   * @since 0.3.0
+   */
+  public MavenArtifact withCoordinates(String groupId, String artifactId) {
+    return client.artifact(groupId, artifactId);
   }
 
   /**
@@ -130,7 +189,7 @@ public class MavenArtifact {
    * ComparableVersion}.
    *
    * @return the latest release version available in the maven repository as a {@link
-   *     ComparableVersion}.
+   *     ComparableVersion} or {@code null} if the metadata lists none.
    * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
    * @throws RequestException if the server returned an response code other than 4xx or 5xx.
    * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
@@ -140,9 +199,7 @@ public class MavenArtifact {
    */
   public ComparableVersion getLatestReleaseVersion()
       throws IOException, RequestException, ParserConfigurationException, SAXException {
-    String latestReleaseVersion =
-        getVersioning().getElementsByTagName("release").item(0).getFirstChild().getTextContent();
-    return new ComparableVersion(latestReleaseVersion);
+    return getMetadata().release;
   }
 
   /**
@@ -150,7 +207,7 @@ public class MavenArtifact {
    * repository as a {@link ComparableVersion}.
    *
    * @return the latest version available in the maven repository as a {@link
-   *     ComparableVersion}.
+   *     ComparableVersion} or {@code null} if the metadata lists none.
    * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
    * @throws RequestException if the server returned an response code other than 4xx or 5xx.
    * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
@@ -160,15 +217,99 @@ public class MavenArtifact {
    */
   public ComparableVersion getLatestVersion()
       throws IOException, RequestException, ParserConfigurationException, SAXException {
-    String latestVersionString =
-        getVersioning().getElementsByTagName("latest").item(0).getFirstChild().getTextContent();
-
-    ComparableVersion latestVersion = new ComparableVersion(latestVersionString);
-    if (latestVersion.isSnapshot()) latestVersion = getLatestSnapshotBuild(latestVersion);
+    ComparableVersion latestVersion = getMetadata().latest;
+    if (latestVersion != null && latestVersion.isSnapshot())
+      latestVersion = getLatestSnapshotBuild(latestVersion);
 
     return latestVersion;
   }
 
+  /**
+   * Returns a {@link VersionIndex} of all versions listed in the main {@code maven-metadata.xml}
+   * file of the artifact.
+   *
+   * <p>The index is built once per call and can be used to answer many range queries, e.g. for the
+   * highest non-{@code SNAPSHOT}-version in {@code [1.4,2.0)}, without requesting the metadata
+   * again.
+   *
+   * @return a {@link VersionIndex} of all versions available in the maven repository.
+   * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws SAXException if any parse errors occur.
+   * @since 0.3.0
+   */
+  public VersionIndex getVersionIndex()
+      throws IOException, RequestException, ParserConfigurationException, SAXException {
+    return getMetadata().getVersionIndex();
+  }
+
+  /**
+   * Returns the {@link ArtifactMetadata} parsed from the main {@code maven-metadata.xml} file of
+   * the artifact.
+   *
+   * <p>The metadata is cached by the {@link RepositoryClient} and revalidated with a conditional
+   * request, if the server sent an {@code ETag} or {@code Last-Modified} header. The {@link
+   * CachePolicy} of the client decides whether cached metadata is used without revalidation.
+   *
+   * @return the {@link ArtifactMetadata} of the artifact.
+   * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws SAXException if any parse errors occur.
+   * @since 0.3.0
+   */
+  public ArtifactMetadata getMetadata()
+      throws IOException, RequestException, ParserConfigurationException, SAXException {
+    client.recordAccess(groupId + ":" + artifactId);
+    return lookupMetadata();
+  }
+
+  /**
+   * Returns the {@link ArtifactMetadata} like {@link #getMetadata()}, without recording the access
+   * for {@link RepositoryClient#getAccessCounts()}.
+   *
+   * @return the {@link ArtifactMetadata} of the artifact.
+   * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws SAXException if any parse errors occur.
+   * @since 0.3.0
+   */
+  ArtifactMetadata lookupMetadata()
+      throws IOException, RequestException, ParserConfigurationException, SAXException {
+    return client.lookup(client.artifactMetadata, getURLFromCoordinates(), this::getMetadata);
+  }
+
+  /**
+   * Returns the {@link ArtifactMetadata} parsed from the main {@code maven-metadata.xml} file of
+   * the artifact, sending a conditional request based on the {@link Validators} of {@code cached}.
+   *
+   * @param cached the previously returned {@link ArtifactMetadata} or {@code null}.
+   * @return {@code cached} if the server reported that the metadata was not modified, otherwise
+   *     the freshly parsed {@link ArtifactMetadata}.
+   * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws SAXException if any parse errors occur.
+   * @since 0.3.0
+   */
+  public ArtifactMetadata getMetadata(ArtifactMetadata cached)
+      throws IOException, RequestException, ParserConfigurationException, SAXException {
+    RepositoryClient.Resource resource =
+        client.open(
+            getURLFromCoordinates() + "/maven-metadata.xml",
+            cached != null ? cached.validators : Validators.NONE);
+    if (resource.isNotModified()) return cached;
+    try (InputStream inputStream = resource.inputStream) {
+      return ArtifactMetadata.fromVersioning(getVersioning(inputStream), resource.validators);
+    }
+  }
+
   /**
    * Returns the latest {@code SNAPSHOT}-build (including timestamp and build number) of a specific
    * {@code SNAPSHOT}-version available in the maven repository as a {@link ComparableVersion}.
@@ -184,52 +325,99 @@ public class MavenArtifact {
    */
   public ComparableVersion getLatestSnapshotBuild(ComparableVersion snapshotVersion)
       throws IOException, RequestException, ParserConfigurationException, SAXException {
+    return getSnapshotMetadata(snapshotVersion).latestBuild;
+  }
 
-    Element versioning = getVersioning(getURLFromCoordinates() + "/" + snapshotVersion);
-    Element snapshot = (Element) versioning.getElementsByTagName("snapshot").item(0);
-
-    String timestamp =
-        snapshot.getElementsByTagName("timestamp").item(0).getFirstChild().getTextContent();
-    String buildNumber =
-        snapshot.getElementsByTagName("buildNumber").item(0).getFirstChild().getTextContent();
-
-    return new ComparableVersion(snapshotVersion + "-" + timestamp + "-" + buildNumber);
+  /**
+   * Returns the {@link SnapshotMetadata} of a specific {@code SNAPSHOT}-version, which contains the
+   * latest build as well as the exact deployed file for each classifier and extension.
+   *
+   * <p>The metadata is cached by the {@link RepositoryClient} and revalidated with a conditional
+   * request, if the server sent an {@code ETag} or {@code Last-Modified} header. The {@link
+   * CachePolicy} of the client decides whether cached metadata is used without revalidation.
+   *
+   * @param snapshotVersion the {@code SNAPSHOT}-version (without build info) to retrieve the
+   *     metadata for.
+   * @return the {@link SnapshotMetadata} of the specified {@code SNAPSHOT}-version.
+   * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws SAXException if any parse errors occur.
+   * @since 0.3.0
+   */
+  public SnapshotMetadata getSnapshotMetadata(ComparableVersion snapshotVersion)
+      throws IOException, RequestException, ParserConfigurationException, SAXException {
+    client.recordAccess(groupId + ":" + artifactId + ":" + snapshotVersion);
+    return lookupSnapshotMetadata(snapshotVersion);
   }
 
   /**
-   * Returns the {@code versioning} element of the main {@code maven-metadata.xml} file of the
-   * artifact.
+   * Returns the {@link SnapshotMetadata} like {@link #getSnapshotMetadata(ComparableVersion)},
+   * without recording the access for {@link RepositoryClient#getAccessCounts()}.
    *
-   * @return the {@code versioning} element of the main {@code maven-metadata.xml} file of the
-   *     artifact.
+   * @param snapshotVersion the {@code SNAPSHOT}-version (without build info) to retrieve the
+   *     metadata for.
+   * @return the {@link SnapshotMetadata} of the specified {@code SNAPSHOT}-version.
    * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
    * @throws RequestException if the server returned an response code other than 4xx or 5xx.
    * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
    *     configuration requested.
    * @throws SAXException if any parse errors occur.
-   * @since 0.1.0
+   * @since 0.3.0
    */
-  private Element getVersioning()
+  SnapshotMetadata lookupSnapshotMetadata(ComparableVersion snapshotVersion)
       throws IOException, RequestException, ParserConfigurationException, SAXException {
-    return getVersioning(getURLFromCoordinates());
+    return client.lookup(
+        client.snapshotMetadata,
+        getURLFromCoordinates() + "/" + snapshotVersion,
+        cached -> getSnapshotMetadata(snapshotVersion, cached));
   }
 
   /**
-   * Returns the {@code versioning} element of the {@code maven-metadata.xml} file at specified url.
+   * Returns the {@link SnapshotMetadata} of a specific {@code SNAPSHOT}-version, sending a
+   * conditional request based on the {@link Validators} of {@code cached}.
    *
-   * @return the {@code versioning} element of the {@code maven-metadata.xml} file at specified url.
+   * @param snapshotVersion the {@code SNAPSHOT}-version (without build info) to retrieve the
+   *     metadata for.
+   * @param cached the previously returned {@link SnapshotMetadata} of this version or {@code null}.
+   * @return {@code cached} if the server reported that the metadata was not modified, otherwise
+   *     the freshly parsed {@link SnapshotMetadata}.
    * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
    * @throws RequestException if the server returned an response code other than 4xx or 5xx.
    * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
    *     configuration requested.
    * @throws SAXException if any parse errors occur.
-   * @since 0.1.0
+   * @since 0.3.0
    */
-  private Element getVersioning(String url)
+  public SnapshotMetadata getSnapshotMetadata(
+      ComparableVersion snapshotVersion, SnapshotMetadata cached)
       throws IOException, RequestException, ParserConfigurationException, SAXException {
-    String urlString = url + "/maven-metadata.xml";
+    RepositoryClient.Resource resource =
+        client.open(
+            getURLFromCoordinates() + "/" + snapshotVersion + "/maven-metadata.xml",
+            cached != null ? cached.validators : Validators.NONE);
+    if (resource.isNotModified()) return cached;
+    try (InputStream inputStream = resource.inputStream) {
+      return SnapshotMetadata.fromVersioning(
+          snapshotVersion, getVersioning(inputStream), resource.validators);
+    }
+  }
 
-    Document result = parseXML(request(urlString));
+  /**
+   * Returns the {@code versioning} element of a {@code maven-metadata.xml} file.
+   *
+   * @param xml the {@link InputStream} of the {@code maven-metadata.xml} file.
+   * @return the {@code versioning} element of the {@code maven-metadata.xml} file.
+   * @throws IOException if any I/O errors occur while parsing the {@link InputStream}.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws SAXException if any parse errors occur.
+   * @since 0.3.0
+   */
+  static Element getVersioning(InputStream xml)
+      throws IOException, ParserConfigurationException, SAXException {
+    Document result = parseXML(xml);
     Element metadata = result.getDocumentElement();
     NodeList versioningList = metadata.getElementsByTagName("versioning");
     return (Element) versioningList.item(0);
@@ -239,64 +427,442 @@ public class MavenArtifact {
    * Downloads a file from the maven repository based on the version, classifier, extension and the
    * target path.
    *
+   * <p>For {@code SNAPSHOT}-versions the file name is resolved using the {@code snapshotVersion}
+   * entries of the {@code SNAPSHOT}-metadata: a version without build info or the latest build
+   * resolves to the latest deployed file with the given classifier and extension, even if it was
+   * deployed in an earlier build. A specific build does not request the metadata; it uses it only
+   * if it is already cached, otherwise the file is named after the build.
+   *
    * @param version the version that should be downloaded.
    * @param classifier the classifier of the file that should be downloaded (e.g. {@code javadoc} or {@code jar-with-dependencies}).
    * @param extension the extension of the file.
    * @param path the path where the file should be downloaded to (including the file name).
-   * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream}.
+   * @throws IOException if an I/O error occurs e.g. while parsing the {@link InputStream} or the
+   *     {@code SNAPSHOT}-metadata.
    * @throws RequestException if the server returned an response code other than 4xx or 5xx.
    * @since 0.1.0
    */
   public void download(ComparableVersion version, String classifier, String extension, String path)
       throws IOException, RequestException {
-    String urlString =
-        getURLFromCoordinates()
-            + "/"
-            + version.getVersionWithoutBuildInfo()
-            + "/"
-            + this.artifactId
-            + "-"
-            + version.toString().replace("-SNAPSHOT", "")
-            + (!classifier.equals("") ? "-" : "")
-            + classifier
-            + "."
-            + extension;
-
-    try (InputStream initialStream = request(urlString)) {
-      File file = new File(path);
-      //noinspection ResultOfMethodCallIgnored
-      file.getParentFile().mkdirs();
-      Files.copy(initialStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    client.transfer(getFileURL(version, classifier, extension), path);
+  }
+
+  /**
+   * Downloads a file from the maven repository like {@link #download(ComparableVersion, String,
+   * String, String)}, unless the target path already contains the same version of the file.
+   *
+   * <p>The {@code ETag}, {@code Last-Modified}, size and SHA-1 of a downloaded file are stored in
+   * an extended attribute of the file or, if the file system does not support them, in a {@code
+   * .download} file next to it. An unchanged file costs a single conditional request (or a request
+   * of its {@code .sha1} file if the server sent no validators) and is not written again.
+   *
+   * @param version the version that should be downloaded.
+   * @param classifier the classifier of the file that should be downloaded.
+   * @param extension the extension of the file.
+   * @param path the path where the file should be downloaded to (including the file name).
+   * @return {@code true} if the file was downloaded, {@code false} if it was up to date.
+   * @throws IOException if an I/O error occurs e.g. while parsing the {@code SNAPSHOT}-metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public boolean downloadIfModified(
+      ComparableVersion version, String classifier, String extension, String path)
+      throws IOException, RequestException {
+    return client.transferIfModified(
+        getFileURL(version, classifier, extension), Paths.get(path));
+  }
+
+  /**
+   * Extracts a zip (or jar) or {@code tar.gz} file of the maven repository based on the version,
+   * classifier and extension to a directory while it is downloaded. See {@link
+   * #extract(ComparableVersion, String, String, Path, boolean)}.
+   *
+   * @param version the version that should be extracted.
+   * @param classifier the classifier of the file or an empty {@link String} for the main file.
+   * @param extension the extension of the file, e.g. {@code zip}, {@code jar} or {@code tar.gz}.
+   * @param directory the directory the file is extracted to, which is replaced on success.
+   * @return the number of extracted files.
+   * @throws IOException if an I/O error occurs, the archive is invalid or an entry lies outside of
+   *     the directory.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public int extract(ComparableVersion version, String classifier, String extension, Path directory)
+      throws IOException, RequestException {
+    return extract(version, classifier, extension, directory, false);
+  }
+
+  /**
+   * Extracts a zip (or jar) or {@code tar.gz} file of the maven repository based on the version,
+   * classifier and extension to a directory while it is downloaded, without storing the file
+   * itself.
+   *
+   * <p>Entries are written to a staging directory next to the directory as they arrive. Once the
+   * whole file was extracted (and, if requested, its SHA-1 matches the {@code .sha1} file of the
+   * repository), the staging directory replaces the directory. If the extraction fails, the
+   * directory is left untouched. Entries that would be written outside of the directory fail the
+   * extraction.
+   *
+   * @param version the version that should be extracted.
+   * @param classifier the classifier of the file or an empty {@link String} for the main file.
+   * @param extension the extension of the file, e.g. {@code zip}, {@code jar} or {@code tar.gz}.
+   * @param directory the directory the file is extracted to, which is replaced on success.
+   * @param verify {@code true} if the SHA-1 of the file should be verified.
+   * @return the number of extracted files.
+   * @throws IOException if an I/O error occurs, the archive is invalid, an entry lies outside of
+   *     the directory, or the SHA-1 is missing or does not match.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public int extract(
+      ComparableVersion version,
+      String classifier,
+      String extension,
+      Path directory,
+      boolean verify)
+      throws IOException, RequestException {
+    if (!ArchiveExtractor.isSupported(extension))
+      throw new IllegalArgumentException("Cannot extract ." + extension + " files!");
+    String url = getFileURL(version, classifier, extension);
+    String sha1 = null;
+    if (verify && (sha1 = client.getChecksum(url + ".sha1")) == null)
+      throw new IOException("The repository has no SHA-1 of " + url + "!");
+    return ArchiveExtractor.extract(client.request(url), extension, directory, sha1);
+  }
+
+  /**
+   * Returns an {@link InputStream} of a file in the maven repository based on the version,
+   * classifier and extension. The caller is responsible for closing it.
+   *
+   * <p>File names of {@code SNAPSHOT}-versions are resolved like in {@link
+   * #download(ComparableVersion, String, String, String)}.
+   *
+   * @param version the version of the file.
+   * @param classifier the classifier of the file or an empty {@link String} for the main file.
+   * @param extension the extension of the file.
+   * @return an {@link InputStream} of the file.
+   * @throws IOException if an I/O error occurs e.g. while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public InputStream getInputStream(ComparableVersion version, String classifier, String extension)
+      throws IOException, RequestException {
+    return client.request(getFileURL(version, classifier, extension));
+  }
+
+  /**
+   * Returns a {@link DownloadPublisher} that streams a file in the maven repository based on the
+   * version, classifier and extension as it is downloaded, respecting the demand of its subscriber.
+   *
+   * <p>File names of {@code SNAPSHOT}-versions are resolved like in {@link
+   * #download(ComparableVersion, String, String, String)}; the file itself is requested once the
+   * subscriber requests the first chunk.
+   *
+   * @param version the version of the file.
+   * @param classifier the classifier of the file or an empty {@link String} for the main file.
+   * @param extension the extension of the file.
+   * @return a {@link DownloadPublisher} of the file.
+   * @throws IOException if an I/O error occurs while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx for the
+   *     {@code SNAPSHOT}-metadata.
+   * @since 0.3.0
+   */
+  public DownloadPublisher stream(ComparableVersion version, String classifier, String extension)
+      throws IOException, RequestException {
+    return stream(version, classifier, extension, null);
+  }
+
+  /**
+   * Returns a {@link DownloadPublisher} that streams a file in the maven repository based on the
+   * version, classifier and extension as it is downloaded and reports the progress to a listener.
+   * See {@link #stream(ComparableVersion, String, String)}.
+   *
+   * @param version the version of the file.
+   * @param classifier the classifier of the file or an empty {@link String} for the main file.
+   * @param extension the extension of the file.
+   * @param listener the listener notified about the progress or {@code null}.
+   * @return a {@link DownloadPublisher} of the file.
+   * @throws IOException if an I/O error occurs while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx for the
+   *     {@code SNAPSHOT}-metadata.
+   * @since 0.3.0
+   */
+  public DownloadPublisher stream(
+      ComparableVersion version, String classifier, String extension, ProgressListener listener)
+      throws IOException, RequestException {
+    return new DownloadPublisher(client, getFileURL(version, classifier, extension), listener);
+  }
+
+  /**
+   * Opens a zip file (e.g. a jar) in the maven repository based on the version, classifier and
+   * extension as {@link RemoteArchive}, which reads its central directory and single entries with
+   * range requests instead of downloading the whole file.
+   *
+   * <p>File names of {@code SNAPSHOT}-versions are resolved like in {@link
+   * #download(ComparableVersion, String, String, String)}. If the server does not support ranges,
+   * the file is downloaded to a temporary file, which is deleted when the archive is closed.
+   *
+   * @param version the version of the file.
+   * @param classifier the classifier of the file or an empty {@link String} for the main file.
+   * @param extension the extension of the file, e.g. {@code jar}.
+   * @return the opened {@link RemoteArchive}.
+   * @throws IOException if an I/O error occurs e.g. while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata, or if the file is not a zip archive.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public RemoteArchive openArchive(ComparableVersion version, String classifier, String extension)
+      throws IOException, RequestException {
+    return RemoteArchive.open(client, getFileURL(version, classifier, extension));
+  }
+
+  /**
+   * Downloads several files of a version, e.g. the main jar, its sources, javadoc and pom, in
+   * parallel to a directory.
+   *
+   * <p>Uses the {@link Executor} of the {@link RepositoryClient} or, if it has none, a temporary
+   * pool of {@link #DEFAULT_DOWNLOAD_PARALLELISM} threads. See {@link #download(ComparableVersion,
+   * List, String, Executor)}.
+   *
+   * @param version the version that should be downloaded.
+   * @param files the files (classifier and extension) that should be downloaded.
+   * @param directory the directory the files should be downloaded to.
+   * @return a {@link DownloadResult} for each file in the order of {@code files}.
+   * @throws IOException if an I/O error occurs while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx for the
+   *     {@code SNAPSHOT}-metadata.
+   * @since 0.3.0
+   */
+  public List<DownloadResult> download(
+      ComparableVersion version, List<ArtifactFile> files, String directory)
+      throws IOException, RequestException {
+    if (client.getExecutor() != null)
+      return download(version, files, directory, client.getExecutor());
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, Math.min(files.size(), DEFAULT_DOWNLOAD_PARALLELISM)));
+    try {
+      return download(version, files, directory, executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Downloads several files of a version, e.g. the main jar, its sources, javadoc and pom, in
+   * parallel to a directory.
+   *
+   * <p>The {@code SNAPSHOT}-metadata is requested at most once for all files. The files are named
+   * like in the repository. Failed downloads, e.g. of classifiers that do not exist, are reported
+   * in the returned {@link DownloadResult}s instead of being thrown.
+   *
+   * @param version the version that should be downloaded.
+   * @param files the files (classifier and extension) that should be downloaded.
+   * @param directory the directory the files should be downloaded to.
+   * @param executor the {@link Executor} that runs the downloads.
+   * @return a {@link DownloadResult} for each file in the order of {@code files}.
+   * @throws IOException if an I/O error occurs while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx for the
+   *     {@code SNAPSHOT}-metadata.
+   * @since 0.3.0
+   */
+  public List<DownloadResult> download(
+      ComparableVersion version, List<ArtifactFile> files, String directory, Executor executor)
+      throws IOException, RequestException {
+    SnapshotMetadata snapshotMetadata =
+        version.isSnapshot() ? getSnapshotMetadataForDownload(version) : null;
+
+    List<CompletableFuture<DownloadResult>> futures = new ArrayList<>(files.size());
+    for (ArtifactFile file : files) {
+      String urlString =
+          getFileURL(version, file.classifier, file.extension, snapshotMetadata);
+      Path path = Paths.get(directory, urlString.substring(urlString.lastIndexOf('/') + 1));
+      futures.add(
+          CompletableFuture.supplyAsync(
+              () -> {
+                try {
+                  long size = client.transfer(urlString, path.toString());
+                  return new DownloadResult(file, path, size, null);
+                } catch (IOException | RequestException e) {
+                  return new DownloadResult(file, path, -1, e);
+                }
+              },
+              executor));
     }
+
+    List<DownloadResult> results = new ArrayList<>(futures.size());
+    for (CompletableFuture<DownloadResult> future : futures) results.add(future.join());
+    return results;
   }
 
   /**
-   * Returns an {@link InputStream} for a given url {@link String}. If {@link #username} and {@link
-   * #token} are set, they are used in the {@code Authorization} header.
+   * Probes every combination of several versions and files, e.g. to find out which classifiers
+   * exist and how large they are before scheduling downloads.
    *
-   * @param urlString the url {@link String} that should be queried.
-   * @return the {@link InputStream} for the given url-{@link String}.
-   * @throws IOException if an I/O error occurs.
+   * <p>Uses the {@link Executor} of the {@link RepositoryClient} or, if it has none, a temporary
+   * pool of up to {@link #DEFAULT_PROBE_PARALLELISM} threads. See {@link #probe(Collection, List,
+   * Executor)}.
+   *
+   * @param versions the versions that should be probed.
+   * @param files the files (classifier and extension) that should be probed for each version.
+   * @return a {@link ProbeResult} for each combination, ordered by version and then by file.
+   * @throws IOException if an I/O error occurs while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx for the
+   *     {@code SNAPSHOT}-metadata.
+   * @since 0.3.0
+   */
+  public List<ProbeResult> probe(Collection<ComparableVersion> versions, List<ArtifactFile> files)
+      throws IOException, RequestException {
+    if (client.getExecutor() != null) return probe(versions, files, client.getExecutor());
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, Math.min(versions.size() * files.size(), DEFAULT_PROBE_PARALLELISM)));
+    try {
+      return probe(versions, files, executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Probes every combination of several versions and files with parallel {@code HEAD} requests,
+   * which report whether a file exists, its {@code Content-Length}, {@code Last-Modified} and
+   * {@code ETag} and, if the server sends them, its checksums.
+   *
+   * <p>The {@code SNAPSHOT}-metadata is requested at most once per {@code SNAPSHOT}-version. Failed
+   * probes are reported in the returned {@link ProbeResult}s instead of being thrown. The results
+   * are cached by the {@link RepositoryClient} according to its {@link CachePolicy}: downloads of
+   * files that were probed as missing fail without a request, and checksums reported by the server
+   * replace requests of checksum files, e.g. in {@link #downloadIfModified(ComparableVersion,
+   * String, String, String)}. The sizes can be used to prioritize downloads in a {@link
+   * org.statendee.maven_utils.schedule.DownloadScheduler}.
+   *
+   * @param versions the versions that should be probed.
+   * @param files the files (classifier and extension) that should be probed for each version.
+   * @param executor the {@link Executor} that runs the probes.
+   * @return a {@link ProbeResult} for each combination, ordered by version and then by file.
+   * @throws IOException if an I/O error occurs while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx for the
+   *     {@code SNAPSHOT}-metadata.
+   * @since 0.3.0
+   */
+  public List<ProbeResult> probe(
+      Collection<ComparableVersion> versions, List<ArtifactFile> files, Executor executor)
+      throws IOException, RequestException {
+    List<CompletableFuture<ProbeResult>> futures = new ArrayList<>(versions.size() * files.size());
+    for (ComparableVersion version : versions) {
+      SnapshotMetadata snapshotMetadata =
+          version.isSnapshot() ? getSnapshotMetadataForDownload(version) : null;
+      for (ArtifactFile file : files) {
+        String urlString = getFileURL(version, file.classifier, file.extension, snapshotMetadata);
+        futures.add(
+            CompletableFuture.supplyAsync(() -> client.probe(version, file, urlString), executor));
+      }
+    }
+
+    List<ProbeResult> results = new ArrayList<>(futures.size());
+    for (CompletableFuture<ProbeResult> future : futures) results.add(future.join());
+    return results;
+  }
+
+  /**
+   * Returns the URL-{@link String} of a file in the maven repository based on the version,
+   * classifier and extension.
+   *
+   * @param version the version of the file.
+   * @param classifier the classifier of the file.
+   * @param extension the extension of the file.
+   * @return the URL-{@link String} of the file.
+   * @throws IOException if an I/O error occurs while requesting or parsing the {@code
+   *     SNAPSHOT}-metadata.
    * @throws RequestException if the server returned an response code other than 4xx or 5xx.
-   * @since 0.1.0
+   * @since 0.3.0
    */
-  private InputStream request(String urlString) throws IOException, RequestException {
-    URL server = new URL(urlString);
-    HttpsURLConnection connection = (HttpsURLConnection) server.openConnection();
+  private String getFileURL(ComparableVersion version, String classifier, String extension)
+      throws IOException, RequestException {
+    SnapshotMetadata snapshotMetadata =
+        version.isSnapshot() ? getSnapshotMetadataForDownload(version) : null;
+    return getFileURL(version, classifier, extension, snapshotMetadata);
+  }
 
-    String header;
-    if (username != null && token != null && !username.equals("") && !token.equals("")) {
-      String auth = username + ":" + token;
-      byte[] encodedAuth = Base64.encodeBase64(auth.getBytes(StandardCharsets.UTF_8));
-      header = "Basic " + new String(encodedAuth);
-      connection.setRequestProperty("Authorization", header);
+  /**
+   * Returns the {@link SnapshotMetadata} used to resolve the file names of a {@code
+   * SNAPSHOT}-version.
+   *
+   * <p>Only a version without build info requests the metadata. The files of a specific build are
+   * named after the build, so it uses the metadata only if it is already cached, e.g. because the
+   * build was resolved with {@link #getLatestVersion()}, to find files deployed in an earlier
+   * build. If the version has no metadata, the file names are built from the version like for
+   * non-{@code SNAPSHOT}-versions.
+   *
+   * @param version the {@code SNAPSHOT}-version, with or without build info.
+   * @return the {@link SnapshotMetadata} of the version or {@code null} if it is not cached or does
+   *     not exist.
+   * @throws IOException if an I/O error occurs while requesting or parsing the metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  SnapshotMetadata getSnapshotMetadataForDownload(ComparableVersion version)
+      throws IOException, RequestException {
+    ComparableVersion directory = version.getVersionWithoutBuildInfo();
+    if (!version.toString().equals(directory.toString()))
+      return client.snapshotMetadata.get(getURLFromCoordinates() + "/" + directory);
+    try {
+      return getSnapshotMetadata(directory);
+    } catch (RequestException e) {
+      if (e.responseCode == 404 || e.responseCode == 410) return null;
+      throw e;
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new IOException("Could not parse the metadata of " + directory + "!", e);
+    }
+  }
+
+  /**
+   * Returns the URL-{@link String} of a file in the maven repository based on the version,
+   * classifier, extension and the {@link SnapshotMetadata} of {@code SNAPSHOT}-versions.
+   *
+   * @param version the version of the file.
+   * @param classifier the classifier of the file.
+   * @param extension the extension of the file.
+   * @param snapshotMetadata the {@link SnapshotMetadata} of the version or {@code null} for
+   *     non-{@code SNAPSHOT}-versions.
+   * @return the URL-{@link String} of the file.
+   * @since 0.3.0
+   */
+  String getFileURL(
+      ComparableVersion version,
+      String classifier,
+      String extension,
+      SnapshotMetadata snapshotMetadata) {
+    ComparableVersion directory = version.getVersionWithoutBuildInfo();
+    String fileName = null;
+    if (snapshotMetadata != null) {
+      SnapshotVersion snapshotVersion = snapshotMetadata.getSnapshotVersion(classifier, extension);
+      if (snapshotVersion != null
+          && (version.toString().equals(directory.toString())
+              || version.compareTo(snapshotVersion.build) == 0
+              || (snapshotMetadata.latestBuild != null
+                  && version.compareTo(snapshotMetadata.latestBuild) == 0)))
+        fileName = snapshotVersion.getFileName(this.artifactId);
     }
+    if (fileName == null)
+      fileName =
+          this.artifactId
+              + "-"
+              + version.toString().replace("-SNAPSHOT", "")
+              + (!classifier.equals("") ? "-" : "")
+              + classifier
+              + "."
+              + extension;
 
-    connection.connect();
-    int responseCode;
-    if ((responseCode = connection.getResponseCode()) >= 400 && responseCode < 600)
-      throw new RequestException(responseCode);
-    return connection.getInputStream();
+    return getURLFromCoordinates() + "/" + directory + "/" + fileName;
   }
 
   /**
@@ -0,0 +1,245 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link MetadataPrefetcher} warms up the metadata cache of a {@link RepositoryClient} before
+ * traffic arrives, by fetching and parsing the metadata of many coordinates in parallel.
+ *
+ * <p>The coordinates are read from a manifest or given as a collection. They are {@code
+ * groupId:artifactId} for the main {@code maven-metadata.xml} file of an artifact or {@code
+ * groupId:artifactId:version} for the metadata of a {@code SNAPSHOT}-version. A manifest contains
+ * one coordinates per line, optionally followed by its access count; lines starting with {@code #}
+ * are ignored. Coordinates are fetched in descending order of their access counts, so the most
+ * used metadata is cached first. {@link #writeManifest(RepositoryClient, Path)} writes the access
+ * counts of a client as manifest for the next start:
+ *
+ * <pre>{@code
+ * # groupId:artifactId[:version] accessCount
+ * org.example:core 1520
+ * org.example:plugin:2.0-SNAPSHOT 310
+ * org.example:legacy
+ * }</pre>
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class MetadataPrefetcher {
+
+  /**
+   * The default number of coordinates that are fetched at once.
+   *
+   * @since 0.3.0
+   */
+  public static final int DEFAULT_PARALLELISM = 8;
+
+  /**
+   * The client whose cache is warmed up.
+   *
+   * @since 0.3.0
+   */
+  private final RepositoryClient client;
+
+  /**
+   * The number of coordinates that are fetched at once if the {@link RepositoryClient} has no
+   * {@link Executor}.
+   *
+   * @since 0.3.0
+   */
+  private final int parallelism;
+
+  /**
+   * Creates an instance of {@link MetadataPrefetcher} that fetches {@link #DEFAULT_PARALLELISM}
+   * coordinates at once.
+   *
+   * @param client the client whose cache is warmed up.
+   * @since 0.3.0
+   */
+  public MetadataPrefetcher(RepositoryClient client) {
+    this(client, DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * Creates an instance of {@link MetadataPrefetcher}.
+   *
+   * @param client the client whose cache is warmed up.
+   * @param parallelism the number of coordinates that are fetched at once if the client has no
+   *     {@link Executor}, otherwise the coordinates are fetched on the executor of the client.
+   * @since 0.3.0
+   */
+  public MetadataPrefetcher(RepositoryClient client, int parallelism) {
+    if (parallelism < 1) throw new IllegalArgumentException("The parallelism must be positive!");
+    this.client = client;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Reads the coordinates of a manifest in descending order of their access counts. Coordinates
+   * without access count are read as 0; coordinates with equal counts keep their order.
+   *
+   * @param manifest the manifest file.
+   * @return the coordinates.
+   * @throws IOException if the manifest cannot be read.
+   * @throws IllegalArgumentException if an access count is not a number.
+   * @since 0.3.0
+   */
+  public static List<String> readManifest(Path manifest) throws IOException {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) continue;
+      String[] parts = line.split("\\s+");
+      long count = 0;
+      if (parts.length > 1)
+        try {
+          count = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid access count in line " + line + "!", e);
+        }
+      counts.merge(parts[0], count, Long::sum);
+    }
+    List<String> coordinates = new ArrayList<>(counts.keySet());
+    coordinates.sort(Comparator.comparing(counts::get, Comparator.reverseOrder()));
+    return coordinates;
+  }
+
+  /**
+   * Writes the access counts of a client to a manifest, in descending order of the counts.
+   *
+   * @param client the client whose access counts are written.
+   * @param manifest the manifest file.
+   * @throws IOException if the manifest cannot be written.
+   * @since 0.3.0
+   */
+  public static void writeManifest(RepositoryClient client, Path manifest) throws IOException {
+    List<Map.Entry<String, Long>> counts = new ArrayList<>(client.getAccessCounts().entrySet());
+    counts.sort(
+        Map.Entry.<String, Long>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey()));
+    List<String> lines = new ArrayList<>();
+    lines.add("# groupId:artifactId[:version] accessCount");
+    for (Map.Entry<String, Long> count : counts) lines.add(count.getKey() + " " + count.getValue());
+    Files.write(manifest, lines, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Prefetches the metadata of the coordinates of a manifest.
+   *
+   * @param manifest the manifest file.
+   * @param listener the listener notified about the progress or {@code null}.
+   * @return a {@link CompletableFuture} of the {@link PrefetchResult}, which completes when the
+   *     metadata of all coordinates was fetched or failed.
+   * @throws IOException if the manifest cannot be read.
+   * @since 0.3.0
+   */
+  public CompletableFuture<PrefetchResult> prefetch(Path manifest, PrefetchListener listener)
+      throws IOException {
+    return prefetch(readManifest(manifest), listener);
+  }
+
+  /**
+   * Prefetches the metadata of coordinates in the given order.
+   *
+   * @param coordinates the coordinates.
+   * @param listener the listener notified about the progress or {@code null}.
+   * @return a {@link CompletableFuture} of the {@link PrefetchResult}, which completes when the
+   *     metadata of all coordinates was fetched or failed.
+   * @since 0.3.0
+   */
+  public CompletableFuture<PrefetchResult> prefetch(
+      Collection<String> coordinates, PrefetchListener listener) {
+    long start = System.nanoTime();
+    List<String> distinct = new ArrayList<>(new LinkedHashSet<>(coordinates));
+    Map<String, Exception> failures = new ConcurrentHashMap<>();
+    AtomicInteger completed = new AtomicInteger();
+    ExecutorService pool =
+        client.getExecutor() != null
+            ? null
+            : Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelism, distinct.size())),
+                DaemonThreads.factory("metadata-prefetcher"));
+    Executor executor = pool != null ? pool : client.getExecutor();
+
+    // The executor runs the tasks in the order they are submitted, i.e. by priority.
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (String entry : distinct)
+      futures.add(
+          CompletableFuture.runAsync(
+              () -> {
+                try {
+                  fetch(entry);
+                } catch (Exception e) {
+                  failures.put(entry, e);
+                  if (listener != null) listener.onError(entry, e);
+                }
+                int done = completed.incrementAndGet();
+                if (listener != null) listener.onProgress(done, distinct.size());
+              },
+              executor));
+    if (pool != null) pool.shutdown();
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            ignored -> {
+              Map<String, Exception> ordered = new LinkedHashMap<>();
+              for (String entry : distinct)
+                if (failures.containsKey(entry)) ordered.put(entry, failures.get(entry));
+              return new PrefetchResult(
+                  distinct.size(), ordered, Duration.ofNanos(System.nanoTime() - start));
+            });
+  }
+
+  /**
+   * Fetches the metadata of coordinates into the cache of the client, without counting it as
+   * access.
+   *
+   * @param coordinates the coordinates.
+   * @throws Exception if the metadata cannot be fetched or the coordinates are invalid.
+   * @since 0.3.0
+   */
+  private void fetch(String coordinates) throws Exception {
+    String[] parts = coordinates.split(":");
+    if (parts.length < 2 || parts.length > 3)
+      throw new IllegalArgumentException("Invalid coordinates " + coordinates + "!");
+    MavenArtifact artifact = client.artifact(parts[0], parts[1]);
+    ComparableVersion version = parts.length == 3 ? ComparableVersion.of(parts[2]) : null;
+    if (version != null && version.isSnapshot()) artifact.lookupSnapshotMetadata(version);
+    else artifact.lookupMetadata();
+  }
+}
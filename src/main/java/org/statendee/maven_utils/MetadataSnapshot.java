@@ -0,0 +1,524 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.metadata.SnapshotVersion;
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The binary snapshot format of the metadata cached by a {@link RepositoryClient}, used by {@link
+ * RepositoryClient#saveMetadata(Path)} and {@link RepositoryClient#loadMetadata(Path)}.
+ *
+ * <p>A snapshot starts with the magic bytes {@code MVNS} and a format version, followed by a table
+ * of all distinct {@link String}s and the cached entries, which refer to the table by index. All
+ * numbers are unsigned varints (7 bits per byte, least significant group first), optional values
+ * are stored as index + 1 with 0 for {@code null}. The cache keys are stored relative to the
+ * repository, split into the parent path and the last segment, so groups, versions and validators
+ * are stored once no matter how many entries share them:
+ *
+ * <pre>
+ * snapshot = magic version strings artifacts snapshots
+ * strings  = count (length utf8-bytes)*
+ * artifact = parent name release? latest? lastUpdated? etag? lastModified? count version*
+ * snapshot = parent version latestBuild? etag? lastModified? count (classifier extension value
+ *            updated)*   ; updated is the epoch second + 1 or 0 if it is unknown
+ * </pre>
+ *
+ * <p>Snapshots are read through a memory mapping of the file.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+final class MetadataSnapshot {
+
+  /**
+   * The magic bytes at the start of every snapshot.
+   *
+   * @since 0.3.0
+   */
+  private static final byte[] MAGIC = {'M', 'V', 'N', 'S'};
+
+  /**
+   * The version of the format that is written. Snapshots of other versions are rejected.
+   *
+   * @since 0.3.0
+   */
+  static final int FORMAT_VERSION = 1;
+
+  /**
+   * The format of the {@code updated} value of {@link SnapshotVersion}s.
+   *
+   * @since 0.3.0
+   */
+  private static final DateTimeFormatter UPDATED_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+  /**
+   * This class only contains static methods.
+   *
+   * @since 0.3.0
+   */
+  private MetadataSnapshot() {}
+
+  /**
+   * Writes the cached metadata of a client to a file. The file is replaced atomically, so that
+   * readers never see a partially written snapshot.
+   *
+   * @param client the client whose cached metadata is written.
+   * @param file the snapshot file.
+   * @return the number of written entries.
+   * @throws IOException if the file cannot be written.
+   * @since 0.3.0
+   */
+  static int write(RepositoryClient client, Path file) throws IOException {
+    Writer writer = new Writer();
+    List<Map.Entry<String, ArtifactMetadata>> artifacts = new ArrayList<>();
+    for (Map.Entry<String, ArtifactMetadata> entry : client.artifactMetadata.entrySet())
+      if (entry.getKey().startsWith(client.url)) artifacts.add(entry);
+    List<Map.Entry<String, SnapshotMetadata>> snapshots = new ArrayList<>();
+    for (Map.Entry<String, SnapshotMetadata> entry : client.snapshotMetadata.entrySet())
+      if (entry.getKey().startsWith(client.url)) snapshots.add(entry);
+
+    writer.writeVarint(artifacts.size());
+    for (Map.Entry<String, ArtifactMetadata> entry : artifacts) {
+      ArtifactMetadata metadata = entry.getValue();
+      writer.writeKey(entry.getKey().substring(client.url.length()));
+      writer.writeOptional(metadata.release);
+      writer.writeOptional(metadata.latest);
+      writer.writeOptional(metadata.lastUpdated);
+      writer.writeValidators(metadata.validators);
+      writer.writeVarint(metadata.versions.size());
+      for (ComparableVersion version : metadata.versions) writer.writeString(version.toString());
+    }
+
+    writer.writeVarint(snapshots.size());
+    for (Map.Entry<String, SnapshotMetadata> entry : snapshots) {
+      SnapshotMetadata metadata = entry.getValue();
+      writer.writeKey(entry.getKey().substring(client.url.length()));
+      writer.writeOptional(metadata.latestBuild);
+      writer.writeValidators(metadata.validators);
+      List<SnapshotVersion> snapshotVersions = metadata.getSnapshotVersions();
+      writer.writeVarint(snapshotVersions.size());
+      for (SnapshotVersion snapshotVersion : snapshotVersions) {
+        writer.writeString(snapshotVersion.classifier);
+        writer.writeString(snapshotVersion.extension);
+        writer.writeString(snapshotVersion.value);
+        Instant updated = snapshotVersion.updated;
+        writer.writeVarint(updated == null ? 0 : updated.getEpochSecond() + 1);
+      }
+    }
+
+    Path temporary =
+        Files.createTempFile(
+            file.toAbsolutePath().getParent(), "." + file.getFileName(), ".part");
+    try {
+      try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+        writer.writeTo(outputStream);
+      }
+      try {
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    return artifacts.size() + snapshots.size();
+  }
+
+  /**
+   * Reads a snapshot into the metadata cache of a client. Entries that are already cached are kept,
+   * as they are at least as fresh as the snapshot.
+   *
+   * @param client the client whose metadata cache is filled.
+   * @param file the snapshot file.
+   * @return the number of entries read.
+   * @throws IOException if the file cannot be read or is not a valid snapshot.
+   * @since 0.3.0
+   */
+  static int read(RepositoryClient client, Path file) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      Reader reader = new Reader(buffer);
+      int artifactCount = reader.readInt();
+      for (int i = 0; i < artifactCount; i++) {
+        String key = client.url + reader.readKey();
+        ComparableVersion release = reader.readOptionalVersion();
+        ComparableVersion latest = reader.readOptionalVersion();
+        String lastUpdated = reader.readOptionalString();
+        Validators validators = reader.readValidators();
+        List<ComparableVersion> versions = new ArrayList<>();
+        for (int v = reader.readInt(); v > 0; v--) versions.add(reader.readVersion());
+        client.artifactMetadata.putIfAbsent(
+            key, new ArtifactMetadata(release, latest, lastUpdated, versions, validators));
+      }
+
+      int snapshotCount = reader.readInt();
+      for (int i = 0; i < snapshotCount; i++) {
+        String relativeKey = reader.readKey();
+        ComparableVersion version =
+            ComparableVersion.of(relativeKey.substring(relativeKey.lastIndexOf('/') + 1));
+        ComparableVersion latestBuild = reader.readOptionalVersion();
+        Validators validators = reader.readValidators();
+        List<SnapshotVersion> snapshotVersions = new ArrayList<>();
+        for (int v = reader.readInt(); v > 0; v--) {
+          String classifier = reader.readString(), extension = reader.readString();
+          String value = reader.readString();
+          long updated = reader.readVarint();
+          String updatedValue =
+              updated == 0 ? null : UPDATED_FORMAT.format(Instant.ofEpochSecond(updated - 1));
+          snapshotVersions.add(
+              new SnapshotVersion(version, classifier, extension, value, updatedValue));
+        }
+        client.snapshotMetadata.putIfAbsent(
+            client.url + relativeKey,
+            new SnapshotMetadata(version, latestBuild, snapshotVersions, validators));
+      }
+      return artifactCount + snapshotCount;
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IOException("The metadata snapshot " + file + " is truncated or corrupt!", e);
+    }
+  }
+
+  /**
+   * Encodes the entries of a snapshot and collects the {@link String} table.
+   *
+   * @since 0.3.0
+   */
+  private static final class Writer {
+
+    /**
+     * The indices of the {@link String}s in the table, in the order of their first use.
+     *
+     * @since 0.3.0
+     */
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * The {@link String} table in the order of the indices.
+     *
+     * @since 0.3.0
+     */
+    private final List<String> table = new ArrayList<>();
+
+    /**
+     * The encoded entries.
+     *
+     * @since 0.3.0
+     */
+    private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+
+    /**
+     * Writes an unsigned varint to the entries.
+     *
+     * @param value the non-negative value.
+     * @since 0.3.0
+     */
+    private void writeVarint(long value) {
+      writeVarint(entries, value);
+    }
+
+    /**
+     * Returns the index of a {@link String} in the table, adding it if necessary.
+     *
+     * @param string the {@link String}.
+     * @return the index of the {@link String}.
+     * @since 0.3.0
+     */
+    private int index(String string) {
+      Integer index = strings.get(string);
+      if (index == null) {
+        index = table.size();
+        strings.put(string, index);
+        table.add(string);
+      }
+      return index;
+    }
+
+    /**
+     * Writes the index of a {@link String}.
+     *
+     * @param string the {@link String}.
+     * @since 0.3.0
+     */
+    private void writeString(String string) {
+      writeVarint(index(string));
+    }
+
+    /**
+     * Writes the index + 1 of the {@link String} of an optional value or 0 if it is {@code null}.
+     *
+     * @param value the value or {@code null}.
+     * @since 0.3.0
+     */
+    private void writeOptional(Object value) {
+      writeVarint(value == null ? 0 : index(value.toString()) + 1L);
+    }
+
+    /**
+     * Writes a cache key relative to the repository as its parent path and last segment.
+     *
+     * @param key the relative cache key.
+     * @since 0.3.0
+     */
+    private void writeKey(String key) {
+      int slash = key.lastIndexOf('/');
+      writeString(key.substring(0, slash + 1));
+      writeString(key.substring(slash + 1));
+    }
+
+    /**
+     * Writes the {@code ETag} and {@code Last-Modified} values of {@link Validators}.
+     *
+     * @param validators the {@link Validators}.
+     * @since 0.3.0
+     */
+    private void writeValidators(Validators validators) {
+      writeOptional(validators.etag);
+      writeOptional(validators.lastModified);
+    }
+
+    /**
+     * Writes the complete snapshot.
+     *
+     * @param outputStream the stream the snapshot is written to.
+     * @throws IOException if the snapshot cannot be written.
+     * @since 0.3.0
+     */
+    private void writeTo(OutputStream outputStream) throws IOException {
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      header.write(MAGIC);
+      writeVarint(header, FORMAT_VERSION);
+      writeVarint(header, table.size());
+      for (String string : table) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarint(header, bytes.length);
+        header.write(bytes);
+      }
+      header.writeTo(outputStream);
+      entries.writeTo(outputStream);
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @param outputStream the stream the varint is written to.
+     * @param value the non-negative value.
+     * @since 0.3.0
+     */
+    private static void writeVarint(ByteArrayOutputStream outputStream, long value) {
+      while ((value & ~0x7FL) != 0) {
+        outputStream.write((int) (value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      outputStream.write((int) value);
+    }
+  }
+
+  /**
+   * Decodes a memory mapped snapshot.
+   *
+   * @since 0.3.0
+   */
+  private static final class Reader {
+
+    /**
+     * The snapshot.
+     *
+     * @since 0.3.0
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The {@link String} table.
+     *
+     * @since 0.3.0
+     */
+    private final String[] strings;
+
+    /**
+     * The parsed versions of the {@link String}s in the table, which are parsed on first use.
+     *
+     * @since 0.3.0
+     */
+    private final ComparableVersion[] versions;
+
+    /**
+     * Creates an instance of {@link Reader} and reads the header and the {@link String} table.
+     *
+     * @param buffer the snapshot.
+     * @throws IOException if the snapshot has no valid header.
+     * @since 0.3.0
+     */
+    private Reader(ByteBuffer buffer) throws IOException {
+      this.buffer = buffer;
+      byte[] magic = new byte[MAGIC.length];
+      buffer.get(magic);
+      if (!Arrays.equals(MAGIC, magic))
+        throw new IOException("The file is not a metadata snapshot!");
+      int version = readInt();
+      if (version != FORMAT_VERSION)
+        throw new IOException("Unsupported metadata snapshot version " + version + "!");
+
+      strings = new String[readInt()];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[readInt()];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+      versions = new ComparableVersion[strings.length];
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @return the value.
+     * @throws IOException if the varint is longer than 64 bits.
+     * @since 0.3.0
+     */
+    private long readVarint() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = buffer.get();
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) return value;
+      }
+      throw new IOException("Invalid varint in metadata snapshot!");
+    }
+
+    /**
+     * Reads an unsigned varint that has to fit in an {@code int}, e.g. a count or an index.
+     *
+     * @return the value.
+     * @throws IOException if the value is negative or too large.
+     * @since 0.3.0
+     */
+    private int readInt() throws IOException {
+      long value = readVarint();
+      if (value > Integer.MAX_VALUE) throw new IOException("Invalid count in metadata snapshot!");
+      return (int) value;
+    }
+
+    /**
+     * Reads a {@link String} from the table.
+     *
+     * @return the {@link String}.
+     * @throws IOException if the varint is invalid.
+     * @since 0.3.0
+     */
+    private String readString() throws IOException {
+      return strings[readInt()];
+    }
+
+    /**
+     * Reads an optional {@link String} from the table.
+     *
+     * @return the {@link String} or {@code null}.
+     * @throws IOException if the varint is invalid.
+     * @since 0.3.0
+     */
+    private String readOptionalString() throws IOException {
+      int index = readInt();
+      return index == 0 ? null : strings[index - 1];
+    }
+
+    /**
+     * Reads a version from the table.
+     *
+     * @return the version.
+     * @throws IOException if the varint is invalid.
+     * @since 0.3.0
+     */
+    private ComparableVersion readVersion() throws IOException {
+      return getVersion(readInt());
+    }
+
+    /**
+     * Reads an optional version from the table.
+     *
+     * @return the version or {@code null}.
+     * @throws IOException if the varint is invalid.
+     * @since 0.3.0
+     */
+    private ComparableVersion readOptionalVersion() throws IOException {
+      int index = readInt();
+      return index == 0 ? null : getVersion(index - 1);
+    }
+
+    /**
+     * Returns the version of a {@link String} of the table, parsing it on first use.
+     *
+     * @param index the index of the {@link String}.
+     * @return the version.
+     * @since 0.3.0
+     */
+    private ComparableVersion getVersion(int index) {
+      ComparableVersion version = versions[index];
+      if (version == null) versions[index] = version = ComparableVersion.of(strings[index]);
+      return version;
+    }
+
+    /**
+     * Reads a cache key relative to the repository.
+     *
+     * @return the relative cache key.
+     * @throws IOException if a varint is invalid.
+     * @since 0.3.0
+     */
+    private String readKey() throws IOException {
+      return readString() + readString();
+    }
+
+    /**
+     * Reads {@link Validators}.
+     *
+     * @return the {@link Validators}.
+     * @throws IOException if a varint is invalid.
+     * @since 0.3.0
+     */
+    private Validators readValidators() throws IOException {
+      return new Validators(readOptionalString(), readOptionalString());
+    }
+  }
+}
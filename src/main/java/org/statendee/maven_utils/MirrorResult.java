@@ -0,0 +1,140 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link MirrorResult} is the outcome of an {@link ArtifactMirror#sync(String, String,
+ * java.util.List)}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class MirrorResult {
+
+  /**
+   * The number of files that were downloaded because they were missing or changed.
+   *
+   * @since 0.3.0
+   */
+  public final int downloaded;
+
+  /**
+   * The number of files that were already up to date in the mirror.
+   *
+   * @since 0.3.0
+   */
+  public final int unchanged;
+
+  /**
+   * The number of files that were skipped because the journal of an interrupted sync lists them
+   * as done.
+   *
+   * @since 0.3.0
+   */
+  public final int resumed;
+
+  /**
+   * The number of files that do not exist in the repository, e.g. classifiers that were not
+   * deployed for every version.
+   *
+   * @since 0.3.0
+   */
+  public final int missing;
+
+  /**
+   * The number of bytes downloaded.
+   *
+   * @since 0.3.0
+   */
+  public final long bytes;
+
+  /**
+   * The exceptions of the files that could not be synced, by their path relative to the mirror.
+   *
+   * @since 0.3.0
+   */
+  public final Map<String, Exception> failures;
+
+  /**
+   * The time the sync took.
+   *
+   * @since 0.3.0
+   */
+  public final Duration duration;
+
+  /**
+   * Creates an instance of {@link MirrorResult}.
+   *
+   * @param downloaded the number of downloaded files.
+   * @param unchanged the number of files that were up to date.
+   * @param resumed the number of files skipped because of the journal.
+   * @param missing the number of files that do not exist in the repository.
+   * @param bytes the number of bytes downloaded.
+   * @param failures the exceptions of the files that could not be synced.
+   * @param duration the time the sync took.
+   * @since 0.3.0
+   */
+  MirrorResult(
+      int downloaded,
+      int unchanged,
+      int resumed,
+      int missing,
+      long bytes,
+      Map<String, Exception> failures,
+      Duration duration) {
+    this.downloaded = downloaded;
+    this.unchanged = unchanged;
+    this.resumed = resumed;
+    this.missing = missing;
+    this.bytes = bytes;
+    this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    this.duration = duration;
+  }
+
+  /**
+   * Returns {@code true} if every file was synced and the metadata of the mirror was updated.
+   *
+   * @return {@code true} if the sync completed without failures.
+   * @since 0.3.0
+   */
+  public boolean isComplete() {
+    return failures.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return downloaded
+        + " downloaded ("
+        + bytes
+        + " bytes), "
+        + unchanged
+        + " unchanged, "
+        + resumed
+        + " resumed, "
+        + missing
+        + " missing, "
+        + failures.size()
+        + " failed in "
+        + duration.toMillis()
+        + " ms";
+  }
+}
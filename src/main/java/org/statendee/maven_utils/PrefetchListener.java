@@ -0,0 +1,47 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+/**
+ * A {@link PrefetchListener} is notified about the progress of a {@link MetadataPrefetcher}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+@FunctionalInterface
+public interface PrefetchListener {
+
+  /**
+   * Called after the metadata of each coordinates was fetched or failed, in the thread that
+   * fetched it.
+   *
+   * @param completed the number of coordinates that are completed so far.
+   * @param total the number of coordinates that are prefetched.
+   * @since 0.3.0
+   */
+  void onProgress(int completed, int total);
+
+  /**
+   * Called if the metadata of coordinates could not be fetched, before {@link #onProgress(int,
+   * int)} is called for them.
+   *
+   * @param coordinates the coordinates whose metadata could not be fetched.
+   * @param exception the {@link Exception} that occurred.
+   * @since 0.3.0
+   */
+  default void onError(String coordinates, Exception exception) {}
+}
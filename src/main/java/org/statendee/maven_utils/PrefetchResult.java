@@ -0,0 +1,81 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link PrefetchResult} summarizes a run of a {@link MetadataPrefetcher}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class PrefetchResult {
+
+  /**
+   * The number of coordinates that were prefetched.
+   *
+   * @since 0.3.0
+   */
+  public final int total;
+
+  /**
+   * The exceptions of the coordinates whose metadata could not be fetched.
+   *
+   * @since 0.3.0
+   */
+  public final Map<String, Exception> failures;
+
+  /**
+   * The time the prefetch took.
+   *
+   * @since 0.3.0
+   */
+  public final Duration duration;
+
+  /**
+   * Creates an instance of {@link PrefetchResult}.
+   *
+   * @param total the number of coordinates that were prefetched.
+   * @param failures the exceptions of the coordinates whose metadata could not be fetched.
+   * @param duration the time the prefetch took.
+   * @since 0.3.0
+   */
+  PrefetchResult(int total, Map<String, Exception> failures, Duration duration) {
+    this.total = total;
+    this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    this.duration = duration;
+  }
+
+  /**
+   * Returns the number of coordinates whose metadata was fetched.
+   *
+   * @return the number of successfully fetched coordinates.
+   * @since 0.3.0
+   */
+  public int getSucceeded() {
+    return total - failures.size();
+  }
+
+  @Override
+  public String toString() {
+    return getSucceeded() + " of " + total + " prefetched in " + duration.toMillis() + " ms";
+  }
+}
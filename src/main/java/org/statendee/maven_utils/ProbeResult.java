@@ -0,0 +1,182 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A {@link ProbeResult} describes whether a file of an artifact version exists in a repository and
+ * what the repository reported about it, as found out by a {@code HEAD} request.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ProbeResult {
+
+  /**
+   * The version of the file.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion version;
+
+  /**
+   * The classifier and extension of the file.
+   *
+   * @since 0.3.0
+   */
+  public final ArtifactFile file;
+
+  /**
+   * The URL of the file.
+   *
+   * @since 0.3.0
+   */
+  public final String url;
+
+  /**
+   * {@code true} if the file exists, {@code false} if it does not exist or the probe failed.
+   *
+   * @since 0.3.0
+   */
+  public final boolean exists;
+
+  /**
+   * The size of the file as reported by {@code Content-Length} or {@code -1} if it is unknown.
+   *
+   * @since 0.3.0
+   */
+  public final long contentLength;
+
+  /**
+   * The {@code ETag} and {@code Last-Modified} headers of the file.
+   *
+   * @since 0.3.0
+   */
+  public final Validators validators;
+
+  /**
+   * The SHA-1 of the file as reported by {@code X-Checksum-Sha1} or {@code null} if it is unknown.
+   *
+   * @since 0.3.0
+   */
+  public final String sha1;
+
+  /**
+   * The MD5 of the file as reported by {@code X-Checksum-Md5} or {@code null} if it is unknown.
+   *
+   * @since 0.3.0
+   */
+  public final String md5;
+
+  /**
+   * The {@link Exception} that caused the probe to fail or {@code null} if it succeeded. A file
+   * that does not exist is not a failure.
+   *
+   * @since 0.3.0
+   */
+  public final Exception exception;
+
+  /**
+   * The {@link System#nanoTime()} at which the file was probed.
+   *
+   * @since 0.3.0
+   */
+  final long probed = System.nanoTime();
+
+  /**
+   * Creates an instance of {@link ProbeResult}.
+   *
+   * @param version the version of the file.
+   * @param file the classifier and extension of the file.
+   * @param url the URL of the file.
+   * @param exists {@code true} if the file exists.
+   * @param contentLength the size of the file or {@code -1}.
+   * @param validators the {@code ETag} and {@code Last-Modified} headers of the file.
+   * @param sha1 the SHA-1 of the file or {@code null}.
+   * @param md5 the MD5 of the file or {@code null}.
+   * @param exception the {@link Exception} that caused the probe to fail or {@code null}.
+   * @since 0.3.0
+   */
+  public ProbeResult(
+      ComparableVersion version,
+      ArtifactFile file,
+      String url,
+      boolean exists,
+      long contentLength,
+      Validators validators,
+      String sha1,
+      String md5,
+      Exception exception) {
+    this.version = version;
+    this.file = file;
+    this.url = url;
+    this.exists = exists;
+    this.contentLength = contentLength;
+    this.validators = validators;
+    this.sha1 = sha1;
+    this.md5 = md5;
+    this.exception = exception;
+  }
+
+  /**
+   * Returns {@code true} if the probe succeeded, i.e. it is known whether the file exists.
+   *
+   * @return {@code true} if the probe succeeded.
+   * @since 0.3.0
+   */
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+
+  /**
+   * Returns {@code true} if the file does not exist in the repository.
+   *
+   * @return {@code true} if the file does not exist in the repository.
+   * @since 0.3.0
+   */
+  public boolean isMissing() {
+    return !exists && exception == null;
+  }
+
+  /**
+   * Returns the time the file was last modified as reported by {@code Last-Modified}.
+   *
+   * @return the time the file was last modified or {@code null} if it is unknown.
+   * @since 0.3.0
+   */
+  public Instant getLastModified() {
+    if (validators.lastModified == null) return null;
+    try {
+      return Instant.from(DateTimeFormatter.RFC_1123_DATE_TIME.parse(validators.lastModified));
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (exception != null) return url + " failed: " + exception;
+    if (!exists) return url + " (missing)";
+    return url + " (" + contentLength + " bytes)";
+  }
+}
@@ -0,0 +1,602 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * A {@link RemoteArchive} reads single entries of a zip file (e.g. a jar) in a maven repository
+ * without downloading the whole file.
+ *
+ * <p>Opening the archive requests the end of the file with a range request to locate the central
+ * directory, which is requested next unless it was already contained in the end. Entries are read
+ * with one range request each, which covers their local header and compressed data, and are
+ * inflated and checked against their CRC-32. Reading the manifest of a 200 MB jar therefore
+ * transfers a few kilobytes. {@code ZIP64} archives are supported.
+ *
+ * <p>If the server does not support ranges and sends the whole file, the archive is downloaded to
+ * a temporary file once and read with a {@link ZipFile}. The temporary file is deleted on {@link
+ * #close()}. A {@link RemoteArchive} is safe for concurrent use.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class RemoteArchive implements Closeable {
+
+  /**
+   * The number of bytes requested from the end of the file, enough for the end of central
+   * directory record with the longest possible comment.
+   *
+   * @since 0.3.0
+   */
+  static final int TAIL_SIZE = 22 + 0xFFFF;
+
+  /**
+   * The number of bytes requested beyond the known size of an entry, to cover a local extra field
+   * that is longer than the one in the central directory.
+   *
+   * @since 0.3.0
+   */
+  private static final int LOCAL_HEADER_SLACK = 256;
+
+  /**
+   * The signature of the end of central directory record.
+   *
+   * @since 0.3.0
+   */
+  private static final int END_SIGNATURE = 0x06054b50;
+
+  /**
+   * The signature of the {@code ZIP64} end of central directory locator.
+   *
+   * @since 0.3.0
+   */
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+  /**
+   * The signature of the {@code ZIP64} end of central directory record.
+   *
+   * @since 0.3.0
+   */
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+
+  /**
+   * The signature of a central directory file header.
+   *
+   * @since 0.3.0
+   */
+  private static final int CENTRAL_SIGNATURE = 0x02014b50;
+
+  /**
+   * The signature of a local file header.
+   *
+   * @since 0.3.0
+   */
+  private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+  /**
+   * The {@link RepositoryClient} used to request ranges or {@code null} if the archive was
+   * downloaded.
+   *
+   * @since 0.3.0
+   */
+  private final RepositoryClient client;
+
+  /**
+   * The url {@link String} of the archive.
+   *
+   * @since 0.3.0
+   */
+  private final String urlString;
+
+  /**
+   * The size of the archive in bytes.
+   *
+   * @since 0.3.0
+   */
+  private final long length;
+
+  /**
+   * The entries by name, in the order of the central directory.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, ArchiveEntry> entries;
+
+  /**
+   * The end of the archive that was requested to locate the central directory.
+   *
+   * @since 0.3.0
+   */
+  private final byte[] tail;
+
+  /**
+   * The position of {@link #tail} in the archive.
+   *
+   * @since 0.3.0
+   */
+  private final long tailOffset;
+
+  /**
+   * The downloaded archive if ranges are not supported, otherwise {@code null}.
+   *
+   * @since 0.3.0
+   */
+  private final ZipFile zipFile;
+
+  /**
+   * The temporary file of {@link #zipFile} or {@code null}.
+   *
+   * @since 0.3.0
+   */
+  private final Path downloaded;
+
+  /**
+   * The number of bytes received from the repository.
+   *
+   * @since 0.3.0
+   */
+  private final AtomicLong transferred = new AtomicLong();
+
+  /**
+   * Creates an instance of {@link RemoteArchive} that reads entries with range requests.
+   *
+   * @param client the {@link RepositoryClient} used to request ranges.
+   * @param urlString the url {@link String} of the archive.
+   * @param tail the end of the archive.
+   * @param tailOffset the position of {@code tail} in the archive.
+   * @param length the size of the archive in bytes.
+   * @throws IOException if an I/O error occurs or the file is not a zip archive.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private RemoteArchive(
+      RepositoryClient client, String urlString, byte[] tail, long tailOffset, long length)
+      throws IOException, RequestException {
+    this.client = client;
+    this.urlString = urlString;
+    this.tail = tail;
+    this.tailOffset = tailOffset;
+    this.length = length;
+    this.zipFile = null;
+    this.downloaded = null;
+    this.transferred.set(tail.length);
+    this.entries = Collections.unmodifiableMap(readCentralDirectory());
+  }
+
+  /**
+   * Creates an instance of {@link RemoteArchive} that reads entries from a downloaded archive.
+   *
+   * @param urlString the url {@link String} of the archive.
+   * @param downloaded the downloaded archive, which is deleted on {@link #close()}.
+   * @throws IOException if the downloaded archive cannot be read.
+   * @since 0.3.0
+   */
+  private RemoteArchive(String urlString, Path downloaded) throws IOException {
+    this.client = null;
+    this.urlString = urlString;
+    this.tail = new byte[0];
+    this.tailOffset = 0;
+    this.length = Files.size(downloaded);
+    this.zipFile = new ZipFile(downloaded.toFile());
+    this.downloaded = downloaded;
+    this.transferred.set(length);
+    Map<String, ArchiveEntry> entries = new LinkedHashMap<>();
+    for (Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements(); ) {
+      ZipEntry entry = e.nextElement();
+      entries.put(
+          entry.getName(),
+          new ArchiveEntry(
+              entry.getName(),
+              entry.getMethod(),
+              entry.getCrc(),
+              entry.getCompressedSize(),
+              entry.getSize(),
+              -1));
+    }
+    this.entries = Collections.unmodifiableMap(entries);
+  }
+
+  /**
+   * Opens an archive, reading its central directory.
+   *
+   * @param client the {@link RepositoryClient} used to request ranges.
+   * @param urlString the url {@link String} of the archive.
+   * @return the opened {@link RemoteArchive}.
+   * @throws IOException if an I/O error occurs or the file is not a zip archive.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  static RemoteArchive open(RepositoryClient client, String urlString)
+      throws IOException, RequestException {
+    RepositoryClient.Resource resource = client.openRange(urlString, "-" + TAIL_SIZE);
+    try (InputStream inputStream = resource.inputStream) {
+      byte[] tail = readFully(inputStream, TAIL_SIZE + 1);
+      if (tail.length <= TAIL_SIZE) {
+        long length =
+            resource.fileLength >= 0 ? resource.fileLength : resource.offset + tail.length;
+        return new RemoteArchive(client, urlString, tail, resource.offset, length);
+      }
+
+      // The server ignored the range and sends the whole archive.
+      Path downloaded = Files.createTempFile("maven-utils-", ".zip");
+      try {
+        try (OutputStream outputStream = Files.newOutputStream(downloaded)) {
+          outputStream.write(tail);
+          byte[] buffer = new byte[64 * 1024];
+          for (int read; (read = inputStream.read(buffer)) != -1; )
+            outputStream.write(buffer, 0, read);
+        }
+        return new RemoteArchive(urlString, downloaded);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(downloaded);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Returns the url {@link String} of the archive.
+   *
+   * @return the url {@link String} of the archive.
+   * @since 0.3.0
+   */
+  public String getURL() {
+    return urlString;
+  }
+
+  /**
+   * Returns the size of the archive.
+   *
+   * @return the size of the archive in bytes.
+   * @since 0.3.0
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * Returns {@code true} if entries are read with range requests, {@code false} if the server did
+   * not support ranges and the whole archive was downloaded.
+   *
+   * @return {@code true} if entries are read with range requests.
+   * @since 0.3.0
+   */
+  public boolean isRangeSupported() {
+    return zipFile == null;
+  }
+
+  /**
+   * Returns the number of bytes received from the repository so far.
+   *
+   * @return the number of received bytes.
+   * @since 0.3.0
+   */
+  public long getTransferred() {
+    return transferred.get();
+  }
+
+  /**
+   * Returns the entries of the archive.
+   *
+   * @return the entries in the order of the central directory.
+   * @since 0.3.0
+   */
+  public Collection<ArchiveEntry> getEntries() {
+    return entries.values();
+  }
+
+  /**
+   * Returns an entry of the archive.
+   *
+   * @param name the name of the entry.
+   * @return the entry or {@code null} if there is no such entry.
+   * @since 0.3.0
+   */
+  public ArchiveEntry getEntry(String name) {
+    return entries.get(name);
+  }
+
+  /**
+   * Reads and inflates an entry of the archive.
+   *
+   * @param name the name of the entry.
+   * @return the uncompressed content or {@code null} if there is no such entry.
+   * @throws IOException if an I/O error occurs, the entry is corrupt or its compression method is
+   *     not supported.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public byte[] read(String name) throws IOException, RequestException {
+    ArchiveEntry entry = entries.get(name);
+    if (entry == null) return null;
+    if (zipFile != null)
+      try (InputStream inputStream = zipFile.getInputStream(zipFile.getEntry(name))) {
+        return readFully(inputStream, Integer.MAX_VALUE);
+      }
+    if (entry.size > Integer.MAX_VALUE - 8)
+      throw new IOException("The entry " + name + " is too large to be read into memory!");
+
+    // Request the local header and the data at once, guessing the length of the local header.
+    long guess = 30 + name.getBytes(StandardCharsets.UTF_8).length + LOCAL_HEADER_SLACK;
+    byte[] local =
+        fetch(
+            entry.localHeaderOffset,
+            Math.min(length - entry.localHeaderOffset, guess + entry.compressedSize));
+    ByteBuffer header = ByteBuffer.wrap(local).order(ByteOrder.LITTLE_ENDIAN);
+    if (local.length < 30 || header.getInt(0) != LOCAL_SIGNATURE)
+      throw new ZipException("Invalid local header of " + name + " in " + urlString);
+    int dataStart =
+        30 + Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+    byte[] data =
+        dataStart + entry.compressedSize <= local.length
+            ? Arrays.copyOfRange(local, dataStart, (int) (dataStart + entry.compressedSize))
+            : fetch(entry.localHeaderOffset + dataStart, entry.compressedSize);
+    return inflate(entry, data);
+  }
+
+  /**
+   * Reads and inflates several entries of the archive in the order of their position.
+   *
+   * @param names the names of the entries.
+   * @return the uncompressed content by name, without entries that do not exist.
+   * @throws IOException if an I/O error occurs, an entry is corrupt or its compression method is
+   *     not supported.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public Map<String, byte[]> read(Collection<String> names) throws IOException, RequestException {
+    List<ArchiveEntry> selected = new ArrayList<>();
+    for (String name : names) if (entries.containsKey(name)) selected.add(entries.get(name));
+    selected.sort(Comparator.comparingLong(entry -> entry.localHeaderOffset));
+    Map<String, byte[]> contents = new LinkedHashMap<>();
+    for (ArchiveEntry entry : selected) contents.put(entry.name, read(entry.name));
+    return contents;
+  }
+
+  /**
+   * Reads the manifest of a jar, i.e. {@code META-INF/MANIFEST.MF}.
+   *
+   * @return the {@link Manifest} or {@code null} if the archive has none.
+   * @throws IOException if an I/O error occurs or the manifest is corrupt.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public Manifest getManifest() throws IOException, RequestException {
+    byte[] content = read(JarFile.MANIFEST_NAME);
+    return content == null ? null : new Manifest(new ByteArrayInputStream(content));
+  }
+
+  /**
+   * Deletes the downloaded archive, if ranges were not supported.
+   *
+   * @throws IOException if the downloaded archive cannot be closed or deleted.
+   * @since 0.3.0
+   */
+  @Override
+  public void close() throws IOException {
+    if (zipFile == null) return;
+    try {
+      zipFile.close();
+    } finally {
+      Files.deleteIfExists(downloaded);
+    }
+  }
+
+  /**
+   * Locates and parses the central directory.
+   *
+   * @return the entries by name.
+   * @throws IOException if an I/O error occurs or the file is not a zip archive.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private Map<String, ArchiveEntry> readCentralDirectory() throws IOException, RequestException {
+    ByteBuffer end = ByteBuffer.wrap(tail).order(ByteOrder.LITTLE_ENDIAN);
+    int position = -1;
+    for (int i = tail.length - 22; i >= 0 && position < 0; i--)
+      if (end.getInt(i) == END_SIGNATURE
+          && i + 22 + Short.toUnsignedInt(end.getShort(i + 20)) == tail.length) position = i;
+    if (position < 0) throw new ZipException("No end of central directory found in " + urlString);
+
+    long count = Short.toUnsignedInt(end.getShort(position + 10));
+    long size = Integer.toUnsignedLong(end.getInt(position + 12));
+    long offset = Integer.toUnsignedLong(end.getInt(position + 16));
+    if (count == 0xFFFF || size == 0xFFFFFFFFL || offset == 0xFFFFFFFFL) {
+      ByteBuffer locator =
+          ByteBuffer.wrap(fetch(tailOffset + position - 20, 20)).order(ByteOrder.LITTLE_ENDIAN);
+      if (locator.getInt(0) != ZIP64_LOCATOR_SIGNATURE)
+        throw new ZipException("No ZIP64 end of central directory locator in " + urlString);
+      ByteBuffer zip64 =
+          ByteBuffer.wrap(fetch(locator.getLong(8), 56)).order(ByteOrder.LITTLE_ENDIAN);
+      if (zip64.getInt(0) != ZIP64_END_SIGNATURE)
+        throw new ZipException("No ZIP64 end of central directory in " + urlString);
+      count = zip64.getLong(32);
+      size = zip64.getLong(40);
+      offset = zip64.getLong(48);
+    }
+    if (size > Integer.MAX_VALUE || offset + size > length)
+      throw new ZipException("Invalid central directory in " + urlString);
+
+    ByteBuffer directory = ByteBuffer.wrap(fetch(offset, size)).order(ByteOrder.LITTLE_ENDIAN);
+    Map<String, ArchiveEntry> entries = new LinkedHashMap<>();
+    for (long i = 0; i < count; i++) {
+      int header = directory.position();
+      if (directory.remaining() < 46 || directory.getInt(header) != CENTRAL_SIGNATURE)
+        throw new ZipException("Invalid central directory in " + urlString);
+      int method = Short.toUnsignedInt(directory.getShort(header + 10));
+      long crc = Integer.toUnsignedLong(directory.getInt(header + 16));
+      long compressedSize = Integer.toUnsignedLong(directory.getInt(header + 20));
+      long uncompressedSize = Integer.toUnsignedLong(directory.getInt(header + 24));
+      int nameLength = Short.toUnsignedInt(directory.getShort(header + 28));
+      int extraLength = Short.toUnsignedInt(directory.getShort(header + 30));
+      int commentLength = Short.toUnsignedInt(directory.getShort(header + 32));
+      long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(header + 42));
+      String name =
+          new String(directory.array(), header + 46, nameLength, StandardCharsets.UTF_8);
+
+      // Replace saturated values by those of the ZIP64 extended information extra field.
+      int extra = header + 46 + nameLength;
+      for (int field = extra; field + 4 <= extra + extraLength; ) {
+        int id = Short.toUnsignedInt(directory.getShort(field));
+        int fieldLength = Short.toUnsignedInt(directory.getShort(field + 2));
+        if (id == 0x0001) {
+          int value = field + 4;
+          if (uncompressedSize == 0xFFFFFFFFL) {
+            uncompressedSize = directory.getLong(value);
+            value += 8;
+          }
+          if (compressedSize == 0xFFFFFFFFL) {
+            compressedSize = directory.getLong(value);
+            value += 8;
+          }
+          if (localHeaderOffset == 0xFFFFFFFFL) localHeaderOffset = directory.getLong(value);
+        }
+        field += 4 + fieldLength;
+      }
+      entries.put(
+          name,
+          new ArchiveEntry(
+              name, method, crc, compressedSize, uncompressedSize, localHeaderOffset));
+      directory.position(extra + extraLength + commentLength);
+    }
+    return entries;
+  }
+
+  /**
+   * Returns a part of the archive, from {@link #tail} if it contains the part, otherwise with a
+   * range request.
+   *
+   * @param position the position of the part.
+   * @param count the number of bytes.
+   * @return the part of the archive.
+   * @throws IOException if an I/O error occurs or the archive ends before the part.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private byte[] fetch(long position, long count) throws IOException, RequestException {
+    if (position < 0 || count > Integer.MAX_VALUE)
+      throw new ZipException("Invalid range " + position + "+" + count + " of " + urlString);
+    if (position >= tailOffset && position + count <= tailOffset + tail.length)
+      return Arrays.copyOfRange(
+          tail, (int) (position - tailOffset), (int) (position - tailOffset + count));
+
+    RepositoryClient.Resource resource =
+        client.openRange(urlString, position + "-" + (position + count - 1));
+    try (InputStream inputStream = resource.inputStream) {
+      // A server that ignores the range sends the archive from the start.
+      for (long skip = position - resource.offset; skip > 0; ) {
+        long skipped = inputStream.skip(skip);
+        if (skipped <= 0) throw new EOFException("Unexpected end of " + urlString);
+        skip -= skipped;
+      }
+      byte[] part = readFully(inputStream, (int) count);
+      transferred.addAndGet(part.length);
+      if (part.length < count) throw new EOFException("Unexpected end of " + urlString);
+      return part;
+    }
+  }
+
+  /**
+   * Inflates the data of an entry and checks its CRC-32.
+   *
+   * @param entry the entry.
+   * @param data the compressed data.
+   * @return the uncompressed content.
+   * @throws ZipException if the data is corrupt or the compression method is not supported.
+   * @since 0.3.0
+   */
+  private static byte[] inflate(ArchiveEntry entry, byte[] data) throws ZipException {
+    byte[] content;
+    if (entry.method == ZipEntry.STORED) content = data;
+    else if (entry.method == ZipEntry.DEFLATED) {
+      content = new byte[(int) entry.size];
+      Inflater inflater = new Inflater(true);
+      try {
+        // Raw inflation may need an extra dummy byte to detect the end of the stream.
+        inflater.setInput(Arrays.copyOf(data, data.length + 1));
+        int inflated = 0;
+        while (inflated < content.length && !inflater.finished()) {
+          int count = inflater.inflate(content, inflated, content.length - inflated);
+          if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+          inflated += count;
+        }
+        if (inflated != content.length)
+          throw new ZipException("Invalid size of " + entry.name + "!");
+      } catch (DataFormatException e) {
+        throw new ZipException("Corrupt entry " + entry.name + ": " + e.getMessage());
+      } finally {
+        inflater.end();
+      }
+    } else throw new ZipException("Unsupported compression method " + entry.method + "!");
+
+    CRC32 crc = new CRC32();
+    crc.update(content);
+    if (crc.getValue() != entry.crc)
+      throw new ZipException("Invalid CRC-32 of " + entry.name + "!");
+    return content;
+  }
+
+  /**
+   * Reads an {@link InputStream} until its end or a maximum number of bytes.
+   *
+   * @param inputStream the {@link InputStream}.
+   * @param max the maximum number of bytes.
+   * @return the read bytes.
+   * @throws IOException if an I/O error occurs.
+   * @since 0.3.0
+   */
+  private static byte[] readFully(InputStream inputStream, int max) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.min(max, 64 * 1024));
+    byte[] buffer = new byte[8192];
+    while (outputStream.size() < max) {
+      int read = inputStream.read(buffer, 0, Math.min(buffer.length, max - outputStream.size()));
+      if (read == -1) break;
+      outputStream.write(buffer, 0, read);
+    }
+    return outputStream.toByteArray();
+  }
+}
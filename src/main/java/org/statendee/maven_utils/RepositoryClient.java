@@ -0,0 +1,1571 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.codehaus.plexus.util.Base64;
+import org.statendee.maven_utils.limit.AdaptiveLimiter;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link RepositoryClient} is the shared, thread-safe access to a maven repository. It owns
+ * everything that is expensive or repository-wide: the transport, the credentials, the cached
+ * metadata, the {@link Executor} used for parallel downloads and optionally an {@link
+ * AdaptiveLimiter} that adapts the number of concurrent requests to the load of the server.
+ *
+ * <p>{@link MavenArtifact}s handed out by {@link #artifact(String, String)} are cheap, immutable
+ * handles that only hold their coordinates and share all resources of the client, so thousands of
+ * artifacts of one repository can be used concurrently. A client is immutable; its caches are safe
+ * for concurrent use.
+ *
+ * <p>Repositories can be accessed via {@code https://}, {@code http://} or {@code file://} URLs.
+ * Repositories on a local or network file system are read directly through NIO: metadata is read
+ * without a connection and artifacts are downloaded with {@link FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel)}, which lets the operating system copy the files.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class RepositoryClient implements AutoCloseable {
+
+  /**
+   * The pattern of a {@code Content-Range} header, e.g. {@code bytes 0-99/1234}.
+   *
+   * @since 0.3.0
+   */
+  private static final Pattern CONTENT_RANGE =
+      Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+
+  /**
+   * The URL to the repository, with a trailing slash.
+   *
+   * @since 0.3.0
+   */
+  public final String url;
+
+  /**
+   * The value of the {@code Authorization} header or {@code null} if no credentials are set.
+   *
+   * @since 0.3.0
+   */
+  private final String authorization;
+
+  /**
+   * The {@link Executor} used for parallel downloads or {@code null} if each bulk download uses a
+   * temporary pool.
+   *
+   * @since 0.3.0
+   */
+  private final Executor executor;
+
+  /**
+   * The {@link ExecutorService} created by this client, shut down on {@link #close()}, or {@code
+   * null} if the executor was provided.
+   *
+   * @since 0.3.0
+   */
+  private final ExecutorService ownedExecutor;
+
+  /**
+   * The single daemon thread that revalidates metadata in the background if the client has no
+   * {@link Executor}, created on first use and shut down on {@link #close()}.
+   *
+   * @since 0.3.0
+   */
+  private ExecutorService revalidationExecutor;
+
+  /**
+   * The {@link AdaptiveLimiter} that limits concurrent requests per host or {@code null}.
+   *
+   * @since 0.3.0
+   */
+  private final AdaptiveLimiter limiter;
+
+  /**
+   * The last fetched {@link ArtifactMetadata} by the URL of the directory of the artifact, which
+   * contains its {@code maven-metadata.xml}, used to revalidate it with conditional requests.
+   *
+   * @since 0.3.0
+   */
+  final Map<String, ArtifactMetadata> artifactMetadata = new ConcurrentHashMap<>();
+
+  /**
+   * The last fetched {@link SnapshotMetadata} by the URL of the directory of the snapshot version,
+   * which contains its {@code maven-metadata.xml}, used to revalidate it with conditional requests.
+   *
+   * @since 0.3.0
+   */
+  final Map<String, SnapshotMetadata> snapshotMetadata = new ConcurrentHashMap<>();
+
+  /**
+   * The {@link System#nanoTime()} at which cached metadata was last fetched or revalidated, by its
+   * {@code maven-metadata.xml} URL, i.e. its key in {@link #artifactMetadata} or {@link
+   * #snapshotMetadata} followed by {@code /maven-metadata.xml}. Metadata without an entry, e.g.
+   * restored from a snapshot, is treated as just expired.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, Long> validated = new ConcurrentHashMap<>();
+
+  /**
+   * The cached {@code 404}, {@code 410} and {@code 401} responses by the {@code
+   * maven-metadata.xml} URL they were returned for.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, CachedError> errors = new ConcurrentHashMap<>();
+
+  /**
+   * The last {@link ProbeResult}s by the URL of the probed file. Probes are reused like cached
+   * metadata: existing files for {@link CachePolicy#maxAge} and missing files for {@link
+   * CachePolicy#negativeTtl}.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, ProbeResult> probes = new ConcurrentHashMap<>();
+
+  /**
+   * The {@code maven-metadata.xml} URLs of the metadata that is revalidated in the background.
+   *
+   * @since 0.3.0
+   */
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+  /**
+   * The {@link CachePolicy} of metadata lookups.
+   *
+   * @since 0.3.0
+   */
+  private final CachePolicy cachePolicy;
+
+  /**
+   * The metrics of metadata lookups.
+   *
+   * @since 0.3.0
+   */
+  private final CacheMetrics cacheMetrics = new CacheMetrics();
+
+  /**
+   * The number of metadata lookups by coordinates ({@code groupId:artifactId} or {@code
+   * groupId:artifactId:version} for {@code SNAPSHOT}-versions).
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, LongAdder> accessCounts = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an instance of {@link RepositoryClient} without credentials.
+   *
+   * <p>Appends a trailing slash to the URL if it's missing.
+   *
+   * @param url the URL to the repository.
+   * @since 0.3.0
+   */
+  public RepositoryClient(String url) {
+    this(url, null, null, null, false, null, CachePolicy.DEFAULT);
+  }
+
+  /**
+   * Creates an instance of {@link RepositoryClient} without credentials that looks up metadata
+   * according to a {@link CachePolicy}, e.g. to return cached metadata at once and revalidate it in
+   * the background.
+   *
+   * <p>Appends a trailing slash to the URL if it's missing.
+   *
+   * @param url the URL to the repository.
+   * @param cachePolicy the {@link CachePolicy} of metadata lookups.
+   * @since 0.3.0
+   */
+  public RepositoryClient(String url, CachePolicy cachePolicy) {
+    this(url, null, null, null, false, null, cachePolicy);
+  }
+
+  /**
+   * Creates an instance of {@link RepositoryClient} with credentials.
+   *
+   * <p>Appends a trailing slash to the URL if it's missing.
+   *
+   * @param url the URL to the repository.
+   * @param username the username to authenticate to the repository.
+   * @param token the token (or password) to authenticate to the repository.
+   * @since 0.3.0
+   */
+  public RepositoryClient(String url, String username, String token) {
+    this(url, username, token, null, false, null, CachePolicy.DEFAULT);
+  }
+
+  /**
+   * Creates an instance of {@link RepositoryClient} with credentials and its own fixed pool of
+   * daemon threads for parallel downloads, which is shut down on {@link #close()}.
+   *
+   * <p>Appends a trailing slash to the URL if it's missing.
+   *
+   * @param url the URL to the repository.
+   * @param username the username to authenticate to the repository or {@code null}.
+   * @param token the token (or password) to authenticate to the repository or {@code null}.
+   * @param threads the number of parallel downloads.
+   * @since 0.3.0
+   */
+  public RepositoryClient(String url, String username, String token, int threads) {
+    this(url, username, token, createExecutor(threads), true, null, CachePolicy.DEFAULT);
+  }
+
+  /**
+   * Creates an instance of {@link RepositoryClient} with credentials that runs parallel downloads
+   * on the given {@link Executor}, which is not shut down on {@link #close()}.
+   *
+   * <p>Appends a trailing slash to the URL if it's missing.
+   *
+   * @param url the URL to the repository.
+   * @param username the username to authenticate to the repository or {@code null}.
+   * @param token the token (or password) to authenticate to the repository or {@code null}.
+   * @param executor the {@link Executor} used for parallel downloads.
+   * @since 0.3.0
+   */
+  public RepositoryClient(String url, String username, String token, Executor executor) {
+    this(url, username, token, executor, false, null, CachePolicy.DEFAULT);
+  }
+
+  /**
+   * Creates an instance of {@link RepositoryClient} with credentials that runs parallel downloads
+   * on the given {@link Executor} and sends requests through an {@link AdaptiveLimiter}.
+   *
+   * <p>Appends a trailing slash to the URL if it's missing.
+   *
+   * @param url the URL to the repository.
+   * @param username the username to authenticate to the repository or {@code null}.
+   * @param token the token (or password) to authenticate to the repository or {@code null}.
+   * @param executor the {@link Executor} used for parallel downloads or {@code null}.
+   * @param limiter the {@link AdaptiveLimiter} that limits concurrent requests per host.
+   * @since 0.3.0
+   */
+  public RepositoryClient(
+      String url, String username, String token, Executor executor, AdaptiveLimiter limiter) {
+    this(url, username, token, executor, false, limiter, CachePolicy.DEFAULT);
+  }
+
+  /**
+   * Creates an instance of {@link RepositoryClient} with credentials that runs parallel downloads
+   * on the given {@link Executor}, sends requests through an {@link AdaptiveLimiter} and looks up
+   * metadata according to a {@link CachePolicy}.
+   *
+   * <p>Appends a trailing slash to the URL if it's missing.
+   *
+   * @param url the URL to the repository.
+   * @param username the username to authenticate to the repository or {@code null}.
+   * @param token the token (or password) to authenticate to the repository or {@code null}.
+   * @param executor the {@link Executor} used for parallel downloads or {@code null}.
+   * @param limiter the {@link AdaptiveLimiter} that limits concurrent requests or {@code null}.
+   * @param cachePolicy the {@link CachePolicy} of metadata lookups.
+   * @since 0.3.0
+   */
+  public RepositoryClient(
+      String url,
+      String username,
+      String token,
+      Executor executor,
+      AdaptiveLimiter limiter,
+      CachePolicy cachePolicy) {
+    this(url, username, token, executor, false, limiter, cachePolicy);
+  }
+
+  /**
+   * Creates an instance of {@link RepositoryClient}.
+   *
+   * @param url the URL to the repository.
+   * @param username the username to authenticate to the repository or {@code null}.
+   * @param token the token (or password) to authenticate to the repository or {@code null}.
+   * @param executor the {@link Executor} used for parallel downloads or {@code null}.
+   * @param ownsExecutor {@code true} if the executor should be shut down on {@link #close()}.
+   * @param limiter the {@link AdaptiveLimiter} that limits concurrent requests or {@code null}.
+   * @param cachePolicy the {@link CachePolicy} of metadata lookups.
+   * @since 0.3.0
+   */
+  private RepositoryClient(
+      String url,
+      String username,
+      String token,
+      Executor executor,
+      boolean ownsExecutor,
+      AdaptiveLimiter limiter,
+      CachePolicy cachePolicy) {
+    this.url = url.endsWith("/") ? url : (url + "/");
+    if (username != null && token != null && !username.equals("") && !token.equals("")) {
+      byte[] encodedAuth =
+          Base64.encodeBase64((username + ":" + token).getBytes(StandardCharsets.UTF_8));
+      this.authorization = "Basic " + new String(encodedAuth, StandardCharsets.US_ASCII);
+    } else this.authorization = null;
+    this.executor = executor;
+    this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+    this.limiter = limiter;
+    this.cachePolicy = Objects.requireNonNull(cachePolicy);
+  }
+
+  /**
+   * Returns a handle to an artifact of this repository.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @return the {@link MavenArtifact}.
+   * @since 0.3.0
+   */
+  public MavenArtifact artifact(String groupId, String artifactId) {
+    return new MavenArtifact(this, groupId, artifactId);
+  }
+
+  /**
+   * Returns the {@link Executor} used for parallel downloads.
+   *
+   * @return the {@link Executor} used for parallel downloads or {@code null} if each bulk download
+   *     uses a temporary pool.
+   * @since 0.3.0
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Returns the {@link AdaptiveLimiter} that limits concurrent requests per host.
+   *
+   * @return the {@link AdaptiveLimiter} or {@code null} if requests are not limited.
+   * @since 0.3.0
+   */
+  public AdaptiveLimiter getLimiter() {
+    return limiter;
+  }
+
+  /**
+   * Removes all cached metadata and {@link ProbeResult}s.
+   *
+   * @since 0.3.0
+   */
+  public void clearCache() {
+    artifactMetadata.clear();
+    snapshotMetadata.clear();
+    validated.clear();
+    errors.clear();
+    probes.clear();
+  }
+
+  /**
+   * Returns the {@link CachePolicy} of metadata lookups.
+   *
+   * @return the {@link CachePolicy}.
+   * @since 0.3.0
+   */
+  public CachePolicy getCachePolicy() {
+    return cachePolicy;
+  }
+
+  /**
+   * Returns the metrics of metadata lookups.
+   *
+   * @return the {@link CacheMetrics}.
+   * @since 0.3.0
+   */
+  public CacheMetrics getCacheMetrics() {
+    return cacheMetrics;
+  }
+
+  /**
+   * Returns the number of metadata lookups by coordinates since the client was created, e.g. to
+   * write a manifest for {@link MetadataPrefetcher} that prioritizes the most used artifacts on the
+   * next start.
+   *
+   * @return the number of lookups by coordinates ({@code groupId:artifactId} or {@code
+   *     groupId:artifactId:version} for {@code SNAPSHOT}-versions).
+   * @since 0.3.0
+   */
+  public Map<String, Long> getAccessCounts() {
+    Map<String, Long> counts = new HashMap<>();
+    accessCounts.forEach((coordinates, count) -> counts.put(coordinates, count.sum()));
+    return counts;
+  }
+
+  /**
+   * Records a metadata lookup.
+   *
+   * @param coordinates the coordinates of the metadata.
+   * @since 0.3.0
+   */
+  void recordAccess(String coordinates) {
+    accessCounts.computeIfAbsent(coordinates, key -> new LongAdder()).increment();
+  }
+
+  /**
+   * Looks up metadata according to the {@link CachePolicy}: fresh cached metadata is returned
+   * without request, stale metadata may be returned while it is revalidated in the background or
+   * instead of an error, and cached negative responses are thrown again. Otherwise the metadata is
+   * loaded, usually with a conditional request, and cached.
+   *
+   * @param cache the cache of the metadata.
+   * @param key the key of the metadata, i.e. the URL of the directory of its {@code
+   *     maven-metadata.xml} file.
+   * @param loader the function that loads the metadata, given the cached metadata or {@code null}.
+   * @param <T> the type of the metadata.
+   * @return the metadata.
+   * @throws IOException if an I/O error occurs e.g. while parsing the metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws SAXException if any parse errors occur.
+   * @since 0.3.0
+   */
+  <T> T lookup(Map<String, T> cache, String key, MetadataLoader<T> loader)
+      throws IOException, RequestException, ParserConfigurationException, SAXException {
+    String url = key + "/maven-metadata.xml";
+    long now = System.nanoTime();
+    CachedError error = errors.get(url);
+    if (error != null) {
+      if (now - error.expires < 0) {
+        cacheMetrics.negativeHits.incrementAndGet();
+        throw new RequestException(error.responseCode);
+      }
+      errors.remove(url, error);
+    }
+
+    T cached = cache.get(key);
+    long age = 0, maxAge = cachePolicy.maxAge.toNanos();
+    if (cached != null) {
+      Long time = validated.get(url);
+      age = time != null ? now - time : maxAge;
+      if (age < maxAge) {
+        cacheMetrics.hits.incrementAndGet();
+        return cached;
+      }
+      if (age < maxAge + cachePolicy.staleWhileRevalidate.toNanos()) {
+        cacheMetrics.staleWhileRevalidate.incrementAndGet();
+        refresh(cache, key, cached, loader);
+        return cached;
+      }
+    }
+
+    cacheMetrics.misses.incrementAndGet();
+    boolean staleIfError = cached != null && age < maxAge + cachePolicy.staleIfError.toNanos();
+    try {
+      return load(cache, key, cached, loader);
+    } catch (RequestException e) {
+      if (isNegative(e.responseCode)) {
+        forget(cache, key, cached, e.responseCode, cachePolicy);
+        throw e;
+      }
+      if (!staleIfError || (e.responseCode < 500 && e.responseCode != 429)) throw e;
+    } catch (IOException e) {
+      if (!staleIfError) throw e;
+    }
+    cacheMetrics.staleIfError.incrementAndGet();
+    return cached;
+  }
+
+  /**
+   * Loads metadata and caches it.
+   *
+   * @param cache the cache of the metadata.
+   * @param key the key of the metadata.
+   * @param cached the cached metadata or {@code null}.
+   * @param loader the function that loads the metadata.
+   * @param <T> the type of the metadata.
+   * @return the loaded metadata, which is {@code cached} if it was not modified.
+   * @throws IOException if an I/O error occurs e.g. while parsing the metadata.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws SAXException if any parse errors occur.
+   * @since 0.3.0
+   */
+  private <T> T load(Map<String, T> cache, String key, T cached, MetadataLoader<T> loader)
+      throws IOException, RequestException, ParserConfigurationException, SAXException {
+    long time = System.nanoTime();
+    T metadata = loader.load(cached);
+    cache.put(key, metadata);
+    validated.put(key + "/maven-metadata.xml", time);
+    return metadata;
+  }
+
+  /**
+   * Revalidates cached metadata in the background, unless it is already being revalidated.
+   *
+   * @param cache the cache of the metadata.
+   * @param key the key of the metadata.
+   * @param cached the cached metadata.
+   * @param loader the function that loads the metadata.
+   * @param <T> the type of the metadata.
+   * @since 0.3.0
+   */
+  private <T> void refresh(Map<String, T> cache, String key, T cached, MetadataLoader<T> loader) {
+    String url = key + "/maven-metadata.xml";
+    if (!refreshing.add(url)) return;
+    Runnable task =
+        () -> {
+          try {
+            load(cache, key, cached, loader);
+            cacheMetrics.revalidations.incrementAndGet();
+          } catch (Exception e) {
+            cacheMetrics.revalidationErrors.incrementAndGet();
+            if (e instanceof RequestException && isNegative(((RequestException) e).responseCode))
+              forget(cache, key, cached, ((RequestException) e).responseCode, cachePolicy);
+          } finally {
+            refreshing.remove(url);
+          }
+        };
+    try {
+      backgroundExecutor().execute(task);
+    } catch (RejectedExecutionException e) {
+      refreshing.remove(url);
+    }
+  }
+
+  /**
+   * Removes metadata that no longer exists or is no longer accessible from the cache and caches
+   * the response, if the {@link CachePolicy} has a {@link CachePolicy#negativeTtl}.
+   *
+   * @param cache the cache of the metadata.
+   * @param key the key of the metadata.
+   * @param cached the cached metadata or {@code null}.
+   * @param responseCode the response code.
+   * @param policy the {@link CachePolicy}.
+   * @param <T> the type of the metadata.
+   * @since 0.3.0
+   */
+  private <T> void forget(
+      Map<String, T> cache, String key, T cached, int responseCode, CachePolicy policy) {
+    String url = key + "/maven-metadata.xml";
+    if (cached != null && cache.remove(key, cached)) validated.remove(url);
+    if (policy.negativeTtl.isZero()) return;
+    long expires = System.nanoTime() + policy.negativeTtl.toNanos();
+    errors.put(url, new CachedError(responseCode, expires));
+  }
+
+  /**
+   * Returns {@code true} if a response code means that metadata does not exist or is not
+   * accessible, i.e. {@code 404 (Not Found)}, {@code 410 (Gone)} or {@code 401 (Unauthorized)}.
+   *
+   * @param responseCode the response code.
+   * @return {@code true} if the response may be cached as negative response.
+   * @since 0.3.0
+   */
+  private static boolean isNegative(int responseCode) {
+    return responseCode == HttpURLConnection.HTTP_NOT_FOUND
+        || responseCode == HttpURLConnection.HTTP_GONE
+        || responseCode == HttpURLConnection.HTTP_UNAUTHORIZED;
+  }
+
+  /**
+   * Writes all cached metadata (release, latest and all versions of artifacts, the builds of
+   * {@code SNAPSHOT}-versions and their {@link Validators}) to a compact binary snapshot file, so
+   * that it can be restored with {@link #loadMetadata(Path)} after a restart.
+   *
+   * @param file the snapshot file, which is replaced atomically.
+   * @return the number of written entries.
+   * @throws IOException if the file cannot be written.
+   * @since 0.3.0
+   */
+  public int saveMetadata(Path file) throws IOException {
+    return MetadataSnapshot.write(this, file);
+  }
+
+  /**
+   * Restores cached metadata from a snapshot file written by {@link #saveMetadata(Path)}. The
+   * file is memory mapped, so even large snapshots load in milliseconds. Metadata that is already
+   * cached is kept.
+   *
+   * <p>The restored metadata is used like any cached metadata: it is revalidated with a
+   * conditional request on its next use. Use {@link #revalidateMetadata()} to revalidate all of
+   * it in the background instead.
+   *
+   * @param file the snapshot file.
+   * @return the number of restored entries.
+   * @throws IOException if the file cannot be read or is not a valid snapshot.
+   * @since 0.3.0
+   */
+  public int loadMetadata(Path file) throws IOException {
+    return MetadataSnapshot.read(this, file);
+  }
+
+  /**
+   * Revalidates all cached metadata with conditional requests in the background, using the
+   * {@link Executor} of the client or a single background thread if it has none. Changed metadata
+   * is replaced and deleted metadata is removed. Metadata that cannot be revalidated, e.g. because
+   * the server is unreachable, is kept.
+   *
+   * @return a {@link CompletableFuture} of the number of changed or removed entries.
+   * @since 0.3.0
+   */
+  public CompletableFuture<Integer> revalidateMetadata() {
+    List<Supplier<Boolean>> tasks = new ArrayList<>();
+    for (Map.Entry<String, ArtifactMetadata> entry : artifactMetadata.entrySet())
+      tasks.add(
+          () ->
+              revalidate(
+                  artifactMetadata,
+                  entry.getKey(),
+                  entry.getValue(),
+                  entry.getValue().validators,
+                  ArtifactMetadata::fromVersioning));
+    for (Map.Entry<String, SnapshotMetadata> entry : snapshotMetadata.entrySet())
+      tasks.add(
+          () ->
+              revalidate(
+                  snapshotMetadata,
+                  entry.getKey(),
+                  entry.getValue(),
+                  entry.getValue().validators,
+                  (versioning, validators) ->
+                      SnapshotMetadata.fromVersioning(
+                          entry.getValue().version, versioning, validators)));
+
+    if (executor == null)
+      return CompletableFuture.supplyAsync(
+          () -> {
+            int changed = 0;
+            for (Supplier<Boolean> task : tasks) if (task.get()) changed++;
+            return changed;
+          },
+          backgroundExecutor());
+    List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+    for (Supplier<Boolean> task : tasks) futures.add(CompletableFuture.supplyAsync(task, executor));
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(ignored -> (int) futures.stream().filter(CompletableFuture::join).count());
+  }
+
+  /**
+   * Revalidates a cached metadata entry with a conditional request.
+   *
+   * @param cache the cache of the entry.
+   * @param key the key of the entry, i.e. the url of the directory of the metadata.
+   * @param cached the cached metadata.
+   * @param validators the {@link Validators} of the cached metadata.
+   * @param parser the function that parses the {@code versioning} element of fresh metadata.
+   * @param <T> the type of the metadata.
+   * @return {@code true} if the entry was replaced or removed.
+   * @since 0.3.0
+   */
+  private <T> boolean revalidate(
+      Map<String, T> cache,
+      String key,
+      T cached,
+      Validators validators,
+      BiFunction<Element, Validators, T> parser) {
+    try {
+      long time = System.nanoTime();
+      Resource resource = open(key + "/maven-metadata.xml", validators);
+      if (resource.isNotModified()) {
+        validated.put(key + "/maven-metadata.xml", time);
+        return false;
+      }
+      T metadata;
+      try (InputStream inputStream = resource.inputStream) {
+        metadata = parser.apply(MavenArtifact.getVersioning(inputStream), resource.validators);
+      }
+      if (cache.replace(key, cached, metadata)) validated.put(key + "/maven-metadata.xml", time);
+      return true;
+    } catch (RequestException e) {
+      if (!isNegative(e.responseCode)) return false;
+      forget(cache, key, cached, e.responseCode, cachePolicy);
+      return true;
+    } catch (IOException | ParserConfigurationException | SAXException | RuntimeException e) {
+      // Keep the stale entry, it is revalidated again on its next use.
+      return false;
+    }
+  }
+
+  /**
+   * Returns the {@link Executor} that revalidates metadata in the background: the {@link Executor}
+   * of the client or, if it has none, a single daemon thread that is shared by all revalidations.
+   *
+   * @return the {@link Executor}.
+   * @since 0.3.0
+   */
+  private synchronized Executor backgroundExecutor() {
+    if (executor != null) return executor;
+    if (revalidationExecutor == null)
+      revalidationExecutor =
+          Executors.newSingleThreadExecutor(
+              DaemonThreads.factory("repository-client-revalidation"));
+    return revalidationExecutor;
+  }
+
+  /**
+   * Shuts down the pool of threads, if it was created by this client, and the background thread
+   * that revalidates metadata.
+   *
+   * @since 0.3.0
+   */
+  @Override
+  public synchronized void close() {
+    if (ownedExecutor != null) ownedExecutor.shutdownNow();
+    if (revalidationExecutor != null) revalidationExecutor.shutdownNow();
+  }
+
+  /**
+   * Returns an {@link InputStream} for a given url {@link String}. If credentials are set, they are
+   * used in the {@code Authorization} header.
+   *
+   * @param urlString the url {@link String} that should be queried.
+   * @return the {@link InputStream} for the given url-{@link String}.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  InputStream request(String urlString) throws IOException, RequestException {
+    return open(urlString, Validators.NONE).inputStream;
+  }
+
+  /**
+   * Opens a file of the repository for reading. Files of {@code file://} repositories are opened
+   * directly, other files are requested via {@link #connect(String, Validators)}.
+   *
+   * <p>For {@code file://} repositories, the {@link Validators} are derived from the size and the
+   * modification time of the file, so that conditional reads behave like conditional requests.
+   *
+   * @param urlString the url {@link String} of the file.
+   * @param validators the {@link Validators} used for a conditional request.
+   * @return the opened {@link Resource}, without {@link InputStream} if it was not modified.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx, or
+   *     {@code 404 (Not Found)} if the file does not exist in a {@code file://} repository.
+   * @since 0.3.0
+   */
+  Resource open(String urlString, Validators validators)
+      throws IOException, RequestException {
+    return open(urlString, validators, null);
+  }
+
+  /**
+   * Opens a range of a file of the repository for reading. Servers that do not support ranges
+   * send the whole file instead, which is reflected by {@link Resource#offset} and {@link
+   * Resource#length}.
+   *
+   * @param urlString the url {@link String} of the file.
+   * @param range the byte range as in the {@code Range} header without unit, i.e. {@code
+   *     first-last}, {@code first-} or {@code -suffixLength}.
+   * @return the opened {@link Resource}.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx, e.g.
+   *     {@code 416 (Range Not Satisfiable)}, or {@code 404 (Not Found)} if the file does not exist
+   *     in a {@code file://} repository.
+   * @since 0.3.0
+   */
+  Resource openRange(String urlString, String range) throws IOException, RequestException {
+    return open(urlString, Validators.NONE, range);
+  }
+
+  /**
+   * Opens a file or a range of a file of the repository for reading.
+   *
+   * @param urlString the url {@link String} of the file.
+   * @param validators the {@link Validators} used for a conditional request.
+   * @param range the byte range or {@code null} for the whole file.
+   * @return the opened {@link Resource}, without {@link InputStream} if it was not modified.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx, or
+   *     {@code 404 (Not Found)} if the file does not exist in a {@code file://} repository.
+   * @since 0.3.0
+   */
+  private Resource open(String urlString, Validators validators, String range)
+      throws IOException, RequestException {
+    ProbeResult probe = getProbe(urlString);
+    if (probe != null && probe.isMissing())
+      throw new RequestException(HttpURLConnection.HTTP_NOT_FOUND);
+    if (isLocal(urlString)) {
+      Path path = toPath(urlString);
+      BasicFileAttributes attributes;
+      try {
+        attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      } catch (NoSuchFileException e) {
+        throw new RequestException(HttpURLConnection.HTTP_NOT_FOUND);
+      }
+      if (!attributes.isRegularFile()) throw new RequestException(HttpURLConnection.HTTP_NOT_FOUND);
+      Validators current = getValidators(attributes);
+      long size = attributes.size();
+      if (validators.etag != null && validators.etag.equals(current.etag))
+        return new Resource(null, current, size, 0, size, null);
+      if (range == null)
+        return new Resource(Files.newInputStream(path), current, size, 0, size, null);
+
+      long first = 0, last = size - 1;
+      int dash = range.indexOf('-');
+      try {
+        if (dash == 0) first = Math.max(0, size - Long.parseLong(range.substring(1)));
+        else {
+          first = Long.parseLong(range.substring(0, dash));
+          if (dash < range.length() - 1)
+            last = Math.min(last, Long.parseLong(range.substring(dash + 1)));
+        }
+      } catch (NumberFormatException | IndexOutOfBoundsException e) {
+        throw new RequestException(416);
+      }
+      if (first > last) throw new RequestException(416);
+      SeekableByteChannel channel = Files.newByteChannel(path);
+      try {
+        InputStream inputStream =
+            new BoundedInputStream(
+                Channels.newInputStream(channel.position(first)), last - first + 1);
+        return new Resource(inputStream, current, last - first + 1, first, size, null);
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    if (limiter == null)
+      return open(connect(urlString, "GET", validators, range), validators, null);
+
+    AdaptiveLimiter.Permit permit = limiter.acquire(urlString);
+    try {
+      HttpURLConnection connection;
+      try {
+        connection = connect(urlString, "GET", validators, range);
+      } catch (RequestException e) {
+        if (AdaptiveLimiter.isOverload(e.responseCode)) permit.onOverload();
+        throw e;
+      } catch (IOException e) {
+        permit.onOverload();
+        throw e;
+      }
+      permit.onSuccess();
+      return open(connection, validators, permit);
+    } catch (IOException | RequestException | RuntimeException e) {
+      permit.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Creates the {@link Resource} of a connection that received its response.
+   *
+   * @param connection the connection.
+   * @param validators the {@link Validators} used for the request.
+   * @param permit the {@link AdaptiveLimiter.Permit} of the request, which is released once the
+   *     {@link InputStream} is closed, or {@code null}.
+   * @return the opened {@link Resource}, without {@link InputStream} if it was not modified.
+   * @throws IOException if an I/O error occurs.
+   * @since 0.3.0
+   */
+  private static Resource open(
+      HttpURLConnection connection, Validators validators, AdaptiveLimiter.Permit permit)
+      throws IOException {
+    if (validators.isPresent()
+        && connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+      if (permit != null) permit.release();
+      return new Resource(null, getValidators(connection), -1, 0, -1, connection);
+    }
+    InputStream inputStream = connection.getInputStream();
+    long length = connection.getContentLengthLong(), offset = 0, fileLength = length;
+    // A Content-Range header is only sent with 206 (Partial Content).
+    String contentRange = connection.getHeaderField("Content-Range");
+    if (contentRange != null) {
+      Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+      if (matcher.matches()) {
+        offset = Long.parseLong(matcher.group(1));
+        fileLength = matcher.group(3).equals("*") ? -1 : Long.parseLong(matcher.group(3));
+      }
+    }
+    return new Resource(
+        permit != null ? permit.releaseOnClose(inputStream) : inputStream,
+        getValidators(connection),
+        length,
+        offset,
+        fileLength,
+        connection);
+  }
+
+  /**
+   * Copies a file of the repository to a path, creating missing parent directories. Files of
+   * {@code file://} repositories are copied with {@link FileChannel#transferTo(long, long,
+   * java.nio.channels.WritableByteChannel)}.
+   *
+   * @param urlString the url {@link String} of the file.
+   * @param path the path the file is copied to, replacing an existing file.
+   * @return the number of copied bytes.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx, or
+   *     {@code 404 (Not Found)} if the file does not exist in a {@code file://} repository.
+   * @since 0.3.0
+   */
+  long transfer(String urlString, String path) throws IOException, RequestException {
+    if (!isLocal(urlString))
+      try (InputStream inputStream = request(urlString)) {
+        return Files.copy(
+            inputStream, createParentDirectories(path), StandardCopyOption.REPLACE_EXISTING);
+      }
+
+    Path source = toPath(urlString);
+    if (!Files.isRegularFile(source)) throw new RequestException(HttpURLConnection.HTTP_NOT_FOUND);
+    Path target = createParentDirectories(path);
+    try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+        FileChannel out =
+            FileChannel.open(
+                target,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+      long size = in.size();
+      for (long position = 0; position < size; )
+        position += in.transferTo(position, size - position, out);
+      return size;
+    }
+  }
+
+  /**
+   * Copies a file of the repository to a path unless the path already contains the same version
+   * of the file, as recorded in its {@link DownloadState}.
+   *
+   * <p>If the remote file sent {@link Validators} when it was downloaded, a conditional request
+   * is sent and {@code 304 (Not Modified)} ends the update. Otherwise the recorded SHA-1 is
+   * compared with the remote {@code .sha1} file. The path is only written if the file changed,
+   * via a temporary file in the same directory that replaces it atomically. A cached {@link
+   * ProbeResult} of a copied file is discarded, because it may describe an older version.
+   *
+   * @param urlString the url {@link String} of the file.
+   * @param path the path the file is copied to.
+   * @return {@code true} if the file was copied, {@code false} if the path was up to date.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx, or
+   *     {@code 404 (Not Found)} if the file does not exist in a {@code file://} repository.
+   * @since 0.3.0
+   */
+  boolean transferIfModified(String urlString, Path path) throws IOException, RequestException {
+    Path target = path.toAbsolutePath();
+    DownloadState state = DownloadState.read(target);
+    Validators validators = state != null ? state.validators : Validators.NONE;
+    if (state != null && !validators.isPresent() && state.sha1 != null) {
+      String remote = getChecksum(urlString + ".sha1");
+      if (state.sha1.equalsIgnoreCase(remote)) return false;
+    }
+
+    Resource resource = open(urlString, validators);
+    if (resource.isNotModified()) return false;
+    Files.createDirectories(target.getParent());
+    Path temporary = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".part");
+    MessageDigest digest;
+    try (InputStream inputStream = resource.inputStream) {
+      digest = MessageDigest.getInstance("SHA-1");
+      Files.copy(
+          new DigestInputStream(inputStream, digest),
+          temporary,
+          StandardCopyOption.REPLACE_EXISTING);
+      try {
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (NoSuchAlgorithmException e) {
+      Files.deleteIfExists(temporary);
+      throw new IOException("SHA-1 is not supported!", e);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+
+    probes.remove(urlString);
+    StringBuilder sha1 = new StringBuilder();
+    for (byte b : digest.digest()) sha1.append(String.format("%02x", b));
+    BasicFileAttributes attributes = Files.readAttributes(target, BasicFileAttributes.class);
+    new DownloadState(
+            resource.validators,
+            sha1.toString(),
+            attributes.size(),
+            attributes.lastModifiedTime().toMillis())
+        .write(target);
+    return true;
+  }
+
+  /**
+   * Returns the checksum stored in a checksum file of the repository, e.g. a {@code .sha1} file.
+   * If the file was recently probed and the server reported the checksum in a header, no request is
+   * sent.
+   *
+   * @param urlString the url {@link String} of the checksum file.
+   * @return the checksum or {@code null} if the checksum file does not exist.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  String getChecksum(String urlString) throws IOException, RequestException {
+    int dot = urlString.lastIndexOf('.');
+    ProbeResult probe = getProbe(urlString.substring(0, dot));
+    if (probe != null) {
+      String extension = urlString.substring(dot + 1);
+      if (extension.equals("sha1") && probe.sha1 != null) return probe.sha1;
+      if (extension.equals("md5") && probe.md5 != null) return probe.md5;
+    }
+    try (InputStream inputStream = request(urlString)) {
+      byte[] buffer = new byte[1024];
+      int length = 0;
+      for (int read;
+          length < buffer.length
+              && (read = inputStream.read(buffer, length, buffer.length - length)) != -1; )
+        length += read;
+      String content = new String(buffer, 0, length, StandardCharsets.US_ASCII).trim();
+      // Checksum files may contain the file name after the checksum.
+      int end = 0;
+      while (end < content.length() && !Character.isWhitespace(content.charAt(end))) end++;
+      return content.isEmpty() ? null : content.substring(0, end);
+    } catch (RequestException e) {
+      if (e.responseCode == HttpURLConnection.HTTP_NOT_FOUND) return null;
+      throw e;
+    }
+  }
+
+  /**
+   * Probes a file of the repository with a {@code HEAD} request, which reports whether it exists,
+   * its size, its validators and, if the server sends {@code X-Checksum-Sha1} or {@code
+   * X-Checksum-Md5} headers (like Maven Central, Nexus and Artifactory do), its checksums. Files
+   * of {@code file://} repositories are probed via their attributes and checksum files.
+   *
+   * <p>The result is cached, see {@link #probes}: a file that was probed as missing is not
+   * requested again, and the checksums are used instead of checksum files. Connections are reused
+   * via the keep-alive pool of {@link HttpURLConnection}.
+   *
+   * @param version the version of the file.
+   * @param file the classifier and extension of the file.
+   * @param urlString the url {@link String} of the file.
+   * @return the {@link ProbeResult}, which contains the {@link Exception} if the probe failed.
+   * @since 0.3.0
+   */
+  ProbeResult probe(ComparableVersion version, ArtifactFile file, String urlString) {
+    ProbeResult result;
+    try {
+      result =
+          isLocal(urlString)
+              ? probeLocal(version, file, urlString)
+              : head(version, file, urlString);
+    } catch (RequestException e) {
+      boolean missing =
+          e.responseCode == HttpURLConnection.HTTP_NOT_FOUND
+              || e.responseCode == HttpURLConnection.HTTP_GONE;
+      result =
+          new ProbeResult(
+              version, file, urlString, false, -1, Validators.NONE, null, null, missing ? null : e);
+    } catch (IOException e) {
+      result =
+          new ProbeResult(version, file, urlString, false, -1, Validators.NONE, null, null, e);
+    }
+    if (result.isSuccessful()) probes.put(urlString, result);
+    return result;
+  }
+
+  /**
+   * Returns the cached {@link ProbeResult} of a file if it is still fresh according to the {@link
+   * CachePolicy}.
+   *
+   * @param urlString the url {@link String} of the file.
+   * @return the fresh {@link ProbeResult} or {@code null}.
+   * @since 0.3.0
+   */
+  ProbeResult getProbe(String urlString) {
+    ProbeResult probe = probes.get(urlString);
+    if (probe == null) return null;
+    long ttl = (probe.exists ? cachePolicy.maxAge : cachePolicy.negativeTtl).toNanos();
+    if (System.nanoTime() - probe.probed < ttl) return probe;
+    probes.remove(urlString, probe);
+    return null;
+  }
+
+  /**
+   * Probes a file with a {@code HEAD} request.
+   *
+   * @param version the version of the file.
+   * @param file the classifier and extension of the file.
+   * @param urlString the url {@link String} of the file.
+   * @return the {@link ProbeResult} of the existing file.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private ProbeResult head(ComparableVersion version, ArtifactFile file, String urlString)
+      throws IOException, RequestException {
+    AdaptiveLimiter.Permit permit = limiter != null ? limiter.acquire(urlString) : null;
+    try {
+      HttpURLConnection connection = connect(urlString, "HEAD", Validators.NONE, null);
+      if (permit != null) permit.onSuccess();
+      // The response has no body; closing its stream returns the connection to the pool.
+      connection.getInputStream().close();
+      return new ProbeResult(
+          version,
+          file,
+          urlString,
+          true,
+          connection.getContentLengthLong(),
+          getValidators(connection),
+          connection.getHeaderField("X-Checksum-Sha1"),
+          connection.getHeaderField("X-Checksum-Md5"),
+          null);
+    } catch (RequestException e) {
+      if (permit != null && AdaptiveLimiter.isOverload(e.responseCode)) permit.onOverload();
+      throw e;
+    } catch (IOException e) {
+      if (permit != null) permit.onOverload();
+      throw e;
+    } finally {
+      if (permit != null) permit.release();
+    }
+  }
+
+  /**
+   * Probes a file of a {@code file://} repository.
+   *
+   * @param version the version of the file.
+   * @param file the classifier and extension of the file.
+   * @param urlString the url {@link String} of the file.
+   * @return the {@link ProbeResult} of the existing file.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException {@code 404 (Not Found)} if the file does not exist.
+   * @since 0.3.0
+   */
+  private ProbeResult probeLocal(ComparableVersion version, ArtifactFile file, String urlString)
+      throws IOException, RequestException {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(toPath(urlString), BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      throw new RequestException(HttpURLConnection.HTTP_NOT_FOUND);
+    }
+    if (!attributes.isRegularFile()) throw new RequestException(HttpURLConnection.HTTP_NOT_FOUND);
+    return new ProbeResult(
+        version,
+        file,
+        urlString,
+        true,
+        attributes.size(),
+        getValidators(attributes),
+        getChecksum(urlString + ".sha1"),
+        getChecksum(urlString + ".md5"),
+        null);
+  }
+
+  /**
+   * Creates the missing parent directories of a path.
+   *
+   * @param path the path.
+   * @return the path as {@link Path}.
+   * @since 0.3.0
+   */
+  private static Path createParentDirectories(String path) {
+    File file = new File(path).getAbsoluteFile();
+    //noinspection ResultOfMethodCallIgnored
+    file.getParentFile().mkdirs();
+    return file.toPath();
+  }
+
+  /**
+   * Returns {@code true} if a url {@link String} points to the local (or a mounted network) file
+   * system.
+   *
+   * @param urlString the url {@link String}.
+   * @return {@code true} if the url {@link String} is a {@code file:} URL.
+   * @since 0.3.0
+   */
+  static boolean isLocal(String urlString) {
+    return urlString.regionMatches(true, 0, "file:", 0, 5);
+  }
+
+  /**
+   * Returns the {@link Path} of a {@code file:} url {@link String}.
+   *
+   * @param urlString the {@code file:} url {@link String}.
+   * @return the {@link Path}.
+   * @throws IOException if the url {@link String} is not a valid {@code file:} URI.
+   * @since 0.3.0
+   */
+  static Path toPath(String urlString) throws IOException {
+    try {
+      return Paths.get(new URI(urlString));
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      throw new IOException("Invalid file URL " + urlString + "!", e);
+    }
+  }
+
+  /**
+   * Opens and connects an {@link HttpURLConnection} for a given url {@link String}. If credentials
+   * are set, they are used in the {@code Authorization} header. If
+   * {@code validators} are present, the request is sent conditionally and the server may respond
+   * with {@code 304 (Not Modified)}.
+   *
+   * @param urlString the url {@link String} that should be queried.
+   * @param validators the {@link Validators} used for a conditional request.
+   * @return the connected {@link HttpURLConnection}.
+   * @throws IOException if an I/O error occurs, e.g. if the URL is neither {@code http} nor {@code
+   *     https}.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  HttpURLConnection connect(String urlString, Validators validators)
+      throws IOException, RequestException {
+    return connect(urlString, "GET", validators, null);
+  }
+
+  /**
+   * Opens and connects an {@link HttpURLConnection} for a given url {@link String} with a request
+   * method, optionally requesting a byte range. See {@link #connect(String, Validators)}.
+   *
+   * @param urlString the url {@link String} that should be queried.
+   * @param method the request method, i.e. {@code GET} or {@code HEAD}.
+   * @param validators the {@link Validators} used for a conditional request.
+   * @param range the byte range as in the {@code Range} header without unit or {@code null}.
+   * @return the connected {@link HttpURLConnection}.
+   * @throws IOException if an I/O error occurs, e.g. if the URL is neither {@code http} nor {@code
+   *     https}.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private HttpURLConnection connect(
+      String urlString, String method, Validators validators, String range)
+      throws IOException, RequestException {
+    URL server = new URL(urlString);
+    URLConnection urlConnection = server.openConnection();
+    if (!(urlConnection instanceof HttpURLConnection))
+      throw new IOException("Unsupported protocol " + server.getProtocol() + "!");
+    HttpURLConnection connection = (HttpURLConnection) urlConnection;
+    connection.setRequestMethod(method);
+
+    if (authorization != null) connection.setRequestProperty("Authorization", authorization);
+    if (validators.etag != null) connection.setRequestProperty("If-None-Match", validators.etag);
+    if (validators.lastModified != null)
+      connection.setRequestProperty("If-Modified-Since", validators.lastModified);
+    if (range != null) connection.setRequestProperty("Range", "bytes=" + range);
+
+    connection.connect();
+    int responseCode;
+    if ((responseCode = connection.getResponseCode()) >= 400 && responseCode < 600) {
+      discard(connection.getErrorStream());
+      throw new RequestException(responseCode);
+    }
+    return connection;
+  }
+
+  /**
+   * Reads and closes an error stream, so that the underlying connection can be reused.
+   *
+   * @param errorStream the error stream or {@code null}.
+   * @since 0.3.0
+   */
+  private static void discard(InputStream errorStream) {
+    if (errorStream == null) return;
+    try (InputStream inputStream = errorStream) {
+      byte[] buffer = new byte[1024];
+      //noinspection StatementWithEmptyBody
+      while (inputStream.read(buffer) != -1) {}
+    } catch (IOException ignored) {
+    }
+  }
+
+  /**
+   * Returns the {@link Validators} a server returned on a connection.
+   *
+   * @param connection the connection.
+   * @return the {@link Validators} the server returned.
+   * @since 0.3.0
+   */
+  private static Validators getValidators(URLConnection connection) {
+    return new Validators(
+        connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+  }
+
+  /**
+   * Returns the {@link Validators} of a file of a {@code file://} repository, derived from its size
+   * and modification time.
+   *
+   * @param attributes the attributes of the file.
+   * @return the {@link Validators} of the file.
+   * @since 0.3.0
+   */
+  private static Validators getValidators(BasicFileAttributes attributes) {
+    return new Validators(
+        "\"" + attributes.size() + "-" + attributes.lastModifiedTime().toMillis() + "\"",
+        DateTimeFormatter.RFC_1123_DATE_TIME.format(
+            attributes.lastModifiedTime().toInstant().atOffset(ZoneOffset.UTC)));
+  }
+
+  /**
+   * A {@link Resource} is an opened file of the repository.
+   *
+   * @since 0.3.0
+   */
+  static final class Resource {
+
+    /**
+     * The content of the file or {@code null} if it was not modified.
+     *
+     * @since 0.3.0
+     */
+    final InputStream inputStream;
+
+    /**
+     * The current {@link Validators} of the file.
+     *
+     * @since 0.3.0
+     */
+    final Validators validators;
+
+    /**
+     * The number of bytes of the {@link #inputStream} or {@code -1} if it is unknown.
+     *
+     * @since 0.3.0
+     */
+    final long length;
+
+    /**
+     * The position of the first byte of the {@link #inputStream} in the file, {@code 0} unless a
+     * range was served.
+     *
+     * @since 0.3.0
+     */
+    final long offset;
+
+    /**
+     * The size of the whole file in bytes or {@code -1} if it is unknown.
+     *
+     * @since 0.3.0
+     */
+    final long fileLength;
+
+    /**
+     * The connection the file is read from or {@code null} for {@code file://} repositories.
+     *
+     * @since 0.3.0
+     */
+    private final HttpURLConnection connection;
+
+    /**
+     * Creates an instance of {@link Resource}.
+     *
+     * @param inputStream the content of the file or {@code null} if it was not modified.
+     * @param validators the current {@link Validators} of the file.
+     * @param length the number of bytes of the {@link InputStream} or {@code -1} if it is unknown.
+     * @param offset the position of the first byte of the {@link InputStream} in the file.
+     * @param fileLength the size of the whole file in bytes or {@code -1} if it is unknown.
+     * @param connection the connection the file is read from or {@code null}.
+     * @since 0.3.0
+     */
+    private Resource(
+        InputStream inputStream,
+        Validators validators,
+        long length,
+        long offset,
+        long fileLength,
+        HttpURLConnection connection) {
+      this.inputStream = inputStream;
+      this.validators = validators;
+      this.length = length;
+      this.offset = offset;
+      this.fileLength = fileLength;
+      this.connection = connection;
+    }
+
+    /**
+     * Closes the file without reading the rest of it. The connection is closed instead of being
+     * kept alive, so that an aborted download releases its connection right away and a read that
+     * is blocked in another thread fails.
+     *
+     * @since 0.3.0
+     */
+    void abort() {
+      if (connection != null) connection.disconnect();
+      if (inputStream == null) return;
+      try {
+        inputStream.close();
+      } catch (IOException ignored) {
+      }
+    }
+
+    /**
+     * Returns {@code true} if the file was not modified since the conditional request.
+     *
+     * @return {@code true} if the file was not modified.
+     * @since 0.3.0
+     */
+    boolean isNotModified() {
+      return inputStream == null;
+    }
+  }
+
+  /**
+   * An {@link InputStream} that ends after a number of bytes of the underlying stream.
+   *
+   * @since 0.3.0
+   */
+  private static final class BoundedInputStream extends FilterInputStream {
+
+    /**
+     * The number of bytes that may still be read.
+     *
+     * @since 0.3.0
+     */
+    private long remaining;
+
+    /**
+     * Creates an instance of {@link BoundedInputStream}.
+     *
+     * @param inputStream the underlying stream.
+     * @param length the number of bytes that may be read.
+     * @since 0.3.0
+     */
+    private BoundedInputStream(InputStream inputStream, long length) {
+      super(inputStream);
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) return -1;
+      int read = super.read();
+      if (read != -1) remaining--;
+      return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (remaining <= 0) return -1;
+      int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+      if (read > 0) remaining -= read;
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(Math.min(n, remaining));
+      remaining -= skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (int) Math.min(super.available(), remaining);
+    }
+  }
+
+  /**
+   * Creates a fixed pool of named daemon threads.
+   *
+   * @param threads the number of threads.
+   * @return the created pool.
+   * @since 0.3.0
+   */
+  private static ExecutorService createExecutor(int threads) {
+    return Executors.newFixedThreadPool(threads, DaemonThreads.factory("repository-client"));
+  }
+
+  /**
+   * A function that loads metadata, given the cached metadata.
+   *
+   * @param <T> the type of the metadata.
+   * @since 0.3.0
+   */
+  @FunctionalInterface
+  interface MetadataLoader<T> {
+
+    /**
+     * Loads metadata, sending a conditional request based on the cached metadata.
+     *
+     * @param cached the cached metadata or {@code null}.
+     * @return {@code cached} if it was not modified, otherwise the loaded metadata.
+     * @throws IOException if an I/O error occurs e.g. while parsing the metadata.
+     * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *     the configuration requested.
+     * @throws SAXException if any parse errors occur.
+     * @since 0.3.0
+     */
+    T load(T cached)
+        throws IOException, RequestException, ParserConfigurationException, SAXException;
+  }
+
+  /**
+   * A cached negative response.
+   *
+   * @since 0.3.0
+   */
+  private static final class CachedError {
+
+    /**
+     * The response code.
+     *
+     * @since 0.3.0
+     */
+    private final int responseCode;
+
+    /**
+     * The {@link System#nanoTime()} at which the response expires.
+     *
+     * @since 0.3.0
+     */
+    private final long expires;
+
+    /**
+     * Creates an instance of {@link CachedError}.
+     *
+     * @param responseCode the response code.
+     * @param expires the {@link System#nanoTime()} at which the response expires.
+     * @since 0.3.0
+     */
+    private CachedError(int responseCode, long expires) {
+      this.responseCode = responseCode;
+      this.expires = expires;
+    }
+  }
+}
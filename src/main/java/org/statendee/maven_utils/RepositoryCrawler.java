@@ -0,0 +1,522 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.statendee.maven_utils.index.ArtifactIndex;
+import org.statendee.maven_utils.index.IndexedArtifact;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionIndex;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A {@link RepositoryCrawler} lists every artifact and version below a groupId in a repository by
+ * walking its directory listings and {@code maven-metadata.xml} files, and collects them in an
+ * {@link ArtifactIndex}.
+ *
+ * <p>Directories are crawled in parallel, but never more than {@code concurrency} at once. A
+ * directory that contains a {@code maven-metadata.xml} file with versions is an artifact and is
+ * not descended into. Directories of {@code file://} repositories are listed directly, listings of
+ * other repositories are parsed from the {@code href}s of their HTML pages.
+ *
+ * <p>If a checkpoint file is given, every crawled directory and artifact is appended to it, so that
+ * an interrupted or failed crawl continues where it stopped when it is started again with the same
+ * checkpoint. The checkpoint is deleted once the crawl completed, so that the next crawl with it
+ * sees the current state of the repository.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class RepositoryCrawler {
+
+  /**
+   * The default number of directories that are crawled at once.
+   *
+   * @since 0.3.0
+   */
+  public static final int DEFAULT_CONCURRENCY = 8;
+
+  /**
+   * The name of the metadata files that mark artifact directories.
+   *
+   * @since 0.3.0
+   */
+  private static final String METADATA = "maven-metadata.xml";
+
+  /**
+   * The pattern of links in a directory listing.
+   *
+   * @since 0.3.0
+   */
+  private static final Pattern HREF =
+      Pattern.compile("href\\s*=\\s*[\"']([^\"'#?]+)[\"']", Pattern.CASE_INSENSITIVE);
+
+  /**
+   * The client used for all requests.
+   *
+   * @since 0.3.0
+   */
+  private final RepositoryClient client;
+
+  /**
+   * The maximum number of directories that are crawled at once.
+   *
+   * @since 0.3.0
+   */
+  private final int concurrency;
+
+  /**
+   * Creates an instance of {@link RepositoryCrawler} that crawls {@link #DEFAULT_CONCURRENCY}
+   * directories at once.
+   *
+   * @param client the client of the repository.
+   * @since 0.3.0
+   */
+  public RepositoryCrawler(RepositoryClient client) {
+    this(client, DEFAULT_CONCURRENCY);
+  }
+
+  /**
+   * Creates an instance of {@link RepositoryCrawler}.
+   *
+   * @param client the client of the repository.
+   * @param concurrency the maximum number of directories that are crawled at once.
+   * @since 0.3.0
+   */
+  public RepositoryCrawler(RepositoryClient client, int concurrency) {
+    if (concurrency < 1) throw new IllegalArgumentException("The concurrency must be positive!");
+    this.client = client;
+    this.concurrency = concurrency;
+  }
+
+  /**
+   * Crawls all artifacts below a groupId.
+   *
+   * @param groupIdPrefix the groupId whose artifacts and sub-groups are crawled, e.g. {@code
+   *     org.example}, or an empty {@link String} for the whole repository.
+   * @return the {@link ArtifactIndex} of all artifacts found.
+   * @throws IOException if an I/O error occurs or the crawl is interrupted.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  public ArtifactIndex crawl(String groupIdPrefix) throws IOException, RequestException {
+    return crawl(groupIdPrefix, null);
+  }
+
+  /**
+   * Crawls all artifacts below a groupId and records the progress in a checkpoint file. If the
+   * checkpoint file already contains the progress of a crawl of the same groupId, the crawl is
+   * resumed. The checkpoint file is deleted once the crawl completed.
+   *
+   * @param groupIdPrefix the groupId whose artifacts and sub-groups are crawled, e.g. {@code
+   *     org.example}, or an empty {@link String} for the whole repository.
+   * @param checkpoint the checkpoint file or {@code null} to crawl without checkpoint.
+   * @return the {@link ArtifactIndex} of all artifacts found.
+   * @throws IOException if an I/O error occurs or the crawl is interrupted.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @throws IllegalArgumentException if the checkpoint belongs to a crawl of another groupId.
+   * @since 0.3.0
+   */
+  public ArtifactIndex crawl(String groupIdPrefix, Path checkpoint)
+      throws IOException, RequestException {
+    String root = groupIdPrefix.isEmpty() ? "" : groupIdPrefix.replace('.', '/') + "/";
+    ArtifactIndex index;
+    try (Crawl crawl = new Crawl(root, checkpoint)) {
+      index = crawl.run();
+    }
+    if (checkpoint != null) Files.deleteIfExists(checkpoint);
+    return index;
+  }
+
+  /**
+   * Returns the names of the entries of a directory of the repository. Names of directories end
+   * with {@code /}.
+   *
+   * @param directory the path of the directory relative to the repository, ending with {@code /}.
+   * @return the names of the entries or an empty {@link Set} if the directory does not exist.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private Set<String> list(String directory) throws IOException, RequestException {
+    String urlString = client.url + directory;
+    Set<String> names = new LinkedHashSet<>();
+    if (RepositoryClient.isLocal(urlString)) {
+      Path path = RepositoryClient.toPath(urlString);
+      if (!Files.isDirectory(path)) return names;
+      try (Stream<Path> entries = Files.list(path)) {
+        entries.forEach(
+            entry ->
+                names.add(entry.getFileName() + (Files.isDirectory(entry) ? "/" : "")));
+      }
+      return names;
+    }
+
+    String listing;
+    try (InputStream inputStream = client.request(urlString)) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      for (int read; (read = inputStream.read(buffer)) != -1; )
+        outputStream.write(buffer, 0, read);
+      listing = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    } catch (RequestException e) {
+      if (e.responseCode == HttpURLConnection.HTTP_NOT_FOUND) return names;
+      throw e;
+    }
+    URI base = URI.create(urlString);
+    Matcher matcher = HREF.matcher(listing);
+    while (matcher.find()) {
+      // Links may be relative or absolute, only direct children of the directory are entries.
+      String child;
+      try {
+        child = base.resolve(new URI(matcher.group(1).trim())).toString();
+      } catch (URISyntaxException | IllegalArgumentException e) {
+        continue;
+      }
+      if (!child.startsWith(urlString) || child.length() == urlString.length()) continue;
+      String name = child.substring(urlString.length());
+      int slash = name.indexOf('/');
+      if (slash < 0 || slash == name.length() - 1) names.add(name);
+    }
+    return names;
+  }
+
+  /**
+   * Returns the {@link IndexedArtifact} of an artifact directory.
+   *
+   * @param directory the path of the directory relative to the repository, ending with {@code /}.
+   * @return the {@link IndexedArtifact} or {@code null} if the {@code maven-metadata.xml} file
+   *     of the directory does not exist or lists no versions, e.g. the metadata of a plugin group.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private IndexedArtifact readArtifact(String directory) throws IOException, RequestException {
+    Element versioning;
+    try (InputStream inputStream = client.request(client.url + directory + METADATA)) {
+      versioning = MavenArtifact.getVersioning(inputStream);
+    } catch (RequestException e) {
+      if (e.responseCode == HttpURLConnection.HTTP_NOT_FOUND) return null;
+      throw e;
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new IOException("Invalid metadata in " + directory + "!", e);
+    }
+    if (versioning == null) return null;
+    ArtifactMetadata metadata = ArtifactMetadata.fromVersioning(versioning, Validators.NONE);
+    if (metadata.versions.isEmpty()) return null;
+    return toArtifact(directory, metadata.lastUpdated, metadata.versions);
+  }
+
+  /**
+   * Creates an {@link IndexedArtifact} from the path of its directory, whose last segment is the
+   * artifactId and whose other segments form the groupId.
+   *
+   * @param directory the path of the directory relative to the repository, ending with {@code /}.
+   * @param lastUpdated the {@code lastUpdated} value or {@code null}.
+   * @param versions the versions of the artifact.
+   * @return the {@link IndexedArtifact}.
+   * @since 0.3.0
+   */
+  private static IndexedArtifact toArtifact(
+      String directory, String lastUpdated, Collection<ComparableVersion> versions) {
+    String path = directory.substring(0, directory.length() - 1);
+    int slash = path.lastIndexOf('/');
+    return new IndexedArtifact(
+        slash < 0 ? "" : path.substring(0, slash).replace('/', '.'),
+        path.substring(slash + 1),
+        lastUpdated,
+        VersionIndex.of(versions));
+  }
+
+  /**
+   * Percent-encodes the characters of a path that would break a line of a checkpoint: spaces,
+   * line breaks and {@code %} itself.
+   *
+   * @param path the path.
+   * @return the encoded path.
+   * @since 0.3.0
+   */
+  private static String escape(String path) {
+    StringBuilder escaped = new StringBuilder(path.length());
+    for (char c : path.toCharArray())
+      if (c == '%' || c == ' ' || c == '\n' || c == '\r')
+        escaped.append(String.format("%%%02X", (int) c));
+      else escaped.append(c);
+    return escaped.toString();
+  }
+
+  /**
+   * Decodes a path encoded by {@link #escape(String)}.
+   *
+   * @param path the encoded path.
+   * @return the path.
+   * @since 0.3.0
+   */
+  private static String unescape(String path) {
+    StringBuilder unescaped = new StringBuilder(path.length());
+    for (int i = 0; i < path.length(); i++)
+      if (path.charAt(i) == '%' && i + 2 < path.length()) {
+        unescaped.append((char) Integer.parseInt(path.substring(i + 1, i + 3), 16));
+        i += 2;
+      } else unescaped.append(path.charAt(i));
+    return unescaped.toString();
+  }
+
+  /**
+   * A single run of {@link #crawl(String, Path)}.
+   *
+   * <p>The checkpoint is a text file that starts with {@code R <root>} and contains one line per
+   * event: {@code + <directory>} when a directory is discovered, {@code - <directory>} when it is
+   * crawled and {@code A <directory> <lastUpdated> <versions...>} when an artifact is crawled.
+   * Spaces, line breaks and {@code %} in paths are percent-encoded.
+   * The discovered sub-directories of a directory are written before the directory is marked as
+   * crawled, so that no directory is lost when the crawl stops at any point.
+   *
+   * @since 0.3.0
+   */
+  private final class Crawl implements AutoCloseable {
+
+    /**
+     * The path of the root directory relative to the repository.
+     *
+     * @since 0.3.0
+     */
+    private final String root;
+
+    /**
+     * The artifacts found so far, by the path of their directory.
+     *
+     * @since 0.3.0
+     */
+    private final Map<String, IndexedArtifact> artifacts = new ConcurrentHashMap<>();
+
+    /**
+     * The directories that are discovered, but not yet crawled.
+     *
+     * @since 0.3.0
+     */
+    private final Set<String> pending = new LinkedHashSet<>();
+
+    /**
+     * The number of submitted directories that are not yet crawled.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicInteger remaining = new AtomicInteger();
+
+    /**
+     * The first error of the crawl.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    /**
+     * A latch that is released when the crawl completed or failed.
+     *
+     * @since 0.3.0
+     */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /**
+     * The checkpoint file or {@code null} if there is no checkpoint.
+     *
+     * @since 0.3.0
+     */
+    private final AppendOnlyFile checkpoint;
+
+    /**
+     * The threads crawling the directories.
+     *
+     * @since 0.3.0
+     */
+    private ExecutorService executor;
+
+    /**
+     * Creates an instance of {@link Crawl} and restores the progress from the checkpoint.
+     *
+     * @param root the path of the root directory relative to the repository.
+     * @param checkpoint the checkpoint file or {@code null}.
+     * @throws IOException if the checkpoint cannot be read or opened.
+     * @since 0.3.0
+     */
+    private Crawl(String root, Path checkpoint) throws IOException {
+      this.root = root;
+      if (checkpoint == null) {
+        this.checkpoint = null;
+        pending.add(root);
+        return;
+      }
+
+      boolean resumed = restore(AppendOnlyFile.readLines(checkpoint));
+      this.checkpoint = new AppendOnlyFile(checkpoint, resumed);
+      if (!resumed) {
+        pending.add(root);
+        this.checkpoint.append("R " + escape(root) + "\n+ " + escape(root) + "\n");
+      }
+    }
+
+    /**
+     * Restores the progress from the lines of a checkpoint file.
+     *
+     * @param lines the complete lines of the checkpoint file.
+     * @return {@code true} if the checkpoint contained progress.
+     * @since 0.3.0
+     */
+    private boolean restore(List<String> lines) {
+      if (lines.isEmpty()) return false;
+      if (!lines.get(0).equals("R " + escape(root)))
+        throw new IllegalArgumentException(
+            "The checkpoint belongs to the crawl of " + unescape(lines.get(0).substring(2)) + "!");
+
+      Set<String> crawled = new HashSet<>();
+      for (String line : lines.subList(1, lines.size())) {
+        String[] parts = line.split(" ");
+        String directory = unescape(parts[1]);
+        if (parts[0].equals("+")) pending.add(directory);
+        else if (parts[0].equals("-")) crawled.add(directory);
+        else if (parts[0].equals("A")) {
+          List<ComparableVersion> versions = new ArrayList<>();
+          for (String version : Arrays.asList(parts).subList(3, parts.length))
+            versions.add(ComparableVersion.of(version));
+          String lastUpdated = parts[2].equals("-") ? null : parts[2];
+          artifacts.put(directory, toArtifact(directory, lastUpdated, versions));
+          crawled.add(directory);
+        }
+      }
+      pending.removeAll(crawled);
+      return true;
+    }
+
+    /**
+     * Crawls the pending directories and everything below them.
+     *
+     * @return the {@link ArtifactIndex} of all artifacts found.
+     * @throws IOException if an I/O error occurs or the crawl is interrupted.
+     * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+     * @since 0.3.0
+     */
+    private ArtifactIndex run() throws IOException, RequestException {
+      if (!pending.isEmpty()) {
+        executor =
+            Executors.newFixedThreadPool(concurrency, DaemonThreads.factory("repository-crawler"));
+        remaining.set(pending.size());
+        for (String directory : pending) executor.execute(() -> crawl(directory));
+        try {
+          done.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("The crawl was interrupted!");
+        }
+      }
+
+      Exception exception = failure.get();
+      if (exception instanceof IOException) throw (IOException) exception;
+      if (exception instanceof RequestException) throw (RequestException) exception;
+      if (exception != null) throw new IOException("The crawl failed!", exception);
+      return new ArtifactIndex(artifacts.values());
+    }
+
+    /**
+     * Crawls a directory and submits its sub-directories.
+     *
+     * @param directory the path of the directory relative to the repository.
+     * @since 0.3.0
+     */
+    private void crawl(String directory) {
+      try {
+        if (failure.get() != null) return;
+        Set<String> names = list(directory);
+        IndexedArtifact artifact = names.contains(METADATA) ? readArtifact(directory) : null;
+        if (artifact != null) {
+          artifacts.put(directory, artifact);
+          StringBuilder line = new StringBuilder("A ").append(escape(directory)).append(' ');
+          line.append(artifact.lastUpdated != null ? artifact.lastUpdated : "-");
+          for (ComparableVersion version : artifact.versions.getVersions())
+            line.append(' ').append(version);
+          record(line.append('\n').toString());
+          return;
+        }
+
+        List<String> children = new ArrayList<>();
+        StringBuilder lines = new StringBuilder();
+        for (String name : names)
+          if (name.endsWith("/")) {
+            children.add(directory + name);
+            lines.append("+ ").append(escape(directory + name)).append('\n');
+          }
+        record(lines.append("- ").append(escape(directory)).append('\n').toString());
+        remaining.addAndGet(children.size());
+        for (String child : children) executor.execute(() -> crawl(child));
+      } catch (Exception e) {
+        if (!(e instanceof RejectedExecutionException)) failure.compareAndSet(null, e);
+        done.countDown();
+      } finally {
+        if (remaining.decrementAndGet() == 0) done.countDown();
+      }
+    }
+
+    /**
+     * Appends lines to the checkpoint file, if there is one.
+     *
+     * @param lines the lines including their line breaks.
+     * @throws IOException if the lines cannot be written.
+     * @since 0.3.0
+     */
+    private void record(String lines) throws IOException {
+      if (checkpoint != null) checkpoint.append(lines);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (executor != null) executor.shutdownNow();
+      if (checkpoint != null) checkpoint.close();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.index;
+
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionIndex;
+import org.statendee.maven_utils.version.VersionRange;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, in-memory index of the artifacts of a repository, e.g. built by a {@link
+ * org.statendee.maven_utils.RepositoryCrawler}.
+ *
+ * <p>The artifacts are kept in an array sorted by their coordinates ({@code groupId:artifactId}),
+ * so that lookups and prefix searches are binary searches. Equal groupIds share a single {@link
+ * String} and the versions of each artifact are a {@link VersionIndex}, so "latest by constraint"
+ * queries do not allocate:
+ *
+ * <pre>{@code
+ * index.getHighest("org.example", "lib", VersionRange.parse("[1.4,2.0)"), VersionIndex.RELEASES);
+ * }</pre>
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ArtifactIndex {
+
+  /**
+   * The coordinates ({@code groupId:artifactId}) of the artifacts in ascending order.
+   *
+   * @since 0.3.0
+   */
+  private final String[] coordinates;
+
+  /**
+   * The artifacts in the order of {@link #coordinates}.
+   *
+   * @since 0.3.0
+   */
+  private final IndexedArtifact[] artifacts;
+
+  /**
+   * Creates an instance of {@link ArtifactIndex} containing the given artifacts. If several
+   * artifacts have the same coordinates, the last one is kept.
+   *
+   * @param artifacts the artifacts in any order.
+   * @since 0.3.0
+   */
+  public ArtifactIndex(Collection<IndexedArtifact> artifacts) {
+    Map<String, String> groupIds = new HashMap<>();
+    TreeMap<String, IndexedArtifact> sorted = new TreeMap<>();
+    for (IndexedArtifact artifact : artifacts) {
+      String groupId = groupIds.computeIfAbsent(artifact.groupId, key -> key);
+      if (groupId != artifact.groupId)
+        artifact =
+            new IndexedArtifact(
+                groupId, artifact.artifactId, artifact.lastUpdated, artifact.versions);
+      sorted.put(artifact.getCoordinates(), artifact);
+    }
+    this.coordinates = sorted.keySet().toArray(new String[0]);
+    this.artifacts = sorted.values().toArray(new IndexedArtifact[0]);
+  }
+
+  /**
+   * Returns the number of artifacts in the index.
+   *
+   * @return the number of artifacts.
+   * @since 0.3.0
+   */
+  public int size() {
+    return artifacts.length;
+  }
+
+  /**
+   * Returns all artifacts ordered by their coordinates.
+   *
+   * @return all artifacts.
+   * @since 0.3.0
+   */
+  public List<IndexedArtifact> getArtifacts() {
+    return Collections.unmodifiableList(Arrays.asList(artifacts));
+  }
+
+  /**
+   * Returns the artifact with the given coordinates.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @return the artifact or {@code null} if it is not in the index.
+   * @since 0.3.0
+   */
+  public IndexedArtifact get(String groupId, String artifactId) {
+    int index = Arrays.binarySearch(coordinates, groupId + ":" + artifactId);
+    return index >= 0 ? artifacts[index] : null;
+  }
+
+  /**
+   * Returns all artifacts whose coordinates ({@code groupId:artifactId}) start with a prefix, e.g.
+   * {@code org.example} for all artifacts of {@code org.example} and its sub-groups or {@code
+   * org.example:lib-} for the artifacts of {@code org.example} starting with {@code lib-}.
+   *
+   * @param prefix the prefix of the coordinates.
+   * @return the matching artifacts ordered by their coordinates.
+   * @since 0.3.0
+   */
+  public List<IndexedArtifact> search(String prefix) {
+    int start = Arrays.binarySearch(coordinates, prefix);
+    if (start < 0) start = -start - 1;
+    int end = start;
+    while (end < coordinates.length && coordinates[end].startsWith(prefix)) end++;
+    return Collections.unmodifiableList(Arrays.asList(artifacts).subList(start, end));
+  }
+
+  /**
+   * Returns the highest version of an artifact in the range that matches the filter.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param range the range the version has to be contained in.
+   * @param filter the filter the version has to match, e.g. {@link VersionIndex#RELEASES}.
+   * @return the highest matching version or {@code null} if there is none or the artifact is not
+   *     in the index.
+   * @since 0.3.0
+   */
+  public ComparableVersion getHighest(
+      String groupId, String artifactId, VersionRange range, Predicate<ComparableVersion> filter) {
+    IndexedArtifact artifact = get(groupId, artifactId);
+    return artifact != null ? artifact.versions.getHighest(range, filter) : null;
+  }
+}
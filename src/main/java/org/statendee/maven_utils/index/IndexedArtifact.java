@@ -0,0 +1,90 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.index;
+
+import org.statendee.maven_utils.version.VersionIndex;
+
+/**
+ * An {@link IndexedArtifact} is an entry of an {@link ArtifactIndex}: the coordinates of an
+ * artifact and the versions listed in its {@code maven-metadata.xml} file.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class IndexedArtifact {
+
+  /**
+   * The groupId of the artifact.
+   *
+   * @since 0.3.0
+   */
+  public final String groupId;
+
+  /**
+   * The artifactId of the artifact.
+   *
+   * @since 0.3.0
+   */
+  public final String artifactId;
+
+  /**
+   * The {@code lastUpdated} value ({@code yyyyMMddHHmmss}) or {@code null} if it is missing.
+   *
+   * @since 0.3.0
+   */
+  public final String lastUpdated;
+
+  /**
+   * The versions of the artifact.
+   *
+   * @since 0.3.0
+   */
+  public final VersionIndex versions;
+
+  /**
+   * Creates an instance of {@link IndexedArtifact}.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param lastUpdated the {@code lastUpdated} value or {@code null}.
+   * @param versions the versions of the artifact.
+   * @since 0.3.0
+   */
+  public IndexedArtifact(
+      String groupId, String artifactId, String lastUpdated, VersionIndex versions) {
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.lastUpdated = lastUpdated;
+    this.versions = versions;
+  }
+
+  /**
+   * Returns the coordinates of the artifact as {@code groupId:artifactId}, which is the key the
+   * {@link ArtifactIndex} is sorted and searched by.
+   *
+   * @return the coordinates of the artifact.
+   * @since 0.3.0
+   */
+  public String getCoordinates() {
+    return groupId + ":" + artifactId;
+  }
+
+  @Override
+  public String toString() {
+    return getCoordinates() + " " + versions.getVersions();
+  }
+}
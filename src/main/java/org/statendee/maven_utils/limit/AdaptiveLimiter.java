@@ -0,0 +1,499 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.limit;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link AdaptiveLimiter} limits the number of concurrent requests per host and adapts the limit
+ * to how the host responds (additive increase, multiplicative decrease).
+ *
+ * <p>Each successful request that used at least half of the limit raises the limit by {@code
+ * 1/limit}, i.e. by about one per round trip of all permitted requests. Overload responses ({@code
+ * 429}, {@code 502}, {@code 503}, {@code 504}) and connection failures halve the limit. A response
+ * that takes more than {@link #LATENCY_TOLERANCE} times the usual latency of the host lowers the
+ * limit by ten percent, so a server is relieved before it starts to fail. Other errors, e.g. {@code
+ * 404 (Not Found)}, do not change the limit. The limit is lowered at most once per congestion
+ * window: responses of requests that were permitted before the last decrease do not lower it again,
+ * so a burst of concurrent failures halves the limit only once.
+ *
+ * <p>Requests over the limit wait for a free slot instead of being sent. If no slot becomes free
+ * within the queue timeout, a {@link LimiterTimeoutException} is thrown. A limiter is safe for
+ * concurrent use and can be shared by several {@link org.statendee.maven_utils.RepositoryClient}s.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class AdaptiveLimiter {
+
+  /**
+   * The factor applied to the limit after an overload response or a connection failure.
+   *
+   * @since 0.3.0
+   */
+  public static final double BACKOFF_RATIO = 0.5;
+
+  /**
+   * The factor applied to the limit after a slow response.
+   *
+   * @since 0.3.0
+   */
+  public static final double LATENCY_BACKOFF_RATIO = 0.9;
+
+  /**
+   * The factor by which a response has to be slower than the usual latency to count as slow.
+   *
+   * @since 0.3.0
+   */
+  public static final double LATENCY_TOLERANCE = 3.0;
+
+  /**
+   * The initial number of concurrent requests per host.
+   *
+   * @since 0.3.0
+   */
+  public final int initialLimit;
+
+  /**
+   * The lowest number of concurrent requests per host.
+   *
+   * @since 0.3.0
+   */
+  public final int minLimit;
+
+  /**
+   * The highest number of concurrent requests per host.
+   *
+   * @since 0.3.0
+   */
+  public final int maxLimit;
+
+  /**
+   * The maximum time a request waits for a free slot.
+   *
+   * @since 0.3.0
+   */
+  public final Duration queueTimeout;
+
+  /**
+   * The limits by host.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, HostLimit> hosts = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an instance of {@link AdaptiveLimiter} that starts with 4 concurrent requests per host,
+   * adapts between 1 and 64 and lets requests wait up to 30 seconds.
+   *
+   * @since 0.3.0
+   */
+  public AdaptiveLimiter() {
+    this(4, 1, 64, Duration.ofSeconds(30));
+  }
+
+  /**
+   * Creates an instance of {@link AdaptiveLimiter}.
+   *
+   * @param initialLimit the initial number of concurrent requests per host.
+   * @param minLimit the lowest number of concurrent requests per host.
+   * @param maxLimit the highest number of concurrent requests per host.
+   * @param queueTimeout the maximum time a request waits for a free slot.
+   * @throws IllegalArgumentException if the limits are not {@code 1 <= min <= initial <= max}.
+   * @since 0.3.0
+   */
+  public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, Duration queueTimeout) {
+    if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit)
+      throw new IllegalArgumentException("The limits must be 1 <= min <= initial <= max!");
+    this.initialLimit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.queueTimeout = queueTimeout;
+  }
+
+  /**
+   * Waits for a free slot for a request to the host of a URL.
+   *
+   * @param urlString the url {@link String} of the request.
+   * @return the {@link Permit} of the request, which has to be released.
+   * @throws LimiterTimeoutException if no slot became free within the queue timeout.
+   * @throws InterruptedIOException if the thread was interrupted while waiting.
+   * @since 0.3.0
+   */
+  public Permit acquire(String urlString) throws LimiterTimeoutException, InterruptedIOException {
+    return hosts.computeIfAbsent(getHost(urlString), HostLimit::new).acquire();
+  }
+
+  /**
+   * Returns the current number of allowed concurrent requests to the host of a URL.
+   *
+   * @param urlString a url {@link String} of the host.
+   * @return the current limit of the host.
+   * @since 0.3.0
+   */
+  public int getLimit(String urlString) {
+    HostLimit host = hosts.get(getHost(urlString));
+    return host == null ? initialLimit : host.getLimit();
+  }
+
+  /**
+   * Returns the number of running requests to the host of a URL.
+   *
+   * @param urlString a url {@link String} of the host.
+   * @return the number of running requests to the host.
+   * @since 0.3.0
+   */
+  public int getInFlight(String urlString) {
+    HostLimit host = hosts.get(getHost(urlString));
+    return host == null ? 0 : host.getInFlight();
+  }
+
+  /**
+   * Returns the number of requests waiting for a free slot of the host of a URL.
+   *
+   * @param urlString a url {@link String} of the host.
+   * @return the number of waiting requests to the host.
+   * @since 0.3.0
+   */
+  public int getQueued(String urlString) {
+    HostLimit host = hosts.get(getHost(urlString));
+    return host == null ? 0 : host.getQueued();
+  }
+
+  /**
+   * Returns {@code true} if a response code signals that the server is overloaded.
+   *
+   * @param responseCode the response code.
+   * @return {@code true} for {@code 429}, {@code 502}, {@code 503} and {@code 504}.
+   * @since 0.3.0
+   */
+  public static boolean isOverload(int responseCode) {
+    return responseCode == 429 || (responseCode >= 502 && responseCode <= 504);
+  }
+
+  /**
+   * Returns the key of the host of a URL, i.e. {@code host:port}.
+   *
+   * @param urlString the url {@link String}.
+   * @return the key of the host.
+   * @since 0.3.0
+   */
+  private static String getHost(String urlString) {
+    try {
+      URL url = new URL(urlString);
+      return url.getHost() + ":" + (url.getPort() != -1 ? url.getPort() : url.getDefaultPort());
+    } catch (MalformedURLException e) {
+      return urlString;
+    }
+  }
+
+  /**
+   * A {@link Permit} is a slot of a running request. Its outcome is reported with {@link
+   * #onSuccess()} or {@link #onOverload()} once the response (headers) arrived; the slot is freed
+   * by {@link #release()}.
+   *
+   * @since 0.3.0
+   */
+  public static final class Permit {
+
+    /**
+     * The limit of the host.
+     *
+     * @since 0.3.0
+     */
+    private final HostLimit host;
+
+    /**
+     * The time the request was permitted in nanoseconds.
+     *
+     * @since 0.3.0
+     */
+    private final long started = System.nanoTime();
+
+    /**
+     * The sequence number of the permit within its host.
+     *
+     * @since 0.3.0
+     */
+    private final long sequence;
+
+    /**
+     * {@code true} once the outcome was reported, guarded by the host.
+     *
+     * @since 0.3.0
+     */
+    private boolean reported;
+
+    /**
+     * {@code true} once the slot was freed, guarded by the host.
+     *
+     * @since 0.3.0
+     */
+    private boolean released;
+
+    /**
+     * Creates an instance of {@link Permit}.
+     *
+     * @param host the limit of the host.
+     * @param sequence the sequence number of the permit within its host.
+     * @since 0.3.0
+     */
+    private Permit(HostLimit host, long sequence) {
+      this.host = host;
+      this.sequence = sequence;
+    }
+
+    /**
+     * Reports a successful response, raising the limit or lowering it if the response was slow.
+     *
+     * @since 0.3.0
+     */
+    public void onSuccess() {
+      host.onSuccess(this, System.nanoTime() - started);
+    }
+
+    /**
+     * Reports an overload response or a connection failure, lowering the limit.
+     *
+     * @since 0.3.0
+     */
+    public void onOverload() {
+      host.onOverload(this);
+    }
+
+    /**
+     * Frees the slot. Further calls have no effect.
+     *
+     * @since 0.3.0
+     */
+    public void release() {
+      host.release(this);
+    }
+
+    /**
+     * Returns an {@link InputStream} that frees the slot when it is closed.
+     *
+     * @param inputStream the {@link InputStream} of the response.
+     * @return the wrapping {@link InputStream}.
+     * @since 0.3.0
+     */
+    public InputStream releaseOnClose(InputStream inputStream) {
+      return new FilterInputStream(inputStream) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            release();
+          }
+        }
+      };
+    }
+  }
+
+  /**
+   * The adaptive limit of a host.
+   *
+   * @since 0.3.0
+   */
+  private final class HostLimit {
+
+    /**
+     * The key of the host.
+     *
+     * @since 0.3.0
+     */
+    private final String host;
+
+    /**
+     * The current limit, fractional to allow additive increase by {@code 1/limit}.
+     *
+     * @since 0.3.0
+     */
+    private double limit = initialLimit;
+
+    /**
+     * The number of running requests.
+     *
+     * @since 0.3.0
+     */
+    private int inFlight;
+
+    /**
+     * The number of waiting requests.
+     *
+     * @since 0.3.0
+     */
+    private int queued;
+
+    /**
+     * The smoothed latency of successful responses in nanoseconds or {@code 0} before the first.
+     *
+     * @since 0.3.0
+     */
+    private double latency;
+
+    /**
+     * The number of permits issued so far, i.e. the sequence number of the latest permit.
+     *
+     * @since 0.3.0
+     */
+    private long issued;
+
+    /**
+     * The sequence number of the latest permit issued before the last decrease of the limit. Only
+     * responses of later permits lower the limit again.
+     *
+     * @since 0.3.0
+     */
+    private long decreased;
+
+    /**
+     * Creates an instance of {@link HostLimit}.
+     *
+     * @param host the key of the host.
+     * @since 0.3.0
+     */
+    private HostLimit(String host) {
+      this.host = host;
+    }
+
+    /**
+     * Waits for a free slot.
+     *
+     * @return the {@link Permit} of the request.
+     * @throws LimiterTimeoutException if no slot became free within the queue timeout.
+     * @throws InterruptedIOException if the thread was interrupted while waiting.
+     * @since 0.3.0
+     */
+    private synchronized Permit acquire() throws LimiterTimeoutException, InterruptedIOException {
+      long deadline = System.nanoTime() + queueTimeout.toNanos();
+      queued++;
+      try {
+        while (inFlight >= getLimit()) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) throw new LimiterTimeoutException(host, getLimit());
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for a request to " + host);
+      } finally {
+        queued--;
+      }
+      inFlight++;
+      return new Permit(this, ++issued);
+    }
+
+    /**
+     * Adapts the limit to a successful response.
+     *
+     * @param permit the permit of the request.
+     * @param nanos the time until the response arrived in nanoseconds.
+     * @since 0.3.0
+     */
+    private synchronized void onSuccess(Permit permit, long nanos) {
+      if (permit.reported) return;
+      permit.reported = true;
+      if (latency > 0 && nanos > LATENCY_TOLERANCE * latency)
+        decrease(permit, LATENCY_BACKOFF_RATIO);
+      else if (inFlight * 2 >= limit) {
+        int previous = getLimit();
+        limit = Math.min(maxLimit, limit + 1 / limit);
+        if (getLimit() > previous) notifyAll();
+      }
+      latency = latency == 0 ? nanos : latency * 0.9 + nanos * 0.1;
+    }
+
+    /**
+     * Halves the limit after an overload response or a connection failure.
+     *
+     * @param permit the permit of the request.
+     * @since 0.3.0
+     */
+    private synchronized void onOverload(Permit permit) {
+      if (permit.reported) return;
+      permit.reported = true;
+      decrease(permit, BACKOFF_RATIO);
+    }
+
+    /**
+     * Lowers the limit by a factor, unless it was already lowered after the permit was issued.
+     *
+     * @param permit the permit of the request.
+     * @param ratio the factor applied to the limit.
+     * @since 0.3.0
+     */
+    private void decrease(Permit permit, double ratio) {
+      if (permit.sequence <= decreased) return;
+      decreased = issued;
+      limit = Math.max(minLimit, limit * ratio);
+    }
+
+    /**
+     * Frees the slot of a permit.
+     *
+     * @param permit the permit.
+     * @since 0.3.0
+     */
+    private synchronized void release(Permit permit) {
+      if (permit.released) return;
+      permit.released = true;
+      inFlight--;
+      notifyAll();
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the current limit, rounded down.
+     * @since 0.3.0
+     */
+    private synchronized int getLimit() {
+      return (int) limit;
+    }
+
+    /**
+     * Returns the number of running requests.
+     *
+     * @return the number of running requests.
+     * @since 0.3.0
+     */
+    private synchronized int getInFlight() {
+      return inFlight;
+    }
+
+    /**
+     * Returns the number of waiting requests.
+     *
+     * @return the number of waiting requests.
+     * @since 0.3.0
+     */
+    private synchronized int getQueued() {
+      return queued;
+    }
+  }
+}
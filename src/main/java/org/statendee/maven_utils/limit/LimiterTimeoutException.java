@@ -0,0 +1,40 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.limit;
+
+import java.io.IOException;
+
+/**
+ * An {@link IOException} that is thrown if a request waited too long for a free slot of an {@link
+ * AdaptiveLimiter}. The request was not sent.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class LimiterTimeoutException extends IOException {
+
+  /**
+   * Creates an instance of {@link LimiterTimeoutException} based on the host and the limit.
+   *
+   * @param host the host the request should have been sent to.
+   * @param limit the number of concurrent requests that were allowed to the host.
+   * @since 0.3.0
+   */
+  public LimiterTimeoutException(String host, int limit) {
+    super("Timed out waiting for one of " + limit + " concurrent requests to " + host + "!");
+  }
+}
@@ -0,0 +1,175 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.merge;
+
+import org.statendee.maven_utils.RepositoryClient;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionArrays;
+import org.statendee.maven_utils.version.VersionRange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The {@link MergedMetadata} of an artifact in several repositories, merged like Maven merges the
+ * metadata of its repositories: the versions are the union of all versions, {@code lastUpdated} is
+ * the newest value and release and latest are the highest values of all repositories.
+ *
+ * <p>Every version remembers the first repository (in the order of the {@link
+ * MultiRepositoryResolver}) that lists it.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class MergedMetadata {
+
+  /**
+   * The merged metadata. It has no {@link Validators}, as it does not belong to a single file.
+   *
+   * @since 0.3.0
+   */
+  public final ArtifactMetadata metadata;
+
+  /**
+   * The URLs of the repositories that did not answer in time or failed. Repositories that do not
+   * contain the artifact are not listed.
+   *
+   * @since 0.3.0
+   */
+  public final List<String> unavailable;
+
+  /**
+   * The first repository of each version.
+   *
+   * @since 0.3.0
+   */
+  private final Map<ComparableVersion, RepositoryClient> sources;
+
+  /**
+   * Creates an instance of {@link MergedMetadata} by merging the metadata of several repositories.
+   *
+   * @param metadata the metadata by repository, in the order of precedence.
+   * @param unavailable the URLs of the repositories that did not answer in time or failed.
+   * @since 0.3.0
+   */
+  MergedMetadata(Map<RepositoryClient, ArtifactMetadata> metadata, List<String> unavailable) {
+    Map<ComparableVersion, RepositoryClient> sources = new LinkedHashMap<>();
+    ComparableVersion release = null, latest = null;
+    String lastUpdated = null;
+    for (Map.Entry<RepositoryClient, ArtifactMetadata> entry : metadata.entrySet()) {
+      ArtifactMetadata repositoryMetadata = entry.getValue();
+      for (ComparableVersion version : repositoryMetadata.versions)
+        sources.putIfAbsent(version, entry.getKey());
+      release = max(release, repositoryMetadata.release);
+      latest = max(latest, repositoryMetadata.latest);
+      // lastUpdated is yyyyMMddHHmmss, so the lexicographic order is the chronological order.
+      if (repositoryMetadata.lastUpdated != null
+          && (lastUpdated == null || repositoryMetadata.lastUpdated.compareTo(lastUpdated) > 0))
+        lastUpdated = repositoryMetadata.lastUpdated;
+    }
+    for (ComparableVersion version : new ComparableVersion[] {release, latest})
+      if (version != null && !sources.containsKey(version))
+        for (Map.Entry<RepositoryClient, ArtifactMetadata> entry : metadata.entrySet())
+          if (version.equals(entry.getValue().release) || version.equals(entry.getValue().latest))
+            sources.putIfAbsent(version, entry.getKey());
+
+    List<ComparableVersion> versions = new ArrayList<>(sources.keySet());
+    versions.sort(VersionArrays.NATURAL_ORDER);
+    this.metadata = new ArtifactMetadata(release, latest, lastUpdated, versions, Validators.NONE);
+    this.sources = new HashMap<>(sources);
+    this.unavailable = Collections.unmodifiableList(new ArrayList<>(unavailable));
+  }
+
+  /**
+   * Returns the repository of a version.
+   *
+   * @param version the version.
+   * @return the client of the first repository that lists the version or {@code null} if no
+   *     repository lists it.
+   * @since 0.3.0
+   */
+  public RepositoryClient getSource(ComparableVersion version) {
+    return sources.get(version);
+  }
+
+  /**
+   * Returns the highest release version of all repositories and its repository.
+   *
+   * @return the release version or {@code null} if no repository has one.
+   * @since 0.3.0
+   */
+  public SourcedVersion getRelease() {
+    return toSourced(metadata.release);
+  }
+
+  /**
+   * Returns the highest latest version (including {@code SNAPSHOT}-versions) of all repositories
+   * and its repository.
+   *
+   * @return the latest version or {@code null} if no repository has one.
+   * @since 0.3.0
+   */
+  public SourcedVersion getLatest() {
+    return toSourced(metadata.latest);
+  }
+
+  /**
+   * Returns the highest version of all repositories in the range that matches the filter and its
+   * repository.
+   *
+   * @param range the range the version has to be contained in.
+   * @param filter the filter the version has to match, e.g. {@link
+   *     org.statendee.maven_utils.version.VersionIndex#RELEASES}.
+   * @return the highest matching version or {@code null} if there is none.
+   * @since 0.3.0
+   */
+  public SourcedVersion getHighest(VersionRange range, Predicate<ComparableVersion> filter) {
+    return toSourced(metadata.getVersionIndex().getHighest(range, filter));
+  }
+
+  /**
+   * Returns a version together with its repository.
+   *
+   * @param version the version or {@code null}.
+   * @return the {@link SourcedVersion} or {@code null} if the version is {@code null}.
+   * @since 0.3.0
+   */
+  private SourcedVersion toSourced(ComparableVersion version) {
+    return version == null ? null : new SourcedVersion(version, sources.get(version));
+  }
+
+  /**
+   * Returns the higher of two versions.
+   *
+   * @param a a version or {@code null}.
+   * @param b another version or {@code null}.
+   * @return the higher version or {@code null} if both are {@code null}.
+   * @since 0.3.0
+   */
+  private static ComparableVersion max(ComparableVersion a, ComparableVersion b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    return VersionArrays.NATURAL_ORDER.compare(b, a) > 0 ? b : a;
+  }
+}
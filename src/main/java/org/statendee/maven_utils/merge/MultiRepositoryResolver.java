@@ -0,0 +1,288 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.merge;
+
+import org.statendee.maven_utils.DaemonThreads;
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.RepositoryClient;
+import org.statendee.maven_utils.RequestException;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionArrays;
+import org.statendee.maven_utils.version.VersionRange;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * A {@link MultiRepositoryResolver} resolves versions of an artifact that is published to several
+ * repositories, e.g. a release repository, a snapshot repository and a proxy of Maven Central.
+ *
+ * <p>The metadata is fetched from all repositories concurrently, each with its own {@link
+ * RepositoryClient} (and thus its own cache and credentials), and merged into {@link
+ * MergedMetadata}. Repositories that do not answer within the deadline are left out of the result
+ * instead of delaying it; their requests continue in the background and fill their caches for the
+ * next call.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class MultiRepositoryResolver {
+
+  /**
+   * The default time to wait for the repositories.
+   *
+   * @since 0.3.0
+   */
+  public static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(5);
+
+  /**
+   * The pool used for repositories whose {@link RepositoryClient} has no {@link Executor}.
+   *
+   * @since 0.3.0
+   */
+  private static final ExecutorService DEFAULT_EXECUTOR =
+      Executors.newCachedThreadPool(DaemonThreads.factory("multi-repository-resolver"));
+
+  /**
+   * The clients of the repositories in the order of precedence.
+   *
+   * @since 0.3.0
+   */
+  public final List<RepositoryClient> repositories;
+
+  /**
+   * The time to wait for the repositories.
+   *
+   * @since 0.3.0
+   */
+  public final Duration deadline;
+
+  /**
+   * Creates an instance of {@link MultiRepositoryResolver} that waits {@link #DEFAULT_DEADLINE}
+   * for the repositories.
+   *
+   * @param repositories the clients of the repositories in the order of precedence.
+   * @since 0.3.0
+   */
+  public MultiRepositoryResolver(List<RepositoryClient> repositories) {
+    this(repositories, DEFAULT_DEADLINE);
+  }
+
+  /**
+   * Creates an instance of {@link MultiRepositoryResolver}.
+   *
+   * @param repositories the clients of the repositories in the order of precedence.
+   * @param deadline the time to wait for the repositories.
+   * @since 0.3.0
+   */
+  public MultiRepositoryResolver(List<RepositoryClient> repositories, Duration deadline) {
+    if (repositories.isEmpty())
+      throw new IllegalArgumentException("At least one repository is required!");
+    this.repositories = Collections.unmodifiableList(new ArrayList<>(repositories));
+    this.deadline = deadline;
+  }
+
+  /**
+   * Fetches the metadata of an artifact from all repositories and merges it.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @return the {@link MergedMetadata} of the repositories that answered within the deadline.
+   * @throws IOException if no repository answered within the deadline or all failed.
+   * @throws RequestException if the artifact does not exist in any repository that answered.
+   * @since 0.3.0
+   */
+  public MergedMetadata resolve(String groupId, String artifactId)
+      throws IOException, RequestException {
+    List<String> unavailable = new ArrayList<>();
+    Map<RepositoryClient, ArtifactMetadata> metadata =
+        fetchAll(groupId, artifactId, MavenArtifact::getMetadata, unavailable);
+    return new MergedMetadata(metadata, unavailable);
+  }
+
+  /**
+   * Returns the highest version of an artifact in all repositories in the range that matches the
+   * filter and its repository.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param range the range the version has to be contained in.
+   * @param filter the filter the version has to match, e.g. {@link
+   *     org.statendee.maven_utils.version.VersionIndex#RELEASES}.
+   * @return the highest matching version or {@code null} if there is none.
+   * @throws IOException if no repository answered within the deadline or all failed.
+   * @throws RequestException if the artifact does not exist in any repository that answered.
+   * @since 0.3.0
+   */
+  public SourcedVersion resolveHighest(
+      String groupId, String artifactId, VersionRange range, Predicate<ComparableVersion> filter)
+      throws IOException, RequestException {
+    return resolve(groupId, artifactId).getHighest(range, filter);
+  }
+
+  /**
+   * Returns the newest build of a {@code SNAPSHOT}-version in all repositories and its repository.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param snapshotVersion the {@code SNAPSHOT}-version (without build info).
+   * @return the newest build or {@code null} if no repository lists a build.
+   * @throws IOException if no repository answered within the deadline or all failed.
+   * @throws RequestException if the version does not exist in any repository that answered.
+   * @since 0.3.0
+   */
+  public SourcedVersion resolveSnapshotBuild(
+      String groupId, String artifactId, ComparableVersion snapshotVersion)
+      throws IOException, RequestException {
+    Map<RepositoryClient, SnapshotMetadata> metadata =
+        fetchAll(
+            groupId,
+            artifactId,
+            artifact -> artifact.getSnapshotMetadata(snapshotVersion),
+            new ArrayList<>());
+    SourcedVersion newest = null;
+    for (Map.Entry<RepositoryClient, SnapshotMetadata> entry : metadata.entrySet()) {
+      ComparableVersion build = entry.getValue().latestBuild;
+      if (build != null
+          && (newest == null || VersionArrays.NATURAL_ORDER.compare(build, newest.version) > 0))
+        newest = new SourcedVersion(build, entry.getKey());
+    }
+    return newest;
+  }
+
+  /**
+   * Fetches metadata from all repositories concurrently and waits for them until the deadline.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param fetch the function that fetches the metadata of the artifact of a repository.
+   * @param unavailable the list the URLs of repositories that failed or did not answer in time are
+   *     added to.
+   * @param <T> the type of the metadata.
+   * @return the metadata of the repositories that answered in time, in the order of precedence.
+   * @throws IOException if no repository answered within the deadline or all failed.
+   * @throws RequestException if the metadata does not exist in any repository that answered.
+   * @since 0.3.0
+   */
+  private <T> Map<RepositoryClient, T> fetchAll(
+      String groupId, String artifactId, Fetch<T> fetch, List<String> unavailable)
+      throws IOException, RequestException {
+    List<CompletableFuture<T>> futures = new ArrayList<>();
+    for (RepositoryClient repository : repositories) {
+      MavenArtifact artifact = repository.artifact(groupId, artifactId);
+      Executor executor =
+          repository.getExecutor() != null ? repository.getExecutor() : DEFAULT_EXECUTOR;
+      futures.add(
+          CompletableFuture.supplyAsync(
+              () -> {
+                try {
+                  return fetch.fetch(artifact);
+                } catch (Exception e) {
+                  throw new CompletionException(e);
+                }
+              },
+              executor));
+    }
+
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+          .get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException | ExecutionException ignored) {
+      // Slow and failed repositories are handled below.
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the repositories!");
+    }
+
+    Map<RepositoryClient, T> results = new LinkedHashMap<>();
+    Exception failure = null;
+    for (int i = 0; i < repositories.size(); i++) {
+      CompletableFuture<T> future = futures.get(i);
+      RepositoryClient repository = repositories.get(i);
+      if (!future.isDone()) {
+        unavailable.add(repository.url);
+        continue;
+      }
+      try {
+        results.put(repository, future.join());
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RequestException && isMissing(((RequestException) cause).responseCode))
+          continue;
+        unavailable.add(repository.url);
+        if (failure == null) failure = cause instanceof Exception ? (Exception) cause : e;
+      }
+    }
+    if (!results.isEmpty()) return results;
+
+    if (unavailable.isEmpty()) throw new RequestException(HttpURLConnection.HTTP_NOT_FOUND);
+    if (failure instanceof IOException) throw (IOException) failure;
+    if (failure instanceof RequestException) throw (RequestException) failure;
+    if (failure != null) throw new IOException("No repository could be resolved!", failure);
+    throw new IOException("No repository answered within " + deadline.toMillis() + " ms!");
+  }
+
+  /**
+   * Returns {@code true} if a response code means that the artifact is not in a repository.
+   *
+   * @param responseCode the response code.
+   * @return {@code true} for {@code 404 (Not Found)} and {@code 410 (Gone)}.
+   * @since 0.3.0
+   */
+  private static boolean isMissing(int responseCode) {
+    return responseCode == HttpURLConnection.HTTP_NOT_FOUND
+        || responseCode == HttpURLConnection.HTTP_GONE;
+  }
+
+  /**
+   * A function that fetches metadata of an artifact.
+   *
+   * @param <T> the type of the metadata.
+   * @since 0.3.0
+   */
+  @FunctionalInterface
+  private interface Fetch<T> {
+
+    /**
+     * Fetches metadata of an artifact.
+     *
+     * @param artifact the artifact in a repository.
+     * @return the metadata.
+     * @throws Exception if the metadata cannot be fetched.
+     * @since 0.3.0
+     */
+    T fetch(MavenArtifact artifact) throws Exception;
+  }
+}
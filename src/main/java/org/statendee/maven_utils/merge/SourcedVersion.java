@@ -0,0 +1,60 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.merge;
+
+import org.statendee.maven_utils.RepositoryClient;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+/**
+ * A {@link SourcedVersion} is a version together with the repository it was found in.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class SourcedVersion {
+
+  /**
+   * The version.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion version;
+
+  /**
+   * The client of the repository the version was found in.
+   *
+   * @since 0.3.0
+   */
+  public final RepositoryClient repository;
+
+  /**
+   * Creates an instance of {@link SourcedVersion}.
+   *
+   * @param version the version.
+   * @param repository the client of the repository the version was found in.
+   * @since 0.3.0
+   */
+  public SourcedVersion(ComparableVersion version, RepositoryClient repository) {
+    this.version = version;
+    this.repository = repository;
+  }
+
+  @Override
+  public String toString() {
+    return version + " from " + repository.url;
+  }
+}
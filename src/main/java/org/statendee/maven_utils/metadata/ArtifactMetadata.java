@@ -0,0 +1,139 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.metadata;
+
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionIndex;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.statendee.maven_utils.metadata.MetadataElements.*;
+
+/**
+ * An {@link ArtifactMetadata} represents the main {@code maven-metadata.xml} file of an artifact.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ArtifactMetadata {
+
+  /**
+   * The latest release version or {@code null} if it is missing.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion release;
+
+  /**
+   * The latest version (including {@code SNAPSHOT}-versions) or {@code null} if it is missing.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion latest;
+
+  /**
+   * The {@code lastUpdated} value ({@code yyyyMMddHHmmss}) or {@code null} if it is missing.
+   *
+   * @since 0.3.0
+   */
+  public final String lastUpdated;
+
+  /**
+   * All versions in the order they are listed in the metadata.
+   *
+   * @since 0.3.0
+   */
+  public final List<ComparableVersion> versions;
+
+  /**
+   * The {@link Validators} the server returned with the metadata.
+   *
+   * @since 0.3.0
+   */
+  public final Validators validators;
+
+  /**
+   * The lazily built {@link VersionIndex} of {@link #versions}.
+   *
+   * @since 0.3.0
+   */
+  private volatile VersionIndex versionIndex;
+
+  /**
+   * Creates an instance of {@link ArtifactMetadata}.
+   *
+   * @param release the latest release version or {@code null}.
+   * @param latest the latest version or {@code null}.
+   * @param lastUpdated the {@code lastUpdated} value or {@code null}.
+   * @param versions all versions.
+   * @param validators the {@link Validators} the server returned with the metadata.
+   * @since 0.3.0
+   */
+  public ArtifactMetadata(
+      ComparableVersion release,
+      ComparableVersion latest,
+      String lastUpdated,
+      List<ComparableVersion> versions,
+      Validators validators) {
+    this.release = release;
+    this.latest = latest;
+    this.lastUpdated = lastUpdated;
+    this.versions = Collections.unmodifiableList(new ArrayList<>(versions));
+    this.validators = validators;
+  }
+
+  /**
+   * Creates an instance of {@link ArtifactMetadata} from the {@code versioning} element of the main
+   * {@code maven-metadata.xml} file of an artifact.
+   *
+   * @param versioning the {@code versioning} element.
+   * @param validators the {@link Validators} the server returned with the metadata.
+   * @return the parsed {@link ArtifactMetadata}.
+   * @since 0.3.0
+   */
+  public static ArtifactMetadata fromVersioning(Element versioning, Validators validators) {
+    String release = text(versioning, "release"), latest = text(versioning, "latest");
+
+    List<ComparableVersion> versions = new ArrayList<>();
+    NodeList versionList = versioning.getElementsByTagName("version");
+    for (int i = 0; i < versionList.getLength(); i++)
+      versions.add(ComparableVersion.of(versionList.item(i).getTextContent().trim()));
+
+    return new ArtifactMetadata(
+        release == null ? null : ComparableVersion.of(release),
+        latest == null ? null : ComparableVersion.of(latest),
+        text(versioning, "lastUpdated"),
+        versions,
+        validators);
+  }
+
+  /**
+   * Returns a {@link VersionIndex} of {@link #versions}, which is built on the first call.
+   *
+   * @return a {@link VersionIndex} of {@link #versions}.
+   * @since 0.3.0
+   */
+  public VersionIndex getVersionIndex() {
+    VersionIndex index = versionIndex;
+    if (index == null) versionIndex = index = VersionIndex.of(versions);
+    return index;
+  }
+}
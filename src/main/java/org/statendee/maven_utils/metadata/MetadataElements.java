@@ -0,0 +1,63 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.metadata;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Helpers to read the elements of {@code maven-metadata.xml} files.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+final class MetadataElements {
+
+  /**
+   * Prevents instantiation of this utility class.
+   *
+   * @since 0.3.0
+   */
+  private MetadataElements() {}
+
+  /**
+   * Returns the first direct child element with the given name.
+   *
+   * @param parent the parent element.
+   * @param name the name of the child element.
+   * @return the first direct child element with the given name or {@code null} if there is none.
+   * @since 0.3.0
+   */
+  static Element firstChild(Element parent, String name) {
+    for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling())
+      if (node instanceof Element && name.equals(node.getNodeName())) return (Element) node;
+    return null;
+  }
+
+  /**
+   * Returns the trimmed text of the first direct child element with the given name.
+   *
+   * @param parent the parent element.
+   * @param name the name of the child element.
+   * @return the trimmed text of the child element or {@code null} if there is none.
+   * @since 0.3.0
+   */
+  static String text(Element parent, String name) {
+    Element child = firstChild(parent, name);
+    return child == null ? null : child.getTextContent().trim();
+  }
+}
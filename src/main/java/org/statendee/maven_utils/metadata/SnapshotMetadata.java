@@ -0,0 +1,194 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.metadata;
+
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionArrays;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.statendee.maven_utils.metadata.MetadataElements.*;
+
+/**
+ * A {@link SnapshotMetadata} represents the {@code maven-metadata.xml} file of a {@code
+ * SNAPSHOT}-version, indexing its {@code snapshotVersion} entries by classifier and extension.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class SnapshotMetadata {
+
+  /**
+   * The {@code SNAPSHOT}-version this metadata belongs to, e.g. {@code 1.0-SNAPSHOT}.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion version;
+
+  /**
+   * The latest {@code SNAPSHOT}-build according to the {@code snapshot} element or {@code null} if
+   * it is missing.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion latestBuild;
+
+  /**
+   * The {@code snapshotVersion} entries keyed by {@link #key(String, String)}.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, SnapshotVersion> snapshotVersions;
+
+  /**
+   * All retained {@code SNAPSHOT}-builds in descending order.
+   *
+   * @since 0.3.0
+   */
+  private final List<ComparableVersion> builds;
+
+  /**
+   * The {@link Validators} the server returned with the metadata.
+   *
+   * @since 0.3.0
+   */
+  public final Validators validators;
+
+  /**
+   * Creates an instance of {@link SnapshotMetadata}.
+   *
+   * @param version the {@code SNAPSHOT}-version this metadata belongs to.
+   * @param latestBuild the latest {@code SNAPSHOT}-build or {@code null} if it is unknown.
+   * @param snapshotVersions the {@code snapshotVersion} entries.
+   * @param validators the {@link Validators} the server returned with the metadata.
+   * @since 0.3.0
+   */
+  public SnapshotMetadata(
+      ComparableVersion version,
+      ComparableVersion latestBuild,
+      List<SnapshotVersion> snapshotVersions,
+      Validators validators) {
+    this.version = version;
+    this.latestBuild = latestBuild;
+    this.validators = validators;
+
+    Map<String, SnapshotVersion> index = new HashMap<>();
+    List<ComparableVersion> builds = new ArrayList<>();
+    if (latestBuild != null) builds.add(latestBuild);
+    for (SnapshotVersion snapshotVersion : snapshotVersions) {
+      index.put(key(snapshotVersion.classifier, snapshotVersion.extension), snapshotVersion);
+      builds.add(snapshotVersion.build);
+    }
+    this.snapshotVersions = Collections.unmodifiableMap(index);
+
+    ComparableVersion[] sorted = builds.toArray(new ComparableVersion[0]);
+    VersionArrays.sort(sorted);
+    List<ComparableVersion> distinct = Arrays.asList(VersionArrays.distinct(sorted));
+    Collections.reverse(distinct);
+    this.builds = Collections.unmodifiableList(distinct);
+  }
+
+  /**
+   * Creates an instance of {@link SnapshotMetadata} from the {@code versioning} element of the
+   * {@code maven-metadata.xml} file of a {@code SNAPSHOT}-version.
+   *
+   * @param version the {@code SNAPSHOT}-version the metadata belongs to.
+   * @param versioning the {@code versioning} element.
+   * @param validators the {@link Validators} the server returned with the metadata.
+   * @return the parsed {@link SnapshotMetadata}.
+   * @since 0.3.0
+   */
+  public static SnapshotMetadata fromVersioning(
+      ComparableVersion version, Element versioning, Validators validators) {
+    ComparableVersion latestBuild = null;
+    Element snapshot = firstChild(versioning, "snapshot");
+    String timestamp = snapshot == null ? null : text(snapshot, "timestamp");
+    if (timestamp != null) {
+      String buildNumber = text(snapshot, "buildNumber");
+      latestBuild =
+          ComparableVersion.of(
+              version + "-" + timestamp + (buildNumber != null ? "-" + buildNumber : ""));
+    }
+
+    List<SnapshotVersion> snapshotVersions = new ArrayList<>();
+    Element snapshotVersionsElement = firstChild(versioning, "snapshotVersions");
+    if (snapshotVersionsElement != null) {
+      NodeList entries = snapshotVersionsElement.getElementsByTagName("snapshotVersion");
+      for (int i = 0; i < entries.getLength(); i++) {
+        Element entry = (Element) entries.item(i);
+        String extension = text(entry, "extension"), value = text(entry, "value");
+        if (extension == null || value == null) continue;
+        snapshotVersions.add(
+            new SnapshotVersion(
+                version, text(entry, "classifier"), extension, value, text(entry, "updated")));
+      }
+    }
+    return new SnapshotMetadata(version, latestBuild, snapshotVersions, validators);
+  }
+
+  /**
+   * Returns the {@code snapshotVersion} entry for a classifier and an extension.
+   *
+   * @param classifier the classifier or an empty {@link String} for the main file.
+   * @param extension the extension.
+   * @return the entry or {@code null} if there is none.
+   * @since 0.3.0
+   */
+  public SnapshotVersion getSnapshotVersion(String classifier, String extension) {
+    return snapshotVersions.get(key(classifier, extension));
+  }
+
+  /**
+   * Returns all {@code snapshotVersion} entries.
+   *
+   * @return all {@code snapshotVersion} entries.
+   * @since 0.3.0
+   */
+  public List<SnapshotVersion> getSnapshotVersions() {
+    return new ArrayList<>(snapshotVersions.values());
+  }
+
+  /**
+   * Returns all {@code SNAPSHOT}-builds that are still referenced by the metadata, i.e. the latest
+   * build as well as all builds that are the latest for any classifier and extension.
+   *
+   * @return all retained {@code SNAPSHOT}-builds in descending order.
+   * @since 0.3.0
+   */
+  public List<ComparableVersion> getBuilds() {
+    return builds;
+  }
+
+  /**
+   * Returns the key of a {@code snapshotVersion} entry in {@link #snapshotVersions}.
+   *
+   * @param classifier the classifier or {@code null} or an empty {@link String} for none.
+   * @param extension the extension.
+   * @return the key of the entry.
+   * @since 0.3.0
+   */
+  private static String key(String classifier, String extension) {
+    return (classifier == null ? "" : classifier) + ":" + extension;
+  }
+}
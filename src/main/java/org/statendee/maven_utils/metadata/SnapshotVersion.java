@@ -0,0 +1,157 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.metadata;
+
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A {@link SnapshotVersion} represents a {@code snapshotVersion} entry of the {@code
+ * maven-metadata.xml} file of a {@code SNAPSHOT}-version, i.e. the latest deployed file for a
+ * classifier and an extension.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class SnapshotVersion {
+
+  /**
+   * The format of the {@code updated} element.
+   *
+   * @since 0.3.0
+   */
+  private static final DateTimeFormatter UPDATED_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+  /**
+   * The classifier of the file or an empty {@link String} if it has none.
+   *
+   * @since 0.3.0
+   */
+  public final String classifier;
+
+  /**
+   * The extension of the file.
+   *
+   * @since 0.3.0
+   */
+  public final String extension;
+
+  /**
+   * The version of the file as used in its file name, e.g. {@code 1.0-20211215.173200-4}.
+   *
+   * @since 0.3.0
+   */
+  public final String value;
+
+  /**
+   * The {@code SNAPSHOT}-build of the file in the format used by {@link ComparableVersion}, e.g.
+   * {@code 1.0-SNAPSHOT-20211215.173200-4}.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion build;
+
+  /**
+   * The time the file was deployed or {@code null} if it is unknown.
+   *
+   * @since 0.3.0
+   */
+  public final Instant updated;
+
+  /**
+   * Creates an instance of {@link SnapshotVersion}.
+   *
+   * @param snapshotVersion the {@code SNAPSHOT}-version the file belongs to, e.g. {@code
+   *     1.0-SNAPSHOT}.
+   * @param classifier the classifier of the file or an empty {@link String} if it has none.
+   * @param extension the extension of the file.
+   * @param value the version of the file as used in its file name.
+   * @param updated the {@code updated} value ({@code yyyyMMddHHmmss}) or {@code null}.
+   * @since 0.3.0
+   */
+  public SnapshotVersion(
+      ComparableVersion snapshotVersion,
+      String classifier,
+      String extension,
+      String value,
+      String updated) {
+    this.classifier = classifier == null ? "" : classifier;
+    this.extension = extension;
+    this.value = value;
+    this.build = toBuild(snapshotVersion, value);
+    this.updated = parseUpdated(updated);
+  }
+
+  /**
+   * Returns the name of the deployed file.
+   *
+   * @param artifactId the artifactId of the artifact.
+   * @return the name of the deployed file, e.g. {@code artifact-1.0-20211215.173200-4-sources.jar}.
+   * @since 0.3.0
+   */
+  public String getFileName(String artifactId) {
+    return artifactId
+        + "-"
+        + value
+        + (!classifier.equals("") ? "-" : "")
+        + classifier
+        + "."
+        + extension;
+  }
+
+  /**
+   * Converts the value of a {@code snapshotVersion} entry to a {@code SNAPSHOT}-build.
+   *
+   * @param snapshotVersion the {@code SNAPSHOT}-version the file belongs to.
+   * @param value the value of the {@code snapshotVersion} entry.
+   * @return the {@code SNAPSHOT}-build, e.g. {@code 1.0-SNAPSHOT-20211215.173200-4}.
+   * @since 0.3.0
+   */
+  private static ComparableVersion toBuild(ComparableVersion snapshotVersion, String value) {
+    String base = snapshotVersion.toString().replace("-SNAPSHOT", "");
+    if (value.endsWith("-SNAPSHOT") || !value.startsWith(base + "-"))
+      return ComparableVersion.of(value);
+    return ComparableVersion.of(base + "-SNAPSHOT" + value.substring(base.length()));
+  }
+
+  /**
+   * Parses the {@code updated} value of a {@code snapshotVersion} entry.
+   *
+   * @param updated the {@code updated} value ({@code yyyyMMddHHmmss}) or {@code null}.
+   * @return the parsed {@link Instant} or {@code null} if the value is missing or malformed.
+   * @since 0.3.0
+   */
+  private static Instant parseUpdated(String updated) {
+    if (updated == null) return null;
+    try {
+      return LocalDateTime.parse(updated.trim(), UPDATED_FORMAT).toInstant(ZoneOffset.UTC);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getFileName("*");
+  }
+}
@@ -0,0 +1,70 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.metadata;
+
+/**
+ * The cache validators ({@code ETag} and {@code Last-Modified}) a server returned for a resource,
+ * which are used to send conditional requests for it.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class Validators {
+
+  /**
+   * {@link Validators} without any values, for which no conditional requests can be sent.
+   *
+   * @since 0.3.0
+   */
+  public static final Validators NONE = new Validators(null, null);
+
+  /**
+   * The value of the {@code ETag} header or {@code null} if it was missing.
+   *
+   * @since 0.3.0
+   */
+  public final String etag;
+
+  /**
+   * The value of the {@code Last-Modified} header or {@code null} if it was missing.
+   *
+   * @since 0.3.0
+   */
+  public final String lastModified;
+
+  /**
+   * Creates an instance of {@link Validators} based on the header values.
+   *
+   * @param etag the value of the {@code ETag} header or {@code null}.
+   * @param lastModified the value of the {@code Last-Modified} header or {@code null}.
+   * @since 0.3.0
+   */
+  public Validators(String etag, String lastModified) {
+    this.etag = etag;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * Returns {@code true} if at least one validator is present.
+   *
+   * @return {@code true} if at least one validator is present.
+   * @since 0.3.0
+   */
+  public boolean isPresent() {
+    return etag != null || lastModified != null;
+  }
+}
@@ -0,0 +1,239 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link Dependency} represents a {@code dependency} element of a POM, either in its {@code
+ * dependencies} or in its {@code dependencyManagement}.
+ *
+ * <p>Values are kept as declared and may contain property references (e.g. {@code ${foo.version}})
+ * until they are interpolated. Missing optional values are {@code null}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class Dependency {
+
+  /**
+   * The groupId of the dependency.
+   *
+   * @since 0.3.0
+   */
+  public final String groupId;
+
+  /**
+   * The artifactId of the dependency.
+   *
+   * @since 0.3.0
+   */
+  public final String artifactId;
+
+  /**
+   * The version (or version range) of the dependency or {@code null} if it is managed.
+   *
+   * @since 0.3.0
+   */
+  public final String version;
+
+  /**
+   * The type of the dependency or {@code null} for the default ({@code jar}).
+   *
+   * @since 0.3.0
+   */
+  public final String type;
+
+  /**
+   * The classifier of the dependency or {@code null} if it has none.
+   *
+   * @since 0.3.0
+   */
+  public final String classifier;
+
+  /**
+   * The scope of the dependency or {@code null} if it is managed or the default ({@code compile}).
+   *
+   * @since 0.3.0
+   */
+  public final String scope;
+
+  /**
+   * {@code true} if the dependency is optional.
+   *
+   * @since 0.3.0
+   */
+  public final boolean optional;
+
+  /**
+   * The excluded dependencies as {@code groupId:artifactId}, where both may be {@code *}.
+   *
+   * @since 0.3.0
+   */
+  public final Set<String> exclusions;
+
+  /**
+   * Creates an instance of {@link Dependency}.
+   *
+   * @param groupId the groupId of the dependency.
+   * @param artifactId the artifactId of the dependency.
+   * @param version the version of the dependency or {@code null}.
+   * @param type the type of the dependency or {@code null}.
+   * @param classifier the classifier of the dependency or {@code null}.
+   * @param scope the scope of the dependency or {@code null}.
+   * @param optional {@code true} if the dependency is optional.
+   * @param exclusions the excluded dependencies as {@code groupId:artifactId}.
+   * @since 0.3.0
+   */
+  public Dependency(
+      String groupId,
+      String artifactId,
+      String version,
+      String type,
+      String classifier,
+      String scope,
+      boolean optional,
+      Set<String> exclusions) {
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.version = version;
+    this.type = type;
+    this.classifier = classifier;
+    this.scope = scope;
+    this.optional = optional;
+    this.exclusions = Collections.unmodifiableSet(new LinkedHashSet<>(exclusions));
+  }
+
+  /**
+   * Returns the type of the dependency, defaulting to {@code jar}.
+   *
+   * @return the type of the dependency.
+   * @since 0.3.0
+   */
+  public String getType() {
+    return type == null || type.isEmpty() ? "jar" : type;
+  }
+
+  /**
+   * Returns the scope of the dependency, defaulting to {@code compile}.
+   *
+   * @return the scope of the dependency.
+   * @since 0.3.0
+   */
+  public String getScope() {
+    return scope == null || scope.isEmpty() ? "compile" : scope;
+  }
+
+  /**
+   * Returns the key that identifies the dependency in {@code dependencyManagement} and during
+   * conflict resolution, i.e. {@code groupId:artifactId:type[:classifier]}.
+   *
+   * @return the management key of the dependency.
+   * @since 0.3.0
+   */
+  public String getManagementKey() {
+    return groupId
+        + ":"
+        + artifactId
+        + ":"
+        + getType()
+        + (classifier == null || classifier.isEmpty() ? "" : ":" + classifier);
+  }
+
+  /**
+   * Returns {@code true} if the dependency is excluded by any of the exclusions.
+   *
+   * @param exclusions the exclusions as {@code groupId:artifactId}, where both may be {@code *}.
+   * @return {@code true} if the dependency is excluded.
+   * @since 0.3.0
+   */
+  public boolean isExcludedBy(Set<String> exclusions) {
+    return exclusions.contains(groupId + ":" + artifactId)
+        || exclusions.contains(groupId + ":*")
+        || exclusions.contains("*:" + artifactId)
+        || exclusions.contains("*:*");
+  }
+
+  /**
+   * Returns a copy of this dependency with all values passed through an interpolator. If no value
+   * changes, this dependency is returned.
+   *
+   * @param interpolator the function that replaces property references.
+   * @return the interpolated dependency.
+   * @since 0.3.0
+   */
+  public Dependency interpolate(UnaryOperator<String> interpolator) {
+    String groupId = interpolator.apply(this.groupId);
+    String artifactId = interpolator.apply(this.artifactId);
+    String version = interpolator.apply(this.version);
+    String type = interpolator.apply(this.type);
+    String classifier = interpolator.apply(this.classifier);
+    String scope = interpolator.apply(this.scope);
+    if (Objects.equals(groupId, this.groupId)
+        && Objects.equals(artifactId, this.artifactId)
+        && Objects.equals(version, this.version)
+        && Objects.equals(type, this.type)
+        && Objects.equals(classifier, this.classifier)
+        && Objects.equals(scope, this.scope)) return this;
+    return new Dependency(
+        groupId, artifactId, version, type, classifier, scope, optional, exclusions);
+  }
+
+  /**
+   * Returns a copy of this dependency with missing values taken from a managed dependency.
+   *
+   * @param managed the managed dependency or {@code null}.
+   * @return the managed dependency.
+   * @since 0.3.0
+   */
+  public Dependency manage(Dependency managed) {
+    if (managed == null) return this;
+    Set<String> mergedExclusions = new LinkedHashSet<>(exclusions);
+    mergedExclusions.addAll(managed.exclusions);
+    return new Dependency(
+        groupId,
+        artifactId,
+        version != null ? version : managed.version,
+        type,
+        classifier,
+        scope != null ? scope : managed.scope,
+        optional,
+        mergedExclusions);
+  }
+
+  /**
+   * Returns a copy of this dependency with another version and scope.
+   *
+   * @param version the new version.
+   * @param scope the new scope.
+   * @return the copy with the new version and scope.
+   * @since 0.3.0
+   */
+  public Dependency with(String version, String scope) {
+    return new Dependency(
+        groupId, artifactId, version, type, classifier, scope, optional, exclusions);
+  }
+
+  @Override
+  public String toString() {
+    return getManagementKey() + ":" + version + ":" + getScope();
+  }
+}
@@ -0,0 +1,39 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+/**
+ * An {@link Exception} that is thrown if the root of a dependency graph cannot be resolved, e.g.
+ * because its POM or one of its parents cannot be requested or parsed.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class DependencyResolutionException extends Exception {
+
+  /**
+   * Creates an instance of {@link DependencyResolutionException} based on the coordinates that
+   * could not be resolved and the cause.
+   *
+   * @param coordinates the coordinates as {@code groupId:artifactId:version}.
+   * @param cause the cause.
+   * @since 0.3.0
+   */
+  public DependencyResolutionException(String coordinates, Throwable cause) {
+    super("Could not resolve " + coordinates + "!", cause);
+  }
+}
@@ -0,0 +1,412 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import org.statendee.maven_utils.DaemonThreads;
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.RequestException;
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.InvalidVersionRangeException;
+import org.statendee.maven_utils.version.VersionIndex;
+import org.statendee.maven_utils.version.VersionRange;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A {@link DependencyResolver} resolves the transitive dependencies of artifacts in a maven
+ * repository.
+ *
+ * <p>The effective models of the POMs are built by an {@link EffectivePomBuilder}. The graph is
+ * traversed breadth-first; conflicts are mediated by "nearest wins", i.e. the first occurrence of
+ * a {@code groupId:artifactId:type[:classifier]} closest to the root wins. Optional, {@code
+ * test}, {@code provided} and {@code system} dependencies of dependencies are not followed,
+ * exclusions apply to the whole subtree and the {@code dependencyManagement} of the root overrides
+ * versions and scopes of transitive dependencies. Version ranges are resolved to the highest
+ * matching version in the repository.
+ *
+ * <p>All POMs of a level of the graph are fetched concurrently. The effective models are cached by
+ * the {@link EffectivePomBuilder}, so parents and {@code BOM}s that are shared by many
+ * dependencies are only requested once, even across several resolutions.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class DependencyResolver implements AutoCloseable {
+
+  /**
+   * The scopes of a runtime classpath, used if no scopes are given.
+   *
+   * @since 0.3.0
+   */
+  public static final Set<String> DEFAULT_SCOPES =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList("compile", "runtime")));
+
+  /**
+   * The {@link EffectivePomBuilder} that builds and caches the effective models.
+   *
+   * @since 0.3.0
+   */
+  private final EffectivePomBuilder builder;
+
+  /**
+   * The {@link ExecutorService} created by this resolver, shut down on {@link #close()}, or {@code
+   * null} if the executor was provided.
+   *
+   * @since 0.3.0
+   */
+  private final ExecutorService ownedExecutor;
+
+  /**
+   * Creates an instance of {@link DependencyResolver} with its own fixed pool of daemon threads.
+   *
+   * @param repository an artifact of the repository, whose repository and credentials are used.
+   * @param threads the number of POMs that are fetched concurrently.
+   * @since 0.3.0
+   */
+  public DependencyResolver(MavenArtifact repository, int threads) {
+    this(repository, createExecutor(threads), true);
+  }
+
+  /**
+   * Creates an instance of {@link DependencyResolver} that fetches POMs on the given {@link
+   * Executor}.
+   *
+   * @param repository an artifact of the repository, whose repository and credentials are used.
+   * @param executor the {@link Executor} that fetches the POMs.
+   * @since 0.3.0
+   */
+  public DependencyResolver(MavenArtifact repository, Executor executor) {
+    this(repository, executor, false);
+  }
+
+  /**
+   * Creates an instance of {@link DependencyResolver} that uses an existing {@link
+   * EffectivePomBuilder}, e.g. to share the cached effective models between several resolvers.
+   *
+   * @param builder the {@link EffectivePomBuilder} that builds and caches the effective models.
+   * @since 0.3.0
+   */
+  public DependencyResolver(EffectivePomBuilder builder) {
+    this.builder = builder;
+    this.ownedExecutor = null;
+  }
+
+  /**
+   * Creates an instance of {@link DependencyResolver}.
+   *
+   * @param repository an artifact of the repository, whose repository and credentials are used.
+   * @param executor the {@link Executor} that fetches the POMs.
+   * @param ownsExecutor {@code true} if the executor should be shut down on {@link #close()}.
+   * @since 0.3.0
+   */
+  private DependencyResolver(MavenArtifact repository, Executor executor, boolean ownsExecutor) {
+    this.builder = new EffectivePomBuilder(repository, executor);
+    this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+  }
+
+  /**
+   * Resolves the dependencies of a version of the artifact this resolver was created with that are
+   * part of a runtime classpath (see {@link #DEFAULT_SCOPES}).
+   *
+   * @param version the version of the artifact.
+   * @return the {@link ResolutionResult}.
+   * @throws DependencyResolutionException if the POM of the artifact or one of its parents or
+   *     imports cannot be requested or parsed.
+   * @since 0.3.0
+   */
+  public ResolutionResult resolve(ComparableVersion version) throws DependencyResolutionException {
+    MavenArtifact repository = builder.getRepository();
+    return resolve(repository.groupId, repository.artifactId, version, DEFAULT_SCOPES);
+  }
+
+  /**
+   * Resolves the dependencies of an artifact.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param version the version of the artifact.
+   * @param scopes the effective scopes of the dependencies that should be resolved, e.g. {@code
+   *     compile} and {@code runtime} for a runtime classpath.
+   * @return the {@link ResolutionResult}.
+   * @throws DependencyResolutionException if the POM of the artifact or one of its parents or
+   *     imports cannot be requested or parsed.
+   * @since 0.3.0
+   */
+  public ResolutionResult resolve(
+      String groupId, String artifactId, ComparableVersion version, Set<String> scopes)
+      throws DependencyResolutionException {
+    String rootCoordinates = groupId + ":" + artifactId + ":" + version;
+    EffectivePom root = builder.build(groupId, artifactId, version.toString());
+    Map<String, Dependency> rootManagement = root.getDependencyManagement();
+
+    Map<String, ResolvedDependency> resolved = new LinkedHashMap<>();
+    Map<String, Exception> failures = new LinkedHashMap<>();
+    List<Node> level = new ArrayList<>();
+    for (Dependency dependency : root.getDependencies())
+      if (scopes.contains(dependency.getScope()))
+        level.add(new Node(dependency, 1, dependency.exclusions, rootCoordinates));
+
+    while (!level.isEmpty()) {
+      // Nearest wins: only the first occurrence of a dependency is kept.
+      List<Node> winners = new ArrayList<>();
+      for (Node node : level)
+        if (!resolved.containsKey(node.dependency.getManagementKey())) {
+          resolved.put(node.dependency.getManagementKey(), null);
+          winners.add(node);
+        }
+
+      // Resolve the versions and fetch the POMs of the whole level concurrently.
+      List<CompletableFuture<EffectivePom>> futures = new ArrayList<>(winners.size());
+      for (Node node : winners)
+        futures.add(
+            CompletableFuture.supplyAsync(
+                    () -> resolveVersion(node.dependency), builder.getExecutor())
+                .thenCompose(
+                    resolvedVersion -> {
+                      node.version = resolvedVersion;
+                      return isTransitive(node.dependency)
+                          ? builder.buildAsync(
+                              node.dependency.groupId,
+                              node.dependency.artifactId,
+                              resolvedVersion.toString())
+                          : CompletableFuture.completedFuture(null);
+                    }));
+
+      List<Node> next = new ArrayList<>();
+      for (int i = 0; i < winners.size(); i++) {
+        Node node = winners.get(i);
+        EffectivePom pom;
+        try {
+          pom = futures.get(i).join();
+        } catch (CompletionException e) {
+          failures.put(node.getCoordinates(), EffectivePomBuilder.unwrap(e));
+          if (node.version == null) {
+            resolved.remove(node.dependency.getManagementKey());
+            continue;
+          }
+          pom = null;
+        }
+        resolved.put(
+            node.dependency.getManagementKey(),
+            new ResolvedDependency(
+                node.dependency.with(node.version.toString(), node.dependency.scope),
+                node.version,
+                node.depth,
+                node.declaredBy));
+        if (pom == null) continue;
+
+        String declaredBy = node.getCoordinates();
+        for (Dependency child : pom.getDependencies()) {
+          if (child.optional || !isTransitive(child) || child.isExcludedBy(node.exclusions))
+            continue;
+          String scope = getTransitiveScope(node.dependency.getScope(), child.getScope());
+          Dependency managed = rootManagement.get(child.getManagementKey());
+          if (managed != null)
+            child =
+                child.with(
+                    managed.version != null ? managed.version : child.version,
+                    managed.scope != null ? managed.scope : scope);
+          else child = child.with(child.version, scope);
+          if (!scopes.contains(child.getScope())) continue;
+          Set<String> exclusions = new LinkedHashSet<>(node.exclusions);
+          exclusions.addAll(child.exclusions);
+          next.add(new Node(child, node.depth + 1, exclusions, declaredBy));
+        }
+      }
+      level = next;
+    }
+
+    List<ResolvedDependency> dependencies = new ArrayList<>(resolved.size());
+    for (ResolvedDependency dependency : resolved.values())
+      if (dependency != null) dependencies.add(dependency);
+    return new ResolutionResult(dependencies, failures);
+  }
+
+  /**
+   * Shuts down the pool of threads, if it was created by this resolver.
+   *
+   * @since 0.3.0
+   */
+  @Override
+  public void close() {
+    if (ownedExecutor != null) ownedExecutor.shutdownNow();
+  }
+
+  /**
+   * Resolves the version of a dependency. Version ranges are resolved to the highest version in
+   * the repository that is contained in the range.
+   *
+   * @param dependency the dependency.
+   * @return the resolved version.
+   * @throws CompletionException if the dependency has no version, the range is invalid, no version
+   *     matches or the metadata cannot be requested.
+   * @since 0.3.0
+   */
+  private ComparableVersion resolveVersion(Dependency dependency) {
+    String version = dependency.version;
+    try {
+      if (version == null || version.isEmpty())
+        throw new IOException("The version of " + dependency + " is missing!");
+      if (!version.startsWith("[") && !version.startsWith("("))
+        return ComparableVersion.of(version);
+      VersionRange range = VersionRange.parse(version);
+      ComparableVersion highest =
+          builder
+              .getRepository()
+              .withCoordinates(dependency.groupId, dependency.artifactId)
+              .getVersionIndex()
+              .getHighest(range, VersionIndex.ANY);
+      if (highest == null)
+        throw new IOException("No version of " + dependency + " matches " + range + "!");
+      return highest;
+    } catch (IOException
+        | RequestException
+        | InvalidVersionRangeException
+        | ParserConfigurationException
+        | SAXException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  /**
+   * Returns {@code true} if the dependencies of a dependency with this scope are followed.
+   *
+   * @param dependency the dependency.
+   * @return {@code true} if the dependency is part of the transitive graph.
+   * @since 0.3.0
+   */
+  private static boolean isTransitive(Dependency dependency) {
+    String scope = dependency.getScope();
+    return scope.equals("compile") || scope.equals("runtime");
+  }
+
+  /**
+   * Returns the effective scope of a transitive dependency based on the scope of the dependency
+   * that declares it.
+   *
+   * @param parentScope the effective scope of the declaring dependency.
+   * @param scope the declared scope of the transitive dependency ({@code compile} or {@code
+   *     runtime}).
+   * @return the effective scope of the transitive dependency.
+   * @since 0.3.0
+   */
+  private static String getTransitiveScope(String parentScope, String scope) {
+    if (parentScope.equals("compile")) return scope;
+    return parentScope;
+  }
+
+  /**
+   * Creates a fixed pool of named daemon threads.
+   *
+   * @param threads the number of threads.
+   * @return the created pool.
+   * @since 0.3.0
+   */
+  private static ExecutorService createExecutor(int threads) {
+    return Executors.newFixedThreadPool(threads, DaemonThreads.factory("dependency-resolver"));
+  }
+
+  /**
+   * A {@link Node} is an occurrence of a dependency in the graph during the traversal.
+   *
+   * @since 0.3.0
+   */
+  private static final class Node {
+
+    /**
+     * The dependency with its effective scope.
+     *
+     * @since 0.3.0
+     */
+    private final Dependency dependency;
+
+    /**
+     * The distance to the root.
+     *
+     * @since 0.3.0
+     */
+    private final int depth;
+
+    /**
+     * The exclusions of the path from the root to this node.
+     *
+     * @since 0.3.0
+     */
+    private final Set<String> exclusions;
+
+    /**
+     * The coordinates of the artifact that declared the dependency.
+     *
+     * @since 0.3.0
+     */
+    private final String declaredBy;
+
+    /**
+     * The resolved version or {@code null} if it is not resolved yet.
+     *
+     * @since 0.3.0
+     */
+    private volatile ComparableVersion version;
+
+    /**
+     * Creates an instance of {@link Node}.
+     *
+     * @param dependency the dependency with its effective scope.
+     * @param depth the distance to the root.
+     * @param exclusions the exclusions of the path from the root to this node.
+     * @param declaredBy the coordinates of the artifact that declared the dependency.
+     * @since 0.3.0
+     */
+    private Node(Dependency dependency, int depth, Set<String> exclusions, String declaredBy) {
+      this.dependency = dependency;
+      this.depth = depth;
+      this.exclusions = exclusions;
+      this.declaredBy = declaredBy;
+    }
+
+    /**
+     * Returns the coordinates as {@code groupId:artifactId:version}, using the declared version if
+     * the version is not resolved yet.
+     *
+     * @return the coordinates.
+     * @since 0.3.0
+     */
+    private String getCoordinates() {
+      return dependency.groupId
+          + ":"
+          + dependency.artifactId
+          + ":"
+          + (version != null ? version : dependency.version);
+    }
+  }
+}
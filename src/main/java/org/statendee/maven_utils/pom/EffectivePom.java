@@ -0,0 +1,489 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link EffectivePom} is a {@link Pom} with the elements inherited from its parents, the
+ * {@code dependencyManagement} imported from {@code BOM}s and interpolated property references.
+ *
+ * <p>An effective model is built incrementally on top of the effective model of its parent, which
+ * is shared and not copied. Properties are interpolated lazily, only when they are referenced, and
+ * the interpolated {@code dependencyManagement} and dependencies are computed on first access.
+ * Like in maven, inherited values are interpolated with the properties of the child, e.g. a
+ * {@code ${project.version}} declared in a parent resolves to the version of the child.
+ *
+ * <p>Instances are immutable from the outside and safe to share between threads. They are created
+ * by an {@link EffectivePomBuilder}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class EffectivePom {
+
+  /**
+   * The maximum number of nested property references that are resolved.
+   *
+   * @since 0.3.0
+   */
+  private static final int MAX_INTERPOLATION_DEPTH = 16;
+
+  /**
+   * The {@link Pom} as declared.
+   *
+   * @since 0.3.0
+   */
+  private final Pom pom;
+
+  /**
+   * The {@link EffectivePom} of the parent or {@code null} if there is none.
+   *
+   * @since 0.3.0
+   */
+  private final EffectivePom parent;
+
+  /**
+   * The {@link EffectivePom}s of the imported {@code BOM}s in the order of {@link #imports}.
+   *
+   * @since 0.3.0
+   */
+  private final List<EffectivePom> boms;
+
+  /**
+   * The interpolated values of the properties that were referenced so far.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, String> interpolatedProperties;
+
+  /**
+   * The interpolated groupId.
+   *
+   * @since 0.3.0
+   */
+  private final String groupId;
+
+  /**
+   * The interpolated artifactId.
+   *
+   * @since 0.3.0
+   */
+  private final String artifactId;
+
+  /**
+   * The interpolated version.
+   *
+   * @since 0.3.0
+   */
+  private final String version;
+
+  /**
+   * The interpolated {@code dependencyManagement} entries with scope {@code import}.
+   *
+   * @since 0.3.0
+   */
+  private final List<Dependency> imports;
+
+  /**
+   * The {@code dependencyManagement} of this POM and its parents as declared or {@code null} if it
+   * is not computed yet.
+   *
+   * @since 0.3.0
+   */
+  private volatile List<Dependency> declaredManagement;
+
+  /**
+   * The dependencies of this POM and its parents as declared or {@code null} if they are not
+   * computed yet.
+   *
+   * @since 0.3.0
+   */
+  private volatile List<Dependency> declaredDependencies;
+
+  /**
+   * The interpolated {@code dependencyManagement} or {@code null} if it is not computed yet.
+   *
+   * @since 0.3.0
+   */
+  private volatile Map<String, Dependency> management;
+
+  /**
+   * The interpolated and managed dependencies or {@code null} if they are not computed yet.
+   *
+   * @since 0.3.0
+   */
+  private volatile List<Dependency> dependencies;
+
+  /**
+   * Creates an {@link EffectivePom} on top of the effective model of its parent. Imports are not
+   * resolved yet, see {@link #withImports(List)}.
+   *
+   * @param pom the {@link Pom}.
+   * @param parent the {@link EffectivePom} of the parent or {@code null} if there is none.
+   * @since 0.3.0
+   */
+  EffectivePom(Pom pom, EffectivePom parent) {
+    this.pom = pom;
+    this.parent = parent;
+    this.boms = Collections.emptyList();
+    this.interpolatedProperties = new ConcurrentHashMap<>();
+    this.groupId = interpolate(pom.groupId != null ? pom.groupId : pom.parentGroupId);
+    this.artifactId = interpolate(pom.artifactId);
+    this.version = interpolate(pom.version != null ? pom.version : pom.parentVersion);
+
+    List<Dependency> imports = new ArrayList<>();
+    for (Dependency declared : getDeclaredManagement())
+      if (declared.scope != null && declared.type != null) {
+        Dependency managed = declared.interpolate(this::interpolate);
+        if (isImport(managed)) imports.add(managed);
+      }
+    this.imports = Collections.unmodifiableList(imports);
+  }
+
+  /**
+   * Creates a copy of an {@link EffectivePom} with resolved imports.
+   *
+   * @param base the {@link EffectivePom} without resolved imports.
+   * @param boms the {@link EffectivePom}s of the imported {@code BOM}s.
+   * @since 0.3.0
+   */
+  private EffectivePom(EffectivePom base, List<EffectivePom> boms) {
+    this.pom = base.pom;
+    this.parent = base.parent;
+    this.boms = Collections.unmodifiableList(new ArrayList<>(boms));
+    this.interpolatedProperties = base.interpolatedProperties;
+    this.groupId = base.groupId;
+    this.artifactId = base.artifactId;
+    this.version = base.version;
+    this.imports = base.imports;
+    this.declaredManagement = base.declaredManagement;
+    this.declaredDependencies = base.declaredDependencies;
+  }
+
+  /**
+   * Returns an {@link EffectivePom} with the {@code dependencyManagement} of the imported {@code
+   * BOM}s. Explicitly managed dependencies take precedence over imported ones, earlier imports over
+   * later ones.
+   *
+   * @param boms the {@link EffectivePom}s of {@link #getImports()}, in the same order.
+   * @return the {@link EffectivePom} with resolved imports.
+   * @since 0.3.0
+   */
+  EffectivePom withImports(List<EffectivePom> boms) {
+    return new EffectivePom(this, boms);
+  }
+
+  /**
+   * Returns the groupId, inherited from the parent if it is not declared.
+   *
+   * @return the groupId.
+   * @since 0.3.0
+   */
+  public String getGroupId() {
+    return groupId;
+  }
+
+  /**
+   * Returns the artifactId.
+   *
+   * @return the artifactId.
+   * @since 0.3.0
+   */
+  public String getArtifactId() {
+    return artifactId;
+  }
+
+  /**
+   * Returns the version, inherited from the parent if it is not declared.
+   *
+   * @return the version.
+   * @since 0.3.0
+   */
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the {@link Pom} as declared.
+   *
+   * @return the {@link Pom}.
+   * @since 0.3.0
+   */
+  public Pom getPom() {
+    return pom;
+  }
+
+  /**
+   * Returns the effective model of the parent.
+   *
+   * @return the {@link EffectivePom} of the parent or {@code null} if there is none.
+   * @since 0.3.0
+   */
+  public EffectivePom getParent() {
+    return parent;
+  }
+
+  /**
+   * Returns the interpolated value of a property. Besides the properties declared in this POM and
+   * its parents, the {@code project.*} (and {@code pom.*}) properties {@code groupId}, {@code
+   * artifactId}, {@code version}, {@code packaging} and {@code parent.groupId}, {@code
+   * parent.artifactId} and {@code parent.version} are supported.
+   *
+   * @param name the name of the property.
+   * @return the interpolated value or {@code null} if the property is not defined.
+   * @since 0.3.0
+   */
+  public String getProperty(String name) {
+    return getProperty(name, 0);
+  }
+
+  /**
+   * Returns the interpolated {@code dependencyManagement} entries with scope {@code import}.
+   *
+   * @return the imported {@code BOM}s.
+   * @since 0.3.0
+   */
+  public List<Dependency> getImports() {
+    return imports;
+  }
+
+  /**
+   * Returns the interpolated {@code dependencyManagement} of this POM, its parents and its
+   * imports by {@link Dependency#getManagementKey()}.
+   *
+   * @return the interpolated {@code dependencyManagement}.
+   * @since 0.3.0
+   */
+  public Map<String, Dependency> getDependencyManagement() {
+    Map<String, Dependency> management = this.management;
+    if (management == null) {
+      management = new LinkedHashMap<>();
+      for (Dependency declared : getDeclaredManagement()) {
+        Dependency managed = declared.interpolate(this::interpolate);
+        if (!isImport(managed)) management.put(managed.getManagementKey(), managed);
+      }
+      for (EffectivePom bom : boms) bom.getDependencyManagement().forEach(management::putIfAbsent);
+      this.management = management = Collections.unmodifiableMap(management);
+    }
+    return management;
+  }
+
+  /**
+   * Returns the interpolated dependencies of this POM and its parents with managed versions and
+   * scopes applied.
+   *
+   * @return the interpolated and managed dependencies.
+   * @since 0.3.0
+   */
+  public List<Dependency> getDependencies() {
+    List<Dependency> dependencies = this.dependencies;
+    if (dependencies == null) {
+      Map<String, Dependency> management = getDependencyManagement();
+      Map<String, Dependency> byKey = new LinkedHashMap<>();
+      for (Dependency declared : getDeclaredDependencies()) {
+        Dependency dependency = declared.interpolate(this::interpolate);
+        byKey.put(dependency.getManagementKey(), dependency);
+      }
+      dependencies = new ArrayList<>(byKey.size());
+      for (Dependency dependency : byKey.values())
+        dependencies.add(dependency.manage(management.get(dependency.getManagementKey())));
+      this.dependencies = dependencies = Collections.unmodifiableList(dependencies);
+    }
+    return dependencies;
+  }
+
+  /**
+   * Returns the {@code dependencyManagement} of this POM and its parents as declared, reusing the
+   * list of the parent.
+   *
+   * @return the declared {@code dependencyManagement}.
+   * @since 0.3.0
+   */
+  private List<Dependency> getDeclaredManagement() {
+    List<Dependency> declared = this.declaredManagement;
+    if (declared == null)
+      this.declaredManagement =
+          declared =
+              concat(
+                  parent == null ? null : parent.getDeclaredManagement(),
+                  pom.dependencyManagement);
+    return declared;
+  }
+
+  /**
+   * Returns the dependencies of this POM and its parents as declared, reusing the list of the
+   * parent.
+   *
+   * @return the declared dependencies.
+   * @since 0.3.0
+   */
+  private List<Dependency> getDeclaredDependencies() {
+    List<Dependency> declared = this.declaredDependencies;
+    if (declared == null)
+      this.declaredDependencies =
+          declared =
+              concat(parent == null ? null : parent.getDeclaredDependencies(), pom.dependencies);
+    return declared;
+  }
+
+  /**
+   * Returns the interpolated value of a property.
+   *
+   * @param name the name of the property.
+   * @param depth the number of enclosing property references.
+   * @return the interpolated value or {@code null} if the property is not defined.
+   * @since 0.3.0
+   */
+  private String getProperty(String name, int depth) {
+    String value = interpolatedProperties.get(name);
+    if (value != null) return value;
+    String raw = getModelProperty(name);
+    if (raw == null) raw = getDeclaredProperty(name);
+    if (raw == null) return null;
+    value = interpolate(raw, depth + 1);
+    interpolatedProperties.put(name, value);
+    return value;
+  }
+
+  /**
+   * Returns the declared value of one of the {@code project.*} or {@code pom.*} properties.
+   *
+   * @param name the name of the property.
+   * @return the declared value or {@code null} if it is no such property.
+   * @since 0.3.0
+   */
+  private String getModelProperty(String name) {
+    String field;
+    if (name.startsWith("project.")) field = name.substring(8);
+    else if (name.startsWith("pom.")) field = name.substring(4);
+    else return null;
+    switch (field) {
+      case "groupId":
+        return pom.groupId != null ? pom.groupId : pom.parentGroupId;
+      case "artifactId":
+        return pom.artifactId;
+      case "version":
+        return pom.version != null ? pom.version : pom.parentVersion;
+      case "packaging":
+        return pom.packaging != null ? pom.packaging : "jar";
+      case "parent.groupId":
+        return pom.parentGroupId;
+      case "parent.artifactId":
+        return pom.parentArtifactId;
+      case "parent.version":
+        return pom.parentVersion;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Returns the value of a property as declared in this POM or the nearest parent.
+   *
+   * @param name the name of the property.
+   * @return the declared value or {@code null} if the property is not declared.
+   * @since 0.3.0
+   */
+  private String getDeclaredProperty(String name) {
+    for (EffectivePom current = this; current != null; current = current.parent) {
+      String value = current.pom.properties.get(name);
+      if (value != null) return value;
+    }
+    return null;
+  }
+
+  /**
+   * Replaces property references like {@code ${foo.version}} in a value. Unknown references are
+   * kept as they are.
+   *
+   * @param value the value or {@code null}.
+   * @return the interpolated value or {@code null} if the value is {@code null}.
+   * @since 0.3.0
+   */
+  private String interpolate(String value) {
+    return interpolate(value, 0);
+  }
+
+  /**
+   * Replaces property references like {@code ${foo.version}} in a value. Unknown references and
+   * references nested deeper than {@link #MAX_INTERPOLATION_DEPTH} are kept as they are.
+   *
+   * @param value the value or {@code null}.
+   * @param depth the number of enclosing property references.
+   * @return the interpolated value or {@code null} if the value is {@code null}.
+   * @since 0.3.0
+   */
+  private String interpolate(String value, int depth) {
+    if (value == null || depth > MAX_INTERPOLATION_DEPTH) return value;
+    int start = value.indexOf("${");
+    if (start < 0) return value;
+    StringBuilder builder = new StringBuilder(value.length());
+    int last = 0;
+    while (start >= 0) {
+      int end = value.indexOf('}', start);
+      if (end < 0) break;
+      String replacement = getProperty(value.substring(start + 2, end), depth);
+      if (replacement != null) {
+        builder.append(value, last, start).append(replacement);
+        last = end + 1;
+      }
+      start = value.indexOf("${", end);
+    }
+    return builder.append(value, last, value.length()).toString();
+  }
+
+  /**
+   * Returns {@code true} if an interpolated {@code dependencyManagement} entry imports a {@code
+   * BOM}.
+   *
+   * @param managed the interpolated {@code dependencyManagement} entry.
+   * @return {@code true} if the entry imports a {@code BOM}.
+   * @since 0.3.0
+   */
+  private static boolean isImport(Dependency managed) {
+    return "import".equals(managed.scope) && "pom".equals(managed.type);
+  }
+
+  /**
+   * Returns the concatenation of an inherited and a declared list, reusing the inherited list if
+   * nothing is declared.
+   *
+   * @param inherited the inherited list or {@code null}.
+   * @param declared the declared list.
+   * @return the concatenation.
+   * @since 0.3.0
+   */
+  private static List<Dependency> concat(List<Dependency> inherited, List<Dependency> declared) {
+    if (inherited == null || inherited.isEmpty()) return declared;
+    if (declared.isEmpty()) return inherited;
+    List<Dependency> result = new ArrayList<>(inherited.size() + declared.size());
+    result.addAll(inherited);
+    result.addAll(declared);
+    return Collections.unmodifiableList(result);
+  }
+
+  @Override
+  public String toString() {
+    return groupId + ":" + artifactId + ":" + version;
+  }
+}
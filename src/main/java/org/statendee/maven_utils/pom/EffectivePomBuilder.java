@@ -0,0 +1,325 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.RequestException;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * An {@link EffectivePomBuilder} builds {@link EffectivePom}s of the artifacts in the repository of
+ * a {@link MavenArtifact}.
+ *
+ * <p>Every POM is requested and parsed at most once and every effective model is built at most
+ * once per coordinates. A child is built on top of the cached effective model of its parent, so
+ * deep parent and {@code BOM} chains that are shared by many artifacts are only processed once.
+ * Concurrent requests for the same coordinates share the same build. Cyclic parents or imports
+ * fail the builds instead of waiting for each other, even if concurrent builds enter the cycle
+ * from different artifacts.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class EffectivePomBuilder {
+
+  /**
+   * An artifact of the repository, used as a template to request other artifacts with the same
+   * repository and credentials.
+   *
+   * @since 0.3.0
+   */
+  private final MavenArtifact repository;
+
+  /**
+   * The {@link Executor} that requests and parses the POMs.
+   *
+   * @since 0.3.0
+   */
+  private final Executor executor;
+
+  /**
+   * The fetched POMs by {@code groupId:artifactId:version}.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, CompletableFuture<Pom>> poms = new ConcurrentHashMap<>();
+
+  /**
+   * The built effective models by {@code groupId:artifactId:version}.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, CompletableFuture<EffectivePom>> effectivePoms =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The builds each running build waits for, by {@code groupId:artifactId:version}, used to detect
+   * cycles across concurrent builds. Guarded by itself.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, Set<String>> waitsFor = new HashMap<>();
+
+  /**
+   * Creates an instance of {@link EffectivePomBuilder}.
+   *
+   * @param repository an artifact of the repository, whose repository and credentials are used.
+   * @param executor the {@link Executor} that requests and parses the POMs.
+   * @since 0.3.0
+   */
+  public EffectivePomBuilder(MavenArtifact repository, Executor executor) {
+    this.repository = repository;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the artifact whose repository and credentials are used.
+   *
+   * @return the artifact whose repository and credentials are used.
+   * @since 0.3.0
+   */
+  public MavenArtifact getRepository() {
+    return repository;
+  }
+
+  /**
+   * Returns the {@link Executor} that requests and parses the POMs.
+   *
+   * @return the {@link Executor} that requests and parses the POMs.
+   * @since 0.3.0
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Builds the effective model of an artifact, waiting for its POM, its parents and its imports.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param version the version of the artifact.
+   * @return the {@link EffectivePom}.
+   * @throws DependencyResolutionException if the POM of the artifact or one of its parents or
+   *     imports cannot be requested or parsed.
+   * @since 0.3.0
+   */
+  public EffectivePom build(String groupId, String artifactId, String version)
+      throws DependencyResolutionException {
+    try {
+      return buildAsync(groupId, artifactId, version).join();
+    } catch (CompletionException e) {
+      throw new DependencyResolutionException(
+          groupId + ":" + artifactId + ":" + version, e.getCause());
+    }
+  }
+
+  /**
+   * Builds the effective model of an artifact asynchronously. The returned {@link
+   * CompletableFuture} completes exceptionally if the POM of the artifact or one of its parents or
+   * imports cannot be requested or parsed.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param version the version of the artifact.
+   * @return a {@link CompletableFuture} of the {@link EffectivePom}.
+   * @since 0.3.0
+   */
+  public CompletableFuture<EffectivePom> buildAsync(
+      String groupId, String artifactId, String version) {
+    return buildAsync(groupId, artifactId, version, null);
+  }
+
+  /**
+   * Returns the number of effective models that are cached.
+   *
+   * @return the number of cached effective models.
+   * @since 0.3.0
+   */
+  public int size() {
+    return effectivePoms.size();
+  }
+
+  /**
+   * Removes all cached POMs and effective models, e.g. to retry failed requests.
+   *
+   * @since 0.3.0
+   */
+  public void clear() {
+    effectivePoms.clear();
+    poms.clear();
+  }
+
+  /**
+   * Builds the effective model of an artifact asynchronously, unless it is already built or being
+   * built.
+   *
+   * <p>If the artifact is requested by another running build, the running build is recorded to
+   * wait for it. A request that would close a cycle of waiting builds fails at once.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param version the version of the artifact.
+   * @param requester the coordinates of the child or importer that requests this artifact or
+   *     {@code null}.
+   * @return a {@link CompletableFuture} of the {@link EffectivePom}.
+   * @since 0.3.0
+   */
+  private CompletableFuture<EffectivePom> buildAsync(
+      String groupId, String artifactId, String version, String requester) {
+    String key = groupId + ":" + artifactId + ":" + version;
+    CompletableFuture<EffectivePom> future = new CompletableFuture<>();
+    CompletableFuture<EffectivePom> existing;
+    synchronized (waitsFor) {
+      if (requester != null && (requester.equals(key) || isWaiting(key, requester))) {
+        CompletableFuture<EffectivePom> cycle = new CompletableFuture<>();
+        cycle.completeExceptionally(new IOException("Cyclic parent or import " + key + "!"));
+        return cycle;
+      }
+      existing = effectivePoms.putIfAbsent(key, future);
+      if (requester != null && (existing == null || !existing.isDone()))
+        waitsFor.computeIfAbsent(requester, k -> new HashSet<>()).add(key);
+    }
+    if (existing != null) return existing;
+
+    getPom(groupId, artifactId, version)
+        .thenCompose(
+            pom -> {
+              CompletableFuture<EffectivePom> parent =
+                  pom.hasParent()
+                      ? buildAsync(pom.parentGroupId, pom.parentArtifactId, pom.parentVersion, key)
+                      : CompletableFuture.completedFuture(null);
+              return parent.thenCompose(effectiveParent -> build(pom, effectiveParent, key));
+            })
+        .whenComplete(
+            (pom, throwable) -> {
+              synchronized (waitsFor) {
+                waitsFor.remove(key);
+              }
+              if (throwable != null) future.completeExceptionally(unwrap(throwable));
+              else future.complete(pom);
+            });
+    return future;
+  }
+
+  /**
+   * Builds the effective model of a POM on top of the effective model of its parent once its
+   * imports are built.
+   *
+   * @param pom the {@link Pom}.
+   * @param parent the {@link EffectivePom} of the parent or {@code null} if there is none.
+   * @param key the coordinates of the POM.
+   * @return a {@link CompletableFuture} of the {@link EffectivePom}.
+   * @since 0.3.0
+   */
+  private CompletableFuture<EffectivePom> build(Pom pom, EffectivePom parent, String key) {
+    EffectivePom inherited = new EffectivePom(pom, parent);
+    if (inherited.getImports().isEmpty()) return CompletableFuture.completedFuture(inherited);
+    List<CompletableFuture<EffectivePom>> boms = new ArrayList<>();
+    for (Dependency bom : inherited.getImports())
+      boms.add(buildAsync(bom.groupId, bom.artifactId, bom.version, key));
+    return CompletableFuture.allOf(boms.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            ignored -> {
+              List<EffectivePom> imported = new ArrayList<>(boms.size());
+              for (CompletableFuture<EffectivePom> bom : boms) imported.add(bom.join());
+              return inherited.withImports(imported);
+            });
+  }
+
+  /**
+   * Returns {@code true} if a running build waits for another build, directly or through the
+   * builds it waits for. The caller has to hold the lock of {@link #waitsFor}.
+   *
+   * @param from the coordinates of the waiting build.
+   * @param to the coordinates of the build that may be waited for.
+   * @return {@code true} if {@code from} waits for {@code to}.
+   * @since 0.3.0
+   */
+  private boolean isWaiting(String from, String to) {
+    Set<String> visited = new HashSet<>();
+    Deque<String> pending = new ArrayDeque<>();
+    pending.add(from);
+    for (String current; (current = pending.poll()) != null; ) {
+      if (!visited.add(current)) continue;
+      for (String next : waitsFor.getOrDefault(current, Collections.emptySet())) {
+        if (next.equals(to)) return true;
+        pending.add(next);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the POM of an artifact, requesting it if it is not fetched yet.
+   *
+   * @param groupId the groupId of the artifact.
+   * @param artifactId the artifactId of the artifact.
+   * @param version the version of the artifact.
+   * @return a {@link CompletableFuture} of the {@link Pom}.
+   * @since 0.3.0
+   */
+  private CompletableFuture<Pom> getPom(String groupId, String artifactId, String version) {
+    String key = groupId + ":" + artifactId + ":" + version;
+    CompletableFuture<Pom> future = new CompletableFuture<>();
+    CompletableFuture<Pom> existing = poms.putIfAbsent(key, future);
+    if (existing != null) return existing;
+
+    executor.execute(
+        () -> {
+          try (InputStream inputStream =
+              repository
+                  .withCoordinates(groupId, artifactId)
+                  .getInputStream(ComparableVersion.of(version), "", "pom")) {
+            future.complete(PomParser.parse(inputStream));
+          } catch (IOException | RequestException | XMLStreamException | RuntimeException e) {
+            future.completeExceptionally(e);
+          }
+        });
+    return future;
+  }
+
+  /**
+   * Returns the cause of a {@link CompletionException} as {@link Exception}.
+   *
+   * @param throwable the {@link Throwable} thrown by a {@link CompletableFuture}.
+   * @return the cause.
+   * @since 0.3.0
+   */
+  static Exception unwrap(Throwable throwable) {
+    Throwable cause = throwable;
+    while (cause instanceof CompletionException && cause.getCause() != null)
+      cause = cause.getCause();
+    return cause instanceof Exception ? (Exception) cause : new Exception(cause);
+  }
+}
@@ -0,0 +1,160 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link Pom} represents a POM file as declared, i.e. before inheritance and interpolation.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class Pom {
+
+  /**
+   * The declared groupId or {@code null} if it is inherited from the parent.
+   *
+   * @since 0.3.0
+   */
+  public final String groupId;
+
+  /**
+   * The artifactId.
+   *
+   * @since 0.3.0
+   */
+  public final String artifactId;
+
+  /**
+   * The declared version or {@code null} if it is inherited from the parent.
+   *
+   * @since 0.3.0
+   */
+  public final String version;
+
+  /**
+   * The packaging or {@code null} for the default ({@code jar}).
+   *
+   * @since 0.3.0
+   */
+  public final String packaging;
+
+  /**
+   * The groupId of the parent or {@code null} if there is no parent.
+   *
+   * @since 0.3.0
+   */
+  public final String parentGroupId;
+
+  /**
+   * The artifactId of the parent or {@code null} if there is no parent.
+   *
+   * @since 0.3.0
+   */
+  public final String parentArtifactId;
+
+  /**
+   * The version of the parent or {@code null} if there is no parent.
+   *
+   * @since 0.3.0
+   */
+  public final String parentVersion;
+
+  /**
+   * The declared properties.
+   *
+   * @since 0.3.0
+   */
+  public final Map<String, String> properties;
+
+  /**
+   * The dependencies declared in {@code dependencyManagement}.
+   *
+   * @since 0.3.0
+   */
+  public final List<Dependency> dependencyManagement;
+
+  /**
+   * The declared dependencies.
+   *
+   * @since 0.3.0
+   */
+  public final List<Dependency> dependencies;
+
+  /**
+   * Creates an instance of {@link Pom}.
+   *
+   * @param groupId the declared groupId or {@code null}.
+   * @param artifactId the artifactId.
+   * @param version the declared version or {@code null}.
+   * @param packaging the packaging or {@code null}.
+   * @param parentGroupId the groupId of the parent or {@code null}.
+   * @param parentArtifactId the artifactId of the parent or {@code null}.
+   * @param parentVersion the version of the parent or {@code null}.
+   * @param properties the declared properties.
+   * @param dependencyManagement the dependencies declared in {@code dependencyManagement}.
+   * @param dependencies the declared dependencies.
+   * @since 0.3.0
+   */
+  public Pom(
+      String groupId,
+      String artifactId,
+      String version,
+      String packaging,
+      String parentGroupId,
+      String parentArtifactId,
+      String parentVersion,
+      Map<String, String> properties,
+      List<Dependency> dependencyManagement,
+      List<Dependency> dependencies) {
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.version = version;
+    this.packaging = packaging;
+    this.parentGroupId = parentGroupId;
+    this.parentArtifactId = parentArtifactId;
+    this.parentVersion = parentVersion;
+    this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+    this.dependencyManagement =
+        Collections.unmodifiableList(new ArrayList<>(dependencyManagement));
+    this.dependencies = Collections.unmodifiableList(new ArrayList<>(dependencies));
+  }
+
+  /**
+   * Returns {@code true} if the POM declares a parent.
+   *
+   * @return {@code true} if the POM declares a parent.
+   * @since 0.3.0
+   */
+  public boolean hasParent() {
+    return parentArtifactId != null;
+  }
+
+  @Override
+  public String toString() {
+    return (groupId != null ? groupId : parentGroupId)
+        + ":"
+        + artifactId
+        + ":"
+        + (version != null ? version : parentVersion);
+  }
+}
@@ -0,0 +1,271 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses POM files into {@link Pom}s. Only the elements needed to resolve dependencies are read:
+ * the coordinates, the parent, the properties, the {@code dependencyManagement} and the
+ * project-level {@code dependencies}.
+ *
+ * <p>POMs are read with a streaming parser and no document tree is built. All other elements,
+ * e.g. {@code build}, {@code reporting} or {@code profiles}, are skipped without being retained.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class PomParser {
+
+  /**
+   * The factory used to create the streaming parsers, configured to neither load DTDs nor resolve
+   * external entities.
+   *
+   * @since 0.3.0
+   */
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  /**
+   * Prevents instantiation of this utility class.
+   *
+   * @since 0.3.0
+   */
+  private PomParser() {}
+
+  /**
+   * Parses a POM file.
+   *
+   * @param xml the {@link InputStream} of the POM file.
+   * @return the parsed {@link Pom}.
+   * @throws XMLStreamException if the POM file is not well-formed or cannot be read.
+   * @since 0.3.0
+   */
+  public static Pom parse(InputStream xml) throws XMLStreamException {
+    XMLStreamReader reader = FACTORY.createXMLStreamReader(xml);
+    try {
+      reader.nextTag();
+      if (!reader.getLocalName().equals("project"))
+        throw new XMLStreamException(
+            "Expected <project> but found <" + reader.getLocalName() + ">!", reader.getLocation());
+      return readProject(reader);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Reads the {@code project} element the reader is positioned at.
+   *
+   * @param reader the reader positioned at the start of the {@code project} element.
+   * @return the parsed {@link Pom}.
+   * @throws XMLStreamException if the element cannot be read.
+   * @since 0.3.0
+   */
+  private static Pom readProject(XMLStreamReader reader) throws XMLStreamException {
+    String groupId = null, artifactId = null, version = null, packaging = null;
+    String parentGroupId = null, parentArtifactId = null, parentVersion = null;
+    Map<String, String> properties = new LinkedHashMap<>();
+    List<Dependency> dependencyManagement = new ArrayList<>();
+    List<Dependency> dependencies = new ArrayList<>();
+
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      switch (reader.getLocalName()) {
+        case "groupId":
+          groupId = text(reader);
+          break;
+        case "artifactId":
+          artifactId = text(reader);
+          break;
+        case "version":
+          version = text(reader);
+          break;
+        case "packaging":
+          packaging = text(reader);
+          break;
+        case "parent":
+          while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+              case "groupId":
+                parentGroupId = text(reader);
+                break;
+              case "artifactId":
+                parentArtifactId = text(reader);
+                break;
+              case "version":
+                parentVersion = text(reader);
+                break;
+              default:
+                skip(reader);
+            }
+          }
+          break;
+        case "properties":
+          while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+            properties.put(reader.getLocalName(), text(reader));
+          break;
+        case "dependencyManagement":
+          while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+            if (reader.getLocalName().equals("dependencies"))
+              readDependencies(reader, dependencyManagement);
+            else skip(reader);
+          break;
+        case "dependencies":
+          readDependencies(reader, dependencies);
+          break;
+        default:
+          skip(reader);
+      }
+    }
+    return new Pom(
+        groupId,
+        artifactId,
+        version,
+        packaging,
+        parentGroupId,
+        parentArtifactId,
+        parentVersion,
+        properties,
+        dependencyManagement,
+        dependencies);
+  }
+
+  /**
+   * Reads the {@code dependency} children of the {@code dependencies} element the reader is
+   * positioned at.
+   *
+   * @param reader the reader positioned at the start of a {@code dependencies} element.
+   * @param dependencies the list the dependencies are added to.
+   * @throws XMLStreamException if the element cannot be read.
+   * @since 0.3.0
+   */
+  private static void readDependencies(XMLStreamReader reader, List<Dependency> dependencies)
+      throws XMLStreamException {
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (!reader.getLocalName().equals("dependency")) {
+        skip(reader);
+        continue;
+      }
+      String groupId = null, artifactId = null, version = null, type = null;
+      String classifier = null, scope = null;
+      boolean optional = false;
+      Set<String> exclusions = new LinkedHashSet<>();
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        switch (reader.getLocalName()) {
+          case "groupId":
+            groupId = text(reader);
+            break;
+          case "artifactId":
+            artifactId = text(reader);
+            break;
+          case "version":
+            version = text(reader);
+            break;
+          case "type":
+            type = text(reader);
+            break;
+          case "classifier":
+            classifier = text(reader);
+            break;
+          case "scope":
+            scope = text(reader);
+            break;
+          case "optional":
+            optional = "true".equals(text(reader));
+            break;
+          case "exclusions":
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+              exclusions.add(readExclusion(reader));
+            break;
+          default:
+            skip(reader);
+        }
+      }
+      dependencies.add(
+          new Dependency(
+              groupId, artifactId, version, type, classifier, scope, optional, exclusions));
+    }
+  }
+
+  /**
+   * Reads the {@code exclusion} element the reader is positioned at.
+   *
+   * @param reader the reader positioned at the start of an {@code exclusion} element.
+   * @return the exclusion as {@code groupId:artifactId}.
+   * @throws XMLStreamException if the element cannot be read.
+   * @since 0.3.0
+   */
+  private static String readExclusion(XMLStreamReader reader) throws XMLStreamException {
+    String groupId = null, artifactId = null;
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (reader.getLocalName().equals("groupId")) groupId = text(reader);
+      else if (reader.getLocalName().equals("artifactId")) artifactId = text(reader);
+      else skip(reader);
+    }
+    return groupId + ":" + artifactId;
+  }
+
+  /**
+   * Reads the trimmed text of the text-only element the reader is positioned at.
+   *
+   * @param reader the reader positioned at the start of a text-only element.
+   * @return the trimmed text.
+   * @throws XMLStreamException if the element is not text-only.
+   * @since 0.3.0
+   */
+  private static String text(XMLStreamReader reader) throws XMLStreamException {
+    return reader.getElementText().trim();
+  }
+
+  /**
+   * Skips the element the reader is positioned at, including all of its children.
+   *
+   * @param reader the reader positioned at the start of an element.
+   * @throws XMLStreamException if the element cannot be read.
+   * @since 0.3.0
+   */
+  private static void skip(XMLStreamReader reader) throws XMLStreamException {
+    for (int depth = 1; depth > 0; ) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) depth++;
+      else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+    }
+  }
+
+  /**
+   * Creates the factory used to create the streaming parsers.
+   *
+   * @return the factory.
+   * @since 0.3.0
+   */
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+}
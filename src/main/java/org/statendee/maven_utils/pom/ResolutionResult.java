@@ -0,0 +1,85 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link ResolutionResult} is the outcome of resolving the dependency graph of an artifact.
+ *
+ * <p>Failures below the root do not abort the resolution: the affected subtree is skipped and the
+ * cause is recorded in {@link #failures}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ResolutionResult {
+
+  /**
+   * The resolved dependencies in breadth-first order, excluding the root.
+   *
+   * @since 0.3.0
+   */
+  public final List<ResolvedDependency> dependencies;
+
+  /**
+   * The {@link Exception}s of dependencies that could not be resolved by their coordinates.
+   *
+   * @since 0.3.0
+   */
+  public final Map<String, Exception> failures;
+
+  /**
+   * Creates an instance of {@link ResolutionResult}.
+   *
+   * @param dependencies the resolved dependencies.
+   * @param failures the {@link Exception}s of dependencies that could not be resolved.
+   * @since 0.3.0
+   */
+  public ResolutionResult(List<ResolvedDependency> dependencies, Map<String, Exception> failures) {
+    this.dependencies = Collections.unmodifiableList(dependencies);
+    this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+  }
+
+  /**
+   * Returns {@code true} if every dependency of the graph could be resolved.
+   *
+   * @return {@code true} if every dependency of the graph could be resolved.
+   * @since 0.3.0
+   */
+  public boolean isComplete() {
+    return failures.isEmpty();
+  }
+
+  /**
+   * Returns the resolved dependency with a given groupId and artifactId.
+   *
+   * @param groupId the groupId.
+   * @param artifactId the artifactId.
+   * @return the resolved dependency or {@code null} if it is not part of the graph.
+   * @since 0.3.0
+   */
+  public ResolvedDependency get(String groupId, String artifactId) {
+    for (ResolvedDependency resolved : dependencies)
+      if (resolved.dependency.groupId.equals(groupId)
+          && resolved.dependency.artifactId.equals(artifactId)) return resolved;
+    return null;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import org.statendee.maven_utils.version.ComparableVersion;
+
+/**
+ * A {@link ResolvedDependency} is a node of a resolved dependency graph, i.e. a {@link Dependency}
+ * that won conflict resolution with a concrete version and its effective scope.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ResolvedDependency {
+
+  /**
+   * The dependency with its resolved version and effective scope.
+   *
+   * @since 0.3.0
+   */
+  public final Dependency dependency;
+
+  /**
+   * The resolved version.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion version;
+
+  /**
+   * The distance to the root, {@code 1} for direct dependencies.
+   *
+   * @since 0.3.0
+   */
+  public final int depth;
+
+  /**
+   * The coordinates of the artifact that declared the dependency as {@code
+   * groupId:artifactId:version}.
+   *
+   * @since 0.3.0
+   */
+  public final String declaredBy;
+
+  /**
+   * Creates an instance of {@link ResolvedDependency}.
+   *
+   * @param dependency the dependency with its resolved version and effective scope.
+   * @param version the resolved version.
+   * @param depth the distance to the root.
+   * @param declaredBy the coordinates of the artifact that declared the dependency.
+   * @since 0.3.0
+   */
+  public ResolvedDependency(
+      Dependency dependency, ComparableVersion version, int depth, String declaredBy) {
+    this.dependency = dependency;
+    this.version = version;
+    this.depth = depth;
+    this.declaredBy = declaredBy;
+  }
+
+  /**
+   * Returns the coordinates as {@code groupId:artifactId:version}.
+   *
+   * @return the coordinates.
+   * @since 0.3.0
+   */
+  public String getCoordinates() {
+    return dependency.groupId + ":" + dependency.artifactId + ":" + version;
+  }
+
+  @Override
+  public String toString() {
+    return dependency.getManagementKey() + ":" + version + ":" + dependency.getScope();
+  }
+}
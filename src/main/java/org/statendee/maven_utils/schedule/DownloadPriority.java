@@ -0,0 +1,98 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.schedule;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The priority of a download in a {@link DownloadScheduler}. Queued downloads of a higher priority
+ * are started before those of a lower priority.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public enum DownloadPriority {
+
+  /**
+   * Small or user-facing downloads, e.g. POMs, metadata and checksums.
+   *
+   * @since 0.3.0
+   */
+  INTERACTIVE,
+
+  /**
+   * Downloads without special requirements.
+   *
+   * @since 0.3.0
+   */
+  NORMAL,
+
+  /**
+   * Large downloads that may be delayed, e.g. jars, distributions and sources.
+   *
+   * @since 0.3.0
+   */
+  BULK;
+
+  /**
+   * The size in bytes up to which a file is small enough for {@link #INTERACTIVE}.
+   *
+   * @since 0.3.0
+   */
+  public static final long SMALL_FILE_SIZE = 64 * 1024;
+
+  /**
+   * The extensions of small files.
+   *
+   * @since 0.3.0
+   */
+  private static final Set<String> SMALL_EXTENSIONS =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList("pom", "xml", "md5", "sha1", "sha256", "sha512", "asc", "module")));
+
+  /**
+   * Returns the default priority of a file based on its extension: {@link #INTERACTIVE} for small
+   * files like POMs, metadata, checksums and signatures, otherwise {@link #BULK}.
+   *
+   * @param extension the extension of the file.
+   * @return the default priority of the file.
+   * @since 0.3.0
+   */
+  public static DownloadPriority of(String extension) {
+    int dot = extension.lastIndexOf('.');
+    return SMALL_EXTENSIONS.contains(extension.substring(dot + 1)) ? INTERACTIVE : BULK;
+  }
+
+  /**
+   * Returns the default priority of a file based on its size, e.g. as probed with {@link
+   * org.statendee.maven_utils.MavenArtifact#probe(java.util.Collection, java.util.List)}: {@link
+   * #INTERACTIVE} for files of up to {@link #SMALL_FILE_SIZE} bytes, otherwise the priority of its
+   * extension.
+   *
+   * @param extension the extension of the file.
+   * @param size the size of the file in bytes or {@code -1} if it is unknown.
+   * @return the default priority of the file.
+   * @since 0.3.0
+   */
+  public static DownloadPriority of(String extension, long size) {
+    return size >= 0 && size <= SMALL_FILE_SIZE ? INTERACTIVE : of(extension);
+  }
+}
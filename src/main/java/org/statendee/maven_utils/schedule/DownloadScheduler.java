@@ -0,0 +1,592 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.schedule;
+
+import org.statendee.maven_utils.ArtifactFile;
+import org.statendee.maven_utils.DaemonThreads;
+import org.statendee.maven_utils.DownloadResult;
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.ProbeResult;
+import org.statendee.maven_utils.RequestException;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link DownloadScheduler} runs downloads of one or more repositories with a limited number of
+ * concurrent transfers and a limited bandwidth.
+ *
+ * <p>Submitted downloads wait in a queue ordered by {@link DownloadPriority} and submission order.
+ * With at least two concurrent transfers, one transfer slot is reserved for downloads that are not
+ * {@link DownloadPriority#BULK}, so small or interactive downloads like POMs overtake queued jars
+ * and never wait for a running one. With a single transfer no slot is reserved, so that {@link
+ * DownloadPriority#BULK} downloads can run at all, and other downloads only overtake queued ones.
+ * The bandwidth of all transfers and of all transfers from the same host is limited by {@link
+ * TokenBucket}s.
+ *
+ * <p>The queue depth, the number of running transfers and the time downloads waited in the queue
+ * are exposed as metrics.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class DownloadScheduler implements AutoCloseable {
+
+  /**
+   * The maximum number of concurrent transfers.
+   *
+   * @since 0.3.0
+   */
+  public final int maxConcurrentTransfers;
+
+  /**
+   * The maximum number of concurrent {@link DownloadPriority#BULK} transfers: all but one of
+   * {@link #maxConcurrentTransfers}, but at least one.
+   *
+   * @since 0.3.0
+   */
+  private final int maxBulkTransfers;
+
+  /**
+   * The maximum number of bytes per second per host or {@code 0} for no limit.
+   *
+   * @since 0.3.0
+   */
+  private final long hostBytesPerSecond;
+
+  /**
+   * The bucket that limits the bandwidth of all transfers or {@code null} for no limit.
+   *
+   * @since 0.3.0
+   */
+  private final TokenBucket globalBucket;
+
+  /**
+   * The buckets that limit the bandwidth per host.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, TokenBucket> hostBuckets = new ConcurrentHashMap<>();
+
+  /**
+   * The queued downloads, guarded by {@code this}.
+   *
+   * @since 0.3.0
+   */
+  private final PriorityQueue<Task> queue =
+      new PriorityQueue<>(
+          Comparator.<Task, DownloadPriority>comparing(task -> task.priority)
+              .thenComparingLong(task -> task.sequence));
+
+  /**
+   * The pool that runs the transfers.
+   *
+   * @since 0.3.0
+   */
+  private final ExecutorService executor;
+
+  /**
+   * The number of submitted downloads, used to keep the submission order.
+   *
+   * @since 0.3.0
+   */
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * The number of running transfers, guarded by {@code this}.
+   *
+   * @since 0.3.0
+   */
+  private int active;
+
+  /**
+   * The number of running {@link DownloadPriority#BULK} transfers, guarded by {@code this}.
+   *
+   * @since 0.3.0
+   */
+  private int activeBulk;
+
+  /**
+   * {@code true} once the scheduler was closed, guarded by {@code this}.
+   *
+   * @since 0.3.0
+   */
+  private boolean closed;
+
+  /**
+   * The metrics per priority.
+   *
+   * @since 0.3.0
+   */
+  private final Map<DownloadPriority, Metrics> metrics = new EnumMap<>(DownloadPriority.class);
+
+  /**
+   * Creates an instance of {@link DownloadScheduler}.
+   *
+   * @param maxConcurrentTransfers the maximum number of concurrent transfers, at least two to
+   *     reserve a slot for downloads that are not {@link DownloadPriority#BULK}.
+   * @param globalBytesPerSecond the maximum number of bytes per second of all transfers or {@code
+   *     0} for no limit.
+   * @param hostBytesPerSecond the maximum number of bytes per second of all transfers from the same
+   *     host or {@code 0} for no limit.
+   * @throws IllegalArgumentException if {@code maxConcurrentTransfers} is not positive.
+   * @since 0.3.0
+   */
+  public DownloadScheduler(
+      int maxConcurrentTransfers, long globalBytesPerSecond, long hostBytesPerSecond) {
+    if (maxConcurrentTransfers <= 0)
+      throw new IllegalArgumentException("At least one concurrent transfer is required!");
+    this.maxConcurrentTransfers = maxConcurrentTransfers;
+    this.maxBulkTransfers = Math.max(1, maxConcurrentTransfers - 1);
+    this.hostBytesPerSecond = hostBytesPerSecond;
+    this.globalBucket = globalBytesPerSecond > 0 ? new TokenBucket(globalBytesPerSecond) : null;
+    for (DownloadPriority priority : DownloadPriority.values())
+      metrics.put(priority, new Metrics());
+    this.executor =
+        Executors.newFixedThreadPool(
+            maxConcurrentTransfers, DaemonThreads.factory("download-scheduler"));
+  }
+
+  /**
+   * Queues the download of a file with the default priority of its extension, see {@link
+   * DownloadPriority#of(String)}.
+   *
+   * @param artifact the artifact of the file.
+   * @param version the version of the file.
+   * @param file the classifier and extension of the file.
+   * @param path the path the file should be downloaded to (including the file name).
+   * @return a {@link CompletableFuture} of the {@link DownloadResult}; cancelling it removes a
+   *     queued download.
+   * @since 0.3.0
+   */
+  public CompletableFuture<DownloadResult> download(
+      MavenArtifact artifact, ComparableVersion version, ArtifactFile file, String path) {
+    return download(artifact, version, file, path, DownloadPriority.of(file.extension));
+  }
+
+  /**
+   * Queues the download of a probed file with the default priority of its size, see {@link
+   * DownloadPriority#of(String, long)}. A file that was probed as missing is not queued; its
+   * download fails at once with {@code 404 (Not Found)}.
+   *
+   * @param artifact the artifact of the file.
+   * @param probe the {@link ProbeResult} of the file.
+   * @param path the path the file should be downloaded to (including the file name).
+   * @return a {@link CompletableFuture} of the {@link DownloadResult}; cancelling it removes a
+   *     queued download.
+   * @since 0.3.0
+   */
+  public CompletableFuture<DownloadResult> download(
+      MavenArtifact artifact, ProbeResult probe, String path) {
+    if (probe.isMissing())
+      return CompletableFuture.completedFuture(
+          new DownloadResult(
+              probe.file,
+              Paths.get(path),
+              -1,
+              new RequestException(HttpURLConnection.HTTP_NOT_FOUND)));
+    return download(
+        artifact,
+        probe.version,
+        probe.file,
+        path,
+        DownloadPriority.of(probe.file.extension, probe.contentLength));
+  }
+
+  /**
+   * Queues the download of a file with a priority.
+   *
+   * @param artifact the artifact of the file.
+   * @param version the version of the file.
+   * @param file the classifier and extension of the file.
+   * @param path the path the file should be downloaded to (including the file name).
+   * @param priority the priority of the download.
+   * @return a {@link CompletableFuture} of the {@link DownloadResult}; cancelling it removes a
+   *     queued download.
+   * @since 0.3.0
+   */
+  public CompletableFuture<DownloadResult> download(
+      MavenArtifact artifact,
+      ComparableVersion version,
+      ArtifactFile file,
+      String path,
+      DownloadPriority priority) {
+    Task task = new Task(artifact, version, file, path, priority, sequence.getAndIncrement());
+    synchronized (this) {
+      if (closed) {
+        task.future.cancel(false);
+        return task.future;
+      }
+      queue.add(task);
+      metrics.get(priority).queued.incrementAndGet();
+    }
+    task.future.whenComplete(
+        (result, e) -> {
+          if (task.future.isCancelled()) remove(task);
+        });
+    dispatch();
+    return task.future;
+  }
+
+  /**
+   * Removes a cancelled download from the queue, if it was not started yet.
+   *
+   * @param task the download.
+   * @since 0.3.0
+   */
+  private synchronized void remove(Task task) {
+    if (queue.remove(task)) metrics.get(task.priority).queued.decrementAndGet();
+  }
+
+  /**
+   * Returns the number of queued downloads.
+   *
+   * @return the number of queued downloads.
+   * @since 0.3.0
+   */
+  public synchronized int getQueueDepth() {
+    return queue.size();
+  }
+
+  /**
+   * Returns the number of queued downloads of a priority.
+   *
+   * @param priority the priority.
+   * @return the number of queued downloads of the priority.
+   * @since 0.3.0
+   */
+  public int getQueueDepth(DownloadPriority priority) {
+    return metrics.get(priority).queued.get();
+  }
+
+  /**
+   * Returns the number of running transfers.
+   *
+   * @return the number of running transfers.
+   * @since 0.3.0
+   */
+  public synchronized int getActiveTransfers() {
+    return active;
+  }
+
+  /**
+   * Returns the number of started downloads of a priority.
+   *
+   * @param priority the priority.
+   * @return the number of started downloads of the priority.
+   * @since 0.3.0
+   */
+  public long getStarted(DownloadPriority priority) {
+    return metrics.get(priority).started.get();
+  }
+
+  /**
+   * Returns the average time downloads of a priority waited in the queue.
+   *
+   * @param priority the priority.
+   * @return the average wait or {@link Duration#ZERO} if none was started yet.
+   * @since 0.3.0
+   */
+  public Duration getAverageWait(DownloadPriority priority) {
+    Metrics metrics = this.metrics.get(priority);
+    long started = metrics.started.get();
+    return started == 0 ? Duration.ZERO : Duration.ofNanos(metrics.waitNanos.get() / started);
+  }
+
+  /**
+   * Returns the longest time a download of a priority waited in the queue.
+   *
+   * @param priority the priority.
+   * @return the longest wait or {@link Duration#ZERO} if none was started yet.
+   * @since 0.3.0
+   */
+  public Duration getMaxWait(DownloadPriority priority) {
+    return Duration.ofNanos(metrics.get(priority).maxWaitNanos.get());
+  }
+
+  /**
+   * Cancels all queued downloads and interrupts the running transfers.
+   *
+   * @since 0.3.0
+   */
+  @Override
+  public void close() {
+    List<Task> cancelled;
+    synchronized (this) {
+      closed = true;
+      cancelled = new ArrayList<>(queue);
+      queue.clear();
+      for (Task task : cancelled) metrics.get(task.priority).queued.decrementAndGet();
+    }
+    for (Task task : cancelled) task.future.cancel(false);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Starts queued downloads while transfer slots are free. A {@link DownloadPriority#BULK}
+   * download only starts if a slot stays free for other downloads.
+   *
+   * @since 0.3.0
+   */
+  private void dispatch() {
+    synchronized (this) {
+      while (!closed && active < maxConcurrentTransfers && !queue.isEmpty()) {
+        Task task = queue.peek();
+        if (task.priority == DownloadPriority.BULK && activeBulk >= maxBulkTransfers) return;
+        queue.poll();
+        Metrics metrics = this.metrics.get(task.priority);
+        metrics.queued.decrementAndGet();
+        if (task.future.isDone()) continue;
+
+        long wait = System.nanoTime() - task.submitted;
+        metrics.started.incrementAndGet();
+        metrics.waitNanos.addAndGet(wait);
+        metrics.maxWaitNanos.accumulateAndGet(wait, Math::max);
+        active++;
+        if (task.priority == DownloadPriority.BULK) activeBulk++;
+        executor.execute(() -> run(task));
+      }
+    }
+  }
+
+  /**
+   * Runs a transfer and starts the next queued download afterwards.
+   *
+   * @param task the download.
+   * @since 0.3.0
+   */
+  private void run(Task task) {
+    Path path = Paths.get(task.path);
+    try {
+      long size = transfer(task);
+      task.future.complete(new DownloadResult(task.file, path, size, null));
+    } catch (IOException | RequestException e) {
+      task.future.complete(new DownloadResult(task.file, path, -1, e));
+    } catch (RuntimeException e) {
+      task.future.completeExceptionally(e);
+    } finally {
+      synchronized (this) {
+        active--;
+        if (task.priority == DownloadPriority.BULK) activeBulk--;
+      }
+      dispatch();
+    }
+  }
+
+  /**
+   * Copies a file to its path, throttled by the global bucket and the bucket of its host. The file
+   * is written to a temporary file next to the path first and moved into place once it is
+   * complete, so a failed or interrupted transfer leaves the path untouched.
+   *
+   * @param task the download.
+   * @return the number of copied bytes.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  private long transfer(Task task) throws IOException, RequestException {
+    try (InputStream inputStream =
+        new ThrottledInputStream(
+            task.artifact.getInputStream(task.version, task.file.classifier, task.file.extension),
+            globalBucket,
+            getHostBucket(task.artifact.repository))) {
+      Path target = Paths.get(task.path).toAbsolutePath();
+      Files.createDirectories(target.getParent());
+      Path temporary =
+          Files.createTempFile(target.getParent(), "." + target.getFileName(), ".part");
+      try {
+        long size = Files.copy(inputStream, temporary, StandardCopyOption.REPLACE_EXISTING);
+        try {
+          Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return size;
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(temporary);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Returns the bucket that limits the bandwidth of a host.
+   *
+   * @param repository the URL of the repository.
+   * @return the bucket of the host of the repository or {@code null} for no limit.
+   * @since 0.3.0
+   */
+  private TokenBucket getHostBucket(String repository) {
+    if (hostBytesPerSecond <= 0) return null;
+    String host;
+    try {
+      URL url = new URL(repository);
+      host = url.getHost() + ":" + url.getPort();
+    } catch (MalformedURLException e) {
+      host = repository;
+    }
+    return hostBuckets.computeIfAbsent(host, key -> new TokenBucket(hostBytesPerSecond));
+  }
+
+  /**
+   * The metrics of a priority.
+   *
+   * @since 0.3.0
+   */
+  private static final class Metrics {
+
+    /**
+     * The number of queued downloads.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * The number of started downloads.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicLong started = new AtomicLong();
+
+    /**
+     * The total time started downloads waited in the queue in nanoseconds.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    /**
+     * The longest time a started download waited in the queue in nanoseconds.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+  }
+
+  /**
+   * A queued download.
+   *
+   * @since 0.3.0
+   */
+  private static final class Task {
+
+    /**
+     * The artifact of the file.
+     *
+     * @since 0.3.0
+     */
+    private final MavenArtifact artifact;
+
+    /**
+     * The version of the file.
+     *
+     * @since 0.3.0
+     */
+    private final ComparableVersion version;
+
+    /**
+     * The classifier and extension of the file.
+     *
+     * @since 0.3.0
+     */
+    private final ArtifactFile file;
+
+    /**
+     * The path the file should be downloaded to.
+     *
+     * @since 0.3.0
+     */
+    private final String path;
+
+    /**
+     * The priority of the download.
+     *
+     * @since 0.3.0
+     */
+    private final DownloadPriority priority;
+
+    /**
+     * The submission order of the download.
+     *
+     * @since 0.3.0
+     */
+    private final long sequence;
+
+    /**
+     * The time the download was submitted in nanoseconds.
+     *
+     * @since 0.3.0
+     */
+    private final long submitted = System.nanoTime();
+
+    /**
+     * The result of the download.
+     *
+     * @since 0.3.0
+     */
+    private final CompletableFuture<DownloadResult> future = new CompletableFuture<>();
+
+    /**
+     * Creates an instance of {@link Task}.
+     *
+     * @param artifact the artifact of the file.
+     * @param version the version of the file.
+     * @param file the classifier and extension of the file.
+     * @param path the path the file should be downloaded to.
+     * @param priority the priority of the download.
+     * @param sequence the submission order of the download.
+     * @since 0.3.0
+     */
+    private Task(
+        MavenArtifact artifact,
+        ComparableVersion version,
+        ArtifactFile file,
+        String path,
+        DownloadPriority priority,
+        long sequence) {
+      this.artifact = artifact;
+      this.version = version;
+      this.file = file;
+      this.path = path;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.schedule;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link InputStream} that limits its throughput with one or more {@link TokenBucket}s, one
+ * token per byte.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+final class ThrottledInputStream extends FilterInputStream {
+
+  /**
+   * The maximum number of bytes read at once, so that waits stay short.
+   *
+   * @since 0.3.0
+   */
+  private static final int MAX_READ = 16 * 1024;
+
+  /**
+   * The buckets that limit the throughput, {@code null} entries are ignored.
+   *
+   * @since 0.3.0
+   */
+  private final TokenBucket[] buckets;
+
+  /**
+   * Creates an instance of {@link ThrottledInputStream}.
+   *
+   * @param inputStream the throttled stream.
+   * @param buckets the buckets that limit the throughput, {@code null} entries are ignored.
+   * @since 0.3.0
+   */
+  ThrottledInputStream(InputStream inputStream, TokenBucket... buckets) {
+    super(inputStream);
+    this.buckets = buckets;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int read = super.read();
+    if (read != -1) throttle(1);
+    return read;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    int read = super.read(buffer, offset, Math.min(length, MAX_READ));
+    if (read > 0) throttle(read);
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(Math.min(n, MAX_READ));
+    if (skipped > 0) throttle(skipped);
+    return skipped;
+  }
+
+  /**
+   * Takes tokens for the bytes that were read from all buckets and waits until all of them are
+   * covered.
+   *
+   * @param bytes the number of bytes that were read.
+   * @throws InterruptedIOException if the thread is interrupted while waiting.
+   * @since 0.3.0
+   */
+  private void throttle(long bytes) throws InterruptedIOException {
+    long wait = 0;
+    for (TokenBucket bucket : buckets)
+      if (bucket != null) wait = Math.max(wait, bucket.reserve(bytes));
+    if (wait == 0) return;
+    try {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while throttling a download!");
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.schedule;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TokenBucket} limits the rate of a resource, e.g. the bandwidth in bytes per second.
+ *
+ * <p>Tokens are refilled continuously at the configured rate, up to a burst of a quarter second. A
+ * caller that takes more tokens than available goes into debt and waits until the debt is repaid,
+ * so large and small acquisitions are treated fairly and callers are served in order. A bucket is
+ * safe for concurrent use.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class TokenBucket {
+
+  /**
+   * The rate in tokens per second.
+   *
+   * @since 0.3.0
+   */
+  public final long rate;
+
+  /**
+   * The maximum number of tokens that can be saved up.
+   *
+   * @since 0.3.0
+   */
+  public final long capacity;
+
+  /**
+   * The available tokens, negative if in debt.
+   *
+   * @since 0.3.0
+   */
+  private double tokens;
+
+  /**
+   * The time of the last refill in nanoseconds.
+   *
+   * @since 0.3.0
+   */
+  private long refilled;
+
+  /**
+   * Creates an instance of {@link TokenBucket} that starts full.
+   *
+   * @param rate the rate in tokens per second.
+   * @throws IllegalArgumentException if {@code rate} is not positive.
+   * @since 0.3.0
+   */
+  public TokenBucket(long rate) {
+    if (rate <= 0) throw new IllegalArgumentException("The rate must be positive!");
+    this.rate = rate;
+    this.capacity = Math.max(1, rate / 4);
+    this.tokens = capacity;
+    this.refilled = System.nanoTime();
+  }
+
+  /**
+   * Takes tokens and returns how long the caller has to wait until they are covered.
+   *
+   * @param count the number of tokens.
+   * @return the time to wait in nanoseconds, {@code 0} if the tokens were available.
+   * @since 0.3.0
+   */
+  public synchronized long reserve(long count) {
+    long now = System.nanoTime();
+    double refill = (now - refilled) * (double) rate / TimeUnit.SECONDS.toNanos(1);
+    tokens = Math.min(capacity, tokens + refill);
+    refilled = now;
+    tokens -= count;
+    return tokens >= 0 ? 0 : (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / rate);
+  }
+
+  /**
+   * Takes tokens and waits until they are covered.
+   *
+   * @param count the number of tokens.
+   * @throws InterruptedException if the thread is interrupted while waiting.
+   * @since 0.3.0
+   */
+  public void acquire(long count) throws InterruptedException {
+    long wait = reserve(count);
+    if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+  }
+}
@@ -0,0 +1,275 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.stream;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Adapts {@link Publisher}s to {@code java.util.concurrent.Flow.Publisher} on Java 9 or newer.
+ *
+ * <p>This library targets Java 8, so the {@code Flow} interfaces are bound at runtime. The
+ * returned object implements {@code Flow.Publisher} and can be cast to it:
+ *
+ * <pre>{@code
+ * Flow.Publisher<ByteBuffer> flow = (Flow.Publisher<ByteBuffer>) FlowAdapters.toFlowPublisher(p);
+ * }</pre>
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class FlowAdapters {
+
+  /**
+   * Creates no instance of {@link FlowAdapters}.
+   *
+   * @since 0.3.0
+   */
+  private FlowAdapters() {}
+
+  /**
+   * Returns {@code true} if {@code java.util.concurrent.Flow} is available, i.e. on Java 9 or
+   * newer.
+   *
+   * @return {@code true} if {@code java.util.concurrent.Flow} is available.
+   * @since 0.3.0
+   */
+  public static boolean isFlowAvailable() {
+    try {
+      return Flow.PUBLISHER != null;
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns a {@code java.util.concurrent.Flow.Publisher} that subscribes its {@code
+   * Flow.Subscriber}s to a {@link Publisher}.
+   *
+   * @param publisher the {@link Publisher} to adapt.
+   * @return the {@code Flow.Publisher}.
+   * @throws UnsupportedOperationException if {@code java.util.concurrent.Flow} is not available.
+   * @since 0.3.0
+   */
+  public static Object toFlowPublisher(Publisher<?> publisher) {
+    if (!isFlowAvailable())
+      throw new UnsupportedOperationException("java.util.concurrent.Flow requires Java 9!");
+    return proxy(
+        Flow.PUBLISHER,
+        publisher,
+        (method, args) -> {
+          Object flowSubscriber = args[0];
+          publisher.subscribe(new FlowSubscriber<>(flowSubscriber));
+          return null;
+        });
+  }
+
+  /**
+   * Creates a proxy that implements a {@code Flow} interface. Calls of the methods of {@link
+   * Object} are answered by the proxy itself.
+   *
+   * @param type the {@code Flow} interface.
+   * @param delegate the adapted object, used for {@link Object#toString()}.
+   * @param handler the handler of the methods of the interface.
+   * @return the proxy.
+   * @since 0.3.0
+   */
+  private static Object proxy(Class<?> type, Object delegate, Handler handler) {
+    InvocationHandler invocationHandler =
+        (proxy, method, args) -> {
+          if (method.getDeclaringClass() != Object.class) return handler.invoke(method, args);
+          switch (method.getName()) {
+            case "equals":
+              return proxy == args[0];
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            default:
+              return type.getSimpleName() + "(" + delegate + ")";
+          }
+        };
+    return Proxy.newProxyInstance(
+        FlowAdapters.class.getClassLoader(), new Class<?>[] {type}, invocationHandler);
+  }
+
+  /**
+   * Calls a method of a {@code Flow} object, rethrowing exceptions thrown by the method.
+   *
+   * @param method the method.
+   * @param target the {@code Flow} object.
+   * @param args the arguments.
+   * @since 0.3.0
+   */
+  private static void call(Method method, Object target, Object... args) {
+    try {
+      method.invoke(target, args);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error) throw (Error) e.getCause();
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Handles the calls of the methods of a {@code Flow} interface.
+   *
+   * @since 0.3.0
+   */
+  @FunctionalInterface
+  private interface Handler {
+
+    /**
+     * Handles a call.
+     *
+     * @param method the called method.
+     * @param args the arguments.
+     * @return the result of the call.
+     * @since 0.3.0
+     */
+    Object invoke(Method method, Object[] args);
+  }
+
+  /**
+   * A {@link Subscriber} that forwards all signals to a {@code Flow.Subscriber}.
+   *
+   * @param <T> the type of the received items.
+   * @since 0.3.0
+   */
+  private static final class FlowSubscriber<T> implements Subscriber<T> {
+
+    /**
+     * The {@code Flow.Subscriber}.
+     *
+     * @since 0.3.0
+     */
+    private final Object flowSubscriber;
+
+    /**
+     * Creates an instance of {@link FlowSubscriber}.
+     *
+     * @param flowSubscriber the {@code Flow.Subscriber}.
+     * @since 0.3.0
+     */
+    private FlowSubscriber(Object flowSubscriber) {
+      this.flowSubscriber = flowSubscriber;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      Object flowSubscription =
+          proxy(
+              Flow.SUBSCRIPTION,
+              subscription,
+              (method, args) -> {
+                if (method.getName().equals("request")) subscription.request((Long) args[0]);
+                else subscription.cancel();
+                return null;
+              });
+      call(Flow.ON_SUBSCRIBE, flowSubscriber, flowSubscription);
+    }
+
+    @Override
+    public void onNext(T item) {
+      call(Flow.ON_NEXT, flowSubscriber, item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      call(Flow.ON_ERROR, flowSubscriber, throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      call(Flow.ON_COMPLETE, flowSubscriber);
+    }
+  }
+
+  /**
+   * The {@code Flow} interfaces and methods, loaded on first use.
+   *
+   * @since 0.3.0
+   */
+  private static final class Flow {
+
+    /**
+     * {@code Flow.Publisher} or {@code null} if it is not available.
+     *
+     * @since 0.3.0
+     */
+    private static final Class<?> PUBLISHER;
+
+    /**
+     * {@code Flow.Subscription} or {@code null} if it is not available.
+     *
+     * @since 0.3.0
+     */
+    private static final Class<?> SUBSCRIPTION;
+
+    /**
+     * {@code Flow.Subscriber#onSubscribe(Flow.Subscription)}.
+     *
+     * @since 0.3.0
+     */
+    private static final Method ON_SUBSCRIBE;
+
+    /**
+     * {@code Flow.Subscriber#onNext(Object)}.
+     *
+     * @since 0.3.0
+     */
+    private static final Method ON_NEXT;
+
+    /**
+     * {@code Flow.Subscriber#onError(Throwable)}.
+     *
+     * @since 0.3.0
+     */
+    private static final Method ON_ERROR;
+
+    /**
+     * {@code Flow.Subscriber#onComplete()}.
+     *
+     * @since 0.3.0
+     */
+    private static final Method ON_COMPLETE;
+
+    static {
+      Class<?> publisher = null, subscription = null;
+      Method onSubscribe = null, onNext = null, onError = null, onComplete = null;
+      try {
+        publisher = Class.forName("java.util.concurrent.Flow$Publisher");
+        subscription = Class.forName("java.util.concurrent.Flow$Subscription");
+        Class<?> subscriber = Class.forName("java.util.concurrent.Flow$Subscriber");
+        onSubscribe = subscriber.getMethod("onSubscribe", subscription);
+        onNext = subscriber.getMethod("onNext", Object.class);
+        onError = subscriber.getMethod("onError", Throwable.class);
+        onComplete = subscriber.getMethod("onComplete");
+      } catch (ClassNotFoundException | NoSuchMethodException e) {
+        publisher = null;
+      }
+      PUBLISHER = publisher;
+      SUBSCRIPTION = subscription;
+      ON_SUBSCRIBE = onSubscribe;
+      ON_NEXT = onNext;
+      ON_ERROR = onError;
+      ON_COMPLETE = onComplete;
+    }
+  }
+}
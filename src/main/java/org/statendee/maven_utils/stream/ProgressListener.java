@@ -0,0 +1,37 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.stream;
+
+/**
+ * A {@link ProgressListener} is notified about the progress of a download.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+  /**
+   * Called once the download started and after each received chunk, in the thread that reads the
+   * download.
+   *
+   * @param transferred the number of bytes received so far.
+   * @param total the size of the file in bytes or {@code -1} if it is unknown.
+   * @since 0.3.0
+   */
+  void onProgress(long transferred, long total);
+}
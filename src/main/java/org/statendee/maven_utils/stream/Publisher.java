@@ -0,0 +1,43 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.stream;
+
+/**
+ * A {@link Publisher} produces items that are consumed by a {@link Subscriber} according to its
+ * demand.
+ *
+ * <p>This is the Java 8 equivalent of {@code java.util.concurrent.Flow.Publisher} and follows the
+ * same rules. A {@link Publisher} can be exposed as a {@code Flow.Publisher} on Java 9 or newer
+ * with {@link FlowAdapters#toFlowPublisher(Publisher)}.
+ *
+ * @param <T> the type of the published items.
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+@FunctionalInterface
+public interface Publisher<T> {
+
+  /**
+   * Adds a {@link Subscriber}. The subscriber receives a {@link Subscription} via {@link
+   * Subscriber#onSubscribe(Subscription)}, or an error via {@link Subscriber#onError(Throwable)} if
+   * it cannot be subscribed.
+   *
+   * @param subscriber the subscriber.
+   * @since 0.3.0
+   */
+  void subscribe(Subscriber<? super T> subscriber);
+}
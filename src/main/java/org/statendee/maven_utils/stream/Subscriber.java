@@ -0,0 +1,62 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.stream;
+
+/**
+ * A {@link Subscriber} receives the items of a {@link Publisher} it requested via its {@link
+ * Subscription}.
+ *
+ * <p>This is the Java 8 equivalent of {@code java.util.concurrent.Flow.Subscriber}. Its methods
+ * are called sequentially, never concurrently.
+ *
+ * @param <T> the type of the received items.
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public interface Subscriber<T> {
+
+  /**
+   * Called once before any other method with the {@link Subscription} of this subscriber.
+   *
+   * @param subscription the subscription, used to request items or to cancel.
+   * @since 0.3.0
+   */
+  void onSubscribe(Subscription subscription);
+
+  /**
+   * Called with the next item, at most as often as items were requested.
+   *
+   * @param item the item.
+   * @since 0.3.0
+   */
+  void onNext(T item);
+
+  /**
+   * Called once if the publisher failed. No other method is called afterwards.
+   *
+   * @param throwable the cause of the failure.
+   * @since 0.3.0
+   */
+  void onError(Throwable throwable);
+
+  /**
+   * Called once after the last item. No other method is called afterwards.
+   *
+   * @since 0.3.0
+   */
+  void onComplete();
+}
@@ -0,0 +1,45 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.stream;
+
+/**
+ * A {@link Subscription} links a {@link Publisher} and a {@link Subscriber}.
+ *
+ * <p>This is the Java 8 equivalent of {@code java.util.concurrent.Flow.Subscription}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public interface Subscription {
+
+  /**
+   * Requests {@code n} more items. Requests accumulate; a non-positive {@code n} cancels the
+   * subscription with an {@link IllegalArgumentException}.
+   *
+   * @param n the number of additional items.
+   * @since 0.3.0
+   */
+  void request(long n);
+
+  /**
+   * Stops the delivery of items and releases the resources of the subscription. Items may still
+   * arrive for a short time.
+   *
+   * @since 0.3.0
+   */
+  void cancel();
+}
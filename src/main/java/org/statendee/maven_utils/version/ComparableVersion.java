@@ -19,12 +19,75 @@ package org.statendee.maven_utils.version;
  * A custom implementation of {@link org.apache.maven.artifact.versioning.ComparableVersion} that
  * simplifies the analysis and comparison of {@code SNAPSHOT}-versions.
  *
+ * <p>Instances should be treated as immutable: {@link #parseVersion(String)} must not be called on
+ * them, as instances returned by {@link #of(String)} are shared.
+ *
  * @author jojomatik
- * @version 0.1.0
+ * @version 0.3.0
  * @since 0.1.0
  */
 public class ComparableVersion extends org.apache.maven.artifact.versioning.ComparableVersion {
 
+  /**
+   * The maximum number of canonical instances kept by {@link #of(String)}.
+   *
+   * @since 0.3.0
+   */
+  private static final int CACHE_SIZE = 8192;
+
+  /**
+   * The cache that holds the canonical instances returned by {@link #of(String)}.
+   *
+   * @since 0.3.0
+   */
+  private static final ComparableVersionCache CACHE = new ComparableVersionCache(CACHE_SIZE);
+
+  /**
+   * The number of bits used for each of the major, minor and patch version in {@link
+   * #sortKeyHigh}.
+   *
+   * @since 0.3.0
+   */
+  private static final int COMPONENT_BITS = 21;
+
+  /**
+   * The number of bits used for the build number in {@link #sortKeyLow}.
+   *
+   * @since 0.3.0
+   */
+  private static final int BUILD_NUMBER_BITS = 16;
+
+  /**
+   * The value of {@link #sortKeyLow} for release versions, which are higher than any {@code
+   * SNAPSHOT}-build of the same version.
+   *
+   * @since 0.3.0
+   */
+  private static final long RELEASE_SORT_KEY = Long.MAX_VALUE;
+
+  /**
+   * {@code true} if the version has a common shape and {@link #sortKeyHigh} and {@link
+   * #sortKeyLow} are set.
+   *
+   * @since 0.3.0
+   */
+  private final boolean hasSortKey;
+
+  /**
+   * The packed major, minor and patch version.
+   *
+   * @since 0.3.0
+   */
+  private final long sortKeyHigh;
+
+  /**
+   * The packed {@code SNAPSHOT}-timestamp and build number, {@code 0} for {@code SNAPSHOT}-versions
+   * without build info and {@link #RELEASE_SORT_KEY} for release versions.
+   *
+   * @since 0.3.0
+   */
+  private final long sortKeyLow;
+
   /**
    * Creates an instance of {@link ComparableVersion} based on the version-{@link String}.
    *
@@ -33,6 +96,60 @@ public class ComparableVersion extends org.apache.maven.artifact.versioning.Comp
    */
   public ComparableVersion(String version) {
     super(version);
+    long[] sortKey = packSortKey(version);
+    this.hasSortKey = sortKey != null;
+    this.sortKeyHigh = hasSortKey ? sortKey[0] : 0;
+    this.sortKeyLow = hasSortKey ? sortKey[1] : 0;
+  }
+
+  /**
+   * Returns a canonical {@link ComparableVersion} for the version-{@link String}.
+   *
+   * <p>Equal version-{@link String}s return the same instance as long as it has not been evicted
+   * from the bounded cache, so each version-{@link String} is usually only parsed once.
+   *
+   * @param version the version string.
+   * @return the canonical {@link ComparableVersion} for the version string.
+   * @since 0.3.0
+   */
+  public static ComparableVersion of(String version) {
+    return CACHE.get(version);
+  }
+
+  /**
+   * Returns {@code true} if the version has a primitive sort key.
+   *
+   * <p>Versions of the shape {@code major[.minor[.patch]]}, optionally followed by {@code
+   * -SNAPSHOT} and a build timestamp ({@code yyyyMMdd.HHmmss}) and build number, have a sort key,
+   * given that no number exceeds the space reserved for it. Comparing two versions with sort keys
+   * only compares {@link #getSortKeyHigh()} and {@link #getSortKeyLow()}.
+   *
+   * @return {@code true} if the version has a primitive sort key.
+   * @since 0.3.0
+   */
+  public boolean hasSortKey() {
+    return hasSortKey;
+  }
+
+  /**
+   * Returns the high part of the sort key containing the major, minor and patch version.
+   *
+   * @return the high part of the sort key or {@code 0} if the version has no sort key.
+   * @since 0.3.0
+   */
+  public long getSortKeyHigh() {
+    return sortKeyHigh;
+  }
+
+  /**
+   * Returns the low part of the sort key containing the {@code SNAPSHOT}-timestamp and build
+   * number.
+   *
+   * @return the low part of the sort key or {@code 0} if the version has no sort key.
+   * @since 0.3.0
+   */
+  public long getSortKeyLow() {
+    return sortKeyLow;
   }
 
   /**
@@ -91,7 +208,7 @@ public class ComparableVersion extends org.apache.maven.artifact.versioning.Comp
    * @since 0.1.0
    */
   public ComparableVersion getVersionWithoutBuildInfo() {
-    return this.isSnapshot() ? new ComparableVersion(getSplitVersion()[0] + "-SNAPSHOT") : this;
+    return this.isSnapshot() ? of(getSplitVersion()[0] + "-SNAPSHOT") : this;
   }
 
   /**
@@ -108,9 +225,29 @@ public class ComparableVersion extends org.apache.maven.artifact.versioning.Comp
    * @since 0.1.0
    */
   public int compareTo(ComparableVersion compare) {
+    if (this.hasSortKey && compare.hasSortKey) {
+      int result = Long.compare(this.sortKeyHigh, compare.sortKeyHigh);
+      if (result != 0) return result;
+      // Build numbers are ignored, see above.
+      return Long.compare(
+          this.sortKeyLow >> BUILD_NUMBER_BITS, compare.sortKeyLow >> BUILD_NUMBER_BITS);
+    }
+    return compareWithoutSortKey(compare);
+  }
+
+  /**
+   * Compares two {@link ComparableVersion}s like {@link #compareTo(ComparableVersion)}, without
+   * using their sort keys.
+   *
+   * @param compare the version to compare this {@link ComparableVersion} to.
+   * @return {@code -1}, if this {@link ComparableVersion} is lower than {@code compare}, {@code 0}
+   *     if they equal each other and {@code 1} if this {@link ComparableVersion} is higher.
+   * @since 0.3.0
+   */
+  int compareWithoutSortKey(ComparableVersion compare) {
     if (this.isSnapshot() && compare.isSnapshot()) {
-      ComparableVersion versionA = new ComparableVersion(this.getSplitVersion()[0]);
-      ComparableVersion versionB = new ComparableVersion(compare.getSplitVersion()[0]);
+      ComparableVersion versionA = of(this.getSplitVersion()[0]);
+      ComparableVersion versionB = of(compare.getSplitVersion()[0]);
       try {
         if (versionA.compareTo(versionB) == 0 && getTimestamp().equals(compare.getTimestamp()))
           return 0;
@@ -120,4 +257,91 @@ public class ComparableVersion extends org.apache.maven.artifact.versioning.Comp
 
     return super.compareTo(compare);
   }
+
+  /**
+   * Compares two {@link ComparableVersion}s in the natural order of maven, i.e. {@code
+   * SNAPSHOT}-builds with the same timestamp are ordered by their build number.
+   *
+   * <p>Only the sort keys are compared, if both versions have one.
+   *
+   * @param a the first version.
+   * @param b the second version.
+   * @return a negative integer, zero, or a positive integer as {@code a} is lower than, equal to,
+   *     or higher than {@code b}.
+   * @since 0.3.0
+   */
+  static int compareNatural(ComparableVersion a, ComparableVersion b) {
+    if (a.hasSortKey && b.hasSortKey) {
+      int result = Long.compare(a.sortKeyHigh, b.sortKeyHigh);
+      return result != 0 ? result : Long.compare(a.sortKeyLow, b.sortKeyLow);
+    }
+    return a.compareTo((org.apache.maven.artifact.versioning.ComparableVersion) b);
+  }
+
+  /**
+   * Packs a version-{@link String} of a common shape into a primitive sort key.
+   *
+   * @param version the version string.
+   * @return the high and low part of the sort key or {@code null} if the version has no common
+   *     shape.
+   * @since 0.3.0
+   */
+  private static long[] packSortKey(String version) {
+    int length = version.length();
+    long high = 0;
+    int index = 0;
+    for (int component = 0; component < 3; component++) {
+      int start = index;
+      long number = 0;
+      while (index < length && isDigit(version.charAt(index))) {
+        number = number * 10 + (version.charAt(index++) - '0');
+        if (number >= 1L << COMPONENT_BITS) return null;
+      }
+      if (index == start) return null;
+      high |= number << (COMPONENT_BITS * (2 - component));
+      if (index == length || version.charAt(index) != '.') break;
+      index++;
+    }
+    if (index == length) return new long[] {high, RELEASE_SORT_KEY};
+    if (!version.startsWith("-SNAPSHOT", index)) return null;
+    index += "-SNAPSHOT".length();
+    if (index == length) return new long[] {high, 0};
+
+    // Timestamp in the form of `-yyyyMMdd.HHmmss`.
+    if (version.charAt(index++) != '-' || length < index + 10) return null;
+    long date = 0;
+    for (int end = index + 8; index < end; index++) {
+      if (!isDigit(version.charAt(index))) return null;
+      date = date * 10 + (version.charAt(index) - '0');
+    }
+    if (version.charAt(index++) != '.') return null;
+    int start = index;
+    long time = 0;
+    while (index < length && isDigit(version.charAt(index)) && index - start < 6)
+      time = time * 10 + (version.charAt(index++) - '0');
+    if (index == start) return null;
+
+    // Optional build number.
+    long buildNumber = 0;
+    if (index < length) {
+      if (version.charAt(index++) != '-' || index == length) return null;
+      while (index < length) {
+        if (!isDigit(version.charAt(index))) return null;
+        buildNumber = buildNumber * 10 + (version.charAt(index++) - '0');
+        if (buildNumber >= 1L << BUILD_NUMBER_BITS) return null;
+      }
+    }
+    return new long[] {high, ((date * 1_000_000 + time) << BUILD_NUMBER_BITS) | buildNumber};
+  }
+
+  /**
+   * Returns {@code true} if the character is an ASCII digit.
+   *
+   * @param c the character.
+   * @return {@code true} if the character is an ASCII digit.
+   * @since 0.3.0
+   */
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
 }
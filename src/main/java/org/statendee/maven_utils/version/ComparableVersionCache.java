@@ -0,0 +1,127 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.version;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread-safe cache that maps version-{@link String}s to canonical {@link
+ * ComparableVersion} instances.
+ *
+ * <p>The cache is split into segments that are locked independently, each of them evicting its
+ * least recently used entry once it is full.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+final class ComparableVersionCache {
+
+  /**
+   * The number of independently locked segments. Must be a power of two.
+   *
+   * @since 0.3.0
+   */
+  private static final int SEGMENT_COUNT = 16;
+
+  /**
+   * The segments of the cache.
+   *
+   * @since 0.3.0
+   */
+  private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+  /**
+   * Creates an instance of {@link ComparableVersionCache} that holds at most {@code maximumSize}
+   * versions.
+   *
+   * @param maximumSize the maximum number of cached versions.
+   * @since 0.3.0
+   */
+  ComparableVersionCache(int maximumSize) {
+    int segmentSize = Math.max(1, maximumSize / SEGMENT_COUNT);
+    for (int i = 0; i < SEGMENT_COUNT; i++) segments[i] = new Segment(segmentSize);
+  }
+
+  /**
+   * Returns the canonical {@link ComparableVersion} for a version-{@link String}, parsing and
+   * caching it if it is not cached yet.
+   *
+   * @param version the version string.
+   * @return the canonical {@link ComparableVersion} for the version string.
+   * @since 0.3.0
+   */
+  ComparableVersion get(String version) {
+    int hash = version.hashCode();
+    Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+    synchronized (segment) {
+      ComparableVersion comparableVersion = segment.get(version);
+      if (comparableVersion == null) {
+        comparableVersion = new ComparableVersion(version);
+        segment.put(version, comparableVersion);
+      }
+      return comparableVersion;
+    }
+  }
+
+  /**
+   * Returns the number of currently cached versions.
+   *
+   * @return the number of currently cached versions.
+   * @since 0.3.0
+   */
+  int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * A segment of the cache, evicting its least recently used entry if it exceeds its capacity.
+   *
+   * @since 0.3.0
+   */
+  private static final class Segment extends LinkedHashMap<String, ComparableVersion> {
+
+    /**
+     * The maximum number of entries in this segment.
+     *
+     * @since 0.3.0
+     */
+    private final int capacity;
+
+    /**
+     * Creates an instance of {@link Segment} with the given capacity.
+     *
+     * @param capacity the maximum number of entries in this segment.
+     * @since 0.3.0
+     */
+    private Segment(int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, ComparableVersion> eldest) {
+      return size() > capacity;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.version;
+
+/**
+ * An {@link Exception} that is thrown if a version range specification cannot be parsed.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class InvalidVersionRangeException extends Exception {
+
+  /**
+   * Creates an instance of {@link InvalidVersionRangeException} based on the specification that
+   * caused it and the reason.
+   *
+   * @param spec the version range specification that caused the {@link
+   *     InvalidVersionRangeException}.
+   * @param reason the reason why the specification is invalid.
+   * @since 0.3.0
+   */
+  public InvalidVersionRangeException(String spec, String reason) {
+    super("Version range " + spec + " is invalid: " + reason + "!");
+  }
+}
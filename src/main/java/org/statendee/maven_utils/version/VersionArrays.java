@@ -0,0 +1,137 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.version;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Utilities to sort, search and deduplicate arrays of {@link ComparableVersion}s.
+ *
+ * <p>All methods use the natural order of maven, i.e. {@code SNAPSHOT}-builds with the same
+ * timestamp are ordered by their build number. Versions with a sort key (see {@link
+ * ComparableVersion#hasSortKey()}) are compared by their primitive keys only, all other versions
+ * fall back to the full comparison of maven.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class VersionArrays {
+
+  /**
+   * A {@link Comparator} that orders {@link ComparableVersion}s in the natural order of maven.
+   *
+   * @since 0.3.0
+   */
+  public static final Comparator<ComparableVersion> NATURAL_ORDER =
+      ComparableVersion::compareNatural;
+
+  /**
+   * Prevents instantiation of this utility class.
+   *
+   * @since 0.3.0
+   */
+  private VersionArrays() {}
+
+  /**
+   * Sorts an array of versions in ascending order.
+   *
+   * @param versions the versions to sort.
+   * @since 0.3.0
+   */
+  public static void sort(ComparableVersion[] versions) {
+    Arrays.sort(versions, NATURAL_ORDER);
+  }
+
+  /**
+   * Sorts an array of versions in ascending order using the common fork-join pool.
+   *
+   * @param versions the versions to sort.
+   * @since 0.3.0
+   */
+  public static void parallelSort(ComparableVersion[] versions) {
+    Arrays.parallelSort(versions, NATURAL_ORDER);
+  }
+
+  /**
+   * Searches a sorted array of versions for a version.
+   *
+   * @param sorted the sorted versions.
+   * @param key the version to search for.
+   * @return the index of the version, if it is contained in the array, otherwise {@code
+   *     (-(insertion point) - 1)} as in {@link Arrays#binarySearch(Object[], Object)}.
+   * @since 0.3.0
+   */
+  public static int binarySearch(ComparableVersion[] sorted, ComparableVersion key) {
+    return binarySearch(sorted, 0, sorted.length, key);
+  }
+
+  /**
+   * Searches a range of a sorted array of versions for a version.
+   *
+   * @param sorted the sorted versions.
+   * @param fromIndex the index of the first element (inclusive) to be searched.
+   * @param toIndex the index of the last element (exclusive) to be searched.
+   * @param key the version to search for.
+   * @return the index of the version, if it is contained in the range, otherwise {@code
+   *     (-(insertion point) - 1)} as in {@link Arrays#binarySearch(Object[], Object)}.
+   * @since 0.3.0
+   */
+  public static int binarySearch(
+      ComparableVersion[] sorted, int fromIndex, int toIndex, ComparableVersion key) {
+    return Arrays.binarySearch(sorted, fromIndex, toIndex, key, NATURAL_ORDER);
+  }
+
+  /**
+   * Returns the index of the first version in a sorted array that is higher than or equal to
+   * {@code key} (or higher than {@code key} if {@code inclusive} is {@code false}).
+   *
+   * @param sorted the sorted versions.
+   * @param key the version to search for.
+   * @param inclusive {@code true} if a version equal to {@code key} should be included.
+   * @return the index of the first matching version or {@code sorted.length} if there is none.
+   * @since 0.3.0
+   */
+  public static int lowerBound(
+      ComparableVersion[] sorted, ComparableVersion key, boolean inclusive) {
+    int low = 0, high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      int result = NATURAL_ORDER.compare(sorted[mid], key);
+      if (result < 0 || (result == 0 && !inclusive)) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * Returns a sorted copy of a sorted array of versions with duplicates removed.
+   *
+   * @param sorted the sorted versions.
+   * @return the distinct versions in ascending order.
+   * @since 0.3.0
+   */
+  public static ComparableVersion[] distinct(ComparableVersion[] sorted) {
+    if (sorted.length == 0) return sorted.clone();
+    ComparableVersion[] result = new ComparableVersion[sorted.length];
+    int size = 0;
+    result[size++] = sorted[0];
+    for (int i = 1; i < sorted.length; i++)
+      if (NATURAL_ORDER.compare(result[size - 1], sorted[i]) != 0) result[size++] = sorted[i];
+    return Arrays.copyOf(result, size);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.version;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, sorted index of versions that answers range queries with binary searches.
+ *
+ * <p>The index is meant to be built once per fetch of a {@code maven-metadata.xml} file and then
+ * be queried many times, e.g. for the highest non-{@code SNAPSHOT}-version in {@code [1.4,2.0)}:
+ *
+ * <pre>{@code
+ * index.getHighest(VersionRange.parse("[1.4,2.0)"), VersionIndex.RELEASES);
+ * }</pre>
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class VersionIndex {
+
+  /**
+   * A {@link Predicate} that only accepts non-{@code SNAPSHOT}-versions.
+   *
+   * @since 0.3.0
+   */
+  public static final Predicate<ComparableVersion> RELEASES = version -> !version.isSnapshot();
+
+  /**
+   * A {@link Predicate} that accepts every version.
+   *
+   * @since 0.3.0
+   */
+  public static final Predicate<ComparableVersion> ANY = version -> true;
+
+  /**
+   * The distinct versions in ascending order.
+   *
+   * @since 0.3.0
+   */
+  private final ComparableVersion[] versions;
+
+  /**
+   * Creates an instance of {@link VersionIndex} based on a sorted array of distinct versions.
+   *
+   * @param versions the distinct versions in ascending order.
+   * @since 0.3.0
+   */
+  private VersionIndex(ComparableVersion[] versions) {
+    this.versions = versions;
+  }
+
+  /**
+   * Creates an instance of {@link VersionIndex} containing the given versions.
+   *
+   * @param versions the versions, in any order and possibly containing duplicates.
+   * @return the {@link VersionIndex} containing the given versions.
+   * @since 0.3.0
+   */
+  public static VersionIndex of(Collection<ComparableVersion> versions) {
+    ComparableVersion[] sorted = versions.toArray(new ComparableVersion[0]);
+    VersionArrays.sort(sorted);
+    return new VersionIndex(VersionArrays.distinct(sorted));
+  }
+
+  /**
+   * Returns the number of versions in this index.
+   *
+   * @return the number of versions in this index.
+   * @since 0.3.0
+   */
+  public int size() {
+    return versions.length;
+  }
+
+  /**
+   * Returns all versions in ascending order.
+   *
+   * @return all versions in ascending order.
+   * @since 0.3.0
+   */
+  public List<ComparableVersion> getVersions() {
+    return Collections.unmodifiableList(Arrays.asList(versions));
+  }
+
+  /**
+   * Returns {@code true} if this index contains the version.
+   *
+   * @param version the version to look for.
+   * @return {@code true} if this index contains the version.
+   * @since 0.3.0
+   */
+  public boolean contains(ComparableVersion version) {
+    return VersionArrays.binarySearch(versions, version) >= 0;
+  }
+
+  /**
+   * Returns the highest version in the range that matches the filter.
+   *
+   * @param range the range the version has to be contained in.
+   * @param filter the filter the version has to match, e.g. {@link #RELEASES}.
+   * @return the highest matching version or {@code null} if there is none.
+   * @since 0.3.0
+   */
+  public ComparableVersion getHighest(VersionRange range, Predicate<ComparableVersion> filter) {
+    List<VersionRange.Restriction> restrictions = range.getRestrictions();
+    for (int r = restrictions.size() - 1; r >= 0; r--) {
+      VersionRange.Restriction restriction = restrictions.get(r);
+      int start = lowerIndex(restriction);
+      for (int i = upperIndex(restriction) - 1; i >= start; i--)
+        if (filter.test(versions[i])) return versions[i];
+    }
+    return null;
+  }
+
+  /**
+   * Returns the lowest version in the range that matches the filter.
+   *
+   * @param range the range the version has to be contained in.
+   * @param filter the filter the version has to match, e.g. {@link #RELEASES}.
+   * @return the lowest matching version or {@code null} if there is none.
+   * @since 0.3.0
+   */
+  public ComparableVersion getLowest(VersionRange range, Predicate<ComparableVersion> filter) {
+    for (VersionRange.Restriction restriction : range.getRestrictions()) {
+      int end = upperIndex(restriction);
+      for (int i = lowerIndex(restriction); i < end; i++)
+        if (filter.test(versions[i])) return versions[i];
+    }
+    return null;
+  }
+
+  /**
+   * Returns all versions in the range that match the filter in ascending order.
+   *
+   * @param range the range the versions have to be contained in.
+   * @param filter the filter the versions have to match, e.g. {@link #RELEASES}.
+   * @return all matching versions in ascending order.
+   * @since 0.3.0
+   */
+  public List<ComparableVersion> getVersions(
+      VersionRange range, Predicate<ComparableVersion> filter) {
+    List<ComparableVersion> result = new ArrayList<>();
+    for (VersionRange.Restriction restriction : range.getRestrictions()) {
+      int end = upperIndex(restriction);
+      for (int i = lowerIndex(restriction); i < end; i++)
+        if (filter.test(versions[i])) result.add(versions[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the index of the first version contained in the restriction.
+   *
+   * @param restriction the restriction.
+   * @return the index of the first version that is not lower than the lower bound.
+   * @since 0.3.0
+   */
+  private int lowerIndex(VersionRange.Restriction restriction) {
+    if (restriction.getLowerBound() == null) return 0;
+    return VersionArrays.lowerBound(
+        versions, restriction.getLowerBound(), restriction.isLowerBoundInclusive());
+  }
+
+  /**
+   * Returns the index after the last version contained in the restriction.
+   *
+   * @param restriction the restriction.
+   * @return the index of the first version that is higher than the upper bound.
+   * @since 0.3.0
+   */
+  private int upperIndex(VersionRange.Restriction restriction) {
+    if (restriction.getUpperBound() == null) return versions.length;
+    return VersionArrays.lowerBound(
+        versions, restriction.getUpperBound(), !restriction.isUpperBoundInclusive());
+  }
+}
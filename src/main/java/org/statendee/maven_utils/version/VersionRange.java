@@ -0,0 +1,304 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.version;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link VersionRange} represents a maven version range, e.g. {@code [1.4,2.0)} or {@code
+ * (,1.0],[1.2,)}.
+ *
+ * <p>Unlike in maven, a version without brackets (e.g. {@code 1.0}) is not a recommendation but
+ * only matches this exact version.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class VersionRange {
+
+  /**
+   * A {@link VersionRange} that contains every version.
+   *
+   * @since 0.3.0
+   */
+  public static final VersionRange ALL =
+      new VersionRange("(,)", Collections.singletonList(new Restriction(null, false, null, false)));
+
+  /**
+   * The specification this range was created from.
+   *
+   * @since 0.3.0
+   */
+  private final String spec;
+
+  /**
+   * The restrictions of this range. A version is contained if any of them contains it.
+   *
+   * @since 0.3.0
+   */
+  private final List<Restriction> restrictions;
+
+  /**
+   * Creates an instance of {@link VersionRange} based on its specification and restrictions.
+   *
+   * @param spec the specification this range was created from.
+   * @param restrictions the restrictions of this range.
+   * @since 0.3.0
+   */
+  private VersionRange(String spec, List<Restriction> restrictions) {
+    this.spec = spec;
+    this.restrictions = Collections.unmodifiableList(restrictions);
+  }
+
+  /**
+   * Parses a version range specification in maven syntax.
+   *
+   * @param spec the version range specification, e.g. {@code [1.4,2.0)}.
+   * @return the parsed {@link VersionRange}.
+   * @throws InvalidVersionRangeException if the specification cannot be parsed.
+   * @since 0.3.0
+   */
+  public static VersionRange parse(String spec) throws InvalidVersionRangeException {
+    String remaining = spec.trim();
+    if (remaining.isEmpty()) throw new InvalidVersionRangeException(spec, "empty specification");
+
+    List<Restriction> restrictions = new ArrayList<>();
+    if (remaining.charAt(0) != '[' && remaining.charAt(0) != '(') {
+      ComparableVersion version = ComparableVersion.of(remaining);
+      restrictions.add(new Restriction(version, true, version, true));
+      return new VersionRange(spec, restrictions);
+    }
+
+    while (!remaining.isEmpty()) {
+      int end = indexOfClosingBracket(remaining);
+      if (end < 0) throw new InvalidVersionRangeException(spec, "unbounded range");
+      Restriction restriction = parseRestriction(spec, remaining.substring(0, end + 1));
+      if (!restrictions.isEmpty()) {
+        Restriction previous = restrictions.get(restrictions.size() - 1);
+        if (previous.upperBound == null
+            || restriction.lowerBound == null
+            || VersionArrays.NATURAL_ORDER.compare(previous.upperBound, restriction.lowerBound)
+                > 0) throw new InvalidVersionRangeException(spec, "ranges overlap");
+      }
+      restrictions.add(restriction);
+
+      remaining = remaining.substring(end + 1).trim();
+      if (remaining.startsWith(",")) {
+        remaining = remaining.substring(1).trim();
+        if (remaining.isEmpty()) throw new InvalidVersionRangeException(spec, "trailing comma");
+      } else if (!remaining.isEmpty())
+        throw new InvalidVersionRangeException(spec, "only fully qualified sets are allowed");
+    }
+    return new VersionRange(spec, restrictions);
+  }
+
+  /**
+   * Returns the index of the first closing bracket in the specification.
+   *
+   * @param spec the specification.
+   * @return the index of the first closing bracket or {@code -1} if there is none.
+   * @since 0.3.0
+   */
+  private static int indexOfClosingBracket(String spec) {
+    int square = spec.indexOf(']'), round = spec.indexOf(')');
+    if (square < 0) return round;
+    if (round < 0) return square;
+    return Math.min(square, round);
+  }
+
+  /**
+   * Parses a single restriction such as {@code [1.0,2.0)} or {@code [1.0]}.
+   *
+   * @param spec the whole specification, used for error messages.
+   * @param restriction the restriction including its brackets.
+   * @return the parsed {@link Restriction}.
+   * @throws InvalidVersionRangeException if the restriction cannot be parsed.
+   * @since 0.3.0
+   */
+  private static Restriction parseRestriction(String spec, String restriction)
+      throws InvalidVersionRangeException {
+    boolean lowerInclusive = restriction.charAt(0) == '[';
+    boolean upperInclusive = restriction.charAt(restriction.length() - 1) == ']';
+    String content = restriction.substring(1, restriction.length() - 1).trim();
+
+    int comma = content.indexOf(',');
+    if (comma < 0) {
+      if (!lowerInclusive || !upperInclusive || content.isEmpty())
+        throw new InvalidVersionRangeException(spec, "single versions must be enclosed by []");
+      ComparableVersion version = ComparableVersion.of(content);
+      return new Restriction(version, true, version, true);
+    }
+
+    String lower = content.substring(0, comma).trim();
+    String upper = content.substring(comma + 1).trim();
+    if (upper.indexOf(',') >= 0)
+      throw new InvalidVersionRangeException(spec, "too many bounds in " + restriction);
+    ComparableVersion lowerBound = lower.isEmpty() ? null : ComparableVersion.of(lower);
+    ComparableVersion upperBound = upper.isEmpty() ? null : ComparableVersion.of(upper);
+    if (lowerBound != null
+        && upperBound != null
+        && VersionArrays.NATURAL_ORDER.compare(lowerBound, upperBound) > 0)
+      throw new InvalidVersionRangeException(
+          spec, "lower bound is higher than upper bound in " + restriction);
+    return new Restriction(lowerBound, lowerInclusive, upperBound, upperInclusive);
+  }
+
+  /**
+   * Returns the restrictions of this range in ascending order.
+   *
+   * @return the restrictions of this range.
+   * @since 0.3.0
+   */
+  public List<Restriction> getRestrictions() {
+    return restrictions;
+  }
+
+  /**
+   * Returns {@code true} if the version is contained in this range.
+   *
+   * @param version the version to check.
+   * @return {@code true} if the version is contained in this range.
+   * @since 0.3.0
+   */
+  public boolean containsVersion(ComparableVersion version) {
+    for (Restriction restriction : restrictions)
+      if (restriction.containsVersion(version)) return true;
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return spec;
+  }
+
+  /**
+   * A {@link Restriction} is a single interval of a {@link VersionRange}.
+   *
+   * @since 0.3.0
+   */
+  public static final class Restriction {
+
+    /**
+     * The lower bound or {@code null} if there is none.
+     *
+     * @since 0.3.0
+     */
+    private final ComparableVersion lowerBound;
+
+    /**
+     * {@code true} if the lower bound is contained in this restriction.
+     *
+     * @since 0.3.0
+     */
+    private final boolean lowerBoundInclusive;
+
+    /**
+     * The upper bound or {@code null} if there is none.
+     *
+     * @since 0.3.0
+     */
+    private final ComparableVersion upperBound;
+
+    /**
+     * {@code true} if the upper bound is contained in this restriction.
+     *
+     * @since 0.3.0
+     */
+    private final boolean upperBoundInclusive;
+
+    /**
+     * Creates an instance of {@link Restriction} based on its bounds.
+     *
+     * @param lowerBound the lower bound or {@code null} if there is none.
+     * @param lowerBoundInclusive {@code true} if the lower bound is contained.
+     * @param upperBound the upper bound or {@code null} if there is none.
+     * @param upperBoundInclusive {@code true} if the upper bound is contained.
+     * @since 0.3.0
+     */
+    private Restriction(
+        ComparableVersion lowerBound,
+        boolean lowerBoundInclusive,
+        ComparableVersion upperBound,
+        boolean upperBoundInclusive) {
+      this.lowerBound = lowerBound;
+      this.lowerBoundInclusive = lowerBoundInclusive;
+      this.upperBound = upperBound;
+      this.upperBoundInclusive = upperBoundInclusive;
+    }
+
+    /**
+     * Returns the lower bound.
+     *
+     * @return the lower bound or {@code null} if there is none.
+     * @since 0.3.0
+     */
+    public ComparableVersion getLowerBound() {
+      return lowerBound;
+    }
+
+    /**
+     * Returns {@code true} if the lower bound is contained in this restriction.
+     *
+     * @return {@code true} if the lower bound is contained in this restriction.
+     * @since 0.3.0
+     */
+    public boolean isLowerBoundInclusive() {
+      return lowerBoundInclusive;
+    }
+
+    /**
+     * Returns the upper bound.
+     *
+     * @return the upper bound or {@code null} if there is none.
+     * @since 0.3.0
+     */
+    public ComparableVersion getUpperBound() {
+      return upperBound;
+    }
+
+    /**
+     * Returns {@code true} if the upper bound is contained in this restriction.
+     *
+     * @return {@code true} if the upper bound is contained in this restriction.
+     * @since 0.3.0
+     */
+    public boolean isUpperBoundInclusive() {
+      return upperBoundInclusive;
+    }
+
+    /**
+     * Returns {@code true} if the version is contained in this restriction.
+     *
+     * @param version the version to check.
+     * @return {@code true} if the version is contained in this restriction.
+     * @since 0.3.0
+     */
+    public boolean containsVersion(ComparableVersion version) {
+      if (lowerBound != null) {
+        int result = VersionArrays.NATURAL_ORDER.compare(version, lowerBound);
+        if (result < 0 || (result == 0 && !lowerBoundInclusive)) return false;
+      }
+      if (upperBound != null) {
+        int result = VersionArrays.NATURAL_ORDER.compare(version, upperBound);
+        return result < 0 || (result == 0 && upperBoundInclusive);
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.watch;
+
+import org.statendee.maven_utils.MavenArtifact;
+
+/**
+ * A listener that is notified by an {@link ArtifactWatcher} if the release, the latest version or
+ * the latest {@code SNAPSHOT}-build of a watched {@link MavenArtifact} changes.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+@FunctionalInterface
+public interface ArtifactListener {
+
+  /**
+   * Called if the release, the latest version or the latest {@code SNAPSHOT}-build of a watched
+   * artifact changed since the previous poll.
+   *
+   * @param update the {@link ArtifactUpdate} describing the change.
+   * @since 0.3.0
+   */
+  void onUpdate(ArtifactUpdate update);
+
+  /**
+   * Called if polling a watched artifact failed. The artifact is polled again later.
+   *
+   * @param artifact the artifact that could not be polled.
+   * @param exception the {@link Exception} that occurred.
+   * @since 0.3.0
+   */
+  default void onError(MavenArtifact artifact, Exception exception) {}
+}
@@ -0,0 +1,159 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.watch;
+
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.util.Objects;
+
+/**
+ * An {@link ArtifactUpdate} describes a change of the release, the latest version or the latest
+ * {@code SNAPSHOT}-build of a watched {@link MavenArtifact}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class ArtifactUpdate {
+
+  /**
+   * The artifact that changed.
+   *
+   * @since 0.3.0
+   */
+  public final MavenArtifact artifact;
+
+  /**
+   * The release version before the change or {@code null} if there was none.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion previousRelease;
+
+  /**
+   * The release version after the change or {@code null} if there is none.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion release;
+
+  /**
+   * The latest version before the change or {@code null} if there was none.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion previousLatest;
+
+  /**
+   * The latest version after the change or {@code null} if there is none.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion latest;
+
+  /**
+   * The latest {@code SNAPSHOT}-build before the change or {@code null} if there was none.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion previousSnapshotBuild;
+
+  /**
+   * The latest {@code SNAPSHOT}-build after the change or {@code null} if there is none.
+   *
+   * @since 0.3.0
+   */
+  public final ComparableVersion snapshotBuild;
+
+  /**
+   * Creates an instance of {@link ArtifactUpdate}.
+   *
+   * @param artifact the artifact that changed.
+   * @param previousRelease the release version before the change.
+   * @param release the release version after the change.
+   * @param previousLatest the latest version before the change.
+   * @param latest the latest version after the change.
+   * @param previousSnapshotBuild the latest {@code SNAPSHOT}-build before the change.
+   * @param snapshotBuild the latest {@code SNAPSHOT}-build after the change.
+   * @since 0.3.0
+   */
+  ArtifactUpdate(
+      MavenArtifact artifact,
+      ComparableVersion previousRelease,
+      ComparableVersion release,
+      ComparableVersion previousLatest,
+      ComparableVersion latest,
+      ComparableVersion previousSnapshotBuild,
+      ComparableVersion snapshotBuild) {
+    this.artifact = artifact;
+    this.previousRelease = previousRelease;
+    this.release = release;
+    this.previousLatest = previousLatest;
+    this.latest = latest;
+    this.previousSnapshotBuild = previousSnapshotBuild;
+    this.snapshotBuild = snapshotBuild;
+  }
+
+  /**
+   * Returns {@code true} if the release version changed.
+   *
+   * @return {@code true} if the release version changed.
+   * @since 0.3.0
+   */
+  public boolean isReleaseChanged() {
+    return !Objects.equals(previousRelease, release);
+  }
+
+  /**
+   * Returns {@code true} if the latest version changed.
+   *
+   * @return {@code true} if the latest version changed.
+   * @since 0.3.0
+   */
+  public boolean isLatestChanged() {
+    return !Objects.equals(previousLatest, latest);
+  }
+
+  /**
+   * Returns {@code true} if the latest {@code SNAPSHOT}-build changed.
+   *
+   * @return {@code true} if the latest {@code SNAPSHOT}-build changed.
+   * @since 0.3.0
+   */
+  public boolean isSnapshotBuildChanged() {
+    return !Objects.equals(previousSnapshotBuild, snapshotBuild);
+  }
+
+  @Override
+  public String toString() {
+    return artifact.groupId
+        + ":"
+        + artifact.artifactId
+        + " release "
+        + previousRelease
+        + " -> "
+        + release
+        + ", latest "
+        + previousLatest
+        + " -> "
+        + latest
+        + ", snapshot build "
+        + previousSnapshotBuild
+        + " -> "
+        + snapshotBuild;
+  }
+}
@@ -0,0 +1,446 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.watch;
+
+import org.statendee.maven_utils.DaemonThreads;
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link ArtifactWatcher} polls many {@link MavenArtifact}s on a shared scheduler and notifies
+ * {@link ArtifactListener}s if their release, latest version or latest {@code SNAPSHOT}-build
+ * changes.
+ *
+ * <p>Each watched artifact is polled with conditional requests. Its polling interval starts at the
+ * minimum interval, doubles after every poll without a change up to the maximum interval and is
+ * reset to the minimum after a change. Every delay is randomized by {@link #JITTER} so that many
+ * artifacts do not hit the repository at the same time.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class ArtifactWatcher implements AutoCloseable {
+
+  /**
+   * The relative amount by which each polling delay is randomly shortened or extended.
+   *
+   * @since 0.3.0
+   */
+  public static final double JITTER = 0.1;
+
+  /**
+   * The scheduler used to poll the artifacts.
+   *
+   * @since 0.3.0
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * {@code true} if {@link #scheduler} was created by this watcher and is shut down on {@link
+   * #close()}.
+   *
+   * @since 0.3.0
+   */
+  private final boolean ownsScheduler;
+
+  /**
+   * The minimum polling interval in milliseconds.
+   *
+   * @since 0.3.0
+   */
+  private final long minIntervalMillis;
+
+  /**
+   * The maximum polling interval in milliseconds.
+   *
+   * @since 0.3.0
+   */
+  private final long maxIntervalMillis;
+
+  /**
+   * The currently active {@link Watch}es.
+   *
+   * @since 0.3.0
+   */
+  private final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Creates an instance of {@link ArtifactWatcher} with its own fixed pool of daemon threads.
+   *
+   * @param threads the number of threads used to poll the artifacts.
+   * @param minInterval the minimum polling interval of an artifact.
+   * @param maxInterval the maximum polling interval of an artifact that rarely changes.
+   * @throws IllegalArgumentException if the minimum interval is shorter than one millisecond or
+   *     longer than the maximum interval.
+   * @since 0.3.0
+   */
+  public ArtifactWatcher(int threads, Duration minInterval, Duration maxInterval) {
+    this(createScheduler(threads), true, minInterval, maxInterval);
+  }
+
+  /**
+   * Creates an instance of {@link ArtifactWatcher} that polls on the given scheduler, which is not
+   * shut down on {@link #close()}.
+   *
+   * @param scheduler the scheduler used to poll the artifacts.
+   * @param minInterval the minimum polling interval of an artifact.
+   * @param maxInterval the maximum polling interval of an artifact that rarely changes.
+   * @throws IllegalArgumentException if the minimum interval is shorter than one millisecond or
+   *     longer than the maximum interval.
+   * @since 0.3.0
+   */
+  public ArtifactWatcher(
+      ScheduledExecutorService scheduler, Duration minInterval, Duration maxInterval) {
+    this(scheduler, false, minInterval, maxInterval);
+  }
+
+  /**
+   * Creates an instance of {@link ArtifactWatcher}.
+   *
+   * @param scheduler the scheduler used to poll the artifacts.
+   * @param ownsScheduler {@code true} if the scheduler should be shut down on {@link #close()}.
+   * @param minInterval the minimum polling interval of an artifact.
+   * @param maxInterval the maximum polling interval of an artifact that rarely changes.
+   * @throws IllegalArgumentException if the minimum interval is shorter than one millisecond or
+   *     longer than the maximum interval.
+   * @since 0.3.0
+   */
+  private ArtifactWatcher(
+      ScheduledExecutorService scheduler,
+      boolean ownsScheduler,
+      Duration minInterval,
+      Duration maxInterval) {
+    if (minInterval.toMillis() < 1 || maxInterval.compareTo(minInterval) < 0)
+      throw new IllegalArgumentException(
+          "The intervals must be at least one millisecond and the maximum must not be lower than"
+              + " the minimum!");
+    this.scheduler = scheduler;
+    this.ownsScheduler = ownsScheduler;
+    this.minIntervalMillis = minInterval.toMillis();
+    this.maxIntervalMillis = maxInterval.toMillis();
+  }
+
+  /**
+   * Starts watching an artifact. The first poll happens after a random delay of up to the minimum
+   * interval and only records the current state; the listener is called on subsequent changes.
+   *
+   * @param artifact the artifact to watch.
+   * @param listener the listener to notify on changes.
+   * @return the {@link Watch} that can be used to stop watching the artifact.
+   * @since 0.3.0
+   */
+  public Watch watch(MavenArtifact artifact, ArtifactListener listener) {
+    Watch watch = new Watch(artifact, listener);
+    watches.add(watch);
+    watch.schedule(ThreadLocalRandom.current().nextLong(minIntervalMillis));
+    return watch;
+  }
+
+  /**
+   * Returns the number of currently watched artifacts.
+   *
+   * @return the number of currently watched artifacts.
+   * @since 0.3.0
+   */
+  public int getWatchCount() {
+    return watches.size();
+  }
+
+  /**
+   * Stops watching all artifacts and shuts down the scheduler, if it was created by this watcher.
+   *
+   * @since 0.3.0
+   */
+  @Override
+  public void close() {
+    for (Watch watch : watches) watch.cancel();
+    if (ownsScheduler) scheduler.shutdownNow();
+  }
+
+  /**
+   * Returns a delay randomized by {@link #JITTER}.
+   *
+   * @param delayMillis the delay in milliseconds.
+   * @return the randomized delay in milliseconds.
+   * @since 0.3.0
+   */
+  private static long jitter(long delayMillis) {
+    double factor = 1 + JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+    return Math.max(0, (long) (delayMillis * factor));
+  }
+
+  /**
+   * Creates a scheduler with a fixed number of named daemon threads that removes cancelled polls
+   * from its queue right away.
+   *
+   * @param threads the number of threads.
+   * @return the created scheduler.
+   * @since 0.3.0
+   */
+  private static ScheduledExecutorService createScheduler(int threads) {
+    ScheduledThreadPoolExecutor scheduler =
+        new ScheduledThreadPoolExecutor(threads, DaemonThreads.factory("artifact-watcher"));
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+
+  /**
+   * A {@link Watch} represents a single watched artifact and its last known state.
+   *
+   * @since 0.3.0
+   */
+  public final class Watch {
+
+    /**
+     * The watched artifact.
+     *
+     * @since 0.3.0
+     */
+    public final MavenArtifact artifact;
+
+    /**
+     * The listener to notify on changes.
+     *
+     * @since 0.3.0
+     */
+    private final ArtifactListener listener;
+
+    /**
+     * The last fetched {@link ArtifactMetadata}, used for conditional requests.
+     *
+     * @since 0.3.0
+     */
+    private ArtifactMetadata metadata;
+
+    /**
+     * The last fetched {@link SnapshotMetadata} of the latest version, used for conditional
+     * requests.
+     *
+     * @since 0.3.0
+     */
+    private SnapshotMetadata snapshotMetadata;
+
+    /**
+     * The last known release version.
+     *
+     * @since 0.3.0
+     */
+    private volatile ComparableVersion release;
+
+    /**
+     * The last known latest version.
+     *
+     * @since 0.3.0
+     */
+    private volatile ComparableVersion latest;
+
+    /**
+     * The last known latest {@code SNAPSHOT}-build.
+     *
+     * @since 0.3.0
+     */
+    private volatile ComparableVersion snapshotBuild;
+
+    /**
+     * {@code true} after the first successful poll.
+     *
+     * @since 0.3.0
+     */
+    private boolean initialized;
+
+    /**
+     * The current polling interval in milliseconds.
+     *
+     * @since 0.3.0
+     */
+    private volatile long intervalMillis = minIntervalMillis;
+
+    /**
+     * The next scheduled poll.
+     *
+     * @since 0.3.0
+     */
+    private ScheduledFuture<?> future;
+
+    /**
+     * {@code true} if this watch has been cancelled.
+     *
+     * @since 0.3.0
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Creates an instance of {@link Watch}.
+     *
+     * @param artifact the watched artifact.
+     * @param listener the listener to notify on changes.
+     * @since 0.3.0
+     */
+    private Watch(MavenArtifact artifact, ArtifactListener listener) {
+      this.artifact = artifact;
+      this.listener = listener;
+    }
+
+    /**
+     * Returns the last known release version.
+     *
+     * @return the last known release version or {@code null} if it is unknown.
+     * @since 0.3.0
+     */
+    public ComparableVersion getRelease() {
+      return release;
+    }
+
+    /**
+     * Returns the last known latest version.
+     *
+     * @return the last known latest version or {@code null} if it is unknown.
+     * @since 0.3.0
+     */
+    public ComparableVersion getLatest() {
+      return latest;
+    }
+
+    /**
+     * Returns the last known latest {@code SNAPSHOT}-build.
+     *
+     * @return the last known latest {@code SNAPSHOT}-build or {@code null} if it is unknown.
+     * @since 0.3.0
+     */
+    public ComparableVersion getSnapshotBuild() {
+      return snapshotBuild;
+    }
+
+    /**
+     * Returns the current polling interval.
+     *
+     * @return the current polling interval.
+     * @since 0.3.0
+     */
+    public Duration getInterval() {
+      return Duration.ofMillis(intervalMillis);
+    }
+
+    /**
+     * Stops watching the artifact.
+     *
+     * @since 0.3.0
+     */
+    public void cancel() {
+      cancelled = true;
+      watches.remove(this);
+      synchronized (this) {
+        if (future != null) future.cancel(false);
+      }
+    }
+
+    /**
+     * Schedules the next poll.
+     *
+     * @param delayMillis the delay in milliseconds.
+     * @since 0.3.0
+     */
+    private synchronized void schedule(long delayMillis) {
+      if (cancelled) return;
+      try {
+        future = scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        cancel();
+      }
+    }
+
+    /**
+     * Polls the artifact, notifies the listener on changes and schedules the next poll.
+     *
+     * @since 0.3.0
+     */
+    private void poll() {
+      if (cancelled) return;
+      boolean changed = false;
+      try {
+        metadata = artifact.getMetadata(metadata);
+        ComparableVersion newSnapshotBuild = null;
+        if (metadata.latest != null && metadata.latest.isSnapshot()) {
+          ComparableVersion snapshotVersion = metadata.latest.getVersionWithoutBuildInfo();
+          SnapshotMetadata cached =
+              snapshotMetadata != null && snapshotMetadata.version.equals(snapshotVersion)
+                  ? snapshotMetadata
+                  : null;
+          snapshotMetadata = artifact.getSnapshotMetadata(snapshotVersion, cached);
+          newSnapshotBuild = snapshotMetadata.latestBuild;
+        } else snapshotMetadata = null;
+
+        ArtifactUpdate update =
+            new ArtifactUpdate(
+                artifact,
+                release,
+                metadata.release,
+                latest,
+                metadata.latest,
+                snapshotBuild,
+                newSnapshotBuild);
+        changed =
+            initialized
+                && (update.isReleaseChanged()
+                    || update.isLatestChanged()
+                    || update.isSnapshotBuildChanged());
+        release = metadata.release;
+        latest = metadata.latest;
+        snapshotBuild = newSnapshotBuild;
+        initialized = true;
+
+        if (changed && !cancelled) listener.onUpdate(update);
+      } catch (Exception e) {
+        if (!cancelled) notifyError(e);
+      }
+
+      intervalMillis =
+          changed ? minIntervalMillis : Math.min(maxIntervalMillis, intervalMillis * 2);
+      schedule(jitter(intervalMillis));
+    }
+
+    /**
+     * Notifies the listener of an error, ignoring exceptions thrown by the listener itself.
+     *
+     * @param exception the {@link Exception} that occurred.
+     * @since 0.3.0
+     */
+    private void notifyError(Exception exception) {
+      try {
+        listener.onError(artifact, exception);
+      } catch (RuntimeException ignored) {
+      }
+    }
+
+    @Override
+    public String toString() {
+      return artifact.groupId + ":" + artifact.artifactId + " every " + getInterval();
+    }
+  }
+}
@@ -0,0 +1,309 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link ArchiveExtractor} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class ArchiveExtractorTest {
+
+  /**
+   * The version of the test archives.
+   *
+   * @since 0.3.0
+   */
+  private static final ComparableVersion VERSION = ComparableVersion.of("1.0.0");
+
+  /**
+   * A {@link Test} that checks, if a zip file is extracted while it is downloaded, if it replaces
+   * the previous content of the directory and if a failed extraction leaves it untouched.
+   *
+   * @param directory a temporary directory for the extraction.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void extractZip(@TempDir Path directory) throws Exception {
+    byte[] zip = createZip("bin/run.sh", "lib/core.jar");
+    Path target = directory.resolve("dist");
+    Files.createDirectories(target);
+    Files.write(target.resolve("stale.txt"), new byte[] {1});
+
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 1, 100)) {
+      String path = "/org/example/artifact-0/1.0.0/artifact-0-1.0.0.zip";
+      server.publish(path, zip);
+      MavenArtifact artifact =
+          new MavenArtifact(server.getRepository(), "org.example", "artifact-0");
+
+      assertEquals(2, artifact.extract(VERSION, "", "zip", target, true), "Two files differ!");
+      assertEquals(
+          Arrays.asList("bin/run.sh", "lib/core.jar"),
+          listFiles(target),
+          "The directory should only contain the extracted files, but it does not!");
+      assertArrayEquals(
+          "bin/run.sh".getBytes(StandardCharsets.UTF_8),
+          Files.readAllBytes(target.resolve("bin/run.sh")),
+          "The content of the entry differs!");
+      assertEquals(
+          Collections.singletonList("dist"),
+          listChildren(directory),
+          "No staging directory should be left behind, but there is one!");
+
+      server.publish(path, Arrays.copyOf(zip, zip.length / 2));
+      assertThrows(
+          IOException.class,
+          () -> artifact.extract(VERSION, "", "zip", target),
+          "A truncated zip file should fail the extraction!");
+      assertEquals(
+          Arrays.asList("bin/run.sh", "lib/core.jar"),
+          listFiles(target),
+          "A failed extraction should leave the directory untouched, but it does not!");
+
+      server.publish(path, createZip("../evil.txt"));
+      assertThrows(
+          IOException.class,
+          () -> artifact.extract(VERSION, "", "zip", target),
+          "An entry outside of the directory should fail the extraction!");
+      assertFalse(Files.exists(directory.resolve("evil.txt")), "No file should escape!");
+      assertEquals(
+          Collections.singletonList("dist"),
+          listChildren(directory),
+          "No staging directory should be left behind after a failure, but there is one!");
+    }
+  }
+
+  /**
+   * A {@link Test} that checks, if a {@code tar.gz} archive of a {@code file://} repository with
+   * long names is extracted, if links are skipped and if its SHA-1 is verified.
+   *
+   * @param directory a temporary directory for the repository and the extraction.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void extractTarGz(@TempDir Path directory) throws Exception {
+    String longName = String.join("/", Collections.nCopies(30, "directory")) + "/file.txt";
+    ByteArrayOutputStream tar = new ByteArrayOutputStream();
+    writeTarEntry(tar, "bin/", '5', new byte[0]);
+    writeTarEntry(tar, "bin/run.sh", '0', "#!/bin/sh\n".getBytes(StandardCharsets.UTF_8));
+    writeTarEntry(tar, "bin/link", '2', new byte[0]);
+    writeTarEntry(tar, "././@LongLink", 'L', (longName + "\0").getBytes(StandardCharsets.UTF_8));
+    writeTarEntry(tar, "ignored", '0', new byte[1000]);
+    tar.write(new byte[1024]);
+    ByteArrayOutputStream tarGz = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(tarGz)) {
+      tar.writeTo(gzip);
+    }
+
+    Path repository = directory.resolve("repository");
+    Path file = repository.resolve("org/example/artifact-0/1.0.0/artifact-0-1.0.0-dist.tar.gz");
+    Files.createDirectories(file.getParent());
+    Files.write(file, tarGz.toByteArray());
+    Path checksum = file.resolveSibling(file.getFileName() + ".sha1");
+    Files.write(checksum, sha1(new byte[0]).getBytes(StandardCharsets.US_ASCII));
+    MavenArtifact artifact =
+        new MavenArtifact(repository.toUri().toString(), "org.example", "artifact-0");
+    Path target = directory.resolve("dist");
+
+    assertThrows(
+        IOException.class,
+        () -> artifact.extract(VERSION, "dist", "tar.gz", target, true),
+        "A wrong SHA-1 should fail the extraction!");
+    assertEquals(
+        Collections.singletonList("repository"),
+        listChildren(directory),
+        "A failed extraction should not create the directory, but it does!");
+
+    String line = sha1(tarGz.toByteArray()) + "  artifact-0-1.0.0-dist.tar.gz";
+    Files.write(checksum, line.getBytes(StandardCharsets.US_ASCII));
+    assertEquals(2, artifact.extract(VERSION, "dist", "tar.gz", target, true), "Two files differ!");
+    assertEquals(Arrays.asList("bin/run.sh", longName), listFiles(target), "The files differ!");
+    assertEquals(1000, Files.size(target.resolve(longName)), "The long name should be used!");
+  }
+
+  /**
+   * A {@link Test} that checks, if a {@code tar.gz} archive created from a directory (e.g. with
+   * {@code tar czf dist.tgz -C dist .}) is extracted, whose first entry is {@code ./}, and if an
+   * entry appended later replaces an earlier entry with the same name.
+   *
+   * @param directory a temporary directory for the repository and the extraction.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void extractTarOfDirectory(@TempDir Path directory) throws Exception {
+    ByteArrayOutputStream tar = new ByteArrayOutputStream();
+    writeTarEntry(tar, "./", '5', new byte[0]);
+    writeTarEntry(tar, "./bin/", '5', new byte[0]);
+    writeTarEntry(tar, "./bin/run.sh", '0', "old".getBytes(StandardCharsets.UTF_8));
+    writeTarEntry(tar, "./bin/run.sh", '0', "new".getBytes(StandardCharsets.UTF_8));
+    tar.write(new byte[1024]);
+    ByteArrayOutputStream tarGz = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(tarGz)) {
+      tar.writeTo(gzip);
+    }
+
+    Path repository = directory.resolve("repository");
+    Path file = repository.resolve("org/example/artifact-0/1.0.0/artifact-0-1.0.0.tgz");
+    Files.createDirectories(file.getParent());
+    Files.write(file, tarGz.toByteArray());
+    MavenArtifact artifact =
+        new MavenArtifact(repository.toUri().toString(), "org.example", "artifact-0");
+    Path target = directory.resolve("dist");
+
+    assertEquals(1, artifact.extract(VERSION, "", "tgz", target), "One file should be extracted!");
+    assertEquals(Collections.singletonList("bin/run.sh"), listFiles(target), "The files differ!");
+    assertArrayEquals(
+        "new".getBytes(StandardCharsets.UTF_8),
+        Files.readAllBytes(target.resolve("bin/run.sh")),
+        "The appended entry should replace the earlier one, but it does not!");
+  }
+
+  /**
+   * Creates a zip file whose entries contain their names.
+   *
+   * @param names the names of the entries.
+   * @return the zip file.
+   * @throws IOException if the zip file cannot be written.
+   * @since 0.3.0
+   */
+  private static byte[] createZip(String... names) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+      for (String name : names) {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(name.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes an entry of a {@code ustar} archive.
+   *
+   * @param tar the archive.
+   * @param name the name of the entry.
+   * @param type the type of the entry.
+   * @param data the data of the entry.
+   * @throws IOException if the entry cannot be written.
+   * @since 0.3.0
+   */
+  private static void writeTarEntry(ByteArrayOutputStream tar, String name, char type, byte[] data)
+      throws IOException {
+    byte[] header = new byte[512];
+    put(header, 0, name);
+    put(header, 100, "0000644");
+    put(header, 124, String.format("%011o", data.length));
+    put(header, 136, String.format("%011o", 1639584000L));
+    header[156] = (byte) type;
+    put(header, 257, "ustar");
+    put(header, 263, "00");
+    Arrays.fill(header, 148, 156, (byte) ' ');
+    int checksum = 0;
+    for (byte b : header) checksum += b & 0xFF;
+    put(header, 148, String.format("%06o", checksum));
+    tar.write(header);
+    tar.write(data);
+    tar.write(new byte[(512 - data.length % 512) % 512]);
+  }
+
+  /**
+   * Writes a {@link String} to a header.
+   *
+   * @param header the header.
+   * @param offset the offset of the field.
+   * @param value the value of the field.
+   * @since 0.3.0
+   */
+  private static void put(byte[] header, int offset, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(bytes, 0, header, offset, bytes.length);
+  }
+
+  /**
+   * Returns the SHA-1 of data as hex {@link String}.
+   *
+   * @param data the data.
+   * @return the SHA-1.
+   * @throws Exception if SHA-1 is not supported.
+   * @since 0.3.0
+   */
+  private static String sha1(byte[] data) throws Exception {
+    StringBuilder hex = new StringBuilder();
+    for (byte b : MessageDigest.getInstance("SHA-1").digest(data))
+      hex.append(String.format("%02x", b));
+    return hex.toString();
+  }
+
+  /**
+   * Lists the files of a directory recursively, relative to the directory.
+   *
+   * @param directory the directory.
+   * @return the sorted relative paths of the files.
+   * @throws IOException if the directory cannot be listed.
+   * @since 0.3.0
+   */
+  private static List<String> listFiles(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths
+          .filter(Files::isRegularFile)
+          .map(path -> directory.relativize(path).toString().replace(File.separatorChar, '/'))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Lists the names of the children of a directory.
+   *
+   * @param directory the directory.
+   * @return the sorted names of the children.
+   * @throws IOException if the directory cannot be listed.
+   * @since 0.3.0
+   */
+  private static List<String> listChildren(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link ArtifactMirror} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class ArtifactMirrorTest {
+
+  /**
+   * The files mirrored for each version; the sources do not exist.
+   *
+   * @since 0.3.0
+   */
+  private static final List<ArtifactFile> FILES =
+      Arrays.asList(
+          ArtifactFile.of("pom"), ArtifactFile.of("jar"), ArtifactFile.of("sources", "jar"));
+
+  /**
+   * A {@link Test} that checks, if a sync downloads and verifies all files, if a second sync
+   * downloads nothing and if an interrupted sync resumes from its journal.
+   *
+   * @param directory a temporary directory for the mirrors.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void sync(@TempDir Path directory) throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 3, 10_000);
+        RepositoryClient client = new RepositoryClient(server.getRepository());
+        RepositoryClient cached =
+            new RepositoryClient(
+                server.getRepository(),
+                new CachePolicy(
+                    Duration.ofHours(1), Duration.ZERO, Duration.ZERO, Duration.ZERO))) {
+      Path mirror = directory.resolve("mirror");
+      Path artifactDirectory = mirror.resolve("org/example/artifact-0");
+      String jar = RepositoryServer.getVersion(2) + "/artifact-0-" + RepositoryServer.getVersion(2);
+
+      MirrorResult result =
+          new ArtifactMirror(client, mirror).sync("org.example", "artifact-0", FILES);
+      assertTrue(result.isComplete(), "The sync should complete: " + result.failures);
+      assertEquals(6, result.downloaded, "The POMs and jars of all versions should be downloaded!");
+      assertEquals(3, result.missing, "The sources should be missing for every version!");
+      assertEquals(10_000, Files.size(artifactDirectory.resolve(jar + ".jar")), "The jar differs!");
+      assertTrue(Files.exists(artifactDirectory.resolve(jar + ".jar.sha1")), "SHA-1 is missing!");
+      assertTrue(Files.exists(artifactDirectory.resolve("maven-metadata.xml")), "No metadata!");
+      assertFalse(Files.exists(artifactDirectory.resolve(ArtifactMirror.JOURNAL)), "No journal!");
+
+      result = new ArtifactMirror(client, mirror).sync("org.example", "artifact-0", FILES);
+      assertEquals(0, result.downloaded, "An unchanged mirror should not be downloaded again!");
+      assertEquals(6, result.unchanged, "All files should be up to date!");
+
+      // Interrupt a sync of another mirror with errors after the metadata was fetched.
+      cached.artifact("org.example", "artifact-0").getMetadata();
+      Path other = directory.resolve("other");
+      server.injectErrors(503, 2);
+      result = new ArtifactMirror(cached, other, 1).sync("org.example", "artifact-0", FILES);
+      assertEquals(2, result.failures.size(), "Two files should fail, but they do not!");
+      assertEquals(7, result.downloaded + result.missing, "All other files should be synced!");
+      assertTrue(
+          Files.exists(other.resolve("org/example/artifact-0/" + ArtifactMirror.JOURNAL)),
+          "The journal should be kept after a failure, but it is not!");
+      assertFalse(
+          Files.exists(other.resolve("org/example/artifact-0/maven-metadata.xml")),
+          "The metadata should not be mirrored before all files are complete!");
+
+      long requests = server.getRequestCount();
+      result = new ArtifactMirror(cached, other).sync("org.example", "artifact-0", FILES);
+      assertTrue(result.isComplete(), "The resumed sync should complete: " + result.failures);
+      assertEquals(7, result.resumed, "The files of the journal should be skipped!");
+      assertEquals(2, result.downloaded, "Only the failed files should be downloaded!");
+      assertTrue(
+          server.getRequestCount() - requests <= 2 * 2 + 1,
+          "Only the failed files and the metadata should be requested!");
+      assertTrue(
+          Files.exists(other.resolve("org/example/artifact-0/maven-metadata.xml")),
+          "The metadata should be mirrored once the sync completed, but it is not!");
+    }
+  }
+
+  /**
+   * A {@link Test} that checks, if a file that changed after it was probed is verified against its
+   * current checksum instead of the checksum of the cached probe.
+   *
+   * @param directory a temporary directory for the mirror.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void syncAfterProbe(@TempDir Path directory) throws Exception {
+    CachePolicy policy =
+        new CachePolicy(Duration.ofHours(1), Duration.ZERO, Duration.ZERO, Duration.ZERO);
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 1, 1_000);
+        RepositoryClient client = new RepositoryClient(server.getRepository(), policy)) {
+      MavenArtifact artifact = client.artifact("org.example", "artifact-0");
+      ComparableVersion version = ComparableVersion.of(RepositoryServer.getVersion(0));
+      ProbeResult probe =
+          artifact.probe(Collections.singletonList(version), FILES.subList(1, 2)).get(0);
+      assertNotNull(probe.sha1, "The probe should report the SHA-1 of the jar!");
+
+      String jar = "/org/example/artifact-0/" + version + "/artifact-0-" + version + ".jar";
+      server.publish(jar, "changed".getBytes(StandardCharsets.UTF_8));
+      MirrorResult result =
+          new ArtifactMirror(client, directory).sync("org.example", "artifact-0", FILES);
+      assertTrue(result.isComplete(), "The changed jar should be verified: " + result.failures);
+      byte[] mirrored = Files.readAllBytes(directory.resolve(jar.substring(1)));
+      assertEquals(
+          "changed",
+          new String(mirrored, StandardCharsets.UTF_8),
+          "The changed jar should be mirrored, but it is not!");
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link CachePolicy} of a {@link
+ * RepositoryClient}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class CachePolicyTest {
+
+  /**
+   * A {@link Test} that checks, if stale metadata is returned at once and revalidated in the
+   * background, and if stale metadata is returned if the server fails.
+   *
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void staleMetadata() throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 2, 3, 100)) {
+      try (RepositoryClient client =
+          new RepositoryClient(
+              server.getRepository(),
+              new CachePolicy(Duration.ofHours(1), Duration.ZERO, Duration.ZERO, Duration.ZERO))) {
+        MavenArtifact artifact = client.artifact("org.example", "artifact-0");
+        ArtifactMetadata metadata = artifact.getMetadata();
+        long requests = server.getRequestCount();
+        assertSame(metadata, artifact.getMetadata(), "Fresh metadata should be reused!");
+        assertEquals(requests, server.getRequestCount(), "Fresh metadata should not be requested!");
+        assertEquals(1, client.getCacheMetrics().getHits(), "The fresh hit should be counted!");
+      }
+
+      try (RepositoryClient client =
+          new RepositoryClient(
+              server.getRepository(),
+              new CachePolicy(Duration.ZERO, Duration.ofHours(1), Duration.ZERO, Duration.ZERO))) {
+        MavenArtifact artifact = client.artifact("org.example", "artifact-0");
+        artifact.getMetadata();
+        server.publish(
+            "/org/example/artifact-0/maven-metadata.xml",
+            ("<metadata><versioning><release>2.0</release><versions><version>2.0</version>"
+                    + "</versions></versioning></metadata>")
+                .getBytes(StandardCharsets.UTF_8));
+        assertEquals(
+            ComparableVersion.of(RepositoryServer.getVersion(2)),
+            artifact.getLatestReleaseVersion(),
+            "Stale metadata should be returned at once, but it is not!");
+        awaitRevalidations(client, 1);
+        assertEquals(
+            ComparableVersion.of("2.0"),
+            artifact.getLatestReleaseVersion(),
+            "The metadata should be revalidated in the background, but it is not!");
+        assertEquals(2, client.getCacheMetrics().getStaleWhileRevalidate(), "Stale hits differ!");
+        awaitRevalidations(client, 2);
+      }
+
+      try (RepositoryClient client =
+          new RepositoryClient(
+              server.getRepository(),
+              new CachePolicy(Duration.ZERO, Duration.ZERO, Duration.ofHours(1), Duration.ZERO))) {
+        MavenArtifact artifact = client.artifact("org.example", "artifact-0");
+        artifact.getMetadata();
+        server.injectErrors(503, 1);
+        assertEquals(
+            ComparableVersion.of("2.0"),
+            artifact.getLatestReleaseVersion(),
+            "Stale metadata should be returned if the server fails, but it is not!");
+        assertEquals(1, client.getCacheMetrics().getStaleIfError(), "The error should be counted!");
+      }
+
+      try (RepositoryClient client = new RepositoryClient(server.getRepository())) {
+        MavenArtifact artifact = client.artifact("org.example", "artifact-0");
+        artifact.getMetadata();
+        server.injectErrors(503, 1);
+        RequestException exception =
+            assertThrows(
+                RequestException.class,
+                artifact::getLatestReleaseVersion,
+                "Without stale-if-error, the error should be thrown, but it is not!");
+        assertEquals(503, exception.responseCode, "The response code should be 503!");
+      }
+    }
+  }
+
+  /**
+   * A {@link Test} that checks, if {@code 404} responses are cached for the negative TTL.
+   *
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void negativeCaching() throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 1, 100);
+        RepositoryClient client =
+            new RepositoryClient(
+                server.getRepository(),
+                new CachePolicy(
+                    Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ofMillis(200)))) {
+      MavenArtifact missing = client.artifact("org.example", "missing");
+      for (int i = 0; i < 3; i++)
+        assertEquals(
+            404,
+            assertThrows(RequestException.class, missing::getMetadata).responseCode,
+            "A missing artifact should throw a 404, but it does not!");
+      assertEquals(1, server.getRequestCount(), "The 404 should only be requested once!");
+      assertEquals(2, client.getCacheMetrics().getNegativeHits(), "Negative hits differ!");
+
+      Thread.sleep(250);
+      assertThrows(RequestException.class, missing::getMetadata);
+      assertEquals(2, server.getRequestCount(), "An expired 404 should be requested again!");
+    }
+  }
+
+  /**
+   * Waits until a number of background revalidations completed.
+   *
+   * @param client the client.
+   * @param revalidations the number of revalidations.
+   * @throws InterruptedException if the thread is interrupted while waiting.
+   * @since 0.3.0
+   */
+  private static void awaitRevalidations(RepositoryClient client, long revalidations)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (client.getCacheMetrics().getRevalidations() < revalidations
+        && System.currentTimeMillis() < deadline) Thread.sleep(5);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.stream.Subscriber;
+import org.statendee.maven_utils.stream.Subscription;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link DownloadPublisher} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class DownloadPublisherTest {
+
+  /**
+   * A {@link Test} that checks, if a file is streamed chunk by chunk as requested and if the
+   * progress is reported.
+   *
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void streamOnDemand() throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 3, 300_000)) {
+      MavenArtifact artifact =
+          new MavenArtifact(server.getRepository(), "org.example", "artifact-0");
+      ComparableVersion version = ComparableVersion.of(RepositoryServer.getVersion(1));
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      try (InputStream inputStream = artifact.getInputStream(version, "", "jar")) {
+        byte[] buffer = new byte[8192];
+        for (int read; (read = inputStream.read(buffer)) != -1; ) expected.write(buffer, 0, read);
+      }
+
+      AtomicLong progress = new AtomicLong(-1);
+      DownloadPublisher publisher =
+          artifact.stream(version, "", "jar", (transferred, total) -> progress.set(transferred));
+      CollectingSubscriber subscriber = new CollectingSubscriber(false);
+      publisher.subscribe(subscriber);
+      subscriber.subscription.request(1);
+
+      subscriber.done.get(10, TimeUnit.SECONDS);
+      assertArrayEquals(
+          expected.toByteArray(),
+          subscriber.content.toByteArray(),
+          "The streamed content should match the file, but it does not!");
+      assertEquals(300_000, publisher.getContentLength(), "The content length should be known!");
+      assertEquals(300_000, progress.get(), "The progress should reach the size of the file!");
+      assertTrue(
+          subscriber.chunks > 1, "The file should be delivered in several requested chunks!");
+
+      CollectingSubscriber second = new CollectingSubscriber(false);
+      publisher.subscribe(second);
+      assertTrue(
+          second.done.isCompletedExceptionally(),
+          "A second subscriber should be rejected, but it is not!");
+    }
+  }
+
+  /**
+   * A {@link Test} that checks, if cancelling a subscription stops the download.
+   *
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void cancelMidStream() throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 1, 4_000_000)) {
+      server.setBandwidth(1_000_000);
+      MavenArtifact artifact =
+          new MavenArtifact(server.getRepository(), "org.example", "artifact-0");
+      DownloadPublisher publisher =
+          artifact.stream(ComparableVersion.of(RepositoryServer.getVersion(0)), "", "jar");
+      CollectingSubscriber subscriber = new CollectingSubscriber(true);
+      publisher.subscribe(subscriber);
+      subscriber.subscription.request(Long.MAX_VALUE);
+
+      Thread.sleep(500);
+      long transferred = publisher.getTransferred();
+      assertEquals(1, subscriber.chunks, "No chunk should be delivered after cancelling!");
+      assertFalse(subscriber.done.isDone(), "A cancelled download should not complete!");
+      Thread.sleep(200);
+      assertEquals(
+          transferred,
+          publisher.getTransferred(),
+          "Nothing should be read after cancelling, but the download continued!");
+      assertTrue(transferred < 4_000_000, "The download should stop early, but it did not!");
+    }
+  }
+
+  /**
+   * A {@link Subscriber} that collects the streamed content, requesting one chunk at a time.
+   *
+   * @since 0.3.0
+   */
+  private static class CollectingSubscriber implements Subscriber<ByteBuffer> {
+
+    /**
+     * Completed after the download completed or failed.
+     *
+     * @since 0.3.0
+     */
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    /**
+     * The received content.
+     *
+     * @since 0.3.0
+     */
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    /**
+     * {@code true} if the subscription should be cancelled after the first chunk.
+     *
+     * @since 0.3.0
+     */
+    private final boolean cancelAfterFirstChunk;
+
+    /**
+     * The subscription.
+     *
+     * @since 0.3.0
+     */
+    private volatile Subscription subscription;
+
+    /**
+     * The number of received chunks.
+     *
+     * @since 0.3.0
+     */
+    private volatile int chunks;
+
+    /**
+     * Creates an instance of {@link CollectingSubscriber}.
+     *
+     * @param cancelAfterFirstChunk {@code true} to cancel after the first chunk.
+     * @since 0.3.0
+     */
+    private CollectingSubscriber(boolean cancelAfterFirstChunk) {
+      this.cancelAfterFirstChunk = cancelAfterFirstChunk;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(ByteBuffer item) {
+      chunks++;
+      content.write(item.array(), item.arrayOffset() + item.position(), item.remaining());
+      if (cancelAfterFirstChunk) subscription.cancel();
+      else subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      done.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      done.complete(null);
+    }
+  }
+}
@@ -18,7 +18,15 @@ package org.statendee.maven_utils;
 import org.codehaus.plexus.util.Base64;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.metadata.SnapshotVersion;
+import org.statendee.maven_utils.schedule.DownloadPriority;
+import org.statendee.maven_utils.schedule.DownloadScheduler;
+import org.statendee.maven_utils.server.LoadHarness;
+import org.statendee.maven_utils.server.RepositoryServer;
 import org.statendee.maven_utils.version.ComparableVersion;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -34,7 +42,13 @@ import javax.xml.transform.stream.StreamResult;
 import java.io.*;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -43,7 +57,7 @@ import static org.mockito.Mockito.*;
  * A class that contains {@link Test}s to test the {@link MavenArtifact} class.
  *
  * @author jojomatik
- * @version 0.2.0
+ * @version 0.3.0
  * @since 0.2.0
  */
 public class MavenArtifactTest {
@@ -370,6 +384,303 @@ public class MavenArtifactTest {
         .getResponseCode();
   }
 
+  /**
+   * Tests if {@link MavenArtifact#download(ComparableVersion, String, String, String)} resolves the
+   * exact file name of a {@code SNAPSHOT}-file that was deployed in an earlier build than the
+   * latest one.
+   *
+   * @throws IOException if an I/O error occurs.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws RequestException if the mock server returned an response code other than 4xx or 5xx.
+   * @throws SAXException if any parse errors occur.
+   * @throws TransformerException if the mock {@link InputStream} cannot be built.
+   * @since 0.3.0
+   */
+  @Test
+  void testSnapshotVersions()
+      throws IOException, ParserConfigurationException, RequestException, SAXException,
+          TransformerException {
+    String artifactId = "test-snapshot-versions", snapshot = "1.0-SNAPSHOT";
+    String snapshotUrl = repo + "/" + group_id + "/" + artifactId + "/" + snapshot + "/";
+
+    // Create mock connection for the snapshot metadata.
+    HttpsURLConnection mockConnectionSnapshot = mock(HttpsURLConnection.class);
+    MockUrlStreamHandler.mockConnections.put(
+        new URL(snapshotUrl + "maven-metadata.xml"), mockConnectionSnapshot);
+    when(mockConnectionSnapshot.getInputStream())
+        .thenReturn(
+            getMockSnapshotVersionsStream(), getMockSnapshotVersionsStream(),
+            getMockSnapshotVersionsStream());
+
+    MavenArtifact artifact = new MavenArtifact(repo, group_id, artifactId);
+
+    // Check the parsed snapshot metadata.
+    SnapshotMetadata snapshotMetadata =
+        artifact.getSnapshotMetadata(ComparableVersion.of(snapshot));
+    assertEquals(
+        ComparableVersion.of("1.0-SNAPSHOT-20211215.173200-4"),
+        snapshotMetadata.latestBuild,
+        "The latest build should be parsed from the snapshot element, but it is not!");
+    assertEquals(
+        2,
+        snapshotMetadata.getBuilds().size(),
+        "Two builds should be retained, but a different number of builds is listed!");
+    SnapshotVersion sources = snapshotMetadata.getSnapshotVersion("sources", "jar");
+    assertEquals(
+        "test-snapshot-versions-1.0-20211214.120000-3-sources.jar",
+        sources.getFileName(artifactId),
+        "The file name of the sources should match the earlier build, but it does not!");
+    assertEquals(
+        Instant.parse("2021-12-14T12:00:00Z"),
+        sources.updated,
+        "The update time of the sources should be parsed, but it is not!");
+
+    // Downloading the latest sources should request the file of the earlier build directly.
+    HttpsURLConnection mockConnectionDownload = mock(HttpsURLConnection.class);
+    MockUrlStreamHandler.mockConnections.put(
+        new URL(snapshotUrl + "test-snapshot-versions-1.0-20211214.120000-3-sources.jar"),
+        mockConnectionDownload);
+    assertThrows(
+        NullPointerException.class,
+        () -> artifact.download(snapshotMetadata.latestBuild, "sources", "jar", null),
+        "A " + NullPointerException.class.getName() + " should be thrown, but it is not!");
+    assertThrows(
+        NullPointerException.class,
+        () -> artifact.download(ComparableVersion.of(snapshot), "sources", "jar", null),
+        "A " + NullPointerException.class.getName() + " should be thrown, but it is not!");
+
+    verify(
+            mockConnectionDownload,
+            times(2)
+                .description(
+                    "The sources of the earlier build should be requested exactly twice, but were requested a different amount of times."))
+        .connect();
+  }
+
+  /**
+   * Tests if {@link MavenArtifact#download(ComparableVersion, String, String, String)} downloads
+   * the main jar of a specific {@code SNAPSHOT}-build without requesting the {@code
+   * SNAPSHOT}-metadata, and if other files fall back to the name of the build if the metadata does
+   * not exist.
+   *
+   * @param directory a temporary directory to download the files to.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the mock server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  @Test
+  void testSnapshotBuildWithoutMetadata(@TempDir Path directory)
+      throws IOException, RequestException {
+    String artifactId = "test-snapshot-build", build = "1.0-20210101.120000-3";
+    String snapshotUrl = repo + "/" + group_id + "/" + artifactId + "/1.0-SNAPSHOT/";
+
+    // Create mock connections for missing snapshot metadata and the files of the build.
+    HttpsURLConnection mockConnectionSnapshot = mock(HttpsURLConnection.class);
+    when(mockConnectionSnapshot.getResponseCode()).thenReturn(404);
+    MockUrlStreamHandler.mockConnections.put(
+        new URL(snapshotUrl + "maven-metadata.xml"), mockConnectionSnapshot);
+    HttpsURLConnection mockConnectionJar = mock(HttpsURLConnection.class);
+    when(mockConnectionJar.getInputStream())
+        .thenReturn(new ByteArrayInputStream("jar".getBytes(StandardCharsets.UTF_8)));
+    MockUrlStreamHandler.mockConnections.put(
+        new URL(snapshotUrl + artifactId + "-" + build + ".jar"), mockConnectionJar);
+    HttpsURLConnection mockConnectionSources = mock(HttpsURLConnection.class);
+    when(mockConnectionSources.getInputStream())
+        .thenReturn(new ByteArrayInputStream("sources".getBytes(StandardCharsets.UTF_8)));
+    MockUrlStreamHandler.mockConnections.put(
+        new URL(snapshotUrl + artifactId + "-" + build + "-sources.jar"), mockConnectionSources);
+
+    MavenArtifact artifact = new MavenArtifact(repo, group_id, artifactId);
+    ComparableVersion version = ComparableVersion.of("1.0-SNAPSHOT-20210101.120000-3");
+    artifact.download(version, "", "jar", directory.resolve("main.jar").toString());
+    verify(
+            mockConnectionSnapshot,
+            never()
+                .description(
+                    "The main jar of a build should not request the snapshot metadata, but it does!"))
+        .connect();
+
+    artifact.download(version, "sources", "jar", directory.resolve("sources.jar").toString());
+    assertEquals(
+        "sources",
+        new String(Files.readAllBytes(directory.resolve("sources.jar")), StandardCharsets.UTF_8),
+        "The sources should be downloaded with the name of the build, but they are not!");
+  }
+
+  /**
+   * Tests if {@link MavenArtifact#download(ComparableVersion, List, String)} downloads all existing
+   * files and reports missing ones instead of throwing.
+   *
+   * @param directory a temporary directory to download the files to.
+   * @throws IOException if an I/O error occurs.
+   * @throws RequestException if the mock server returned an response code other than 4xx or 5xx.
+   * @since 0.3.0
+   */
+  @Test
+  void testBulkDownload(@TempDir Path directory) throws IOException, RequestException {
+    String artifactId = "test-bulk", version = "1.2.0";
+    String versionUrl = repo + "/" + group_id + "/" + artifactId + "/" + version + "/";
+
+    // Create mock connections for an existing jar and missing sources.
+    HttpsURLConnection mockConnectionJar = mock(HttpsURLConnection.class);
+    when(mockConnectionJar.getInputStream())
+        .thenReturn(new ByteArrayInputStream("jar".getBytes(StandardCharsets.UTF_8)));
+    MockUrlStreamHandler.mockConnections.put(
+        new URL(versionUrl + "test-bulk-1.2.0.jar"), mockConnectionJar);
+    HttpsURLConnection mockConnectionSources = mock(HttpsURLConnection.class);
+    when(mockConnectionSources.getResponseCode()).thenReturn(404);
+    MockUrlStreamHandler.mockConnections.put(
+        new URL(versionUrl + "test-bulk-1.2.0-sources.jar"), mockConnectionSources);
+
+    MavenArtifact artifact = new MavenArtifact(repo, group_id, artifactId);
+    List<DownloadResult> results =
+        artifact.download(
+            ComparableVersion.of(version),
+            Arrays.asList(ArtifactFile.of("jar"), ArtifactFile.of("sources", "jar")),
+            directory.toString());
+
+    assertEquals(2, results.size(), "There should be a result for each file, but there is not!");
+    assertTrue(results.get(0).isSuccessful(), "The jar should be downloaded, but it is not!");
+    assertEquals(
+        "jar",
+        new String(
+            Files.readAllBytes(directory.resolve("test-bulk-1.2.0.jar")), StandardCharsets.UTF_8),
+        "The downloaded jar should contain the mock content, but it does not!");
+    assertTrue(results.get(1).isMissing(), "The sources should be reported as missing!");
+  }
+
+  /**
+   * Tests if {@link MavenArtifact#probe(java.util.Collection, List)} reports existence, size and
+   * checksums of all combinations and if the results are used instead of further requests.
+   *
+   * @param directory a temporary directory to download the files to.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void testProbe(@TempDir Path directory) throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 2, 100_000);
+        RepositoryClient client =
+            new RepositoryClient(
+                server.getRepository(),
+                new CachePolicy(
+                    Duration.ofHours(1), Duration.ZERO, Duration.ZERO, Duration.ofHours(1)));
+        DownloadScheduler scheduler = new DownloadScheduler(1, 0, 0)) {
+      MavenArtifact artifact = client.artifact("org.example", "artifact-0");
+      List<ProbeResult> results =
+          artifact.probe(
+              Arrays.asList(
+                  ComparableVersion.of(RepositoryServer.getVersion(0)),
+                  ComparableVersion.of(RepositoryServer.getVersion(1))),
+              Arrays.asList(
+                  ArtifactFile.of("jar"),
+                  ArtifactFile.of("pom"),
+                  ArtifactFile.of("sources", "jar")));
+
+      assertEquals(6, results.size(), "There should be a result for each combination!");
+      ProbeResult jar = results.get(3), sources = results.get(5);
+      assertEquals(ComparableVersion.of(RepositoryServer.getVersion(1)), jar.version);
+      assertTrue(jar.exists, "The jar should exist, but it does not!");
+      assertEquals(100_000, jar.contentLength, "The size of the jar should be reported!");
+      assertNotNull(jar.sha1, "The SHA-1 header should be reported, but it is not!");
+      assertNotNull(jar.getLastModified(), "The Last-Modified header should be reported!");
+      assertEquals(
+          DownloadPriority.INTERACTIVE,
+          DownloadPriority.of("pom", results.get(4).contentLength),
+          "A small file should be downloaded interactively!");
+      assertTrue(sources.isMissing(), "The sources should be reported as missing!");
+      assertEquals(0, server.getBytesSent(), "Probes should not transfer any content!");
+
+      long requests = server.getRequestCount();
+      assertEquals(jar.sha1, client.getChecksum(jar.url + ".sha1"), "The SHA-1 should be reused!");
+      assertThrows(
+          RequestException.class,
+          () -> artifact.getInputStream(sources.version, "sources", "jar"),
+          "A file probed as missing should not be requested!");
+      DownloadResult result =
+          scheduler.download(artifact, sources, directory.resolve("sources.jar").toString()).get();
+      assertTrue(result.isMissing(), "The download of a missing file should fail at once!");
+      assertEquals(requests, server.getRequestCount(), "No request should have been sent!");
+    }
+  }
+
+  /**
+   * Tests if a {@code file://} repository is read directly from the file system, including
+   * conditional reads of the metadata, downloads and missing files.
+   *
+   * @param directory a temporary directory that contains the repository and the downloads.
+   * @throws IOException if an I/O error occurs.
+   * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies the
+   *     configuration requested.
+   * @throws RequestException if a file cannot be read.
+   * @throws SAXException if any parse errors occur.
+   * @throws TransformerException if the metadata cannot be built.
+   * @since 0.3.0
+   */
+  @Test
+  void testFileRepository(@TempDir Path directory)
+      throws IOException, ParserConfigurationException, RequestException, SAXException,
+          TransformerException {
+    Path artifactDirectory = directory.resolve("repository/test/test-file");
+    Files.createDirectories(artifactDirectory.resolve("1.2.3"));
+    try (InputStream metadata = getMockVersionStream("1.2.3", "1.2.4-SNAPSHOT")) {
+      Files.copy(metadata, artifactDirectory.resolve("maven-metadata.xml"));
+    }
+    Files.write(
+        artifactDirectory.resolve("1.2.3/test-file-1.2.3.jar"),
+        "jar".getBytes(StandardCharsets.UTF_8));
+
+    MavenArtifact artifact =
+        new MavenArtifact(directory.resolve("repository").toUri().toString(), "test", "test-file");
+    ArtifactMetadata metadata = artifact.getMetadata();
+    assertEquals(
+        ComparableVersion.of("1.2.3"),
+        metadata.release,
+        "The release should be read from the file system, but it is not!");
+    assertSame(
+        metadata,
+        artifact.getMetadata(metadata),
+        "Unchanged metadata should not be parsed again, but it is!");
+
+    Path target = directory.resolve("download/test-file.jar");
+    artifact.download(ComparableVersion.of("1.2.3"), "", "jar", target.toString());
+    assertEquals(
+        "jar",
+        new String(Files.readAllBytes(target), StandardCharsets.UTF_8),
+        "The jar should be copied from the file system, but it is not!");
+    RequestException missing =
+        assertThrows(
+            RequestException.class,
+            () -> artifact.download(ComparableVersion.of("1.0.0"), "", "jar", target.toString()),
+            "A missing file should be reported as " + RequestException.class.getName() + "!");
+    assertEquals(404, missing.responseCode, "A missing file should be reported as 404!");
+  }
+
+  /**
+   * Tests if a plain {@code http://} repository can be used, driven by the {@link LoadHarness}
+   * against an embedded {@link RepositoryServer}.
+   *
+   * @throws IOException if the server cannot be started.
+   * @throws InterruptedException if the test is interrupted while waiting for the harness.
+   * @since 0.3.0
+   */
+  @Test
+  void testHttpRepository() throws IOException, InterruptedException {
+    try (RepositoryServer server = new RepositoryServer("org.example", 4, 10, 64 * 1024)) {
+      MavenArtifact artifact =
+          new MavenArtifact(server.getRepository(), "org.example", "artifact-0");
+      LoadHarness.Result result =
+          LoadHarness.run(artifact, server.getArtifactIds(), 2, Duration.ofMillis(300), true);
+      assertTrue(result.resolutions > 0, "The harness should resolve artifacts, but it does not!");
+      assertEquals(0, result.errors, "No operation should fail, but " + result.errors + " did!");
+      assertEquals(
+          result.resolutions * 64 * 1024,
+          result.bytes,
+          "Every resolution should download the whole jar, but it does not!");
+    }
+  }
+
   /**
    * A mock for an {@link URLStreamHandler} that returns predefined {@link URLConnection}s based on
    * the {@link URL}.
@@ -463,6 +774,61 @@ public class MavenArtifactTest {
     return toInputStream(doc);
   }
 
+  /**
+   * Returns a mock {@link InputStream} containing a snapshot build and {@code snapshotVersion}
+   * entries, where the sources have been deployed in an earlier build than the main jar.
+   *
+   * @return a mock {@link InputStream} containing the snapshot metadata.
+   * @throws TransformerException if it is not possible to convert the {@link Document}.
+   * @since 0.3.0
+   */
+  private static InputStream getMockSnapshotVersionsStream() throws TransformerException {
+    Document doc = builder.newDocument();
+
+    Element metadata = doc.createElement("metadata");
+    doc.appendChild(metadata);
+
+    Element versioning = doc.createElement("versioning");
+    metadata.appendChild(versioning);
+
+    Element snapshot = doc.createElement("snapshot");
+    versioning.appendChild(snapshot);
+    appendTextElement(snapshot, "timestamp", "20211215.173200");
+    appendTextElement(snapshot, "buildNumber", "4");
+
+    Element snapshotVersions = doc.createElement("snapshotVersions");
+    versioning.appendChild(snapshotVersions);
+
+    Element jar = doc.createElement("snapshotVersion");
+    snapshotVersions.appendChild(jar);
+    appendTextElement(jar, "extension", "jar");
+    appendTextElement(jar, "value", "1.0-20211215.173200-4");
+    appendTextElement(jar, "updated", "20211215173200");
+
+    Element sources = doc.createElement("snapshotVersion");
+    snapshotVersions.appendChild(sources);
+    appendTextElement(sources, "classifier", "sources");
+    appendTextElement(sources, "extension", "jar");
+    appendTextElement(sources, "value", "1.0-20211214.120000-3");
+    appendTextElement(sources, "updated", "20211214120000");
+
+    return toInputStream(doc);
+  }
+
+  /**
+   * Appends a child element with a text content to an element.
+   *
+   * @param parent the element to append the child to.
+   * @param name the name of the child element.
+   * @param text the text content of the child element.
+   * @since 0.3.0
+   */
+  private static void appendTextElement(Element parent, String name, String text) {
+    Element child = parent.getOwnerDocument().createElement(name);
+    child.setTextContent(text);
+    parent.appendChild(child);
+  }
+
   /**
    * Converts a {@link Document} to an {@link InputStream}.
    *
@@ -0,0 +1,107 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.statendee.maven_utils.server.RepositoryServer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link MetadataPrefetcher} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class MetadataPrefetcherTest {
+
+  /**
+   * A {@link Test} that checks, if the access counts of a run are written to a manifest and if a
+   * prefetch of the manifest fills the cache of another client in the order of the counts.
+   *
+   * @param directory a temporary directory for the manifest.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void prefetch(@TempDir Path directory) throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 10, 5, 100)) {
+      Path manifest = directory.resolve("prefetch.manifest");
+      try (RepositoryClient client = new RepositoryClient(server.getRepository())) {
+        for (int i = 0; i < 10; i++)
+          for (int access = 0; access <= i; access++)
+            client.artifact("org.example", "artifact-" + i).getMetadata();
+        MetadataPrefetcher.writeManifest(client, manifest);
+      }
+      List<String> coordinates = MetadataPrefetcher.readManifest(manifest);
+      assertEquals(10, coordinates.size(), "Every accessed artifact should be in the manifest!");
+      assertEquals(
+          Arrays.asList("org.example:artifact-9", "org.example:artifact-8"),
+          coordinates.subList(0, 2),
+          "The most accessed artifacts should come first, but they do not!");
+
+      try (RepositoryClient client =
+          new RepositoryClient(
+              server.getRepository(),
+              new CachePolicy(Duration.ofHours(1), Duration.ZERO, Duration.ZERO, Duration.ZERO))) {
+        AtomicInteger progress = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        PrefetchListener listener =
+            new PrefetchListener() {
+              @Override
+              public void onProgress(int completed, int total) {
+                assertEquals(10, total, "The total should be the number of coordinates!");
+                progress.incrementAndGet();
+              }
+
+              @Override
+              public void onError(String coordinates, Exception exception) {
+                errors.incrementAndGet();
+              }
+            };
+        MetadataPrefetcher prefetcher = new MetadataPrefetcher(client, 4);
+        PrefetchResult result = prefetcher.prefetch(manifest, listener).get(10, TimeUnit.SECONDS);
+        assertEquals(10, result.getSucceeded(), "Every artifact should be prefetched!");
+        assertEquals(10, progress.get(), "The progress should be reported for each artifact!");
+        assertEquals(0, errors.get(), "No error should be reported!");
+        assertTrue(client.getAccessCounts().isEmpty(), "Prefetching should not count as access!");
+
+        long requests = server.getRequestCount();
+        for (String entry : coordinates)
+          client.artifact("org.example", entry.substring(entry.indexOf(':') + 1)).getMetadata();
+        assertEquals(requests, server.getRequestCount(), "Prefetched metadata should be cached!");
+
+        result =
+            new MetadataPrefetcher(client)
+                .prefetch(Arrays.asList("org.example:missing", "invalid"), null)
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(2, result.failures.size(), "Both coordinates should fail, but they do not!");
+        assertTrue(
+            result.failures.get("org.example:missing") instanceof RequestException,
+            "A missing artifact should fail with a RequestException!");
+      }
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.metadata.SnapshotVersion;
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link MetadataSnapshot} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class MetadataSnapshotTest {
+
+  /**
+   * A {@link Test} that checks, if cached metadata is restored from a snapshot and revalidated in
+   * the background.
+   *
+   * @param directory a temporary directory for the snapshot.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void saveAndLoad(@TempDir Path directory) throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 50, 20, 100)) {
+      Path file = directory.resolve("metadata.bin");
+      String snapshotKey;
+      try (RepositoryClient client = new RepositoryClient(server.getRepository())) {
+        for (String artifactId : server.getArtifactIds())
+          client.artifact("org.example", artifactId).getMetadata();
+        // The test server has no SNAPSHOT-versions, so a removed one is cached directly.
+        ComparableVersion version = ComparableVersion.of("2.0-SNAPSHOT");
+        snapshotKey = client.url + "org/example/artifact-0/" + version;
+        client.snapshotMetadata.put(
+            snapshotKey,
+            new SnapshotMetadata(
+                version,
+                ComparableVersion.of("2.0-SNAPSHOT-20211215.173200-2"),
+                Arrays.asList(
+                    new SnapshotVersion(
+                        version, "", "jar", "2.0-20211215.173200-2", "20211215173200"),
+                    new SnapshotVersion(version, "sources", "jar", "2.0-20211214.100000-1", null)),
+                new Validators("\"snapshot\"", null)));
+        assertEquals(51, client.saveMetadata(file), "Every cached entry should be written!");
+      }
+      assertTrue(
+          Files.size(file) < 50 * 20 * 6,
+          "Versions and validators should be stored once, but the snapshot is too large!");
+
+      try (RepositoryClient client = new RepositoryClient(server.getRepository(), null, null, 4)) {
+        assertEquals(51, client.loadMetadata(file), "Every entry should be restored!");
+        MavenArtifact artifact = client.artifact("org.example", "artifact-1");
+        ArtifactMetadata restored =
+            client.artifactMetadata.get(client.url + "org/example/artifact-1");
+        assertNotNull(restored, "The metadata should be restored, but it is not!");
+        assertEquals(
+            ComparableVersion.of(RepositoryServer.getVersion(19)),
+            restored.release,
+            "The restored release should match, but it does not!");
+        assertEquals(20, restored.versions.size(), "All versions should be restored!");
+        assertEquals("20211214120000", restored.lastUpdated, "lastUpdated should be restored!");
+
+        SnapshotMetadata snapshot = client.snapshotMetadata.get(snapshotKey);
+        assertEquals(
+            ComparableVersion.of("2.0-SNAPSHOT-20211215.173200-2"),
+            snapshot.latestBuild,
+            "The latest build should be restored, but it is not!");
+        assertEquals(
+            "2.0-20211214.100000-1",
+            snapshot.getSnapshotVersion("sources", "jar").value,
+            "The snapshot versions should be restored, but they are not!");
+        assertEquals(
+            "\"snapshot\"", snapshot.validators.etag, "The validators should be restored!");
+        assertNotNull(
+            snapshot.getSnapshotVersion("", "jar").updated,
+            "The deployment time should be restored, but it is not!");
+
+        long requests = server.getRequestCount();
+        assertSame(restored, artifact.getMetadata(), "Unchanged metadata should be reused!");
+        assertEquals(
+            requests + 1, server.getRequestCount(), "Restored metadata should be revalidated!");
+
+        server.publish(
+            "/org/example/artifact-2/maven-metadata.xml",
+            ("<metadata><versioning><release>3.0</release><versions><version>3.0</version>"
+                    + "</versions></versioning></metadata>")
+                .getBytes(StandardCharsets.UTF_8));
+        assertEquals(
+            2,
+            client.revalidateMetadata().get(10, TimeUnit.SECONDS),
+            "The changed metadata and the removed SNAPSHOT-version should be revalidated!");
+        assertEquals(
+            ComparableVersion.of("3.0"),
+            client.artifactMetadata.get(client.url + "org/example/artifact-2").release,
+            "The changed metadata should be replaced, but it is not!");
+        assertNull(client.snapshotMetadata.get(snapshotKey), "Deleted metadata should be removed!");
+      }
+
+      Files.write(file, Arrays.copyOf(Files.readAllBytes(file), 100));
+      try (RepositoryClient client = new RepositoryClient(server.getRepository())) {
+        assertThrows(
+            IOException.class,
+            () -> client.loadMetadata(file),
+            "A truncated snapshot should be rejected, but it is not!");
+      }
+    }
+  }
+}
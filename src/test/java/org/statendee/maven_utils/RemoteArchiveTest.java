@@ -0,0 +1,179 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link RemoteArchive} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class RemoteArchiveTest {
+
+  /**
+   * The content of the {@code plugin.yml} entry of the test jar.
+   *
+   * @since 0.3.0
+   */
+  private static final String PLUGIN_YML = "name: Example\nmain: org.example.Main\n";
+
+  /**
+   * A {@link Test} that checks, if single entries are read with range requests and if the whole
+   * jar is downloaded if the server does not support ranges.
+   *
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void readEntries() throws Exception {
+    byte[] jar = createJar(0);
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 1, 1_000)) {
+      server.publish("/org/example/artifact-0/1.0.0/artifact-0-1.0.0.jar", jar);
+      MavenArtifact artifact =
+          new MavenArtifact(server.getRepository(), "org.example", "artifact-0");
+
+      try (RemoteArchive archive = artifact.openArchive(ComparableVersion.of("1.0.0"), "", "jar")) {
+        assertTrue(archive.isRangeSupported(), "The server should support ranges!");
+        assertEquals(jar.length, archive.getLength(), "The length of the jar should be known!");
+        assertArchive(archive);
+        assertTrue(
+            archive.getTransferred() < 100_000,
+            "Only a small part of the jar should be transferred, but "
+                + archive.getTransferred()
+                + " bytes were!");
+      }
+
+      server.setRangesSupported(false);
+      try (RemoteArchive archive = artifact.openArchive(ComparableVersion.of("1.0.0"), "", "jar")) {
+        assertFalse(archive.isRangeSupported(), "The server should not support ranges anymore!");
+        assertArchive(archive);
+      }
+    }
+  }
+
+  /**
+   * A {@link Test} that checks, if {@code ZIP64} archives of a {@code file://} repository are read.
+   *
+   * @param repository a temporary directory used as repository.
+   * @throws Exception if the archive cannot be read.
+   * @since 0.3.0
+   */
+  @Test
+  void readZip64(@TempDir Path repository) throws Exception {
+    byte[] jar = createJar(70_000);
+    Path file = repository.resolve("org/example/big/1.0/big-1.0.jar");
+    Files.createDirectories(file.getParent());
+    Files.write(file, jar);
+
+    MavenArtifact artifact = new MavenArtifact(repository.toUri().toString(), "org.example", "big");
+    try (RemoteArchive archive = artifact.openArchive(ComparableVersion.of("1.0"), "", "jar")) {
+      assertTrue(archive.isRangeSupported(), "Local files should be read with ranges!");
+      assertEquals(70_004, archive.getEntries().size(), "Every entry should be listed!");
+      assertArchive(archive);
+      assertArrayEquals(
+          "69999".getBytes(StandardCharsets.UTF_8),
+          archive.read("entries/69999.txt"),
+          "The last entry should be read, but it is not!");
+    }
+  }
+
+  /**
+   * Checks the entries of a test jar.
+   *
+   * @param archive the archive of the test jar.
+   * @throws Exception if the archive cannot be read.
+   * @since 0.3.0
+   */
+  private static void assertArchive(RemoteArchive archive) throws Exception {
+    Manifest manifest = archive.getManifest();
+    assertNotNull(manifest, "The jar should have a manifest!");
+    assertEquals(
+        "org.example.Main",
+        manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS),
+        "The main class should be read from the manifest!");
+    Map<String, byte[]> contents =
+        archive.read(Arrays.asList("plugin.yml", "stored.bin", "missing.txt"));
+    assertArrayEquals(
+        PLUGIN_YML.getBytes(StandardCharsets.UTF_8),
+        contents.get("plugin.yml"),
+        "The plugin.yml should be inflated, but it is not!");
+    assertEquals(4096, contents.get("stored.bin").length, "The stored entry should be read!");
+    assertFalse(contents.containsKey("missing.txt"), "Missing entries should be skipped!");
+    assertNull(archive.getEntry("missing.txt"), "Missing entries should not be listed!");
+  }
+
+  /**
+   * Creates a jar with a manifest, a {@code plugin.yml}, a stored entry, 500 KB of incompressible
+   * data and optionally many small entries.
+   *
+   * @param smallEntries the number of small entries, enough entries make the jar {@code ZIP64}.
+   * @return the jar.
+   * @throws IOException if the jar cannot be written.
+   * @since 0.3.0
+   */
+  private static byte[] createJar(int smallEntries) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "org.example.Main");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (JarOutputStream jar = new JarOutputStream(bytes, manifest)) {
+      byte[] random = new byte[500_000];
+      new Random(42).nextBytes(random);
+      jar.putNextEntry(new ZipEntry("lib/random.bin"));
+      jar.write(random);
+      jar.putNextEntry(new ZipEntry("plugin.yml"));
+      jar.write(PLUGIN_YML.getBytes(StandardCharsets.UTF_8));
+
+      byte[] stored = Arrays.copyOf(random, 4096);
+      ZipEntry entry = new ZipEntry("stored.bin");
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(stored.length);
+      CRC32 crc = new CRC32();
+      crc.update(stored);
+      entry.setCrc(crc.getValue());
+      jar.putNextEntry(entry);
+      jar.write(stored);
+
+      for (int i = 0; i < smallEntries; i++) {
+        jar.putNextEntry(new ZipEntry("entries/" + i + ".txt"));
+        jar.write(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,152 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link RepositoryClient} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class RepositoryClientTest {
+
+  /**
+   * A {@link Test} that checks, if artifact handles share the client, its metadata cache and its
+   * executor when used concurrently.
+   *
+   * @param directory a temporary directory to download files to.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void shareClient(@TempDir Path directory) throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 8, 20, 1_000);
+        RepositoryClient client = new RepositoryClient(server.getRepository(), null, null, 4)) {
+      MavenArtifact artifact = client.artifact("org.example", "artifact-1");
+      assertSame(client, artifact.getClient(), "The handle should use the client!");
+      assertSame(
+          client,
+          artifact.withCoordinates("org.example", "artifact-2").getClient(),
+          "Handles with other coordinates should share the client, but they do not!");
+
+      ArtifactMetadata metadata = artifact.getMetadata();
+      long requests = server.getRequestCount();
+      assertSame(
+          metadata,
+          client.artifact("org.example", "artifact-1").getMetadata(),
+          "Unchanged metadata should be reused by another handle, but it is not!");
+      assertEquals(
+          requests + 1,
+          server.getRequestCount(),
+          "The cached metadata should be revalidated with a single request!");
+
+      List<CompletableFuture<ComparableVersion>> futures = new ArrayList<>();
+      for (String artifactId : server.getArtifactIds()) {
+        MavenArtifact handle = client.artifact("org.example", artifactId);
+        futures.add(
+            CompletableFuture.supplyAsync(
+                () -> {
+                  try {
+                    return handle.getLatestVersion();
+                  } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                  }
+                },
+                client.getExecutor()));
+      }
+      for (CompletableFuture<ComparableVersion> future : futures)
+        assertEquals(
+            ComparableVersion.of(RepositoryServer.getVersion(19)),
+            future.join(),
+            "Every handle should resolve the latest version, but one does not!");
+
+      List<DownloadResult> results =
+          artifact.download(
+              ComparableVersion.of(RepositoryServer.getVersion(0)),
+              Arrays.asList(ArtifactFile.of("jar"), ArtifactFile.of("pom")),
+              directory.toString());
+      for (DownloadResult result : results) {
+        assertTrue(result.isSuccessful(), "Each file should be downloaded, but one is not!");
+        assertTrue(Files.exists(result.path), "Each downloaded file should exist!");
+      }
+    }
+  }
+
+  /**
+   * A {@link Test} that checks, if unchanged files are not downloaded again and changed files are.
+   *
+   * @param directory a temporary directory to download files to.
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void downloadIfModified(@TempDir Path directory) throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 1, 10_000);
+        RepositoryClient client = new RepositoryClient(server.getRepository())) {
+      MavenArtifact artifact = client.artifact("org.example", "artifact-0");
+      ComparableVersion version = ComparableVersion.of(RepositoryServer.getVersion(0));
+      Path path = directory.resolve("artifact-0.jar");
+      assertTrue(
+          artifact.downloadIfModified(version, "", "jar", path.toString()),
+          "A missing file should be downloaded, but it is not!");
+      assertEquals(10_000, Files.size(path), "The downloaded file should be complete!");
+
+      FileTime modified = Files.getLastModifiedTime(path);
+      long requests = server.getRequestCount();
+      long bytes = server.getBytesSent();
+      assertFalse(
+          artifact.downloadIfModified(version, "", "jar", path.toString()),
+          "An unchanged file should not be downloaded again, but it is!");
+      assertEquals(
+          requests + 1, server.getRequestCount(), "An unchanged file should cost one request!");
+      assertEquals(bytes, server.getBytesSent(), "An unchanged file should not be transferred!");
+      assertEquals(modified, Files.getLastModifiedTime(path), "The file should not be written!");
+
+      byte[] content = "changed".getBytes(StandardCharsets.UTF_8);
+      server.publish(
+          "/org/example/artifact-0/" + version + "/artifact-0-" + version + ".jar", content);
+      assertTrue(
+          artifact.downloadIfModified(version, "", "jar", path.toString()),
+          "A changed file should be downloaded again, but it is not!");
+      assertArrayEquals(content, Files.readAllBytes(path), "The file should be updated!");
+
+      // A file changed locally is downloaded again, even if the remote file did not change.
+      Files.write(path, new byte[] {1, 2, 3});
+      assertTrue(
+          artifact.downloadIfModified(version, "", "jar", path.toString()),
+          "A locally changed file should be downloaded again, but it is not!");
+      assertArrayEquals(content, Files.readAllBytes(path), "The file should be restored!");
+    }
+  }
+}
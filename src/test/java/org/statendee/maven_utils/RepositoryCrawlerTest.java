@@ -0,0 +1,164 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.statendee.maven_utils.index.ArtifactIndex;
+import org.statendee.maven_utils.index.IndexedArtifact;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionIndex;
+import org.statendee.maven_utils.version.VersionRange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link RepositoryCrawler} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class RepositoryCrawlerTest {
+
+  /**
+   * A {@link Test} that checks, if a crawl finds all artifacts below a groupId, if the index
+   * answers queries, if a completed crawl deletes its checkpoint and if an interrupted crawl is
+   * resumed from its checkpoint.
+   *
+   * @param directory a temporary directory for the checkpoints.
+   * @throws Exception if the crawl fails.
+   * @since 0.3.0
+   */
+  @Test
+  void crawl(@TempDir Path directory) throws Exception {
+    try (RepositoryServer server = new RepositoryServer("org.example", 12, 5, 100);
+        RepositoryClient client = new RepositoryClient(server.getRepository())) {
+      server.publish(
+          "/org/example/sub/lib/maven-metadata.xml",
+          ("<metadata><groupId>org.example.sub</groupId><artifactId>lib</artifactId><versioning>"
+                  + "<versions><version>2.0</version><version>2.1-SNAPSHOT</version></versions>"
+                  + "</versioning></metadata>")
+              .getBytes(StandardCharsets.UTF_8));
+      // The metadata of a plugin group lists no versions and does not make it an artifact.
+      server.publish(
+          "/org/maven-metadata.xml",
+          "<metadata><plugins/></metadata>".getBytes(StandardCharsets.UTF_8));
+
+      Path checkpoint = directory.resolve("crawl.checkpoint");
+      long requests = server.getRequestCount();
+      ArtifactIndex index = new RepositoryCrawler(client, 4).crawl("org", checkpoint);
+      long crawlRequests = server.getRequestCount() - requests;
+      assertEquals(13, index.size(), "Every artifact should be found, but some are not!");
+      assertEquals(12, index.search("org.example:").size(), "The group should have 12 artifacts!");
+      assertEquals(13, index.search("org.example").size(), "Sub-groups should match the prefix!");
+      assertEquals(3, index.search("org.example:artifact-1").size(), "1, 10 and 11 should match!");
+      assertTrue(index.search("com").isEmpty(), "Nothing should match another group!");
+
+      IndexedArtifact lib = index.get("org.example.sub", "lib");
+      assertNotNull(lib, "The artifact of the sub-group should be found, but it is not!");
+      assertEquals(
+          ComparableVersion.of("2.0"),
+          index.getHighest(
+              "org.example.sub", "lib", VersionRange.parse("[1.0,)"), VersionIndex.RELEASES),
+          "The latest release should be 2.0!");
+      assertEquals(
+          ComparableVersion.of(RepositoryServer.getVersion(3)),
+          index.getHighest(
+              "org.example",
+              "artifact-7",
+              VersionRange.parse("[1.0," + RepositoryServer.getVersion(4) + ")"),
+              VersionIndex.ANY),
+          "The highest version below the latest should be found, but it is not!");
+      assertNull(
+          index.getHighest("org.example", "missing", VersionRange.ALL, VersionIndex.ANY),
+          "Unknown artifacts should have no version!");
+
+      assertFalse(Files.exists(checkpoint), "The checkpoint should be deleted after the crawl!");
+
+      // A second crawl with the same checkpoint sees the changes of the repository.
+      server.publish(
+          "/org/example/sub/tool/maven-metadata.xml",
+          ("<metadata><groupId>org.example.sub</groupId><artifactId>tool</artifactId><versioning>"
+                  + "<versions><version>1.0</version></versions></versioning></metadata>")
+              .getBytes(StandardCharsets.UTF_8));
+      requests = server.getRequestCount();
+      ArtifactIndex changed = new RepositoryCrawler(client, 4).crawl("org", checkpoint);
+      crawlRequests = server.getRequestCount() - requests;
+      assertEquals(14, changed.size(), "The new artifact should be found, but it is not!");
+      assertNotNull(changed.get("org.example.sub", "tool"), "The new artifact is missing!");
+      assertFalse(Files.exists(checkpoint), "The checkpoint should be deleted after the crawl!");
+
+      // Fail a crawl with invalid metadata, the checkpoint keeps its progress.
+      byte[] metadata =
+          ("<metadata><groupId>org.example.sub</groupId><artifactId>lib</artifactId><versioning>"
+                  + "<versions><version>2.0</version><version>2.1-SNAPSHOT</version></versions>"
+                  + "</versioning></metadata>")
+              .getBytes(StandardCharsets.UTF_8);
+      server.publish(
+          "/org/example/sub/lib/maven-metadata.xml",
+          Arrays.copyOf(metadata, metadata.length / 2));
+      Path interrupted = directory.resolve("interrupted.checkpoint");
+      assertThrows(
+          IOException.class,
+          () -> new RepositoryCrawler(client, 1).crawl("org", interrupted),
+          "Invalid metadata should fail the crawl, but it does not!");
+      assertTrue(Files.exists(interrupted), "The checkpoint should be kept after a failure!");
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> new RepositoryCrawler(client).crawl("org.example", interrupted),
+          "A checkpoint of another groupId should be rejected, but it is not!");
+
+      // Cut the checkpoint in the middle of a line, as if the crawl was killed, and resume it.
+      byte[] bytes = Files.readAllBytes(interrupted);
+      Files.write(interrupted, Arrays.copyOf(bytes, bytes.length - 3));
+      server.publish("/org/example/sub/lib/maven-metadata.xml", metadata);
+      requests = server.getRequestCount();
+      ArtifactIndex resumed = new RepositoryCrawler(client).crawl("org", interrupted);
+      long resumedRequests = server.getRequestCount() - requests;
+      assertEquals(
+          toString(changed),
+          toString(resumed),
+          "The resumed index should match, but it does not!");
+      assertTrue(
+          resumedRequests < crawlRequests,
+          "A resumed crawl should skip crawled directories, but it does not!");
+      assertFalse(Files.exists(interrupted), "The checkpoint should be deleted after the crawl!");
+    }
+  }
+
+  /**
+   * Returns the artifacts and versions of an index as {@link String}s.
+   *
+   * @param index the index.
+   * @return the artifacts and versions of the index.
+   * @since 0.3.0
+   */
+  private static List<String> toString(ArtifactIndex index) {
+    List<String> artifacts = new ArrayList<>();
+    for (IndexedArtifact artifact : index.getArtifacts()) artifacts.add(artifact.toString());
+    return artifacts;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.limit;
+
+import org.junit.jupiter.api.Test;
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.RepositoryClient;
+import org.statendee.maven_utils.RequestException;
+import org.statendee.maven_utils.server.RepositoryServer;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link AdaptiveLimiter} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class AdaptiveLimiterTest {
+
+  /**
+   * The URL of a host used by the tests.
+   *
+   * @since 0.3.0
+   */
+  private static final String HOST = "https://repo.example.org/releases/";
+
+  /**
+   * A {@link Test} that checks, if requests over the limit wait with a timeout and if the limit
+   * grows additively and shrinks multiplicatively.
+   *
+   * @throws Exception if a permit cannot be acquired.
+   * @since 0.3.0
+   */
+  @Test
+  void increaseAdditivelyDecreaseMultiplicatively() throws Exception {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 8, Duration.ofMillis(100));
+    AdaptiveLimiter.Permit first = limiter.acquire(HOST);
+    AdaptiveLimiter.Permit second = limiter.acquire(HOST + "org/example/");
+    assertEquals(2, limiter.getInFlight(HOST), "Both requests should be running!");
+    assertThrows(
+        LimiterTimeoutException.class,
+        () -> limiter.acquire(HOST),
+        "A request over the limit should time out, but it does not!");
+    assertEquals(0, limiter.getInFlight("https://other.example.org/"), "Hosts are independent!");
+
+    first.onSuccess();
+    first.release();
+    second.onSuccess();
+    second.release();
+    assertEquals(2, limiter.getLimit(HOST), "The limit should grow by 1/limit per success!");
+    for (int i = 0; i < 20; i++) {
+      AdaptiveLimiter.Permit a = limiter.acquire(HOST);
+      AdaptiveLimiter.Permit b = limiter.acquire(HOST);
+      a.onSuccess();
+      b.onSuccess();
+      a.release();
+      b.release();
+    }
+    int limit = limiter.getLimit(HOST);
+    assertTrue(limit > 2, "Successful requests should raise the limit, but it is " + limit + "!");
+
+    AdaptiveLimiter.Permit failed = limiter.acquire(HOST);
+    failed.onOverload();
+    failed.release();
+    assertEquals(
+        Math.max(1, (int) (limit * AdaptiveLimiter.BACKOFF_RATIO)),
+        limiter.getLimit(HOST),
+        "An overload response should halve the limit!");
+    assertEquals(0, limiter.getInFlight(HOST), "All permits should be released!");
+  }
+
+  /**
+   * A {@link Test} that checks, if concurrent overload responses lower the limit only once and if
+   * a request permitted after the decrease lowers it again.
+   *
+   * @throws Exception if a permit cannot be acquired.
+   * @since 0.3.0
+   */
+  @Test
+  void decreaseOncePerWindow() throws Exception {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 16, Duration.ofMillis(100));
+    AdaptiveLimiter.Permit[] permits = new AdaptiveLimiter.Permit[8];
+    for (int i = 0; i < permits.length; i++) permits[i] = limiter.acquire(HOST);
+    for (AdaptiveLimiter.Permit permit : permits) {
+      permit.onOverload();
+      permit.release();
+    }
+    assertEquals(4, limiter.getLimit(HOST), "Concurrent overloads should halve the limit once!");
+
+    AdaptiveLimiter.Permit later = limiter.acquire(HOST);
+    later.onOverload();
+    later.release();
+    assertEquals(2, limiter.getLimit(HOST), "A later overload should halve the limit again!");
+  }
+
+  /**
+   * A {@link Test} that checks, if a {@link RepositoryClient} lowers the limit when the server
+   * responds with {@code 503 (Service Unavailable)}.
+   *
+   * @throws Exception if a request fails unexpectedly.
+   * @since 0.3.0
+   */
+  @Test
+  void backOffOnServiceUnavailable() throws Exception {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 16, Duration.ofSeconds(5));
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 3, 1_000);
+        RepositoryClient client =
+            new RepositoryClient(server.getRepository(), null, null, null, limiter)) {
+      MavenArtifact artifact = client.artifact("org.example", "artifact-0");
+      server.injectErrors(503, 2);
+      for (int i = 0; i < 2; i++) {
+        RequestException e = assertThrows(RequestException.class, artifact::getLatestVersion);
+        assertEquals(503, e.responseCode, "The server should be unavailable!");
+      }
+      assertEquals(2, limiter.getLimit(server.getRepository()), "503s should halve the limit!");
+
+      assertNotNull(artifact.getLatestVersion(), "The server should be available again!");
+      assertEquals(0, limiter.getInFlight(server.getRepository()), "No request should be running!");
+    }
+  }
+}
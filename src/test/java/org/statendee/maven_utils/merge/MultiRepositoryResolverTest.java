@@ -0,0 +1,120 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.merge;
+
+import org.junit.jupiter.api.Test;
+import org.statendee.maven_utils.RepositoryClient;
+import org.statendee.maven_utils.RequestException;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link MultiRepositoryResolver} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class MultiRepositoryResolverTest {
+
+  /**
+   * A {@link Test} that checks, if the metadata of several repositories is merged, if every version
+   * is attributed to its repository and if a slow repository does not delay the result.
+   *
+   * @throws Exception if a request fails.
+   * @since 0.3.0
+   */
+  @Test
+  void resolve() throws Exception {
+    try (RepositoryServer releases = new RepositoryServer("org.example", 1, 3, 100);
+        RepositoryServer proxy = new RepositoryServer("org.example", 1, 5, 100);
+        RepositoryServer other = new RepositoryServer("org.other", 1, 1, 100);
+        RepositoryServer slow = new RepositoryServer("org.example", 1, 10, 100);
+        RepositoryClient releasesClient = new RepositoryClient(releases.getRepository());
+        RepositoryClient proxyClient = new RepositoryClient(proxy.getRepository());
+        RepositoryClient otherClient = new RepositoryClient(other.getRepository());
+        RepositoryClient slowClient = new RepositoryClient(slow.getRepository())) {
+      slow.setLatency(Duration.ofSeconds(3));
+      MultiRepositoryResolver resolver =
+          new MultiRepositoryResolver(
+              Arrays.asList(releasesClient, proxyClient, otherClient, slowClient),
+              Duration.ofMillis(500));
+
+      long start = System.nanoTime();
+      MergedMetadata merged = resolver.resolve("org.example", "artifact-0");
+      assertTrue(
+          Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0,
+          "The slow repository should not delay the result, but it does!");
+      assertEquals(
+          Collections.singletonList(slowClient.url),
+          merged.unavailable,
+          "Only the slow repository should be unavailable!");
+      assertEquals(5, merged.metadata.versions.size(), "The versions should be merged!");
+
+      SourcedVersion release = merged.getRelease();
+      assertEquals(ComparableVersion.of(RepositoryServer.getVersion(4)), release.version);
+      assertSame(proxyClient, release.repository, "The release should come from the proxy!");
+      assertSame(
+          releasesClient,
+          merged.getSource(ComparableVersion.of(RepositoryServer.getVersion(0))),
+          "A version in several repositories should come from the first one!");
+
+      publishSnapshot(releases, "20211215.120000", 1);
+      publishSnapshot(proxy, "20211216.120000", 2);
+      SourcedVersion build =
+          resolver.resolveSnapshotBuild(
+              "org.example", "artifact-0", ComparableVersion.of("2.0-SNAPSHOT"));
+      assertEquals(ComparableVersion.of("2.0-SNAPSHOT-20211216.120000-2"), build.version);
+      assertSame(proxyClient, build.repository, "The newest build should come from the proxy!");
+
+      RequestException exception =
+          assertThrows(
+              RequestException.class,
+              () ->
+                  new MultiRepositoryResolver(Collections.singletonList(otherClient))
+                      .resolve("org.example", "artifact-0"),
+              "A missing artifact should not be resolved!");
+      assertEquals(404, exception.responseCode, "A missing artifact should be reported as 404!");
+    }
+  }
+
+  /**
+   * Publishes the {@code SNAPSHOT}-metadata of the version {@code 2.0-SNAPSHOT} of {@code
+   * artifact-0}.
+   *
+   * @param server the server to publish the metadata to.
+   * @param timestamp the timestamp of the latest build.
+   * @param buildNumber the number of the latest build.
+   * @since 0.3.0
+   */
+  private static void publishSnapshot(RepositoryServer server, String timestamp, int buildNumber) {
+    server.publish(
+        "/org/example/artifact-0/2.0-SNAPSHOT/maven-metadata.xml",
+        ("<metadata><versioning><snapshot><timestamp>"
+                + timestamp
+                + "</timestamp><buildNumber>"
+                + buildNumber
+                + "</buildNumber></snapshot></versioning></metadata>")
+            .getBytes(StandardCharsets.UTF_8));
+  }
+}
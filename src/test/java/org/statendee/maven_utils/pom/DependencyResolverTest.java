@@ -0,0 +1,329 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.pom;
+
+import org.junit.jupiter.api.Test;
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.RequestException;
+import org.statendee.maven_utils.version.ComparableVersion;
+import org.statendee.maven_utils.version.VersionIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link EffectivePomBuilder} and {@link
+ * DependencyResolver} classes.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class DependencyResolverTest {
+
+  /**
+   * A {@link Test} that checks, if inheritance, imports, interpolation, scopes, optional
+   * dependencies, exclusions, version ranges and "nearest wins" are applied while resolving.
+   *
+   * @throws DependencyResolutionException if the root cannot be resolved.
+   * @since 0.3.0
+   */
+  @Test
+  void resolve() throws DependencyResolutionException {
+    Map<String, String> poms = new HashMap<>();
+    poms.put(
+        "test:parent:1",
+        pom(
+            "<groupId>test</groupId><artifactId>parent</artifactId><version>1</version>"
+                + "<properties><lib.version>2.0</lib.version></properties>"
+                + "<dependencyManagement><dependencies>"
+                + dependency("test", "bom", "1", "<type>pom</type><scope>import</scope>")
+                + "</dependencies></dependencyManagement>"));
+    poms.put(
+        "test:bom:1",
+        pom(
+            "<groupId>test</groupId><artifactId>bom</artifactId><version>1</version>"
+                + "<dependencyManagement><dependencies>"
+                + dependency("test", "b", "1.5", "")
+                + "</dependencies></dependencyManagement>"));
+    poms.put(
+        "test:app:1.0",
+        pom(
+            "<parent><groupId>test</groupId><artifactId>parent</artifactId><version>1</version>"
+                + "</parent><artifactId>app</artifactId><version>1.0</version><dependencies>"
+                + dependency("test", "a", "${lib.version}", "")
+                + "<dependency><groupId>test</groupId><artifactId>b</artifactId><exclusions>"
+                + "<exclusion><groupId>test</groupId><artifactId>g</artifactId></exclusion>"
+                + "</exclusions></dependency>"
+                + dependency("test", "junit", "5.0", "<scope>test</scope>")
+                + dependency("test", "x", "1.0", "")
+                + "</dependencies>"));
+    poms.put(
+        "test:a:2.0",
+        pom(
+            "<groupId>test</groupId><artifactId>a</artifactId><version>2.0</version><dependencies>"
+                + dependency("test", "c", "1.0", "")
+                + dependency("test", "d", "1.0", "<scope>test</scope>")
+                + dependency("test", "e", "1.0", "<optional>true</optional>")
+                + "</dependencies>"));
+    poms.put(
+        "test:b:1.5",
+        pom(
+            "<groupId>test</groupId><artifactId>b</artifactId><version>1.5</version><dependencies>"
+                + dependency("test", "c", "2.0", "")
+                + dependency("test", "f", "[1.0,2.0)", "<scope>runtime</scope>")
+                + dependency("test", "g", "1.0", "")
+                + "</dependencies>"));
+    poms.put("test:c:1.0", pom("<groupId>test</groupId><artifactId>c</artifactId>"));
+    poms.put("test:f:1.5", pom("<groupId>test</groupId><artifactId>f</artifactId>"));
+
+    MockRepository repository = new MockRepository("app", poms, new AtomicInteger());
+    ResolutionResult result;
+    try (DependencyResolver resolver = new DependencyResolver(repository, 4)) {
+      result = resolver.resolve(ComparableVersion.of("1.0"));
+      resolver.resolve(ComparableVersion.of("1.0"));
+    }
+
+    assertEquals(
+        ComparableVersion.of("2.0"),
+        result.get("test", "a").version,
+        "The version of a should be interpolated from the parent's properties!");
+    assertEquals(
+        ComparableVersion.of("1.5"),
+        result.get("test", "b").version,
+        "The version of b should be managed by the imported BOM!");
+    assertEquals(
+        ComparableVersion.of("1.0"),
+        result.get("test", "c").version,
+        "c should be resolved to the version that was declared first on the nearest level!");
+    assertEquals(2, result.get("test", "c").depth, "c should be a transitive dependency!");
+    assertEquals(
+        ComparableVersion.of("1.5"),
+        result.get("test", "f").version,
+        "The range of f should be resolved to the highest matching version!");
+    assertEquals(
+        "runtime", result.get("test", "f").dependency.getScope(), "f should be in scope runtime!");
+    assertNull(result.get("test", "junit"), "Test dependencies should not be resolved!");
+    assertNull(result.get("test", "d"), "Transitive test dependencies should not be resolved!");
+    assertNull(result.get("test", "e"), "Transitive optional dependencies should not be resolved!");
+    assertNull(result.get("test", "g"), "Excluded dependencies should not be resolved!");
+    assertFalse(result.isComplete(), "The missing POM of x should be reported!");
+    assertTrue(
+        result.failures.containsKey("test:x:1.0"), "The missing POM of x should be reported!");
+    assertEquals(
+        poms.size() + 1,
+        repository.requests.get(),
+        "Every POM should be requested only once, even across resolutions!");
+  }
+
+  /**
+   * A {@link Test} that checks, if effective models are built on top of their cached parents, if
+   * inherited values are interpolated with the properties of the child and if elements outside of
+   * the project-level dependencies are ignored.
+   *
+   * @throws DependencyResolutionException if an effective model cannot be built.
+   * @since 0.3.0
+   */
+  @Test
+  void buildEffectivePom() throws DependencyResolutionException {
+    Map<String, String> poms = new HashMap<>();
+    poms.put(
+        "test:parent:1",
+        pom(
+            "<groupId>test</groupId><artifactId>parent</artifactId><version>1</version>"
+                + "<properties><suffix>parent</suffix><name>${project.artifactId}-${suffix}"
+                + "</name></properties><dependencies>"
+                + dependency("test", "${project.artifactId}-api", "${project.version}", "")
+                + "</dependencies><build><plugins><plugin><dependencies>"
+                + dependency("test", "plugin-dependency", "1.0", "")
+                + "</dependencies></plugin></plugins></build>"));
+    for (String child : new String[] {"one", "two"})
+      poms.put(
+          "test:" + child + ":2",
+          pom(
+              "<!-- comment --><parent><groupId>test</groupId><artifactId>parent</artifactId>"
+                  + "<version>1</version></parent><artifactId>"
+                  + child
+                  + "</artifactId><version>2</version>"
+                  + "<properties><suffix>child</suffix></properties>"));
+
+    MockRepository repository = new MockRepository("parent", poms, new AtomicInteger());
+    EffectivePomBuilder builder = new EffectivePomBuilder(repository, Runnable::run);
+    EffectivePom one = builder.build("test", "one", "2");
+    EffectivePom two = builder.build("test", "two", "2");
+
+    assertEquals("test", one.getGroupId(), "The groupId should be inherited from the parent!");
+    assertSame(one.getParent(), two.getParent(), "The parent should be built only once!");
+    assertEquals(3, builder.size(), "The parent and both children should be cached!");
+    assertEquals(3, repository.requests.get(), "Every POM should be requested only once!");
+    assertEquals(
+        "one-child",
+        one.getProperty("name"),
+        "Inherited properties should be interpolated with the properties of the child!");
+    assertEquals(
+        "parent-parent",
+        one.getParent().getProperty("name"),
+        "The parent should keep its own interpolation!");
+    assertEquals(1, one.getDependencies().size(), "Plugin dependencies should be ignored!");
+    Dependency api = one.getDependencies().get(0);
+    assertEquals("one-api", api.artifactId, "Inherited dependencies should be interpolated!");
+    assertEquals("2", api.version, "Inherited dependencies should be interpolated!");
+  }
+
+  /**
+   * A {@link Test} that checks, if two concurrent builds that enter a cycle of parents and imports
+   * from different artifacts fail instead of waiting for each other.
+   *
+   * @since 0.3.0
+   */
+  @Test
+  void concurrentCycle() {
+    Map<String, String> poms = new HashMap<>();
+    poms.put(
+        "test:a:1",
+        pom(
+            "<parent><groupId>test</groupId><artifactId>b</artifactId><version>1</version>"
+                + "</parent><artifactId>a</artifactId>"));
+    poms.put(
+        "test:b:1",
+        pom(
+            "<groupId>test</groupId><artifactId>b</artifactId><version>1</version>"
+                + "<dependencyManagement><dependencies>"
+                + dependency("test", "a", "1", "<type>pom</type><scope>import</scope>")
+                + "</dependencies></dependencyManagement>"));
+
+    // Hold back all requests until both builds are running.
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    MockRepository repository = new MockRepository("a", poms, new AtomicInteger());
+    EffectivePomBuilder builder = new EffectivePomBuilder(repository, tasks::add);
+    CompletableFuture<EffectivePom> a = builder.buildAsync("test", "a", "1");
+    CompletableFuture<EffectivePom> b = builder.buildAsync("test", "b", "1");
+    for (Runnable task; (task = tasks.poll()) != null; ) task.run();
+
+    for (CompletableFuture<EffectivePom> future : Arrays.asList(a, b)) {
+      assertTrue(future.isCompletedExceptionally(), "A cyclic build should fail, but it does not!");
+      Exception cause =
+          EffectivePomBuilder.unwrap(assertThrows(CompletionException.class, future::join));
+      assertTrue(
+          cause.getMessage().startsWith("Cyclic parent or import"),
+          "The cycle should be reported, but the build failed with: " + cause);
+    }
+  }
+
+  /**
+   * Returns a POM file with the given content.
+   *
+   * @param content the content of the {@code project} element.
+   * @return the POM file.
+   * @since 0.3.0
+   */
+  private static String pom(String content) {
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?><project>" + content + "</project>";
+  }
+
+  /**
+   * Returns a {@code dependency} element.
+   *
+   * @param groupId the groupId.
+   * @param artifactId the artifactId.
+   * @param version the version.
+   * @param additional additional elements.
+   * @return the {@code dependency} element.
+   * @since 0.3.0
+   */
+  private static String dependency(
+      String groupId, String artifactId, String version, String additional) {
+    return "<dependency><groupId>"
+        + groupId
+        + "</groupId><artifactId>"
+        + artifactId
+        + "</artifactId><version>"
+        + version
+        + "</version>"
+        + additional
+        + "</dependency>";
+  }
+
+  /**
+   * A {@link MavenArtifact} that serves POMs from a {@link Map} and counts the requests.
+   *
+   * @since 0.3.0
+   */
+  private static class MockRepository extends MavenArtifact {
+
+    /**
+     * The POMs by {@code groupId:artifactId:version}.
+     *
+     * @since 0.3.0
+     */
+    private final Map<String, String> poms;
+
+    /**
+     * The number of requested POMs.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicInteger requests;
+
+    /**
+     * Creates an instance of {@link MockRepository}.
+     *
+     * @param artifactId the artifactId.
+     * @param poms the POMs by {@code groupId:artifactId:version}.
+     * @param requests the number of requested POMs.
+     * @since 0.3.0
+     */
+    private MockRepository(String artifactId, Map<String, String> poms, AtomicInteger requests) {
+      super("https://localhost", "test", artifactId);
+      this.poms = poms;
+      this.requests = requests;
+    }
+
+    @Override
+    public MavenArtifact withCoordinates(String groupId, String artifactId) {
+      return new MockRepository(artifactId, poms, requests);
+    }
+
+    @Override
+    public VersionIndex getVersionIndex() {
+      return VersionIndex.of(
+          Arrays.asList(
+              ComparableVersion.of("1.0"),
+              ComparableVersion.of("1.5"),
+              ComparableVersion.of("2.0")));
+    }
+
+    @Override
+    public InputStream getInputStream(
+        ComparableVersion version, String classifier, String extension) throws RequestException {
+      requests.incrementAndGet();
+      String pom = poms.get(groupId + ":" + artifactId + ":" + version);
+      if (pom == null) throw new RequestException(404);
+      return new ByteArrayInputStream(pom.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
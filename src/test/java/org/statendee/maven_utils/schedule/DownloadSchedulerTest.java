@@ -0,0 +1,149 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.statendee.maven_utils.ArtifactFile;
+import org.statendee.maven_utils.DownloadResult;
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.server.RepositoryServer;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link DownloadScheduler} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class DownloadSchedulerTest {
+
+  /**
+   * A {@link Test} that checks, if interactive downloads overtake queued bulk downloads, if the
+   * bandwidth is limited and if the metrics are reported.
+   *
+   * @param directory a temporary directory to download files to.
+   * @throws IOException if the server cannot be started.
+   * @since 0.3.0
+   */
+  @Test
+  void prioritizeAndThrottle(@TempDir Path directory) throws IOException {
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 4, 100_000);
+        DownloadScheduler scheduler = new DownloadScheduler(2, 400_000, 0)) {
+      server.setLatency(Duration.ofMillis(100));
+      MavenArtifact artifact =
+          new MavenArtifact(server.getRepository(), "org.example", "artifact-0");
+      List<String> completed = new CopyOnWriteArrayList<>();
+      List<CompletableFuture<DownloadResult>> futures = new ArrayList<>();
+
+      long start = System.nanoTime();
+      for (int i = 0; i < 4; i++) {
+        String name = "jar-" + i;
+        futures.add(
+            scheduler
+                .download(
+                    artifact,
+                    ComparableVersion.of(RepositoryServer.getVersion(i)),
+                    ArtifactFile.of("jar"),
+                    directory.resolve(name + ".jar").toString())
+                .whenComplete((result, e) -> completed.add(name)));
+      }
+      assertEquals(
+          3,
+          scheduler.getQueueDepth(DownloadPriority.BULK),
+          "Only one bulk transfer should run while a slot is reserved!");
+      futures.add(
+          scheduler
+              .download(
+                  artifact,
+                  ComparableVersion.of(RepositoryServer.getVersion(3)),
+                  ArtifactFile.of("pom"),
+                  directory.resolve("artifact.pom").toString())
+              .whenComplete((result, e) -> completed.add("pom")));
+
+      for (CompletableFuture<DownloadResult> future : futures)
+        assertTrue(future.join().isSuccessful(), "Every download should succeed, but one fails!");
+      long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+      assertTrue(
+          completed.indexOf("pom") < completed.indexOf("jar-1"),
+          "The POM should overtake the queued jars, but it did not: " + completed);
+      assertTrue(
+          elapsedMillis >= 700,
+          "400 KB should take about a second at 400 KB/s, but took " + elapsedMillis + " ms!");
+      assertEquals(0, scheduler.getQueueDepth(), "No download should be queued anymore!");
+      assertEquals(4, scheduler.getStarted(DownloadPriority.BULK), "Four jars should be started!");
+      assertTrue(
+          scheduler.getMaxWait(DownloadPriority.BULK).compareTo(
+                  scheduler.getMaxWait(DownloadPriority.INTERACTIVE))
+              > 0,
+          "Bulk downloads should wait longer than the interactive download!");
+    }
+  }
+
+  /**
+   * A {@link Test} that checks, if cancelling a queued download removes it from the queue and if
+   * downloads leave no temporary files behind.
+   *
+   * @param directory a temporary directory to download files to.
+   * @throws IOException if the server cannot be started or the directory cannot be listed.
+   * @since 0.3.0
+   */
+  @Test
+  void cancelQueuedDownload(@TempDir Path directory) throws IOException {
+    try (RepositoryServer server = new RepositoryServer("org.example", 1, 3, 1_000);
+        DownloadScheduler scheduler = new DownloadScheduler(1, 0, 0)) {
+      server.setLatency(Duration.ofMillis(200));
+      MavenArtifact artifact =
+          new MavenArtifact(server.getRepository(), "org.example", "artifact-0");
+      List<CompletableFuture<DownloadResult>> futures = new ArrayList<>();
+      for (int i = 0; i < 3; i++)
+        futures.add(
+            scheduler.download(
+                artifact,
+                ComparableVersion.of(RepositoryServer.getVersion(i)),
+                ArtifactFile.of("jar"),
+                directory.resolve("jar-" + i + ".jar").toString()));
+      assertEquals(2, scheduler.getQueueDepth(), "Two downloads should be queued!");
+
+      assertTrue(futures.get(1).cancel(false), "A queued download should be cancellable!");
+      assertEquals(1, scheduler.getQueueDepth(), "The cancelled download should be removed!");
+      assertEquals(
+          1, scheduler.getQueueDepth(DownloadPriority.BULK), "The metrics should not count it!");
+
+      assertTrue(futures.get(0).join().isSuccessful(), "The first download should succeed!");
+      assertTrue(futures.get(2).join().isSuccessful(), "The last download should succeed!");
+      assertEquals(2, scheduler.getStarted(DownloadPriority.BULK), "Two jars should be started!");
+      assertFalse(Files.exists(directory.resolve("jar-1.jar")), "The cancelled jar was written!");
+      try (Stream<Path> files = Files.list(directory)) {
+        assertEquals(2, files.count(), "Only the downloaded jars should exist!");
+      }
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.server;
+
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.InputStream;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link LoadHarness} drives {@link MavenArtifact}s against a repository at a fixed concurrency
+ * and measures the throughput.
+ *
+ * <p>Every operation resolves the latest release of an artifact from its {@code
+ * maven-metadata.xml} and, optionally, downloads its jar. The artifacts are used round-robin.
+ *
+ * <p>{@link #main(String[])} runs a benchmark against an embedded {@link RepositoryServer}.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public final class LoadHarness {
+
+  /**
+   * Prevents instantiation of this utility class.
+   *
+   * @since 0.3.0
+   */
+  private LoadHarness() {}
+
+  /**
+   * Runs operations against a repository for a given duration.
+   *
+   * @param repository an artifact of the repository, whose repository and credentials are used.
+   * @param artifactIds the artifactIds of the artifacts in the group of {@code repository}.
+   * @param concurrency the number of concurrent operations.
+   * @param duration the duration of the run.
+   * @param download {@code true} if the jar should be downloaded after resolving the version.
+   * @return the {@link Result} of the run.
+   * @throws InterruptedException if the thread is interrupted while waiting for the run.
+   * @since 0.3.0
+   */
+  public static Result run(
+      MavenArtifact repository,
+      List<String> artifactIds,
+      int concurrency,
+      Duration duration,
+      boolean download)
+      throws InterruptedException {
+    AtomicInteger next = new AtomicInteger();
+    AtomicLong resolutions = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    AtomicLong bytes = new AtomicLong();
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    try {
+      List<Future<?>> workers = new ArrayList<>(concurrency);
+      for (int i = 0; i < concurrency; i++)
+        workers.add(
+            executor.submit(
+                () -> {
+                  byte[] buffer = new byte[8192];
+                  while (System.nanoTime() < end) {
+                    String artifactId =
+                        artifactIds.get(Math.floorMod(next.getAndIncrement(), artifactIds.size()));
+                    MavenArtifact artifact =
+                        repository.withCoordinates(repository.groupId, artifactId);
+                    try {
+                      ComparableVersion version = artifact.getLatestReleaseVersion();
+                      if (download) bytes.addAndGet(readJar(artifact, version, buffer));
+                      resolutions.incrementAndGet();
+                    } catch (Exception e) {
+                      errors.incrementAndGet();
+                    }
+                  }
+                }));
+      for (Future<?> worker : workers)
+        try {
+          worker.get();
+        } catch (ExecutionException e) {
+          throw new IllegalStateException(e.getCause());
+        }
+    } finally {
+      executor.shutdownNow();
+    }
+    return new Result(
+        resolutions.get(), errors.get(), bytes.get(), Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * Downloads the jar of a version and discards its content.
+   *
+   * @param artifact the artifact.
+   * @param version the version.
+   * @param buffer the buffer used to read the jar.
+   * @return the number of read bytes.
+   * @throws Exception if the jar cannot be downloaded.
+   * @since 0.3.0
+   */
+  private static long readJar(MavenArtifact artifact, ComparableVersion version, byte[] buffer)
+      throws Exception {
+    long bytes = 0;
+    try (InputStream inputStream = artifact.getInputStream(version, "", "jar")) {
+      for (int read; (read = inputStream.read(buffer)) != -1; ) bytes += read;
+    }
+    return bytes;
+  }
+
+  /**
+   * Runs a benchmark against an embedded HTTPS {@link RepositoryServer}.
+   *
+   * <p>Arguments (all optional): {@code concurrency} (default {@code 8}), {@code seconds} (default
+   * {@code 10}), {@code artifactSize} in bytes (default {@code 1048576}), {@code latencyMillis}
+   * (default {@code 0}) and {@code bandwidth} in bytes per second and response (default {@code
+   * 0}, i.e. unlimited).
+   *
+   * @param args the arguments.
+   * @throws Exception if the server cannot be started or the run is interrupted.
+   * @since 0.3.0
+   */
+  public static void main(String[] args) throws Exception {
+    int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    long artifactSize = args.length > 2 ? Long.parseLong(args[2]) : 1 << 20;
+    long latencyMillis = args.length > 3 ? Long.parseLong(args[3]) : 0;
+    long bandwidth = args.length > 4 ? Long.parseLong(args[4]) : 0;
+
+    SSLContext sslContext = RepositoryServer.createSelfSignedContext();
+    // The benchmark trusts its own self-signed certificate; never do this outside of tests.
+    SSLContext trustAll = SSLContext.getInstance("TLS");
+    trustAll.init(null, new TrustManager[] {new TrustAllManager()}, null);
+    HttpsURLConnection.setDefaultSSLSocketFactory(trustAll.getSocketFactory());
+    HttpsURLConnection.setDefaultHostnameVerifier((hostname, session) -> true);
+
+    try (RepositoryServer server =
+        new RepositoryServer("org.example", 64, 50, artifactSize, sslContext)) {
+      server.setLatency(Duration.ofMillis(latencyMillis));
+      server.setBandwidth(bandwidth);
+      MavenArtifact repository =
+          new MavenArtifact(server.getRepository(), server.groupId, "artifact-0");
+      Result result =
+          run(
+              repository,
+              server.getArtifactIds(),
+              concurrency,
+              Duration.ofSeconds(seconds),
+              artifactSize > 0);
+      System.out.println(result);
+    }
+  }
+
+  /**
+   * A {@link X509TrustManager} that trusts every certificate, used to connect to the
+   * self-signed embedded server.
+   *
+   * @since 0.3.0
+   */
+  private static final class TrustAllManager implements X509TrustManager {
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) {}
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) {}
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+      return new X509Certificate[0];
+    }
+  }
+
+  /**
+   * The {@link Result} of a run of the {@link LoadHarness}.
+   *
+   * @since 0.3.0
+   */
+  public static final class Result {
+
+    /**
+     * The number of successful operations.
+     *
+     * @since 0.3.0
+     */
+    public final long resolutions;
+
+    /**
+     * The number of failed operations.
+     *
+     * @since 0.3.0
+     */
+    public final long errors;
+
+    /**
+     * The number of downloaded bytes.
+     *
+     * @since 0.3.0
+     */
+    public final long bytes;
+
+    /**
+     * The duration of the run.
+     *
+     * @since 0.3.0
+     */
+    public final Duration elapsed;
+
+    /**
+     * Creates an instance of {@link Result}.
+     *
+     * @param resolutions the number of successful operations.
+     * @param errors the number of failed operations.
+     * @param bytes the number of downloaded bytes.
+     * @param elapsed the duration of the run.
+     * @since 0.3.0
+     */
+    private Result(long resolutions, long errors, long bytes, Duration elapsed) {
+      this.resolutions = resolutions;
+      this.errors = errors;
+      this.bytes = bytes;
+      this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns the number of successful operations per second.
+     *
+     * @return the number of successful operations per second.
+     * @since 0.3.0
+     */
+    public double getResolutionsPerSecond() {
+      return resolutions / (elapsed.toNanos() / 1e9);
+    }
+
+    /**
+     * Returns the number of downloaded megabytes ({@code 2^20} bytes) per second.
+     *
+     * @return the number of downloaded megabytes per second.
+     * @since 0.3.0
+     */
+    public double getMegabytesPerSecond() {
+      return bytes / (double) (1 << 20) / (elapsed.toNanos() / 1e9);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d resolutions (%d errors) in %d ms: %.1f resolutions/s, %.2f MB/s",
+          resolutions,
+          errors,
+          elapsed.toMillis(),
+          getResolutionsPerSecond(),
+          getMegabytesPerSecond());
+    }
+  }
+}
@@ -0,0 +1,871 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link RepositoryServer} is an embedded HTTP(S) server that serves a generated maven
+ * repository, used to exercise the real I/O path in tests and benchmarks.
+ *
+ * <p>The repository contains {@code artifactCount} artifacts {@code artifact-0}, {@code
+ * artifact-1}, ... in one group, each with {@code versionCount} release versions. Every version
+ * has a POM and a jar of {@code artifactSize} bytes, whose content is generated on the fly, and
+ * {@code .sha1} and {@code .md5} checksums of all files. Directories are served as HTML listings.
+ * Responses carry an {@code ETag} and {@code X-Checksum-Sha1} and {@code X-Checksum-Md5} headers
+ * and answer conditional requests, and single byte ranges are supported.
+ *
+ * <p>Latency, a bandwidth cap per response and bursts of error responses can be injected and
+ * changed while the server is running. Generated files can be replaced by published files, and
+ * support for ranges can be turned off.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+public class RepositoryServer implements AutoCloseable {
+
+  /**
+   * The pattern of a single byte range.
+   *
+   * @since 0.3.0
+   */
+  private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+  /**
+   * The {@code Last-Modified} date of all files.
+   *
+   * @since 0.3.0
+   */
+  private static final String LAST_MODIFIED = "Tue, 14 Dec 2021 12:00:00 GMT";
+
+  /**
+   * The size of the chunks responses are written in.
+   *
+   * @since 0.3.0
+   */
+  private static final int CHUNK_SIZE = 8192;
+
+  /**
+   * The groupId of all artifacts.
+   *
+   * @since 0.3.0
+   */
+  public final String groupId;
+
+  /**
+   * The number of artifacts.
+   *
+   * @since 0.3.0
+   */
+  public final int artifactCount;
+
+  /**
+   * The number of versions of each artifact.
+   *
+   * @since 0.3.0
+   */
+  public final int versionCount;
+
+  /**
+   * The size of each jar in bytes.
+   *
+   * @since 0.3.0
+   */
+  public final long artifactSize;
+
+  /**
+   * The underlying server.
+   *
+   * @since 0.3.0
+   */
+  private final HttpServer server;
+
+  /**
+   * The threads that handle the requests.
+   *
+   * @since 0.3.0
+   */
+  private final ExecutorService executor;
+
+  /**
+   * The checksums of the generated files by their path and algorithm.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, String> checksums = new ConcurrentHashMap<>();
+
+  /**
+   * The published files by their path, served instead of generated files.
+   *
+   * @since 0.3.0
+   */
+  private final Map<String, byte[]> published = new ConcurrentHashMap<>();
+
+  /**
+   * The number of handled requests.
+   *
+   * @since 0.3.0
+   */
+  private final AtomicLong requestCount = new AtomicLong();
+
+  /**
+   * The number of bytes sent in response bodies.
+   *
+   * @since 0.3.0
+   */
+  private final AtomicLong bytesSent = new AtomicLong();
+
+  /**
+   * The number of upcoming requests that are answered with {@link #errorStatus}.
+   *
+   * @since 0.3.0
+   */
+  private final AtomicInteger pendingErrors = new AtomicInteger();
+
+  /**
+   * The status of injected error responses.
+   *
+   * @since 0.3.0
+   */
+  private volatile int errorStatus = 503;
+
+  /**
+   * The latency added to every response in milliseconds.
+   *
+   * @since 0.3.0
+   */
+  private volatile long latencyMillis;
+
+  /**
+   * The maximum number of bytes per second of a response body or {@code 0} for no limit.
+   *
+   * @since 0.3.0
+   */
+  private volatile long bandwidth;
+
+  /**
+   * {@code true} if {@code Range} headers are answered, {@code false} if they are ignored.
+   *
+   * @since 0.3.0
+   */
+  private volatile boolean rangesSupported = true;
+
+  /**
+   * Creates and starts a plain HTTP {@link RepositoryServer} on a random port of the loopback
+   * interface.
+   *
+   * @param groupId the groupId of all artifacts.
+   * @param artifactCount the number of artifacts.
+   * @param versionCount the number of versions of each artifact.
+   * @param artifactSize the size of each jar in bytes.
+   * @throws IOException if the server cannot be started.
+   * @since 0.3.0
+   */
+  public RepositoryServer(String groupId, int artifactCount, int versionCount, long artifactSize)
+      throws IOException {
+    this(groupId, artifactCount, versionCount, artifactSize, null);
+  }
+
+  /**
+   * Creates and starts a {@link RepositoryServer} on a random port of the loopback interface.
+   *
+   * @param groupId the groupId of all artifacts.
+   * @param artifactCount the number of artifacts.
+   * @param versionCount the number of versions of each artifact.
+   * @param artifactSize the size of each jar in bytes.
+   * @param sslContext the {@link SSLContext} used to serve HTTPS or {@code null} for plain HTTP.
+   * @throws IOException if the server cannot be started.
+   * @since 0.3.0
+   */
+  public RepositoryServer(
+      String groupId, int artifactCount, int versionCount, long artifactSize, SSLContext sslContext)
+      throws IOException {
+    this.groupId = groupId;
+    this.artifactCount = artifactCount;
+    this.versionCount = versionCount;
+    this.artifactSize = artifactSize;
+
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    if (sslContext == null) server = HttpServer.create(address, 0);
+    else {
+      HttpsServer httpsServer = HttpsServer.create(address, 0);
+      httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+      server = httpsServer;
+    }
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  /**
+   * Returns the URL-{@link String} of the repository.
+   *
+   * @return the URL-{@link String} of the repository.
+   * @since 0.3.0
+   */
+  public String getRepository() {
+    return (server instanceof HttpsServer ? "https" : "http")
+        + "://localhost:"
+        + server.getAddress().getPort();
+  }
+
+  /**
+   * Returns the artifactIds of all artifacts.
+   *
+   * @return the artifactIds of all artifacts.
+   * @since 0.3.0
+   */
+  public List<String> getArtifactIds() {
+    List<String> artifactIds = new ArrayList<>(artifactCount);
+    for (int i = 0; i < artifactCount; i++) artifactIds.add("artifact-" + i);
+    return artifactIds;
+  }
+
+  /**
+   * Returns the version with the given index; the highest index is the latest release.
+   *
+   * @param index the index of the version.
+   * @return the version.
+   * @since 0.3.0
+   */
+  public static String getVersion(int index) {
+    return "1." + index / 100 + "." + index % 100;
+  }
+
+  /**
+   * Sets the latency that is added to every response.
+   *
+   * @param latency the latency.
+   * @since 0.3.0
+   */
+  public void setLatency(Duration latency) {
+    this.latencyMillis = latency.toMillis();
+  }
+
+  /**
+   * Sets the maximum number of bytes per second of a response body.
+   *
+   * @param bytesPerSecond the maximum number of bytes per second or {@code 0} for no limit.
+   * @since 0.3.0
+   */
+  public void setBandwidth(long bytesPerSecond) {
+    this.bandwidth = bytesPerSecond;
+  }
+
+  /**
+   * Publishes a file, which is served instead of a generated file with the same path.
+   *
+   * @param path the path of the file, e.g. {@code
+   *     /org/example/artifact-0/1.0.0/artifact-0-1.0.0.jar} for a real jar.
+   * @param content the content of the file.
+   * @since 0.3.0
+   */
+  public void publish(String path, byte[] content) {
+    published.put(path, content);
+    checksums.keySet().removeIf(key -> key.startsWith(path + "#") || key.startsWith(path + "."));
+  }
+
+  /**
+   * Sets whether {@code Range} headers are answered or ignored, like by servers that do not
+   * support ranges.
+   *
+   * @param rangesSupported {@code false} to ignore {@code Range} headers.
+   * @since 0.3.0
+   */
+  public void setRangesSupported(boolean rangesSupported) {
+    this.rangesSupported = rangesSupported;
+  }
+
+  /**
+   * Answers the next requests with an error status, e.g. {@code 429 (Too Many Requests)} or {@code
+   * 503 (Service Unavailable)}, with a {@code Retry-After} header.
+   *
+   * @param status the status of the error responses.
+   * @param count the number of requests that are answered with the error.
+   * @since 0.3.0
+   */
+  public void injectErrors(int status, int count) {
+    this.errorStatus = status;
+    this.pendingErrors.set(count);
+  }
+
+  /**
+   * Returns the number of handled requests.
+   *
+   * @return the number of handled requests.
+   * @since 0.3.0
+   */
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Returns the number of bytes sent in response bodies.
+   *
+   * @return the number of bytes sent in response bodies.
+   * @since 0.3.0
+   */
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  /**
+   * Stops the server.
+   *
+   * @since 0.3.0
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Handles a request.
+   *
+   * @param exchange the request and response.
+   * @throws IOException if the response cannot be sent.
+   * @since 0.3.0
+   */
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      requestCount.incrementAndGet();
+      if (latencyMillis > 0) Thread.sleep(latencyMillis);
+      if (pendingErrors.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        sendEmpty(exchange, errorStatus);
+        return;
+      }
+
+      String path = exchange.getRequestURI().getPath();
+      String algorithm = null;
+      if (path.endsWith(".sha1")) algorithm = "SHA-1";
+      else if (path.endsWith(".md5")) algorithm = "MD5";
+      String filePath = algorithm == null ? path : path.substring(0, path.lastIndexOf('.'));
+      Content content = resolve(filePath);
+      if (content == null) {
+        sendEmpty(exchange, 404);
+        return;
+      }
+      if (algorithm != null) content = new BytesContent(getChecksum(filePath, content, algorithm));
+
+      String etag = "\"" + getChecksum(path, content, "SHA-1") + "\"";
+      exchange.getResponseHeaders().set("ETag", etag);
+      exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+      if (algorithm == null) {
+        exchange.getResponseHeaders().set("X-Checksum-Sha1", getChecksum(path, content, "SHA-1"));
+        exchange.getResponseHeaders().set("X-Checksum-Md5", getChecksum(path, content, "MD5"));
+      }
+      if (rangesSupported) exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+      // If-None-Match takes precedence over If-Modified-Since, as Last-Modified never changes.
+      String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+      if (ifNoneMatch != null
+          ? etag.equals(ifNoneMatch)
+          : LAST_MODIFIED.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+        sendEmpty(exchange, 304);
+        return;
+      }
+
+      long start = 0, end = content.length() - 1;
+      int status = 200;
+      String range = rangesSupported ? exchange.getRequestHeaders().getFirst("Range") : null;
+      if (range != null) {
+        Matcher matcher = RANGE.matcher(range.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+          exchange.getResponseHeaders().set("Content-Range", "bytes */" + content.length());
+          sendEmpty(exchange, 416);
+          return;
+        }
+        if (matcher.group(1).isEmpty())
+          start = Math.max(0, content.length() - Long.parseLong(matcher.group(2)));
+        else {
+          start = Long.parseLong(matcher.group(1));
+          if (!matcher.group(2).isEmpty())
+            end = Math.min(end, Long.parseLong(matcher.group(2)));
+        }
+        if (start >= content.length() || start > end) {
+          exchange.getResponseHeaders().set("Content-Range", "bytes */" + content.length());
+          sendEmpty(exchange, 416);
+          return;
+        }
+        status = 206;
+        exchange
+            .getResponseHeaders()
+            .set("Content-Range", "bytes " + start + "-" + end + "/" + content.length());
+      }
+
+      long length = end - start + 1;
+      boolean head = exchange.getRequestMethod().equals("HEAD");
+      if (head) exchange.getResponseHeaders().set("Content-Length", String.valueOf(length));
+      exchange.sendResponseHeaders(status, head ? -1 : length);
+      if (!head)
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+          write(content, start, length, outputStream);
+        }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Writes a part of a file, limited to {@link #bandwidth}.
+   *
+   * @param content the content of the file.
+   * @param start the offset of the first byte.
+   * @param length the number of bytes.
+   * @param outputStream the response body.
+   * @throws IOException if the response body cannot be written.
+   * @throws InterruptedException if the thread is interrupted while throttled.
+   * @since 0.3.0
+   */
+  private void write(Content content, long start, long length, OutputStream outputStream)
+      throws IOException, InterruptedException {
+    byte[] buffer = new byte[CHUNK_SIZE];
+    long begin = System.nanoTime();
+    for (long written = 0; written < length; ) {
+      int chunk = (int) Math.min(buffer.length, length - written);
+      content.read(start + written, buffer, chunk);
+      outputStream.write(buffer, 0, chunk);
+      written += chunk;
+      bytesSent.addAndGet(chunk);
+      long bandwidth = this.bandwidth;
+      if (bandwidth > 0) {
+        long due = begin + TimeUnit.SECONDS.toNanos(1) * written / bandwidth;
+        long wait = due - System.nanoTime();
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+      }
+    }
+  }
+
+  /**
+   * Sends a response without a body.
+   *
+   * @param exchange the request and response.
+   * @param status the status of the response.
+   * @throws IOException if the response cannot be sent.
+   * @since 0.3.0
+   */
+  private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+    exchange.sendResponseHeaders(status, -1);
+  }
+
+  /**
+   * Returns the content of a published or generated file.
+   *
+   * @param path the path of the file.
+   * @return the content or {@code null} if there is no such file.
+   * @since 0.3.0
+   */
+  private Content resolve(String path) {
+    if (path.endsWith("/")) {
+      String listing = getListing(path);
+      return listing != null ? new BytesContent(listing) : null;
+    }
+    byte[] content = published.get(path);
+    if (content != null) return new BytesContent(content);
+    String prefix = "/" + groupId.replace('.', '/') + "/";
+    if (!path.startsWith(prefix)) return null;
+    String[] parts = path.substring(prefix.length()).split("/");
+    int artifact = parseIndex(parts[0], "artifact-", artifactCount);
+    if (artifact < 0) return null;
+    String artifactId = parts[0];
+    if (parts.length == 2 && parts[1].equals("maven-metadata.xml"))
+      return new BytesContent(getMetadata(artifactId));
+    if (parts.length != 3) return null;
+
+    int version = -1;
+    for (int i = 0; i < versionCount && version < 0; i++)
+      if (getVersion(i).equals(parts[1])) version = i;
+    if (version < 0) return null;
+    String baseName = artifactId + "-" + parts[1];
+    if (parts[2].equals(baseName + ".pom"))
+      return new BytesContent(getPom(artifactId, parts[1]));
+    if (parts[2].equals(baseName + ".jar"))
+      return new GeneratedContent(path.hashCode(), artifactSize);
+    return null;
+  }
+
+  /**
+   * Returns an HTML listing of a directory with relative links to its entries, like the listings of
+   * Apache httpd.
+   *
+   * @param path the path of the directory, ending with {@code /}.
+   * @return the listing or {@code null} if there is no such directory.
+   * @since 0.3.0
+   */
+  private String getListing(String path) {
+    Set<String> names = new TreeSet<>();
+    String groupPath = "/" + groupId.replace('.', '/') + "/";
+    if (path.equals(groupPath))
+      for (String artifactId : getArtifactIds()) names.add(artifactId + "/");
+    else if (groupPath.startsWith(path))
+      names.add(groupPath.substring(path.length(), groupPath.indexOf('/', path.length()) + 1));
+    else if (path.startsWith(groupPath)) {
+      String[] parts = path.substring(groupPath.length()).split("/");
+      if (parseIndex(parts[0], "artifact-", artifactCount) >= 0) {
+        if (parts.length == 1) {
+          names.add("maven-metadata.xml");
+          for (int i = 0; i < versionCount; i++) names.add(getVersion(i) + "/");
+        } else if (parts.length == 2) {
+          String baseName = parts[0] + "-" + parts[1];
+          if (resolve(path + baseName + ".pom") != null) {
+            names.add(baseName + ".pom");
+            names.add(baseName + ".jar");
+          }
+        }
+      }
+    }
+    for (String published : this.published.keySet())
+      if (published.startsWith(path)) {
+        String name = published.substring(path.length());
+        names.add(name.contains("/") ? name.substring(0, name.indexOf('/') + 1) : name);
+      }
+    if (names.isEmpty() && !path.equals("/")) return null;
+
+    StringBuilder listing = new StringBuilder("<html><body><h1>Index of ").append(path);
+    listing.append("</h1><pre><a href=\"../\">../</a>\n");
+    for (String name : names)
+      listing.append("<a href=\"").append(name).append("\">").append(name).append("</a>\n");
+    return listing.append("</pre></body></html>").toString();
+  }
+
+  /**
+   * Returns the checksum of a file, computing it on first access.
+   *
+   * @param path the path of the file.
+   * @param content the content of the file.
+   * @param algorithm the name of the {@link MessageDigest} algorithm.
+   * @return the checksum as lowercase hex {@link String}.
+   * @since 0.3.0
+   */
+  private String getChecksum(String path, Content content, String algorithm) {
+    return checksums.computeIfAbsent(
+        path + "#" + algorithm,
+        key -> {
+          try {
+            MessageDigest digest = MessageDigest.getInstance(algorithm);
+            byte[] buffer = new byte[CHUNK_SIZE];
+            for (long offset = 0; offset < content.length(); offset += buffer.length) {
+              int chunk = (int) Math.min(buffer.length, content.length() - offset);
+              content.read(offset, buffer, chunk);
+              digest.update(buffer, 0, chunk);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) hex.append(String.format("%02x", b));
+            return hex.toString();
+          } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+  }
+
+  /**
+   * Returns the {@code maven-metadata.xml} file of an artifact.
+   *
+   * @param artifactId the artifactId.
+   * @return the content of the file.
+   * @since 0.3.0
+   */
+  private String getMetadata(String artifactId) {
+    StringBuilder versions = new StringBuilder();
+    for (int i = 0; i < versionCount; i++)
+      versions.append("<version>").append(getVersion(i)).append("</version>");
+    String latest = getVersion(versionCount - 1);
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?><metadata><groupId>"
+        + groupId
+        + "</groupId><artifactId>"
+        + artifactId
+        + "</artifactId><versioning><latest>"
+        + latest
+        + "</latest><release>"
+        + latest
+        + "</release><versions>"
+        + versions
+        + "</versions><lastUpdated>20211214120000</lastUpdated></versioning></metadata>";
+  }
+
+  /**
+   * Returns the POM of a version of an artifact, which depends on the previous artifact.
+   *
+   * @param artifactId the artifactId.
+   * @param version the version.
+   * @return the content of the file.
+   * @since 0.3.0
+   */
+  private String getPom(String artifactId, String version) {
+    int index = parseIndex(artifactId, "artifact-", artifactCount);
+    String dependencies =
+        index == 0
+            ? ""
+            : "<dependencies><dependency><groupId>"
+                + groupId
+                + "</groupId><artifactId>artifact-"
+                + (index - 1)
+                + "</artifactId><version>"
+                + version
+                + "</version></dependency></dependencies>";
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?><project><modelVersion>4.0.0</modelVersion>"
+        + "<groupId>"
+        + groupId
+        + "</groupId><artifactId>"
+        + artifactId
+        + "</artifactId><version>"
+        + version
+        + "</version>"
+        + dependencies
+        + "</project>";
+  }
+
+  /**
+   * Parses the index of a name like {@code artifact-3}.
+   *
+   * @param name the name.
+   * @param prefix the prefix of the name.
+   * @param count the number of valid indices.
+   * @return the index or {@code -1} if the name is invalid.
+   * @since 0.3.0
+   */
+  private static int parseIndex(String name, String prefix, int count) {
+    if (!name.startsWith(prefix)) return -1;
+    try {
+      int index = Integer.parseInt(name.substring(prefix.length()));
+      return index >= 0 && index < count ? index : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Creates an {@link SSLContext} with a new self-signed certificate for {@code localhost},
+   * generated with the {@code keytool} of the running JDK.
+   *
+   * @return the {@link SSLContext}.
+   * @throws IOException if {@code keytool} cannot be run or fails.
+   * @throws GeneralSecurityException if the key store cannot be loaded.
+   * @throws InterruptedException if the thread is interrupted while waiting for {@code keytool}.
+   * @since 0.3.0
+   */
+  public static SSLContext createSelfSignedContext()
+      throws IOException, GeneralSecurityException, InterruptedException {
+    File keyStoreFile = Files.createTempFile("repository-server", ".jks").toFile();
+    try {
+      //noinspection ResultOfMethodCallIgnored
+      keyStoreFile.delete();
+      String keytool =
+          System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+      char[] password = "changeit".toCharArray();
+      Process process =
+          new ProcessBuilder(
+                  keytool,
+                  "-genkeypair",
+                  "-alias",
+                  "localhost",
+                  "-keyalg",
+                  "RSA",
+                  "-keysize",
+                  "2048",
+                  "-dname",
+                  "CN=localhost",
+                  "-validity",
+                  "1",
+                  "-storetype",
+                  "JKS",
+                  "-keystore",
+                  keyStoreFile.getAbsolutePath(),
+                  "-storepass",
+                  new String(password),
+                  "-keypass",
+                  new String(password))
+              .redirectErrorStream(true)
+              .start();
+      try (InputStream output = process.getInputStream()) {
+        //noinspection StatementWithEmptyBody
+        while (output.read() != -1) {}
+      }
+      if (process.waitFor() != 0) throw new IOException("keytool failed!");
+
+      KeyStore keyStore = KeyStore.getInstance("JKS");
+      try (InputStream inputStream = new FileInputStream(keyStoreFile)) {
+        keyStore.load(inputStream, password);
+      }
+      KeyManagerFactory keyManagerFactory =
+          KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+      keyManagerFactory.init(keyStore, password);
+      SSLContext sslContext = SSLContext.getInstance("TLS");
+      sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+      return sslContext;
+    } finally {
+      //noinspection ResultOfMethodCallIgnored
+      keyStoreFile.delete();
+    }
+  }
+
+  /**
+   * The content of a file that can be read at any offset.
+   *
+   * @since 0.3.0
+   */
+  private interface Content {
+
+    /**
+     * Returns the length of the content in bytes.
+     *
+     * @return the length of the content in bytes.
+     * @since 0.3.0
+     */
+    long length();
+
+    /**
+     * Reads a part of the content.
+     *
+     * @param offset the offset of the first byte.
+     * @param buffer the buffer the bytes are written to, starting at index {@code 0}.
+     * @param length the number of bytes.
+     * @since 0.3.0
+     */
+    void read(long offset, byte[] buffer, int length);
+  }
+
+  /**
+   * {@link Content} of a small file that is kept in memory.
+   *
+   * @since 0.3.0
+   */
+  private static final class BytesContent implements Content {
+
+    /**
+     * The bytes of the file.
+     *
+     * @since 0.3.0
+     */
+    private final byte[] bytes;
+
+    /**
+     * Creates an instance of {@link BytesContent}.
+     *
+     * @param text the text of the file, encoded as UTF-8.
+     * @since 0.3.0
+     */
+    private BytesContent(String text) {
+      this(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates an instance of {@link BytesContent}.
+     *
+     * @param bytes the bytes of the file.
+     * @since 0.3.0
+     */
+    private BytesContent(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public long length() {
+      return bytes.length;
+    }
+
+    @Override
+    public void read(long offset, byte[] buffer, int length) {
+      System.arraycopy(bytes, (int) offset, buffer, 0, length);
+    }
+  }
+
+  /**
+   * {@link Content} of a large file whose bytes are derived from a seed and their offset, so that
+   * it never has to be kept in memory.
+   *
+   * @since 0.3.0
+   */
+  private static final class GeneratedContent implements Content {
+
+    /**
+     * The seed of the content.
+     *
+     * @since 0.3.0
+     */
+    private final int seed;
+
+    /**
+     * The length of the content in bytes.
+     *
+     * @since 0.3.0
+     */
+    private final long length;
+
+    /**
+     * Creates an instance of {@link GeneratedContent}.
+     *
+     * @param seed the seed of the content.
+     * @param length the length of the content in bytes.
+     * @since 0.3.0
+     */
+    private GeneratedContent(int seed, long length) {
+      this.seed = seed;
+      this.length = length;
+    }
+
+    @Override
+    public long length() {
+      return length;
+    }
+
+    @Override
+    public void read(long offset, byte[] buffer, int length) {
+      for (int i = 0; i < length; i++) {
+        long position = offset + i;
+        buffer[i] = (byte) ((position * 31 + seed) ^ (position >>> 7));
+      }
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link RepositoryServer} fixture.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class RepositoryServerTest {
+
+  /**
+   * A {@link Test} that checks, if metadata, artifacts, checksums, ranges, conditional requests and
+   * injected errors are served correctly.
+   *
+   * @throws IOException if a request fails.
+   * @throws NoSuchAlgorithmException if {@code SHA-1} is not supported.
+   * @since 0.3.0
+   */
+  @Test
+  void serveRepository() throws IOException, NoSuchAlgorithmException {
+    try (RepositoryServer server = new RepositoryServer("org.example", 3, 120, 100_000)) {
+      String base = server.getRepository() + "/org/example/artifact-1/";
+      String metadata = new String(get(base + "maven-metadata.xml", null), StandardCharsets.UTF_8);
+      assertTrue(
+          metadata.contains("<release>1.1.19</release>"),
+          "The highest version should be the release, but it is not!");
+
+      String jar = base + "1.0.5/artifact-1-1.0.5.jar";
+      byte[] content = get(jar, null);
+      assertEquals(100_000, content.length, "The jar should have the configured size!");
+      StringBuilder sha1 = new StringBuilder();
+      for (byte b : MessageDigest.getInstance("SHA-1").digest(content))
+        sha1.append(String.format("%02x", b));
+      assertEquals(
+          sha1.toString(),
+          new String(get(jar + ".sha1", null), StandardCharsets.UTF_8),
+          "The checksum should match the content of the jar!");
+
+      assertArrayEquals(
+          Arrays.copyOfRange(content, 1000, 2000),
+          get(jar, "bytes=1000-1999"),
+          "A range should return the requested part of the jar!");
+      assertArrayEquals(
+          Arrays.copyOfRange(content, 99_900, 100_000),
+          get(jar, "bytes=-100"),
+          "A suffix range should return the end of the jar!");
+
+      HttpURLConnection conditional = (HttpURLConnection) new URL(jar).openConnection();
+      conditional.setRequestProperty("If-None-Match", "\"" + sha1 + "\"");
+      assertEquals(304, conditional.getResponseCode(), "An unchanged jar should not be sent!");
+
+      server.injectErrors(429, 2);
+      assertEquals(429, status(jar), "The first injected error should be returned!");
+      assertEquals(429, status(jar), "The second injected error should be returned!");
+      assertEquals(200, status(jar), "The burst of errors should be over!");
+      assertEquals(404, status(base + "9.9.9/artifact-1-9.9.9.jar"), "Unknown files should 404!");
+    }
+  }
+
+  /**
+   * Requests a file and returns its content.
+   *
+   * @param url the URL of the file.
+   * @param range the value of the {@code Range} header or {@code null}.
+   * @return the content of the file.
+   * @throws IOException if the request fails.
+   * @since 0.3.0
+   */
+  private static byte[] get(String url, String range) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    if (range != null) connection.setRequestProperty("Range", range);
+    assertEquals(range == null ? 200 : 206, connection.getResponseCode(), "Unexpected status!");
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (InputStream inputStream = connection.getInputStream()) {
+      byte[] buffer = new byte[8192];
+      for (int read; (read = inputStream.read(buffer)) != -1; ) outputStream.write(buffer, 0, read);
+    }
+    return outputStream.toByteArray();
+  }
+
+  /**
+   * Requests a file and returns the status of the response.
+   *
+   * @param url the URL of the file.
+   * @return the status of the response.
+   * @throws IOException if the request fails.
+   * @since 0.3.0
+   */
+  private static int status(String url) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    int status = connection.getResponseCode();
+    InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+    if (body != null) body.close();
+    return status;
+  }
+}
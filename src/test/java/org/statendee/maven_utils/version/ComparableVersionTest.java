@@ -23,7 +23,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * A class that contains {@link Test}s to test the {@link ComparableVersion} class.
  *
  * @author jojomatik
- * @version 0.2.0
+ * @version 0.3.0
  * @since 0.1.0
  */
 class ComparableVersionTest {
@@ -165,4 +165,33 @@ class ComparableVersionTest {
             + expectedVersion
             + "), but it does not!");
   }
+
+  /**
+   * A {@link Test} that checks, if {@link ComparableVersion#of(String)} returns canonical instances
+   * that equal freshly parsed versions.
+   *
+   * @since 0.3.0
+   */
+  @Test
+  void internVersion() {
+    ComparableVersion version = ComparableVersion.of("0.4.5-SNAPSHOT-20211208.182235-1");
+    assertSame(
+        version,
+        ComparableVersion.of("0.4.5-SNAPSHOT-20211208.182235-1"),
+        "Calling 'of()' twice with the same version string should return the same object, but it does not!");
+    assertEquals(
+        new ComparableVersion("0.4.5-SNAPSHOT-20211208.182235-1"),
+        version,
+        "The canonical version should equal a freshly parsed version, but it does not!");
+    assertNotSame(
+        version,
+        ComparableVersion.of("0.4.6-SNAPSHOT-20211208.182235-1"),
+        "Calling 'of()' with different version strings should return different objects, but it does not!");
+
+    ComparableVersionCache cache = new ComparableVersionCache(32);
+    for (int i = 0; i < 1000; i++) cache.get("1.0." + i);
+    assertTrue(
+        cache.size() <= 32,
+        "The cache should hold at most 32 versions, but it holds " + cache.size() + "!");
+  }
 }
@@ -0,0 +1,167 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.version;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the sort keys of {@link ComparableVersion} and the
+ * {@link VersionArrays} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class VersionArraysTest {
+
+  /**
+   * A {@link Test} that checks, which versions have a sort key.
+   *
+   * @since 0.3.0
+   */
+  @Test
+  void sortKeyShapes() {
+    for (String version :
+        new String[] {
+          "1", "1.2", "1.2.3", "1.2.3-SNAPSHOT", "1.2.3-SNAPSHOT-20211208.182235",
+          "1.2.3-SNAPSHOT-20211208.182235-17"
+        })
+      assertTrue(
+          new ComparableVersion(version).hasSortKey(),
+          version + " should have a sort key, but it has none!");
+
+    for (String version :
+        new String[] {
+          "1.2.3.4", "1.2-beta", "1.2.3-snapshot", "1.2.3-SNAPSHOT-2021", "1.2.3-SNAPSHOT-x",
+          "1.2.3-SNAPSHOT-20211208.182235-", "1.2.3-SNAPSHOT-20211208.182235-99999", "v1", "",
+          "99999999.0"
+        })
+      assertFalse(
+          new ComparableVersion(version).hasSortKey(),
+          version + " should have no sort key, but it has one!");
+  }
+
+  /**
+   * A {@link Test} that checks, if comparing sort keys yields the same results as comparing the
+   * versions without them.
+   *
+   * @since 0.3.0
+   */
+  @Test
+  void sortKeyMatchesComparison() {
+    Random random = new Random(42);
+    ComparableVersion[] versions = randomVersions(random, 2000);
+    for (int i = 0; i < 20000; i++) {
+      ComparableVersion a = versions[random.nextInt(versions.length)];
+      ComparableVersion b = versions[random.nextInt(versions.length)];
+      assertEquals(
+          Integer.signum(a.compareWithoutSortKey(b)),
+          Integer.signum(a.compareTo(b)),
+          "Comparing " + a + " and " + b + " should not depend on the sort key, but it does!");
+      assertEquals(
+          Integer.signum(
+              a.compareTo((org.apache.maven.artifact.versioning.ComparableVersion) b)),
+          Integer.signum(VersionArrays.NATURAL_ORDER.compare(a, b)),
+          "The natural order of " + a + " and " + b + " should match maven, but it does not!");
+    }
+  }
+
+  /**
+   * A {@link Test} that sorts, searches and deduplicates versions.
+   *
+   * @since 0.3.0
+   */
+  @Test
+  void sortAndSearch() {
+    ComparableVersion[] versions = randomVersions(new Random(7), 5000);
+    ComparableVersion[] parallel = versions.clone();
+    VersionArrays.sort(versions);
+    VersionArrays.parallelSort(parallel);
+    assertArrayEquals(
+        versions, parallel, "Sequential and parallel sort should match, but they do not!");
+
+    for (int i = 1; i < versions.length; i++)
+      assertTrue(
+          versions[i - 1].compareTo(
+                  (org.apache.maven.artifact.versioning.ComparableVersion) versions[i])
+              <= 0,
+          versions[i - 1] + " should not be sorted after " + versions[i] + ", but it is!");
+
+    ComparableVersion[] distinct = VersionArrays.distinct(versions);
+    for (int i = 1; i < distinct.length; i++)
+      assertNotEquals(
+          distinct[i - 1], distinct[i], "Distinct versions should not contain duplicates!");
+
+    for (ComparableVersion version : distinct)
+      assertEquals(
+          version,
+          distinct[VersionArrays.binarySearch(distinct, version)],
+          version + " should be found in the sorted array, but it is not!");
+    assertTrue(
+        VersionArrays.binarySearch(distinct, ComparableVersion.of("999.0")) < 0,
+        "A missing version should not be found, but it is!");
+
+    ComparableVersion key = ComparableVersion.of("1.2");
+    int index = VersionArrays.lowerBound(distinct, key, true);
+    assertTrue(
+        index == distinct.length || distinct[index].compareTo(key) >= 0,
+        "The lower bound should not be lower than " + key + ", but it is!");
+    assertTrue(
+        index == 0 || distinct[index - 1].compareTo(key) < 0,
+        "The version before the lower bound should be lower than " + key + ", but it is not!");
+  }
+
+  /**
+   * Returns random versions, mostly of a shape that has a sort key.
+   *
+   * @param random the {@link Random} to use.
+   * @param count the number of versions.
+   * @return the random versions.
+   * @since 0.3.0
+   */
+  private static ComparableVersion[] randomVersions(Random random, int count) {
+    String[] qualifiers = {"", "", "-SNAPSHOT", "-alpha", "-rc-1", "-SNAPSHOT-20211208.182235"};
+    ComparableVersion[] versions = new ComparableVersion[count];
+    for (int i = 0; i < count; i++) {
+      StringBuilder version = new StringBuilder().append(random.nextInt(3));
+      int components = random.nextInt(4);
+      for (int c = 0; c < components; c++) version.append('.').append(random.nextInt(3));
+      switch (random.nextInt(4)) {
+        case 0:
+          break;
+        case 1:
+          version.append("-SNAPSHOT");
+          break;
+        case 2:
+          version
+              .append("-SNAPSHOT-2021120")
+              .append(1 + random.nextInt(3))
+              .append('.')
+              .append(random.nextInt(3) * 100000);
+          if (random.nextBoolean()) version.append('-').append(random.nextInt(3));
+          break;
+        default:
+          version.append(qualifiers[random.nextInt(qualifiers.length)]);
+      }
+      versions[i] = new ComparableVersion(version.toString());
+    }
+    return versions;
+  }
+}
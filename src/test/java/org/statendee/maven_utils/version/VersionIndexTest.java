@@ -0,0 +1,112 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.version;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link VersionRange} and {@link VersionIndex}
+ * classes.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class VersionIndexTest {
+
+  /**
+   * The versions used to build the {@link VersionIndex} under test.
+   *
+   * @since 0.3.0
+   */
+  private static final String[] VERSIONS = {
+    "2.1", "1.3", "1.4", "1.4.1", "1.5-SNAPSHOT", "1.9.9", "2.0-SNAPSHOT", "2.0", "1.4", "0.9"
+  };
+
+  /**
+   * A {@link Test} that checks, if valid and invalid range specifications are parsed correctly.
+   *
+   * @throws InvalidVersionRangeException if a valid specification cannot be parsed.
+   * @since 0.3.0
+   */
+  @Test
+  void parseRange() throws InvalidVersionRangeException {
+    VersionRange range = VersionRange.parse("[1.4,2.0)");
+    assertTrue(range.containsVersion(ComparableVersion.of("1.4")), "[1.4,2.0) should contain 1.4!");
+    assertTrue(
+        range.containsVersion(ComparableVersion.of("2.0-SNAPSHOT")),
+        "[1.4,2.0) should contain 2.0-SNAPSHOT!");
+    assertFalse(
+        range.containsVersion(ComparableVersion.of("2.0")), "[1.4,2.0) should not contain 2.0!");
+
+    range = VersionRange.parse("(,1.0],[1.2,)");
+    assertTrue(range.containsVersion(ComparableVersion.of("0.1")), range + " should contain 0.1!");
+    assertFalse(
+        range.containsVersion(ComparableVersion.of("1.1")), range + " should not contain 1.1!");
+    assertTrue(range.containsVersion(ComparableVersion.of("3")), range + " should contain 3!");
+
+    range = VersionRange.parse("1.4");
+    assertTrue(range.containsVersion(ComparableVersion.of("1.4")), "1.4 should contain 1.4!");
+    assertFalse(range.containsVersion(ComparableVersion.of("1.5")), "1.4 should not contain 1.5!");
+
+    for (String spec : new String[] {"", "[1.0", "(1.0)", "[2.0,1.0]", "[1.0,2.0),", "[1,),[2,)"})
+      assertThrows(
+          InvalidVersionRangeException.class,
+          () -> VersionRange.parse(spec),
+          "Parsing '" + spec + "' should throw an exception, but it does not!");
+  }
+
+  /**
+   * A {@link Test} that checks, if the {@link VersionIndex} answers range queries correctly.
+   *
+   * @throws InvalidVersionRangeException if a range specification cannot be parsed.
+   * @since 0.3.0
+   */
+  @Test
+  void queryIndex() throws InvalidVersionRangeException {
+    List<ComparableVersion> versions = new ArrayList<>();
+    for (String version : VERSIONS) versions.add(ComparableVersion.of(version));
+    VersionIndex index = VersionIndex.of(versions);
+
+    assertEquals(9, index.size(), "Duplicate versions should be removed from the index!");
+    assertEquals(
+        ComparableVersion.of("1.9.9"),
+        index.getHighest(VersionRange.parse("[1.4,2.0)"), VersionIndex.RELEASES),
+        "The highest release in [1.4,2.0) should be 1.9.9!");
+    assertEquals(
+        ComparableVersion.of("2.0-SNAPSHOT"),
+        index.getHighest(VersionRange.parse("[1.4,2.0)"), VersionIndex.ANY),
+        "The highest version in [1.4,2.0) should be 2.0-SNAPSHOT!");
+    assertEquals(
+        ComparableVersion.of("1.4"),
+        index.getLowest(VersionRange.parse("(1.3,2.0]"), VersionIndex.RELEASES),
+        "The lowest release in (1.3,2.0] should be 1.4!");
+    assertEquals(
+        Arrays.asList(ComparableVersion.of("0.9"), ComparableVersion.of("2.1")),
+        index.getVersions(VersionRange.parse("(,1.0],(2.0,)"), VersionIndex.ANY),
+        "The versions in (,1.0],(2.0,) should be 0.9 and 2.1!");
+    assertNull(
+        index.getHighest(VersionRange.parse("[3.0,)"), VersionIndex.ANY),
+        "There should be no version in [3.0,)!");
+    assertTrue(index.contains(ComparableVersion.of("1.4.1")), "The index should contain 1.4.1!");
+  }
+}
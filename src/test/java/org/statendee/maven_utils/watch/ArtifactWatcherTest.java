@@ -0,0 +1,154 @@
+/*
+Copyright 2021 Statendee (statendee.org)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package org.statendee.maven_utils.watch;
+
+import org.junit.jupiter.api.Test;
+import org.statendee.maven_utils.MavenArtifact;
+import org.statendee.maven_utils.metadata.ArtifactMetadata;
+import org.statendee.maven_utils.metadata.SnapshotMetadata;
+import org.statendee.maven_utils.metadata.Validators;
+import org.statendee.maven_utils.version.ComparableVersion;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class that contains {@link Test}s to test the {@link ArtifactWatcher} class.
+ *
+ * @author jojomatik
+ * @version 0.3.0
+ * @since 0.3.0
+ */
+class ArtifactWatcherTest {
+
+  /**
+   * A {@link Test} that checks, if intervals shorter than one millisecond are rejected.
+   *
+   * @since 0.3.0
+   */
+  @Test
+  void rejectSubMillisecondInterval() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ArtifactWatcher(1, Duration.ofNanos(500_000), Duration.ofMillis(40)),
+        "A sub-millisecond interval should be rejected, but it is not!");
+  }
+
+  /**
+   * A {@link Test} that checks, if listeners are only notified on changes and if unchanged metadata
+   * extends the polling interval.
+   *
+   * @throws InterruptedException if the test is interrupted while waiting for an update.
+   * @since 0.3.0
+   */
+  @Test
+  void notifyOnChange() throws InterruptedException {
+    MockArtifact artifact = new MockArtifact();
+    BlockingQueue<ArtifactUpdate> updates = new LinkedBlockingQueue<>();
+
+    try (ArtifactWatcher watcher =
+        new ArtifactWatcher(1, Duration.ofMillis(5), Duration.ofMillis(40))) {
+      ArtifactWatcher.Watch watch = watcher.watch(artifact, updates::add);
+      assertEquals(1, watcher.getWatchCount(), "One artifact should be watched, but it is not!");
+
+      // Wait until the interval reached its maximum, i.e. several unchanged polls happened.
+      long deadline = System.currentTimeMillis() + 5000;
+      while (watch.getInterval().toMillis() < 40 && System.currentTimeMillis() < deadline)
+        Thread.sleep(5);
+      assertEquals(
+          Duration.ofMillis(40),
+          watch.getInterval(),
+          "The interval should grow to its maximum while nothing changes, but it does not!");
+      assertTrue(updates.isEmpty(), "No update should be reported while nothing changes!");
+      assertEquals(ComparableVersion.of("1.0"), watch.getRelease(), "The release should be 1.0!");
+
+      // Publish a new snapshot build.
+      artifact.snapshotBuild = "1.1-SNAPSHOT-20211215.173200-2";
+      artifact.modification.incrementAndGet();
+      ArtifactUpdate update = updates.poll(5, TimeUnit.SECONDS);
+      assertNotNull(update, "The new snapshot build should be reported, but it is not!");
+      assertTrue(update.isSnapshotBuildChanged(), "The snapshot build should have changed!");
+      assertFalse(update.isReleaseChanged(), "The release should not have changed!");
+      assertEquals(
+          ComparableVersion.of("1.1-SNAPSHOT-20211215.173200-2"),
+          update.snapshotBuild,
+          "The reported snapshot build should match the new build, but it does not!");
+
+      watch.cancel();
+      assertEquals(0, watcher.getWatchCount(), "No artifact should be watched after cancelling!");
+    }
+  }
+
+  /**
+   * A {@link MavenArtifact} that returns mock metadata and answers conditional requests.
+   *
+   * @since 0.3.0
+   */
+  private static class MockArtifact extends MavenArtifact {
+
+    /**
+     * A counter that is incremented on every change, used as the {@code ETag}.
+     *
+     * @since 0.3.0
+     */
+    private final AtomicInteger modification = new AtomicInteger();
+
+    /**
+     * The latest snapshot build.
+     *
+     * @since 0.3.0
+     */
+    private volatile String snapshotBuild = "1.1-SNAPSHOT-20211215.173200-1";
+
+    /**
+     * Creates an instance of {@link MockArtifact}.
+     *
+     * @since 0.3.0
+     */
+    private MockArtifact() {
+      super("https://localhost", "test", "test-watch");
+    }
+
+    @Override
+    public ArtifactMetadata getMetadata(ArtifactMetadata cached) {
+      if (cached != null) return cached;
+      return new ArtifactMetadata(
+          ComparableVersion.of("1.0"),
+          ComparableVersion.of("1.1-SNAPSHOT"),
+          null,
+          Collections.singletonList(ComparableVersion.of("1.0")),
+          new Validators("\"main\"", null));
+    }
+
+    @Override
+    public SnapshotMetadata getSnapshotMetadata(
+        ComparableVersion snapshotVersion, SnapshotMetadata cached) {
+      String etag = String.valueOf(modification.get());
+      if (cached != null && etag.equals(cached.validators.etag)) return cached;
+      return new SnapshotMetadata(
+          snapshotVersion,
+          ComparableVersion.of(snapshotBuild),
+          Collections.emptyList(),
+          new Validators(etag, null));
+    }
+  }
+}